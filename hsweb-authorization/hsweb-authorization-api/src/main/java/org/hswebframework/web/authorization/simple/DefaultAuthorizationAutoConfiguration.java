@@ -9,6 +9,7 @@ import org.hswebframework.web.authorization.simple.builder.DataAccessConfigConve
 import org.hswebframework.web.authorization.simple.builder.SimpleAuthenticationBuilderFactory;
 import org.hswebframework.web.authorization.simple.builder.SimpleDataAccessConfigBuilderFactory;
 import org.hswebframework.web.authorization.token.DefaultUserTokenManager;
+import org.hswebframework.web.authorization.token.TimingWheelUserTokenManager;
 import org.hswebframework.web.authorization.token.UserTokenAuthenticationSupplier;
 import org.hswebframework.web.authorization.token.UserTokenManager;
 import org.hswebframework.web.authorization.twofactor.TwoFactorValidatorManager;
@@ -17,6 +18,7 @@ import org.hswebframework.web.convert.CustomMessageConverter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -32,6 +34,14 @@ public class DefaultAuthorizationAutoConfiguration {
     @Autowired(required = false)
     private List<DataAccessConfigConvert> dataAccessConfigConverts;
 
+    @Bean(initMethod = "startup", destroyMethod = "shutdown")
+    @ConditionalOnMissingBean(UserTokenManager.class)
+    @ConditionalOnProperty(prefix = "hsweb.authorize", name = "token-manager", havingValue = "timing-wheel")
+    @ConfigurationProperties(prefix = "hsweb.authorize")
+    public TimingWheelUserTokenManager timingWheelUserTokenManager() {
+        return new TimingWheelUserTokenManager();
+    }
+
     @Bean
     @ConditionalOnMissingBean(UserTokenManager.class)
     @ConfigurationProperties(prefix = "hsweb.authorize")
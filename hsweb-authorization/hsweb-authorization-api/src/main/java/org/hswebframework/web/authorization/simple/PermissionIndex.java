@@ -0,0 +1,158 @@
+package org.hswebframework.web.authorization.simple;
+
+import org.hswebframework.web.authorization.Authentication;
+import org.hswebframework.web.authorization.Permission;
+import org.hswebframework.web.authorization.Role;
+import org.hswebframework.web.authorization.access.DataAccessConfig;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 用户权限索引,按权限ID索引权限信息,并将可操作事件(action)转为位图,用于快速判断权限.
+ * <p>
+ * 索引只读,权限信息变更后需要重新创建.{@link SimpleAuthentication}会缓存自己的索引.
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ * @see SimpleAuthentication#permissionIndex()
+ */
+public class PermissionIndex {
+
+    private static final Map<String, Integer> ACTION_CODES = new ConcurrentHashMap<>();
+
+    private static final AtomicInteger ACTION_CODE_COUNTER = new AtomicInteger();
+
+    private static final BitSet EMPTY_ACTIONS = new BitSet(0);
+
+    private final Map<String, Permission> permissions;
+
+    private final Map<String, BitSet> actions;
+
+    private final Map<String, Map<String, List<DataAccessConfig>>> dataAccesses;
+
+    private final Set<String> roles;
+
+    /**
+     * 获取action对应的位,相同的action在整个应用中对应的位相同
+     *
+     * @param action action
+     * @return 位索引
+     */
+    public static int actionCode(String action) {
+        return ACTION_CODES.computeIfAbsent(action, key -> ACTION_CODE_COUNTER.getAndIncrement());
+    }
+
+    /**
+     * 将多个action转为位图
+     *
+     * @param actions action集合
+     * @return 位图
+     */
+    public static BitSet actionBits(Collection<String> actions) {
+        BitSet bits = new BitSet();
+        for (String action : actions) {
+            bits.set(actionCode(action));
+        }
+        return bits;
+    }
+
+    /**
+     * 获取权限索引,如果是{@link SimpleAuthentication}则使用缓存的索引
+     *
+     * @param authentication 权限信息
+     * @return 权限索引
+     */
+    public static PermissionIndex of(Authentication authentication) {
+        if (authentication instanceof SimpleAuthentication) {
+            return ((SimpleAuthentication) authentication).permissionIndex();
+        }
+        return new PermissionIndex(authentication.getPermissions(), authentication.getRoles());
+    }
+
+    public PermissionIndex(Collection<Permission> permissions, Collection<Role> roles) {
+        Map<String, Permission> permissionMap = new HashMap<>();
+        Map<String, BitSet> actionMap = new HashMap<>();
+        Map<String, Map<String, List<DataAccessConfig>>> dataAccessMap = new HashMap<>();
+        if (permissions != null) {
+            for (Permission permission : permissions) {
+                permissionMap.putIfAbsent(permission.getId(), permission);
+                actionMap.computeIfAbsent(permission.getId(), id -> new BitSet())
+                        .or(actionBits(permission.getActions()));
+                Set<DataAccessConfig> configs = permission.getDataAccesses();
+                if (configs != null && !configs.isEmpty()) {
+                    Map<String, List<DataAccessConfig>> actionConfigs = dataAccessMap.computeIfAbsent(permission.getId(), id -> new HashMap<>());
+                    for (DataAccessConfig config : configs) {
+                        actionConfigs.computeIfAbsent(config.getAction(), action -> new ArrayList<>()).add(config);
+                    }
+                }
+            }
+        }
+        Set<String> roleIds = new HashSet<>();
+        if (roles != null) {
+            for (Role role : roles) {
+                roleIds.add(role.getId());
+            }
+        }
+        this.permissions = permissionMap;
+        this.actions = actionMap;
+        this.dataAccesses = dataAccessMap;
+        this.roles = roleIds;
+    }
+
+    /**
+     * @param permissionId 权限ID
+     * @return 权限信息, 未持有时返回null
+     */
+    public Permission getPermission(String permissionId) {
+        return permissions.get(permissionId);
+    }
+
+    public boolean hasPermission(String permissionId) {
+        return permissions.containsKey(permissionId);
+    }
+
+    /**
+     * @param permissionId 权限ID
+     * @return 持有的action位图, 未持有此权限时返回空位图. 不能对返回值进行修改
+     */
+    public BitSet getActions(String permissionId) {
+        BitSet bits = actions.get(permissionId);
+        return bits == null ? EMPTY_ACTIONS : bits;
+    }
+
+    /**
+     * @param permissionId 权限ID
+     * @param actions      action位图
+     * @return 是否持有任意一个action
+     */
+    public boolean hasAnyAction(String permissionId, BitSet actions) {
+        return getActions(permissionId).intersects(actions);
+    }
+
+    /**
+     * @param permissionId 权限ID
+     * @param action       action
+     * @return 此权限下指定action的数据权限配置, 不能对返回值进行修改
+     */
+    public List<DataAccessConfig> getDataAccesses(String permissionId, String action) {
+        Map<String, List<DataAccessConfig>> actionConfigs = dataAccesses.get(permissionId);
+        if (actionConfigs == null) {
+            return Collections.emptyList();
+        }
+        List<DataAccessConfig> configs = actionConfigs.get(action);
+        return configs == null ? Collections.emptyList() : configs;
+    }
+
+    public boolean hasRole(String roleId) {
+        return roles.contains(roleId);
+    }
+
+    /**
+     * @return 持有的角色ID, 不能对返回值进行修改
+     */
+    public Set<String> getRoles() {
+        return roles;
+    }
+}
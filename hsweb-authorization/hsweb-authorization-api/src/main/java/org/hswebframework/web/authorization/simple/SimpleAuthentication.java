@@ -34,6 +34,8 @@ public class SimpleAuthentication implements Authentication {
 
     private Map<String, Serializable> attributes = new HashMap<>();
 
+    private transient volatile PermissionIndex permissionIndex;
+
     @Override
     public User getUser() {
         return user;
@@ -45,10 +47,38 @@ public class SimpleAuthentication implements Authentication {
 
     public void setRoles(List<Role> roles) {
         this.roles = roles;
+        this.permissionIndex = null;
     }
 
     public void setPermissions(List<Permission> permissions) {
         this.permissions = permissions;
+        this.permissionIndex = null;
+    }
+
+    /**
+     * 获取权限索引,第一次调用时创建
+     *
+     * @return 权限索引
+     */
+    public PermissionIndex permissionIndex() {
+        PermissionIndex index = permissionIndex;
+        if (index == null) {
+            permissionIndex = index = new PermissionIndex(permissions, roles);
+        }
+        return index;
+    }
+
+    @Override
+    public Optional<Permission> getPermission(String id) {
+        if (null == id) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(permissionIndex().getPermission(id));
+    }
+
+    @Override
+    public boolean hasRole(String roleId) {
+        return roleId != null && permissionIndex().hasRole(roleId);
     }
 
     @Override
@@ -87,23 +87,34 @@ public class DefaultUserTokenManager implements UserTokenManager {
     }
 
     protected Set<String> getUserToken(String userId) {
-        return userStorage.computeIfAbsent(userId, key -> new HashSet<>());
+        return userStorage.computeIfAbsent(userId, key -> ConcurrentHashMap.newKeySet());
     }
 
-    private SimpleUserToken checkTimeout(SimpleUserToken detail) {
+    protected SimpleUserToken checkTimeout(SimpleUserToken detail) {
         if (null == detail) {
             return null;
         }
         if (detail.getMaxInactiveInterval() <= 0) {
             return detail;
         }
-        if (System.currentTimeMillis() - detail.getLastRequestTime() > detail.getMaxInactiveInterval()) {
+        if (isTimeout(detail, System.currentTimeMillis())) {
             changeTokenState(detail, TokenState.expired);
             return detail;
         }
         return detail;
     }
 
+    /**
+     * 判断令牌是否已超过最大不活动时间
+     *
+     * @param detail 令牌
+     * @param now    当前时间
+     * @return 是否超时
+     */
+    protected boolean isTimeout(UserToken detail, long now) {
+        return now - detail.getLastRequestTime() > detail.getMaxInactiveInterval();
+    }
+
     @Override
     public SimpleUserToken getByToken(String token) {
         if (token == null) {
@@ -191,13 +202,11 @@ public class DefaultUserTokenManager implements UserTokenManager {
         if (tokenObject != null) {
             String userId = tokenObject.getUserId();
             if (removeUserToken) {
-                Set<String> tokens = getUserToken(userId);
-                if (!tokens.isEmpty()) {
-                    tokens.remove(token);
-                }
-                if (tokens.isEmpty()) {
-                    userStorage.remove(tokenObject.getUserId());
-                }
+                //在同一个原子操作中移除token和空的集合,避免并发登录时新的token添加到已经移除的集合中
+                userStorage.computeIfPresent(userId, (key, userTokens) -> {
+                    userTokens.remove(token);
+                    return userTokens.isEmpty() ? null : userTokens;
+                });
             }
             publishEvent(new UserTokenRemovedEvent(tokenObject));
         }
@@ -264,7 +273,11 @@ public class DefaultUserTokenManager implements UserTokenManager {
         detail.setState(TokenState.normal);
         tokenStorage.put(token, detail);
 
-        getUserToken(userId).add(token);
+        userStorage.compute(userId, (key, userTokens) -> {
+            Set<String> tokens = userTokens == null ? ConcurrentHashMap.newKeySet() : userTokens;
+            tokens.add(token);
+            return tokens;
+        });
 
         publishEvent(new UserTokenCreatedEvent(detail));
         return detail;
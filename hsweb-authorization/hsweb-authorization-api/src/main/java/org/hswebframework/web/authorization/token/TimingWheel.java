@@ -0,0 +1,154 @@
+package org.hswebframework.web.authorization.token;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 分层时间轮,用于按到期时间调度任务,添加和到期处理的时间复杂度都与总数量无关.
+ * <p>
+ * 第0层每个槽位的时间跨度为tickMillis,上一层每个槽位的时间跨度为下一层的总跨度(tickMillis*wheelSize),
+ * 超出当前层跨度的数据会放入上一层,上一层的槽位开始时会降级到下一层.
+ * <p>
+ * 只有到期时间已经完全过去的数据才会由{@link #advance(long)}返回,不会提前返回.
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+public class TimingWheel<T> {
+
+    private final Level<T> root;
+
+    private int size;
+
+    public TimingWheel(long tickMillis, int wheelSize, long startTime) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tickMillis and wheelSize must be greater than 0");
+        }
+        this.root = new Level<>(tickMillis, wheelSize, startTime, true);
+    }
+
+    /**
+     * 添加数据
+     *
+     * @param value    数据
+     * @param deadline 到期时间
+     * @return 如果已经到期则返回<code>false</code>,数据不会被添加
+     */
+    public synchronized boolean add(T value, long deadline) {
+        if (root.add(new Entry<>(value, deadline))) {
+            size++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 推进时间轮到指定的时间,并返回已到期的数据
+     *
+     * @param now 当前时间
+     * @return 已到期的数据
+     */
+    public synchronized List<T> advance(long now) {
+        List<Entry<T>> flushed = new ArrayList<>();
+        for (Level<T> level = root; level != null; level = level.overflow) {
+            level.advance(now, flushed);
+        }
+        List<T> expired = new ArrayList<>();
+        for (Entry<T> entry : flushed) {
+            //降级到下一层,下一层无法放入则说明已经到期
+            if (!root.add(entry)) {
+                size--;
+                expired.add(entry.value);
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * @return 时间轮中的数据数量
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    static final class Entry<T> {
+        private final T value;
+
+        private final long deadline;
+
+        Entry(T value, long deadline) {
+            this.value = value;
+            this.deadline = deadline;
+        }
+    }
+
+    static final class Level<T> {
+        private final long tick;
+
+        private final int wheelSize;
+
+        private final long interval;
+
+        //第0层槽位结束后才到期,上层槽位开始时就降级
+        private final boolean bottom;
+
+        private final List<Entry<T>>[] buckets;
+
+        private long currentTime;
+
+        private Level<T> overflow;
+
+        @SuppressWarnings("unchecked")
+        Level(long tick, int wheelSize, long startTime, boolean bottom) {
+            this.tick = tick;
+            this.wheelSize = wheelSize;
+            this.interval = tick * wheelSize;
+            this.bottom = bottom;
+            this.currentTime = startTime - (startTime % tick);
+            this.buckets = new List[wheelSize];
+        }
+
+        boolean add(Entry<T> entry) {
+            if (bottom && entry.deadline < currentTime) {
+                return false;
+            }
+            if (entry.deadline < currentTime + interval) {
+                int index = (int) ((entry.deadline / tick) % wheelSize);
+                List<Entry<T>> bucket = buckets[index];
+                if (bucket == null) {
+                    buckets[index] = bucket = new ArrayList<>();
+                }
+                bucket.add(entry);
+                return true;
+            }
+            if (overflow == null) {
+                overflow = new Level<>(interval, wheelSize, currentTime, false);
+            }
+            return overflow.add(entry);
+        }
+
+        void advance(long now, List<Entry<T>> flushed) {
+            long oldId = currentTime / tick;
+            long newId = now / tick;
+            if (newId <= oldId) {
+                return;
+            }
+            currentTime = newId * tick;
+            //第0层清空[oldId,newId)的槽位,上层清空(oldId,newId]的槽位
+            long from = bottom ? oldId : oldId + 1;
+            long to = bottom ? newId - 1 : newId;
+            if (to - from + 1 >= wheelSize) {
+                from = 0;
+                to = wheelSize - 1;
+            }
+            for (long id = from; id <= to; id++) {
+                int index = (int) (id % wheelSize);
+                List<Entry<T>> bucket = buckets[index];
+                if (bucket != null) {
+                    flushed.addAll(bucket);
+                    buckets[index] = null;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package org.hswebframework.web.authorization.token;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 使用分层时间轮{@link TimingWheel}检查过期令牌的用户令牌管理器.
+ * <p>
+ * 令牌按<code>lastRequestTime + maxInactiveInterval</code>放入时间轮,检查过期令牌时只处理到期的令牌,
+ * 而不是遍历全部令牌.{@link #touch(String)}只更新最后请求时间,不会操作时间轮:
+ * 令牌到期时如果发现期间有过请求,则按新的到期时间重新放入时间轮.
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+@Slf4j
+public class TimingWheelUserTokenManager extends DefaultUserTokenManager {
+
+    private final TimingWheel<String> timingWheel;
+
+    private ScheduledExecutorService executorService;
+
+    //自动检查过期令牌的间隔,小于等于0时不自动检查
+    private long checkExpiredInterval = 1000;
+
+    public TimingWheelUserTokenManager() {
+        this(1000, 64);
+    }
+
+    /**
+     * @param tickMillis 时间轮每个槽位的时间跨度
+     * @param wheelSize  时间轮每一层的槽位数量
+     */
+    public TimingWheelUserTokenManager(long tickMillis, int wheelSize) {
+        super(new ConcurrentHashMap<>(1024, 0.75F, Runtime.getRuntime().availableProcessors() * 4),
+                new ConcurrentHashMap<>(1024, 0.75F, Runtime.getRuntime().availableProcessors() * 4));
+        this.timingWheel = new TimingWheel<>(tickMillis, wheelSize, System.currentTimeMillis());
+    }
+
+    public void setCheckExpiredInterval(long checkExpiredInterval) {
+        this.checkExpiredInterval = checkExpiredInterval;
+    }
+
+    public long getCheckExpiredInterval() {
+        return checkExpiredInterval;
+    }
+
+    /**
+     * @return 时间轮中等待检查的令牌数量
+     */
+    public int getScheduledTokenSize() {
+        return timingWheel.size();
+    }
+
+    /**
+     * 启动自动检查过期令牌的后台线程
+     */
+    public synchronized void startup() {
+        if (executorService != null || checkExpiredInterval <= 0) {
+            return;
+        }
+        executorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hsweb-user-token-expired-checker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executorService.scheduleWithFixedDelay(() -> {
+            try {
+                checkExpiredToken();
+            } catch (Exception e) {
+                log.error("check expired user token error", e);
+            }
+        }, checkExpiredInterval, checkExpiredInterval, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void shutdown() {
+        if (executorService != null) {
+            executorService.shutdownNow();
+            executorService = null;
+        }
+    }
+
+    @Override
+    public UserToken signIn(String token, String type, String userId, long maxInactiveInterval) {
+        UserToken userToken = super.signIn(token, type, userId, maxInactiveInterval);
+        schedule(userToken);
+        return userToken;
+    }
+
+    private void schedule(UserToken userToken) {
+        if (userToken.getMaxInactiveInterval() > 0) {
+            timingWheel.add(userToken.getToken(), userToken.getLastRequestTime() + userToken.getMaxInactiveInterval());
+        }
+    }
+
+    @Override
+    public void checkExpiredToken() {
+        long now = System.currentTimeMillis();
+        List<String> tokens = timingWheel.advance(now);
+        for (String token : tokens) {
+            SimpleUserToken userToken = tokenStorage.get(token);
+            //已经退出登录
+            if (userToken == null || userToken.getMaxInactiveInterval() <= 0) {
+                continue;
+            }
+            if (userToken.isExpired()) {
+                signOutByToken(token);
+            } else if (isTimeout(userToken, now)) {
+                changeTokenState(userToken, TokenState.expired);
+                signOutByToken(token);
+            } else {
+                //到期前有过请求,按新的到期时间重新放入
+                schedule(userToken);
+            }
+        }
+    }
+}
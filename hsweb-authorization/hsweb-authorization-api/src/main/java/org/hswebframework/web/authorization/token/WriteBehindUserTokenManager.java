@@ -0,0 +1,214 @@
+package org.hswebframework.web.authorization.token;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hswebframework.web.authorization.token.event.UserTokenRemovedEvent;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 延迟批量同步{@link #touch(String)}的用户令牌管理器,适用于令牌存储在redis,数据库等外部存储中的场景.
+ * <p>
+ * 同一个刷新周期内对同一个令牌的多次touch只会同步一次,由后台线程通过{@link #syncTokens(Collection)}批量同步.
+ * 状态变更等其他操作依然立即同步.
+ * <p>
+ * 令牌在同步完成前会一直保留在等待队列中,期间外部存储中的最后请求时间可能落后两个刷新周期
+ * (一个等待周期和一个正在同步的周期),所以判断等待同步的令牌是否过期时会额外宽限两个刷新周期,
+ * 其他令牌不宽限.
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+@Slf4j
+public class WriteBehindUserTokenManager extends DefaultUserTokenManager {
+
+    private final ConcurrentMap<String, SimpleUserToken> pendingTouches = new ConcurrentHashMap<>();
+
+    private final LongAdder suppressedWrites = new LongAdder();
+
+    private final LongAdder flushedWrites = new LongAdder();
+
+    private ScheduledExecutorService executorService;
+
+    //刷新周期,毫秒
+    private long flushInterval = 5000;
+
+    public WriteBehindUserTokenManager() {
+    }
+
+    public WriteBehindUserTokenManager(ConcurrentMap<String, SimpleUserToken> tokenStorage) {
+        super(tokenStorage);
+    }
+
+    public WriteBehindUserTokenManager(ConcurrentMap<String, SimpleUserToken> tokenStorage, ConcurrentMap<String, Set<String>> userStorage) {
+        super(tokenStorage, userStorage);
+    }
+
+    public void setFlushInterval(long flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    public long getFlushInterval() {
+        return flushInterval;
+    }
+
+    /**
+     * @return 被合并而没有同步到存储的touch次数
+     */
+    public long getSuppressedWrites() {
+        return suppressedWrites.sum();
+    }
+
+    /**
+     * @return 由touch产生的实际同步次数
+     */
+    public long getFlushedWrites() {
+        return flushedWrites.sum();
+    }
+
+    /**
+     * @return 等待同步的令牌数量
+     */
+    public int getPendingSize() {
+        return pendingTouches.size();
+    }
+
+    public synchronized void startup() {
+        if (executorService != null) {
+            return;
+        }
+        executorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hsweb-user-token-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executorService.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (Exception e) {
+                log.error("sync user token error", e);
+            }
+        }, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void shutdown() {
+        if (executorService != null) {
+            executorService.shutdownNow();
+            executorService = null;
+        }
+        flush();
+    }
+
+    /**
+     * 立即同步所有等待中的令牌.同步完成后才从等待队列中移除,同步期间再次touch的令牌会保留到下一次同步
+     */
+    public synchronized void flush() {
+        if (pendingTouches.isEmpty()) {
+            return;
+        }
+        List<SimpleUserToken> tokens = new ArrayList<>(pendingTouches.size());
+        List<Long> requestTimes = new ArrayList<>(pendingTouches.size());
+        for (SimpleUserToken userToken : pendingTouches.values()) {
+            tokens.add(userToken);
+            requestTimes.add(userToken.getRequestTimes());
+        }
+        if (tokens.isEmpty()) {
+            return;
+        }
+        syncTokens(tokens);
+        flushedWrites.add(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            SimpleUserToken userToken = tokens.get(i);
+            long times = requestTimes.get(i);
+            //与touch在同一个原子操作中判断,快照之后被touch过的令牌继续等待下一次同步
+            pendingTouches.computeIfPresent(userToken.getToken(), (token, pending) ->
+                    pending == userToken && pending.getRequestTimes() == times ? null : pending);
+        }
+    }
+
+    /**
+     * 批量同步令牌,使用外部存储时建议重写此方法进行批量写入
+     *
+     * @param tokens 令牌集合
+     */
+    protected void syncTokens(Collection<SimpleUserToken> tokens) {
+        tokens.forEach(this::syncToken);
+    }
+
+    @Override
+    public void touch(String token) {
+        //在map的原子操作中touch,避免flush同时移除等待中的令牌导致这次touch没有被同步
+        if (pendingTouches.computeIfPresent(token, (key, pending) -> {
+            pending.touch();
+            return pending;
+        }) != null) {
+            suppressedWrites.increment();
+            return;
+        }
+        SimpleUserToken userToken = tokenStorage.get(token);
+        if (userToken == null) {
+            return;
+        }
+        boolean[] queued = new boolean[1];
+        pendingTouches.compute(token, (key, pending) -> {
+            if (pending == null) {
+                queued[0] = true;
+                pending = userToken;
+            }
+            pending.touch();
+            return pending;
+        });
+        if (!queued[0]) {
+            suppressedWrites.increment();
+        }
+    }
+
+    @Override
+    public SimpleUserToken getByToken(String token) {
+        if (token == null) {
+            return null;
+        }
+        SimpleUserToken pending = pendingTouches.get(token);
+        if (pending != null) {
+            return checkTimeout(pending);
+        }
+        return super.getByToken(token);
+    }
+
+    @Override
+    protected boolean isTimeout(UserToken detail, long now) {
+        long grace = pendingTouches.containsKey(detail.getToken()) ? flushInterval * 2 : 0;
+        return now - detail.getLastRequestTime() > detail.getMaxInactiveInterval() + grace;
+    }
+
+    @Override
+    public void changeTokenState(SimpleUserToken userToken, TokenState state) {
+        if (null != userToken) {
+            //状态变更会立即同步,同时带上等待中的请求时间
+            SimpleUserToken pending = pendingTouches.remove(userToken.getToken());
+            if (pending != null && pending != userToken) {
+                userToken.setLastRequestTime(Math.max(userToken.getLastRequestTime(), pending.getLastRequestTime()));
+                userToken.setRequestTimes(Math.max(userToken.getRequestTimes(), pending.getRequestTimes()));
+            }
+        }
+        super.changeTokenState(userToken, state);
+    }
+
+    @Override
+    protected void publishEvent(ApplicationEvent event) {
+        if (event instanceof UserTokenRemovedEvent) {
+            //令牌已删除,不再同步
+            pendingTouches.remove(((UserTokenRemovedEvent) event).getDetail().getToken());
+        }
+        super.publishEvent(event);
+    }
+}
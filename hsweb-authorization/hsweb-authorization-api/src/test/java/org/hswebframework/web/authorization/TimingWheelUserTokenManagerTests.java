@@ -0,0 +1,64 @@
+package org.hswebframework.web.authorization;
+
+import org.hswebframework.web.authorization.token.TimingWheel;
+import org.hswebframework.web.authorization.token.TimingWheelUserTokenManager;
+import org.hswebframework.web.authorization.token.UserToken;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TimingWheelUserTokenManagerTests {
+
+    /**
+     * 时间轮只返回已经到期的数据,并且跨层的数据能正确降级
+     */
+    @Test
+    public void testTimingWheel() {
+        TimingWheel<Integer> wheel = new TimingWheel<>(10, 8, 0);
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertTrue(wheel.add(i, i * 10 + 5));
+        }
+        Assert.assertEquals(1000, wheel.size());
+
+        List<Integer> expired = new ArrayList<>();
+        for (long now = 0; now <= 10010; now += 7) {
+            for (Integer value : wheel.advance(now)) {
+                //不会提前到期
+                Assert.assertTrue(value * 10 + 5 < now);
+                expired.add(value);
+            }
+        }
+        Assert.assertEquals(1000, expired.size());
+        Assert.assertEquals(0, wheel.size());
+        //已到期的数据不能添加
+        Assert.assertFalse(wheel.add(1, 100));
+    }
+
+    @Test
+    public void testExpired() throws InterruptedException {
+        TimingWheelUserTokenManager userTokenManager = new TimingWheelUserTokenManager(50, 16);
+
+        UserToken userToken = userTokenManager.signIn("test", "sessionId", "admin", 300);
+        userTokenManager.signIn("test2", "sessionId", "admin", 30000);
+        Assert.assertEquals(2, userTokenManager.getScheduledTokenSize());
+
+        //持续请求的令牌不会过期
+        for (int i = 0; i < 5; i++) {
+            Thread.sleep(100);
+            userTokenManager.touch(userToken.getToken());
+            userTokenManager.checkExpiredToken();
+            Assert.assertTrue(userTokenManager.tokenIsLoggedIn(userToken.getToken()));
+        }
+
+        Thread.sleep(500);
+        userTokenManager.checkExpiredToken();
+
+        Assert.assertNull(userTokenManager.getByToken(userToken.getToken()));
+        Assert.assertEquals(1, userTokenManager.totalToken());
+        Assert.assertEquals(1, userTokenManager.totalUser());
+        Assert.assertEquals(1, userTokenManager.getScheduledTokenSize());
+    }
+
+}
@@ -5,6 +5,12 @@ import org.hswebframework.web.authorization.token.*;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
 public class UserTokenManagerTests {
 
 
@@ -88,5 +94,57 @@ public class UserTokenManagerTests {
 
     }
 
+    /**
+     * 测试最后一个token退出后移除用户
+     */
+    @Test
+    public void testSignOutLastToken() {
+        DefaultUserTokenManager userTokenManager = new DefaultUserTokenManager();
+        userTokenManager.signIn("test", "sessionId", "admin", 30000);
+        userTokenManager.signIn("test2", "sessionId", "admin", 30000);
+        Assert.assertEquals(userTokenManager.totalUser(), 1);
+
+        userTokenManager.signOutByToken("test");
+        Assert.assertEquals(userTokenManager.totalUser(), 1);
+        Assert.assertTrue(userTokenManager.userIsLoggedIn("admin"));
+
+        userTokenManager.signOutByToken("test2");
+        Assert.assertEquals(userTokenManager.totalToken(), 0);
+        Assert.assertEquals(userTokenManager.totalUser(), 0);
+    }
+
+    /**
+     * 测试并发登录和退出时不会丢失token
+     */
+    @Test
+    public void testConcurrentSignInAndSignOut() throws Exception {
+        DefaultUserTokenManager userTokenManager = new DefaultUserTokenManager();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] futures = new Future[4];
+            for (int i = 0; i < futures.length; i++) {
+                String prefix = "thread" + i + "-";
+                futures[i] = executor.submit(() -> {
+                    for (int j = 0; j < 10000; j++) {
+                        userTokenManager.signIn(prefix + j, "sessionId", "admin", 30000);
+                        userTokenManager.signOutByToken(prefix + j);
+                    }
+                    //每个线程最后保留一个token
+                    userTokenManager.signIn(prefix + "last", "sessionId", "admin", 30000);
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Set<String> tokens = userTokenManager.getByUserId("admin")
+                .stream()
+                .map(UserToken::getToken)
+                .collect(Collectors.toSet());
+        Assert.assertEquals(4, tokens.size());
+        Assert.assertEquals(4, userTokenManager.totalToken());
+    }
 
 }
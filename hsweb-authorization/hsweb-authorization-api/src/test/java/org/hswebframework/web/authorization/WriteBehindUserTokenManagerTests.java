@@ -0,0 +1,145 @@
+package org.hswebframework.web.authorization;
+
+import org.hswebframework.web.authorization.token.*;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class WriteBehindUserTokenManagerTests {
+
+    /**
+     * 模拟外部存储,每次同步都复制一份令牌写入
+     */
+    private static class InMemoryStore {
+        private final Map<String, SimpleUserToken> store = new ConcurrentHashMap<>();
+
+        private final AtomicLong writes = new AtomicLong();
+
+        void write(UserToken token) {
+            writes.incrementAndGet();
+            store.put(token.getToken(), ((SimpleUserToken) token).copy());
+        }
+    }
+
+    @Test
+    public void testWriteReduction() {
+        InMemoryStore directStore = new InMemoryStore();
+        DefaultUserTokenManager direct = new DefaultUserTokenManager() {
+            @Override
+            protected void syncToken(UserToken userToken) {
+                directStore.write(userToken);
+            }
+        };
+
+        InMemoryStore batchStore = new InMemoryStore();
+        WriteBehindUserTokenManager writeBehind = new WriteBehindUserTokenManager() {
+            @Override
+            protected void syncToken(UserToken userToken) {
+                batchStore.write(userToken);
+            }
+        };
+
+        for (int i = 0; i < 10; i++) {
+            direct.signIn("token" + i, "sessionId", "user" + i, 60000);
+            writeBehind.signIn("token" + i, "sessionId", "user" + i, 60000);
+        }
+        for (int times = 0; times < 100; times++) {
+            for (int i = 0; i < 10; i++) {
+                direct.touch("token" + i);
+                writeBehind.touch("token" + i);
+            }
+        }
+        Assert.assertEquals(1000, directStore.writes.get());
+        Assert.assertEquals(0, batchStore.writes.get());
+        Assert.assertEquals(10, writeBehind.getPendingSize());
+
+        writeBehind.flush();
+
+        Assert.assertEquals(10, batchStore.writes.get());
+        Assert.assertEquals(10, writeBehind.getFlushedWrites());
+        Assert.assertEquals(990, writeBehind.getSuppressedWrites());
+        Assert.assertEquals(100, batchStore.store.get("token0").getRequestTimes());
+        Assert.assertEquals(0, writeBehind.getPendingSize());
+    }
+
+    @Test
+    public void testSignOutDropPending() {
+        InMemoryStore store = new InMemoryStore();
+        WriteBehindUserTokenManager writeBehind = new WriteBehindUserTokenManager() {
+            @Override
+            protected void syncToken(UserToken userToken) {
+                store.write(userToken);
+            }
+        };
+        writeBehind.signIn("test", "sessionId", "admin", 60000);
+        writeBehind.touch("test");
+        writeBehind.signOutByToken("test");
+        writeBehind.flush();
+
+        Assert.assertEquals(0, store.writes.get());
+        Assert.assertNull(writeBehind.getByToken("test"));
+    }
+
+    /**
+     * 等待同步的令牌过期判断会宽限两个刷新周期,其他令牌不宽限
+     */
+    @Test
+    public void testExpiredGrace() throws InterruptedException {
+        WriteBehindUserTokenManager writeBehind = new WriteBehindUserTokenManager();
+        writeBehind.setFlushInterval(200);
+        writeBehind.signIn("test", "sessionId", "admin", 100);
+        writeBehind.signIn("other", "sessionId", "admin", 100);
+        writeBehind.touch("test");
+
+        Thread.sleep(300);
+        Assert.assertTrue(writeBehind.tokenIsLoggedIn("test"));
+        Assert.assertFalse(writeBehind.tokenIsLoggedIn("other"));
+
+        //同步后不再宽限
+        writeBehind.flush();
+        Assert.assertFalse(writeBehind.tokenIsLoggedIn("test"));
+    }
+
+    /**
+     * 同步期间被touch的令牌保留到下一次同步
+     */
+    @Test
+    public void testTouchWhileFlushing() {
+        InMemoryStore store = new InMemoryStore();
+        AtomicLong flushing = new AtomicLong();
+        WriteBehindUserTokenManager[] holder = new WriteBehindUserTokenManager[1];
+        WriteBehindUserTokenManager writeBehind = new WriteBehindUserTokenManager() {
+            @Override
+            protected void syncTokens(Collection<SimpleUserToken> tokens) {
+                if (flushing.getAndIncrement() == 0) {
+                    //模拟同步期间的请求
+                    holder[0].touch("test");
+                }
+                super.syncTokens(tokens);
+            }
+
+            @Override
+            protected void syncToken(UserToken userToken) {
+                store.write(userToken);
+            }
+        };
+        holder[0] = writeBehind;
+        writeBehind.signIn("test", "sessionId", "admin", 60000);
+        writeBehind.touch("test");
+        writeBehind.touch("test");
+
+        writeBehind.flush();
+        Assert.assertEquals(1, writeBehind.getPendingSize());
+        Assert.assertEquals(2, writeBehind.getSuppressedWrites());
+
+        writeBehind.touch("test");
+        writeBehind.flush();
+        Assert.assertEquals(0, writeBehind.getPendingSize());
+        Assert.assertEquals(2, store.writes.get());
+        Assert.assertEquals(4, store.store.get("test").getRequestTimes());
+    }
+}
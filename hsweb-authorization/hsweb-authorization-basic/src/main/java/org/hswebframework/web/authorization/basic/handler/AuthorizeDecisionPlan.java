@@ -0,0 +1,195 @@
+package org.hswebframework.web.authorization.basic.handler;
+
+import org.hswebframework.web.authorization.Authentication;
+import org.hswebframework.web.authorization.Role;
+import org.hswebframework.web.authorization.access.DataAccessConfig;
+import org.hswebframework.web.authorization.annotation.Logical;
+import org.hswebframework.web.authorization.basic.handler.expression.AuthorizeExpression;
+import org.hswebframework.web.authorization.basic.handler.expression.AuthorizeExpressionMetrics;
+import org.hswebframework.web.authorization.define.AuthorizeDefinition;
+import org.hswebframework.web.authorization.exception.AccessDenyException;
+import org.hswebframework.web.authorization.simple.PermissionIndex;
+import org.hswebframework.web.boost.aop.context.MethodInterceptorContext;
+
+import java.util.*;
+
+/**
+ * 根据{@link AuthorizeDefinition}预先编译的权限判断计划.
+ * <p>
+ * 权限和角色的判断通过{@link PermissionIndex}进行哈希查找和位运算,不再遍历用户的全部权限.
+ * 表达式在第一次执行时编译,并记录执行统计.
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+public class AuthorizeDecisionPlan {
+
+    private final AuthorizeDefinition definition;
+
+    private final boolean logicalIsOr;
+
+    private final String[] permissions;
+
+    private final String[] actions;
+
+    private final BitSet actionBits;
+
+    private final Set<String> roles;
+
+    private final String[] users;
+
+    private final AuthorizeExpressionMetrics expressionMetrics;
+
+    private volatile AuthorizeExpression expression;
+
+    public static AuthorizeDecisionPlan compile(AuthorizeDefinition definition) {
+        return new AuthorizeDecisionPlan(definition);
+    }
+
+    protected AuthorizeDecisionPlan(AuthorizeDefinition definition) {
+        this.definition = definition;
+        Logical logical = definition.getLogical() == Logical.DEFAULT ? Logical.OR : definition.getLogical();
+        this.logicalIsOr = logical == Logical.OR;
+        this.permissions = definition.getPermissions().toArray(new String[0]);
+        this.actions = definition.getActions().toArray(new String[0]);
+        this.actionBits = PermissionIndex.actionBits(definition.getActions());
+        this.roles = new HashSet<>(definition.getRoles());
+        this.users = definition.getUser().toArray(new String[0]);
+        this.expressionMetrics = definition.getScript() == null ? null : new AuthorizeExpressionMetrics();
+    }
+
+    public AuthorizeDefinition getDefinition() {
+        return definition;
+    }
+
+    /**
+     * 判断权限,角色和用户.同时配置了多种控制时,以最后一种(用户&gt;角色&gt;权限)的判断结果为准
+     *
+     * @param authentication 用户权限信息
+     * @return 是否有权限
+     */
+    public boolean checkRBAC(Authentication authentication) {
+        boolean access = true;
+        PermissionIndex index = null;
+        // 控制权限
+        if (permissions.length > 0) {
+            index = PermissionIndex.of(authentication);
+            int matched = 0;
+            for (String permission : permissions) {
+                if (!index.hasPermission(permission)) {
+                    continue;
+                }
+                //未配置action或者持有任意一个action
+                if (actions.length == 0 || index.hasAnyAction(permission, actionBits)) {
+                    matched++;
+                    if (logicalIsOr) {
+                        break;
+                    }
+                }
+            }
+            access = logicalIsOr ? matched > 0 : matched == permissions.length;
+        }
+        //控制角色
+        if (!roles.isEmpty()) {
+            if (logicalIsOr) {
+                if (index == null) {
+                    index = PermissionIndex.of(authentication);
+                }
+                access = false;
+                for (String role : index.getRoles()) {
+                    if (roles.contains(role)) {
+                        access = true;
+                        break;
+                    }
+                }
+            } else {
+                access = true;
+                for (Role role : authentication.getRoles()) {
+                    if (!roles.contains(role.getId())) {
+                        access = false;
+                        break;
+                    }
+                }
+            }
+        }
+        //控制用户
+        if (users.length > 0) {
+            String username = authentication.getUser().getUsername();
+            access = !logicalIsOr;
+            for (String user : users) {
+                if (logicalIsOr == username.equals(user)) {
+                    access = logicalIsOr;
+                    break;
+                }
+            }
+        }
+        return access;
+    }
+
+    /**
+     * 执行表达式权限控制,未配置表达式时返回<code>true</code>
+     *
+     * @param authentication 用户权限信息
+     * @param paramContext   方法参数上下文
+     * @return 是否有权限
+     */
+    public boolean checkExpression(Authentication authentication, MethodInterceptorContext paramContext) {
+        if (expressionMetrics == null) {
+            return true;
+        }
+        long startTime = System.nanoTime();
+        try {
+            boolean access = getExpression().evaluate(authentication, paramContext);
+            expressionMetrics.record(System.nanoTime() - startTime, access);
+            return access;
+        } catch (RuntimeException e) {
+            expressionMetrics.recordError(System.nanoTime() - startTime);
+            throw e;
+        }
+    }
+
+    protected AuthorizeExpression getExpression() {
+        AuthorizeExpression expression = this.expression;
+        if (expression == null) {
+            synchronized (this) {
+                if ((expression = this.expression) == null) {
+                    this.expression = expression = AuthorizeExpression.compile(definition.getScript());
+                }
+            }
+        }
+        return expression;
+    }
+
+    /**
+     * @return 表达式执行统计, 未配置表达式时返回<code>null</code>
+     */
+    public AuthorizeExpressionMetrics getExpressionMetrics() {
+        return expressionMetrics;
+    }
+
+    /**
+     * 获取用户在此定义下持有的数据权限配置
+     *
+     * @param authentication 用户权限信息
+     * @return 数据权限配置, 无配置时返回空集合
+     */
+    public Set<DataAccessConfig> getDataAccesses(Authentication authentication) {
+        if (permissions.length == 0 || actions.length == 0) {
+            return Collections.emptySet();
+        }
+        PermissionIndex index = PermissionIndex.of(authentication);
+        Set<DataAccessConfig> accesses = null;
+        for (String permission : permissions) {
+            for (String action : actions) {
+                List<DataAccessConfig> configs = index.getDataAccesses(permission, action);
+                if (!configs.isEmpty()) {
+                    if (accesses == null) {
+                        accesses = new LinkedHashSet<>();
+                    }
+                    accesses.addAll(configs);
+                }
+            }
+        }
+        return accesses == null ? Collections.emptySet() : accesses;
+    }
+}
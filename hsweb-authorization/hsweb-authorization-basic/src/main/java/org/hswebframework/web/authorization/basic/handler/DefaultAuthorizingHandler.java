@@ -1,15 +1,9 @@
 package org.hswebframework.web.authorization.basic.handler;
 
-import org.apache.commons.codec.digest.DigestUtils;
-import org.apache.commons.collections.CollectionUtils;
-import org.hswebframework.expands.script.engine.DynamicScriptEngine;
-import org.hswebframework.expands.script.engine.DynamicScriptEngineFactory;
 import org.hswebframework.web.authorization.Authentication;
-import org.hswebframework.web.authorization.Permission;
-import org.hswebframework.web.authorization.Role;
 import org.hswebframework.web.authorization.access.DataAccessConfig;
 import org.hswebframework.web.authorization.access.DataAccessController;
-import org.hswebframework.web.authorization.annotation.Logical;
+import org.hswebframework.web.authorization.basic.handler.expression.AuthorizeExpressionMetrics;
 import org.hswebframework.web.authorization.define.AuthorizeDefinition;
 import org.hswebframework.web.authorization.define.AuthorizingContext;
 import org.hswebframework.web.authorization.define.HandleType;
@@ -22,9 +16,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.*;
-import java.util.function.Function;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author zhouhao
@@ -37,6 +29,12 @@ public class DefaultAuthorizingHandler implements AuthorizingHandler {
 
     private ApplicationEventPublisher eventPublisher;
 
+    //按权限定义对象缓存判断计划,不使用equals,避免每次请求创建的权限定义比较全部属性
+    private Map<DefinitionKey, AuthorizeDecisionPlan> decisionPlans = new ConcurrentHashMap<>();
+
+    //缓存判断计划的最大数量
+    private int maxDecisionPlans = 4096;
+
     public DefaultAuthorizingHandler(DataAccessController dataAccessController) {
         this.dataAccessController = dataAccessController;
     }
@@ -48,6 +46,10 @@ public class DefaultAuthorizingHandler implements AuthorizingHandler {
         this.dataAccessController = dataAccessController;
     }
 
+    public void setMaxDecisionPlans(int maxDecisionPlans) {
+        this.maxDecisionPlans = maxDecisionPlans;
+    }
+
     @Autowired
     public void setEventPublisher(ApplicationEventPublisher eventPublisher) {
         this.eventPublisher = eventPublisher;
@@ -58,10 +60,11 @@ public class DefaultAuthorizingHandler implements AuthorizingHandler {
         if (handleEvent(context, HandleType.RBAC)) {
             return;
         }
+        AuthorizeDecisionPlan plan = getDecisionPlan(context.getDefinition());
         //进行rdac权限控制
-        handleRBAC(context.getAuthentication(), context.getDefinition());
+        handleRBAC(context.getAuthentication(), plan);
         //表达式权限控制
-        handleExpression(context.getAuthentication(), context.getDefinition(), context.getParamContext());
+        handleExpression(context.getAuthentication(), plan, context.getParamContext());
 
     }
 
@@ -93,128 +96,114 @@ public class DefaultAuthorizingHandler implements AuthorizingHandler {
             return;
         }
 
-        List<Permission> permission = context.getAuthentication().getPermissions()
-                .stream()
-                .filter(per -> context.getDefinition().getPermissions().contains(per.getId()))
-                .collect(Collectors.toList());
-
         DataAccessController finalAccessController = dataAccessController;
 
         //取得当前登录用户持有的控制规则
-        Set<DataAccessConfig> accesses = permission
-                .stream().map(Permission::getDataAccesses)
-                .flatMap(Collection::stream)
-                .filter(access -> context.getDefinition().getActions().contains(access.getAction()))
-                .collect(Collectors.toSet());
+        Set<DataAccessConfig> accesses = getDecisionPlan(context.getDefinition())
+                .getDataAccesses(context.getAuthentication());
         //无规则,则代表不进行控制
         if (accesses.isEmpty()) {
             return;
         }
-        //单个规则验证函数
-        Function<Predicate<DataAccessConfig>, Boolean> function = accesses.stream()::allMatch;
         //调用控制器进行验证
-        boolean isAccess = function.apply(access -> finalAccessController.doAccess(access, context));
-        if (!isAccess) {
-            throw new AccessDenyException(context.getDefinition().getMessage());
+        for (DataAccessConfig access : accesses) {
+            if (!finalAccessController.doAccess(access, context)) {
+                throw new AccessDenyException(context.getDefinition().getMessage());
+            }
         }
 
     }
 
     protected void handleExpression(Authentication authentication, AuthorizeDefinition definition, MethodInterceptorContext paramContext) {
         if (definition.getScript() != null) {
-            String scriptId = DigestUtils.md5Hex(definition.getScript().getScript());
+            handleExpression(authentication, getDecisionPlan(definition), paramContext);
+        }
+    }
 
-            DynamicScriptEngine engine = DynamicScriptEngineFactory.getEngine(definition.getScript().getLanguage());
-            if (null == engine) {
-                throw new AccessDenyException("{unknown_engine}:" + definition.getScript().getLanguage());
-            }
-            if (!engine.compiled(scriptId)) {
-                try {
-                    engine.compile(scriptId, definition.getScript().getScript());
-                } catch (Exception e) {
-                    logger.error("express compile error", e);
-                    throw new AccessDenyException("{expression_error}");
-                }
-            }
-            Map<String, Object> var = new HashMap<>(paramContext.getParams());
-            var.put("auth", authentication);
-            Object success = engine.execute(scriptId, var).get();
-            if (!(success instanceof Boolean) || !((Boolean) success)) {
-                throw new AccessDenyException(definition.getMessage());
+    protected void handleExpression(Authentication authentication, AuthorizeDecisionPlan plan, MethodInterceptorContext paramContext) {
+        AuthorizeDefinition definition = plan.getDefinition();
+        if (definition.getScript() != null && !plan.checkExpression(authentication, paramContext)) {
+            throw new AccessDenyException(definition.getMessage());
+        }
+    }
+
+    /**
+     * 获取表达式的执行统计,只包含已缓存判断计划的权限定义
+     *
+     * @return 权限定义与执行统计
+     */
+    public Map<AuthorizeDefinition, AuthorizeExpressionMetrics> getExpressionMetrics() {
+        Map<AuthorizeDefinition, AuthorizeExpressionMetrics> metrics = new LinkedHashMap<>();
+        for (AuthorizeDecisionPlan plan : decisionPlans.values()) {
+            if (plan.getExpressionMetrics() != null) {
+                metrics.put(plan.getDefinition(), plan.getExpressionMetrics());
             }
         }
+        return metrics;
+    }
+
+    /**
+     * 获取权限定义对应的判断计划.权限定义创建后不再修改,按对象缓存编译好的判断计划,
+     * 解析器缓存的权限定义只编译一次.缓存数量超过{@link #maxDecisionPlans}时,删除部分缓存.
+     *
+     * @param definition 权限定义
+     * @return 判断计划
+     */
+    protected AuthorizeDecisionPlan getDecisionPlan(AuthorizeDefinition definition) {
+        DefinitionKey key = new DefinitionKey(definition);
+        AuthorizeDecisionPlan plan = decisionPlans.get(key);
+        if (plan != null) {
+            return plan;
+        }
+        if (decisionPlans.size() >= maxDecisionPlans) {
+            evictDecisionPlans();
+        }
+        return decisionPlans.computeIfAbsent(key, k -> AuthorizeDecisionPlan.compile(definition));
+    }
+
+    private void evictDecisionPlans() {
+        int removeSize = Math.max(1, maxDecisionPlans / 10);
+        Iterator<DefinitionKey> iterator = decisionPlans.keySet().iterator();
+        while (removeSize-- > 0 && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
     }
 
     protected void handleRBAC(Authentication authentication, AuthorizeDefinition definition) {
-        boolean access = true;
-        //多个设置时的判断逻辑
-        Logical logical = definition.getLogical() == Logical.DEFAULT ? Logical.OR : definition.getLogical();
-        boolean logicalIsOr = logical == Logical.OR;
-
-        Set<String> permissionsDef = definition.getPermissions();
-        Set<String> actionsDef = definition.getActions();
-        Set<String> rolesDef = definition.getRoles();
-        Set<String> usersDef = definition.getUser();
-
-
-        // 控制权限
-        if (!definition.getPermissions().isEmpty()) {
-            if (logger.isInfoEnabled()) {
-                logger.info("执行权限控制:权限{}({}),操作{}.",
-                        definition.getPermissionDescription(),
-                        permissionsDef,
-                        actionsDef);
-            }
-            List<Permission> permissions = authentication.getPermissions().stream()
-                    .filter(permission -> {
-                        // 未持有任何一个权限
-                        if (!permissionsDef.contains(permission.getId())) {
-                            return false;
-                        }
-                        //未配置action
-                        if (actionsDef.isEmpty()) {
-                            return true;
-                        }
-                        //判断action
-                        List<String> actions = permission.getActions()
-                                .stream()
-                                .filter(actionsDef::contains)
-                                .collect(Collectors.toList());
-
-                        if (actions.isEmpty()) {
-                            return false;
-                        }
-
-                        //如果 控制逻辑是or,则只要过滤结果数量不为0.否则过滤结果数量必须和配置的数量相同
-                        return logicalIsOr || permission.getActions().containsAll(actions);
-                    }).collect(Collectors.toList());
-            access = logicalIsOr ?
-                    CollectionUtils.isNotEmpty(permissions) :
-                    //权限数量和配置的数量相同
-                    permissions.size() == permissionsDef.size();
-        }
-        //控制角色
-        if (!rolesDef.isEmpty()) {
-            if (logger.isInfoEnabled()) {
-                logger.info("do role access handle : roles{} , definition:{}", rolesDef, definition.getRoles());
-            }
-            Function<Predicate<Role>, Boolean> func = logicalIsOr
-                    ? authentication.getRoles().stream()::anyMatch
-                    : authentication.getRoles().stream()::allMatch;
-            access = func.apply(role -> rolesDef.contains(role.getId()));
-        }
-        //控制用户
-        if (!usersDef.isEmpty()) {
-            if (logger.isInfoEnabled()) {
-                logger.info("do user access handle : users{} , definition:{} ", usersDef, definition.getUser());
-            }
-            Function<Predicate<String>, Boolean> func = logicalIsOr
-                    ? usersDef.stream()::anyMatch
-                    : usersDef.stream()::allMatch;
-            access = func.apply(authentication.getUser().getUsername()::equals);
+        handleRBAC(authentication, getDecisionPlan(definition));
+    }
+
+    protected void handleRBAC(Authentication authentication, AuthorizeDecisionPlan plan) {
+        AuthorizeDefinition definition = plan.getDefinition();
+        if (logger.isDebugEnabled()) {
+            logger.debug("执行权限控制:权限{}({}),操作{},角色{},用户{}.",
+                    definition.getPermissionDescription(),
+                    definition.getPermissions(),
+                    definition.getActions(),
+                    definition.getRoles(),
+                    definition.getUser());
         }
-        if (!access) {
+        if (!plan.checkRBAC(authentication)) {
             throw new AccessDenyException(definition.getMessage());
         }
     }
+
+    private static final class DefinitionKey {
+        private final AuthorizeDefinition definition;
+
+        private DefinitionKey(AuthorizeDefinition definition) {
+            this.definition = definition;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(definition);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof DefinitionKey && ((DefinitionKey) obj).definition == definition;
+        }
+    }
 }
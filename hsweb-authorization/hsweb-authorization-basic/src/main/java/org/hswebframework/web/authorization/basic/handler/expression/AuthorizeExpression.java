@@ -0,0 +1,36 @@
+package org.hswebframework.web.authorization.basic.handler.expression;
+
+import org.hswebframework.web.authorization.Authentication;
+import org.hswebframework.web.authorization.define.Script;
+import org.hswebframework.web.boost.aop.context.MethodInterceptorContext;
+
+/**
+ * 已编译的权限控制表达式,由{@link Script}编译而来,可重复执行.
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+public interface AuthorizeExpression {
+
+    /**
+     * 执行表达式
+     *
+     * @param authentication 当前用户权限信息
+     * @param paramContext   方法参数上下文
+     * @return 是否有权限, 表达式返回值不为<code>true</code>时均视为无权限
+     */
+    boolean evaluate(Authentication authentication, MethodInterceptorContext paramContext);
+
+    /**
+     * 编译脚本,spel表达式直接使用spring-expression进行编译,其他语言使用{@link org.hswebframework.expands.script.engine.DynamicScriptEngine}
+     *
+     * @param script 脚本
+     * @return 已编译的表达式
+     */
+    static AuthorizeExpression compile(Script script) {
+        if (SpelAuthorizeExpression.LANGUAGE.equalsIgnoreCase(script.getLanguage())) {
+            return new SpelAuthorizeExpression(script.getScript());
+        }
+        return new ScriptEngineAuthorizeExpression(script.getLanguage(), script.getScript());
+    }
+}
@@ -0,0 +1,81 @@
+package org.hswebframework.web.authorization.basic.handler.expression;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 权限控制表达式的执行统计
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+public class AuthorizeExpressionMetrics {
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder denied = new LongAdder();
+
+    private final LongAdder errors = new LongAdder();
+
+    private final LongAdder totalNanos = new LongAdder();
+
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    public void record(long nanos, boolean access) {
+        count.increment();
+        if (!access) {
+            denied.increment();
+        }
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    public void recordError(long nanos) {
+        errors.increment();
+        record(nanos, false);
+    }
+
+    /**
+     * @return 执行次数
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return 无权限次数(包含执行出错)
+     */
+    public long getDenied() {
+        return denied.sum();
+    }
+
+    /**
+     * @return 执行出错次数
+     */
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getTotalTime(TimeUnit unit) {
+        return unit.convert(totalNanos.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    public long getMaxTime(TimeUnit unit) {
+        return unit.convert(maxNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    public long getAverageTime(TimeUnit unit) {
+        long count = getCount();
+        return count == 0 ? 0 : unit.convert(totalNanos.sum() / count, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + getCount()
+                + ",denied=" + getDenied()
+                + ",errors=" + getErrors()
+                + ",avg=" + getAverageTime(TimeUnit.MICROSECONDS) + "us"
+                + ",max=" + getMaxTime(TimeUnit.MICROSECONDS) + "us";
+    }
+}
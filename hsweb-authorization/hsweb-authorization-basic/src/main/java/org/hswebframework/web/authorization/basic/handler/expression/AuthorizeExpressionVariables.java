@@ -0,0 +1,79 @@
+package org.hswebframework.web.authorization.basic.handler.expression;
+
+import org.hswebframework.web.authorization.Authentication;
+import org.hswebframework.web.boost.aop.context.MethodInterceptorContext;
+
+import java.util.*;
+
+/**
+ * 表达式变量,包含当前用户权限信息(auth)以及方法参数.
+ * <p>
+ * 读取变量时直接从{@link MethodInterceptorContext}中获取,只有在遍历或者修改变量时才会复制参数.
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+public class AuthorizeExpressionVariables extends AbstractMap<String, Object> {
+
+    public static final String AUTHENTICATION = "auth";
+
+    private final Authentication authentication;
+
+    private final MethodInterceptorContext paramContext;
+
+    private Map<String, Object> materialized;
+
+    public AuthorizeExpressionVariables(Authentication authentication, MethodInterceptorContext paramContext) {
+        this.authentication = authentication;
+        this.paramContext = paramContext;
+    }
+
+    private Map<String, Object> params() {
+        Map<String, Object> params = paramContext == null ? null : paramContext.getParams();
+        return params == null ? Collections.emptyMap() : params;
+    }
+
+    private Map<String, Object> materialize() {
+        if (materialized == null) {
+            Map<String, Object> params = params();
+            materialized = new HashMap<>(params.size() + 1);
+            materialized.putAll(params);
+            materialized.put(AUTHENTICATION, authentication);
+        }
+        return materialized;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (materialized != null) {
+            return materialized.get(key);
+        }
+        if (AUTHENTICATION.equals(key)) {
+            return authentication;
+        }
+        return params().get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (materialized != null) {
+            return materialized.containsKey(key);
+        }
+        return AUTHENTICATION.equals(key) || params().containsKey(key);
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        return materialize().put(key, value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        return materialize().remove(key);
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return materialize().entrySet();
+    }
+}
@@ -0,0 +1,61 @@
+package org.hswebframework.web.authorization.basic.handler.expression;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.hswebframework.expands.script.engine.DynamicScriptEngine;
+import org.hswebframework.expands.script.engine.DynamicScriptEngineFactory;
+import org.hswebframework.web.authorization.Authentication;
+import org.hswebframework.web.authorization.exception.AccessDenyException;
+import org.hswebframework.web.boost.aop.context.MethodInterceptorContext;
+
+/**
+ * 使用{@link DynamicScriptEngine}执行的脚本,脚本ID只在创建时计算一次,脚本只在第一次执行时编译.
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+@Slf4j
+public class ScriptEngineAuthorizeExpression implements AuthorizeExpression {
+
+    private final String language;
+
+    private final String script;
+
+    private final String scriptId;
+
+    private volatile DynamicScriptEngine engine;
+
+    public ScriptEngineAuthorizeExpression(String language, String script) {
+        this.language = language;
+        this.script = script;
+        this.scriptId = DigestUtils.md5Hex(script);
+    }
+
+    protected DynamicScriptEngine getEngine() {
+        DynamicScriptEngine engine = this.engine;
+        if (engine != null) {
+            return engine;
+        }
+        engine = DynamicScriptEngineFactory.getEngine(language);
+        if (null == engine) {
+            throw new AccessDenyException("{unknown_engine}:" + language);
+        }
+        if (!engine.compiled(scriptId)) {
+            try {
+                engine.compile(scriptId, script);
+            } catch (Exception e) {
+                log.error("express compile error", e);
+                throw new AccessDenyException("{expression_error}");
+            }
+        }
+        return this.engine = engine;
+    }
+
+    @Override
+    public boolean evaluate(Authentication authentication, MethodInterceptorContext paramContext) {
+        Object success = getEngine()
+                .execute(scriptId, new AuthorizeExpressionVariables(authentication, paramContext))
+                .get();
+        return Boolean.TRUE.equals(success);
+    }
+}
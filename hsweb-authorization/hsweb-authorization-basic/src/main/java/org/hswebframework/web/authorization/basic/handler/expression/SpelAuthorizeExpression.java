@@ -0,0 +1,65 @@
+package org.hswebframework.web.authorization.basic.handler.expression;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hswebframework.web.authorization.Authentication;
+import org.hswebframework.web.authorization.exception.AccessDenyException;
+import org.hswebframework.web.boost.aop.context.MethodInterceptorContext;
+import org.springframework.context.expression.MapAccessor;
+import org.springframework.expression.EvaluationException;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ParseException;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import java.util.Map;
+
+/**
+ * 直接使用spring-expression执行的spel表达式,不经过脚本引擎.
+ * <p>
+ * 变量可以通过<code>#auth</code>,<code>#参数名</code>获取,也可以直接使用属性名(如<code>auth.user.id</code>)获取.
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+@Slf4j
+public class SpelAuthorizeExpression implements AuthorizeExpression {
+
+    public static final String LANGUAGE = "spel";
+
+    private static final SpelExpressionParser parser = new SpelExpressionParser(
+            new SpelParserConfiguration(SpelCompilerMode.MIXED, SpelAuthorizeExpression.class.getClassLoader()));
+
+    private static final MapAccessor mapAccessor = new MapAccessor();
+
+    private final Expression expression;
+
+    public SpelAuthorizeExpression(String script) {
+        try {
+            this.expression = parser.parseExpression(script);
+        } catch (ParseException e) {
+            log.error("express compile error", e);
+            throw new AccessDenyException("{expression_error}");
+        }
+    }
+
+    @Override
+    public boolean evaluate(Authentication authentication, MethodInterceptorContext paramContext) {
+        Map<String, Object> variables = new AuthorizeExpressionVariables(authentication, paramContext);
+        StandardEvaluationContext context = new StandardEvaluationContext(variables) {
+            @Override
+            public Object lookupVariable(String name) {
+                Object value = super.lookupVariable(name);
+                return value == null ? variables.get(name) : value;
+            }
+        };
+        context.addPropertyAccessor(mapAccessor);
+        try {
+            return Boolean.TRUE.equals(expression.getValue(context));
+        } catch (EvaluationException e) {
+            log.error("express execute error", e);
+            throw new AccessDenyException("{expression_error}");
+        }
+    }
+}
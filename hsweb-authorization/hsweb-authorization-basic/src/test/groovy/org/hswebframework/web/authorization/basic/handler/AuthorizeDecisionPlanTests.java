@@ -0,0 +1,99 @@
+package org.hswebframework.web.authorization.basic.handler;
+
+import org.hswebframework.web.authorization.Permission;
+import org.hswebframework.web.authorization.access.DataAccessConfig;
+import org.hswebframework.web.authorization.annotation.Logical;
+import org.hswebframework.web.authorization.basic.define.DefaultBasicAuthorizeDefinition;
+import org.hswebframework.web.authorization.simple.*;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+/**
+ * @author zhouhao
+ */
+public class AuthorizeDecisionPlanTests {
+
+    private SimpleAuthentication authentication;
+
+    private SimpleFieldFilterDataAccessConfig fieldFilter;
+
+    @Before
+    public void init() {
+        fieldFilter = new SimpleFieldFilterDataAccessConfig("password");
+        fieldFilter.setAction(Permission.ACTION_QUERY);
+
+        authentication = new SimpleAuthentication();
+        authentication.setUser(SimpleUser.builder().id("test").username("test").build());
+        authentication.setRoles(Collections.singletonList(SimpleRole.builder().id("user").build()));
+        authentication.setPermissions(Arrays.asList(
+                SimplePermission.builder().id("user")
+                        .actions(new HashSet<>(Arrays.asList(Permission.ACTION_QUERY, Permission.ACTION_GET)))
+                        .dataAccesses(Collections.singleton(fieldFilter))
+                        .build(),
+                SimplePermission.builder().id("role")
+                        .actions(new HashSet<>(Collections.singletonList(Permission.ACTION_QUERY)))
+                        .build()));
+    }
+
+    private DefaultBasicAuthorizeDefinition definition(Logical logical, String[] permissions, String... actions) {
+        DefaultBasicAuthorizeDefinition definition = new DefaultBasicAuthorizeDefinition();
+        definition.setLogical(logical);
+        definition.getPermissions().addAll(Arrays.asList(permissions));
+        definition.getActions().addAll(Arrays.asList(actions));
+        return definition;
+    }
+
+    @Test
+    public void testPermission() {
+        Assert.assertTrue(AuthorizeDecisionPlan.compile(definition(Logical.OR, new String[]{"user", "org"}, Permission.ACTION_GET))
+                .checkRBAC(authentication));
+        Assert.assertFalse(AuthorizeDecisionPlan.compile(definition(Logical.AND, new String[]{"user", "org"}, Permission.ACTION_GET))
+                .checkRBAC(authentication));
+        Assert.assertTrue(AuthorizeDecisionPlan.compile(definition(Logical.AND, new String[]{"user", "role"}, Permission.ACTION_QUERY))
+                .checkRBAC(authentication));
+        Assert.assertFalse(AuthorizeDecisionPlan.compile(definition(Logical.DEFAULT, new String[]{"role"}, Permission.ACTION_DELETE))
+                .checkRBAC(authentication));
+        Assert.assertTrue(AuthorizeDecisionPlan.compile(definition(Logical.DEFAULT, new String[]{"role"}))
+                .checkRBAC(authentication));
+    }
+
+    @Test
+    public void testRoleAndUser() {
+        DefaultBasicAuthorizeDefinition definition = definition(Logical.DEFAULT, new String[0]);
+        definition.getRoles().add("admin");
+        Assert.assertFalse(AuthorizeDecisionPlan.compile(definition).checkRBAC(authentication));
+        definition.getRoles().add("user");
+        Assert.assertTrue(AuthorizeDecisionPlan.compile(definition).checkRBAC(authentication));
+
+        definition = definition(Logical.AND, new String[0]);
+        definition.getUser().addAll(Arrays.asList("test", "admin"));
+        Assert.assertFalse(AuthorizeDecisionPlan.compile(definition).checkRBAC(authentication));
+        definition.setLogical(Logical.OR);
+        Assert.assertTrue(AuthorizeDecisionPlan.compile(definition).checkRBAC(authentication));
+    }
+
+    @Test
+    public void testDataAccess() {
+        Set<DataAccessConfig> accesses = AuthorizeDecisionPlan
+                .compile(definition(Logical.DEFAULT, new String[]{"user", "role"}, Permission.ACTION_QUERY))
+                .getDataAccesses(authentication);
+        Assert.assertEquals(Collections.singleton(fieldFilter), accesses);
+
+        Assert.assertTrue(AuthorizeDecisionPlan
+                .compile(definition(Logical.DEFAULT, new String[]{"user"}, Permission.ACTION_GET))
+                .getDataAccesses(authentication).isEmpty());
+    }
+
+    @Test
+    public void testIndexReset() {
+        AuthorizeDecisionPlan plan = AuthorizeDecisionPlan.compile(definition(Logical.DEFAULT, new String[]{"org"}));
+        Assert.assertFalse(plan.checkRBAC(authentication));
+        List<Permission> permissions = new ArrayList<>(authentication.getPermissions());
+        permissions.add(SimplePermission.builder().id("org").build());
+        authentication.setPermissions(permissions);
+        Assert.assertTrue(plan.checkRBAC(authentication));
+    }
+}
@@ -0,0 +1,98 @@
+package org.hswebframework.web.authorization.basic.handler.expression;
+
+import org.hswebframework.web.authorization.Authentication;
+import org.hswebframework.web.authorization.define.Script;
+import org.hswebframework.web.authorization.exception.AccessDenyException;
+import org.hswebframework.web.authorization.simple.SimpleAuthentication;
+import org.hswebframework.web.authorization.simple.SimpleRole;
+import org.hswebframework.web.authorization.simple.SimpleUser;
+import org.hswebframework.web.boost.aop.context.MethodInterceptorContext;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * @author zhouhao
+ */
+public class AuthorizeExpressionTests {
+
+    private Authentication authentication;
+
+    private MethodInterceptorContext paramContext;
+
+    @Before
+    public void init() {
+        SimpleAuthentication simpleAuthentication = new SimpleAuthentication();
+        simpleAuthentication.setUser(SimpleUser.builder().id("test").username("test").build());
+        simpleAuthentication.setRoles(Collections.singletonList(SimpleRole.builder().id("admin").build()));
+        authentication = simpleAuthentication;
+
+        paramContext = mock(MethodInterceptorContext.class);
+        when(paramContext.getParams()).thenReturn(Collections.singletonMap("id", "test"));
+    }
+
+    private Script spel(String expression) {
+        return new Script() {
+            @Override
+            public String getLanguage() {
+                return "spel";
+            }
+
+            @Override
+            public String getScript() {
+                return expression;
+            }
+        };
+    }
+
+    @Test
+    public void testSpel() {
+        AuthorizeExpression expression = AuthorizeExpression.compile(spel("#auth.hasRole('admin') && #id == #auth.user.id"));
+        Assert.assertTrue(expression instanceof SpelAuthorizeExpression);
+        Assert.assertTrue(expression.evaluate(authentication, paramContext));
+
+        expression = AuthorizeExpression.compile(spel("id == 'admin'"));
+        Assert.assertFalse(expression.evaluate(authentication, paramContext));
+    }
+
+    @Test(expected = AccessDenyException.class)
+    public void testSpelError() {
+        AuthorizeExpression.compile(spel("#auth.unknownMethod()")).evaluate(authentication, paramContext);
+    }
+
+    @Test
+    public void testVariables() {
+        Map<String, Object> variables = new AuthorizeExpressionVariables(authentication, paramContext);
+        Assert.assertSame(authentication, variables.get("auth"));
+        Assert.assertEquals("test", variables.get("id"));
+        Assert.assertTrue(variables.containsKey("id"));
+        Assert.assertFalse(variables.containsKey("name"));
+
+        Map<String, Object> copy = new HashMap<>(variables);
+        Assert.assertEquals(2, copy.size());
+
+        variables.put("name", "test");
+        Assert.assertEquals("test", variables.get("name"));
+        Assert.assertEquals(Collections.singletonMap("id", "test"), paramContext.getParams());
+    }
+
+    @Test
+    public void testMetrics() {
+        AuthorizeExpressionMetrics metrics = new AuthorizeExpressionMetrics();
+        metrics.record(1000, true);
+        metrics.record(3000, false);
+        metrics.recordError(2000);
+        Assert.assertEquals(3, metrics.getCount());
+        Assert.assertEquals(2, metrics.getDenied());
+        Assert.assertEquals(1, metrics.getErrors());
+        Assert.assertEquals(3, metrics.getMaxTime(TimeUnit.MICROSECONDS));
+        Assert.assertEquals(2, metrics.getAverageTime(TimeUnit.MICROSECONDS));
+    }
+}
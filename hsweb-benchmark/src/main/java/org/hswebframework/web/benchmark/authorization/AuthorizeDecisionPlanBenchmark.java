@@ -0,0 +1,148 @@
+package org.hswebframework.web.benchmark.authorization;
+
+import org.hswebframework.web.authorization.Authentication;
+import org.hswebframework.web.authorization.Permission;
+import org.hswebframework.web.authorization.Role;
+import org.hswebframework.web.authorization.annotation.Logical;
+import org.hswebframework.web.authorization.basic.define.DefaultBasicAuthorizeDefinition;
+import org.hswebframework.web.authorization.basic.handler.AuthorizeDecisionPlan;
+import org.hswebframework.web.authorization.define.AuthorizeDefinition;
+import org.hswebframework.web.authorization.simple.SimpleAuthentication;
+import org.hswebframework.web.authorization.simple.SimplePermission;
+import org.hswebframework.web.authorization.simple.SimpleRole;
+import org.hswebframework.web.authorization.simple.SimpleUser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * 对比{@link AuthorizeDecisionPlan}与原基于stream遍历的权限判断的性能
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthorizeDecisionPlanBenchmark {
+
+    private static final String[] ACTIONS = {
+            Permission.ACTION_QUERY, Permission.ACTION_GET, Permission.ACTION_ADD, Permission.ACTION_UPDATE,
+            Permission.ACTION_DELETE, Permission.ACTION_IMPORT, Permission.ACTION_EXPORT, Permission.ACTION_ENABLE
+    };
+
+    @Param({"20", "200"})
+    private int permissionSize;
+
+    @Param({"OR", "AND"})
+    private Logical logical;
+
+    private Authentication authentication;
+
+    private AuthorizeDefinition definition;
+
+    private AuthorizeDecisionPlan plan;
+
+    @Setup
+    public void setup() {
+        List<Permission> permissions = new ArrayList<>(permissionSize);
+        for (int i = 0; i < permissionSize; i++) {
+            permissions.add(SimplePermission.builder()
+                    .id("permission-" + i)
+                    .actions(new HashSet<>(Arrays.asList(ACTIONS)))
+                    .build());
+        }
+        List<Role> roles = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            roles.add(SimpleRole.builder().id("role-" + i).build());
+        }
+        SimpleAuthentication simpleAuthentication = new SimpleAuthentication();
+        simpleAuthentication.setUser(SimpleUser.builder().id("admin").username("admin").build());
+        simpleAuthentication.setPermissions(permissions);
+        simpleAuthentication.setRoles(roles);
+        authentication = simpleAuthentication;
+
+        DefaultBasicAuthorizeDefinition basicDefinition = new DefaultBasicAuthorizeDefinition();
+        basicDefinition.setLogical(logical);
+        basicDefinition.getPermissions().add("permission-" + (permissionSize - 1));
+        basicDefinition.getPermissions().add("permission-" + (permissionSize / 2));
+        basicDefinition.getActions().add(Permission.ACTION_UPDATE);
+        definition = basicDefinition;
+        plan = AuthorizeDecisionPlan.compile(definition);
+    }
+
+    @Benchmark
+    public boolean stream() {
+        return handleByStream(authentication, definition);
+    }
+
+    @Benchmark
+    public boolean plan() {
+        return plan.checkRBAC(authentication);
+    }
+
+    /**
+     * 原DefaultAuthorizingHandler中的实现
+     */
+    private static boolean handleByStream(Authentication authentication, AuthorizeDefinition definition) {
+        boolean access = true;
+        Logical logical = definition.getLogical() == Logical.DEFAULT ? Logical.OR : definition.getLogical();
+        boolean logicalIsOr = logical == Logical.OR;
+
+        Set<String> permissionsDef = definition.getPermissions();
+        Set<String> actionsDef = definition.getActions();
+        Set<String> rolesDef = definition.getRoles();
+        Set<String> usersDef = definition.getUser();
+
+        if (!permissionsDef.isEmpty()) {
+            List<Permission> permissions = authentication.getPermissions().stream()
+                    .filter(permission -> {
+                        if (!permissionsDef.contains(permission.getId())) {
+                            return false;
+                        }
+                        if (actionsDef.isEmpty()) {
+                            return true;
+                        }
+                        List<String> actions = permission.getActions()
+                                .stream()
+                                .filter(actionsDef::contains)
+                                .collect(Collectors.toList());
+                        if (actions.isEmpty()) {
+                            return false;
+                        }
+                        return logicalIsOr || permission.getActions().containsAll(actions);
+                    }).collect(Collectors.toList());
+            access = logicalIsOr ? !permissions.isEmpty() : permissions.size() == permissionsDef.size();
+        }
+        if (!rolesDef.isEmpty()) {
+            Function<Predicate<Role>, Boolean> func = logicalIsOr
+                    ? authentication.getRoles().stream()::anyMatch
+                    : authentication.getRoles().stream()::allMatch;
+            access = func.apply(role -> rolesDef.contains(role.getId()));
+        }
+        if (!usersDef.isEmpty()) {
+            Function<Predicate<String>, Boolean> func = logicalIsOr
+                    ? usersDef.stream()::anyMatch
+                    : usersDef.stream()::allMatch;
+            access = func.apply(authentication.getUser().getUsername()::equals);
+        }
+        return access;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AuthorizeDecisionPlanBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
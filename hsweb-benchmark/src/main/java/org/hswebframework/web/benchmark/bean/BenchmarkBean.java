@@ -0,0 +1,45 @@
+package org.hswebframework.web.benchmark.bean;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Date;
+
+/**
+ * 性能测试使用的实体,属性类型覆盖常见的基本类型,包装器类型,字符串和日期
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+@Getter
+@Setter
+public class BenchmarkBean {
+    private String id;
+
+    private String name;
+
+    private int age;
+
+    private Integer status;
+
+    private long createTime;
+
+    private boolean enabled;
+
+    private double score;
+
+    private Date updateTime;
+
+    public static BenchmarkBean create() {
+        BenchmarkBean bean = new BenchmarkBean();
+        bean.setId("1a2b3c");
+        bean.setName("benchmark");
+        bean.setAge(18);
+        bean.setStatus(1);
+        bean.setCreateTime(System.currentTimeMillis());
+        bean.setEnabled(true);
+        bean.setScore(99.5D);
+        bean.setUpdateTime(new Date());
+        return bean;
+    }
+}
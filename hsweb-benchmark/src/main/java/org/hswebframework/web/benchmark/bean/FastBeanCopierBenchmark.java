@@ -0,0 +1,94 @@
+package org.hswebframework.web.benchmark.bean;
+
+import org.hswebframework.web.bean.Copier;
+import org.hswebframework.web.bean.FastBeanCopier;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对比{@link FastBeanCopier#copy(Object, Object, String...)}与直接使用生成的{@link Copier}的性能
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FastBeanCopierBenchmark {
+
+    private static final Set<String> NO_IGNORE = Collections.emptySet();
+
+    private BenchmarkBean bean;
+
+    private Map<String, Object> map;
+
+    private Copier beanToBean;
+
+    private Copier beanToMap;
+
+    private Copier mapToBean;
+
+    @Setup
+    public void setup() {
+        bean = BenchmarkBean.create();
+        map = FastBeanCopier.copy(bean, new HashMap<>());
+
+        beanToBean = FastBeanCopier.lookupCopier(BenchmarkBean.class, BenchmarkBean.class, true);
+        beanToMap = FastBeanCopier.lookupCopier(BenchmarkBean.class, Map.class, true);
+        mapToBean = FastBeanCopier.lookupCopier(Map.class, BenchmarkBean.class, true);
+    }
+
+    @Benchmark
+    public BenchmarkBean copyBeanToBean() {
+        return FastBeanCopier.copy(bean, new BenchmarkBean());
+    }
+
+    @Benchmark
+    public BenchmarkBean copierBeanToBean() {
+        BenchmarkBean target = new BenchmarkBean();
+        beanToBean.copy(bean, target, NO_IGNORE, FastBeanCopier.DEFAULT_CONVERT);
+        return target;
+    }
+
+    @Benchmark
+    public Map<String, Object> copyBeanToMap() {
+        return FastBeanCopier.copy(bean, new HashMap<>());
+    }
+
+    @Benchmark
+    public Map<String, Object> copierBeanToMap() {
+        Map<String, Object> target = new HashMap<>();
+        beanToMap.copy(bean, target, NO_IGNORE, FastBeanCopier.DEFAULT_CONVERT);
+        return target;
+    }
+
+    @Benchmark
+    public BenchmarkBean copyMapToBean() {
+        return FastBeanCopier.copy(map, new BenchmarkBean());
+    }
+
+    @Benchmark
+    public BenchmarkBean copierMapToBean() {
+        BenchmarkBean target = new BenchmarkBean();
+        mapToBean.copy(map, target, NO_IGNORE, FastBeanCopier.DEFAULT_CONVERT);
+        return target;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FastBeanCopierBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
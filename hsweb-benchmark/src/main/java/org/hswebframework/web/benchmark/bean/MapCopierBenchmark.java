@@ -0,0 +1,77 @@
+package org.hswebframework.web.benchmark.bean;
+
+import org.hswebframework.web.bean.Converter;
+import org.hswebframework.web.bean.FastBeanCopier;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Map与bean互相复制时的吞吐量和内存分配.
+ * <p>
+ * converter开头的测试使用自定义转换器,生成的复制器不会走快速路径,等同于优化前每个属性都经过转换器的行为.
+ * 运行main方法时会启用{@link GCProfiler},通过gc.alloc.rate.norm查看每次复制分配的字节数.
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapCopierBenchmark {
+
+    private BenchmarkBean bean;
+
+    private Map<String, Object> map;
+
+    private Converter converter;
+
+    @Setup
+    public void setup() {
+        bean = BenchmarkBean.create();
+        map = FastBeanCopier.copyToMap(bean);
+        converter = FastBeanCopier.DEFAULT_CONVERT::convert;
+    }
+
+    @Benchmark
+    public BenchmarkBean mapToBean() {
+        return FastBeanCopier.copy(map, new BenchmarkBean());
+    }
+
+    @Benchmark
+    public BenchmarkBean converterMapToBean() {
+        return FastBeanCopier.copy(map, new BenchmarkBean(), converter);
+    }
+
+    @Benchmark
+    public Map<String, Object> beanToMap() {
+        return FastBeanCopier.copyToMap(bean);
+    }
+
+    @Benchmark
+    public Map<String, Object> beanToDefaultMap() {
+        return FastBeanCopier.copy(bean, new HashMap<>());
+    }
+
+    @Benchmark
+    public Map<String, Object> converterBeanToMap() {
+        return FastBeanCopier.copy(bean, new HashMap<>(), converter);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MapCopierBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
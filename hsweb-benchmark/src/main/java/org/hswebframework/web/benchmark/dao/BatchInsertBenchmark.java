@@ -0,0 +1,106 @@
+package org.hswebframework.web.benchmark.dao;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 使用h2内存数据库对比逐条新增和{@link BenchmarkService#insertBatch(java.util.Collection)}批量新增的性能
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchInsertBenchmark {
+
+    @Param({"1000"})
+    private int size;
+
+    @Param({"100", "1000"})
+    private int batchSize;
+
+    private ConfigurableApplicationContext context;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private BenchmarkService service;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(QuerySqlBenchmark.BenchmarkApplication.class)
+                .web(false)
+                .properties("spring.datasource.url=jdbc:h2:mem:batch-benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.username=sa",
+                        "mybatis.mapper-locations=classpath:org/hswebframework/web/benchmark/dao/*.xml",
+                        "logging.level.root=WARN")
+                .run();
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.execute("create table if not exists b_benchmark(" +
+                "id varchar(32) primary key,name varchar(32),status int,create_time bigint)");
+        service = context.getBean(BenchmarkService.class);
+        service.setBatchSize(batchSize);
+    }
+
+    @Setup(Level.Invocation)
+    public void clean() {
+        jdbcTemplate.execute("delete from b_benchmark");
+    }
+
+    @TearDown
+    public void shutdown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int insertOneByOne() {
+        for (BenchmarkEntity entity : createData()) {
+            service.insert(entity);
+        }
+        return size;
+    }
+
+    @Benchmark
+    public int insertBatch() {
+        return service.insertBatch(createData()).size();
+    }
+
+    @Benchmark
+    public int updateBatch() {
+        List<BenchmarkEntity> data = createData();
+        service.insertBatch(data);
+        data.forEach(entity -> entity.setStatus(1));
+        return service.updateByPk(data);
+    }
+
+    private List<BenchmarkEntity> createData() {
+        List<BenchmarkEntity> data = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            BenchmarkEntity entity = new BenchmarkEntity();
+            entity.setName("name-" + i);
+            entity.setStatus(0);
+            entity.setCreateTime(System.currentTimeMillis());
+            data.add(entity);
+        }
+        return data;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BatchInsertBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
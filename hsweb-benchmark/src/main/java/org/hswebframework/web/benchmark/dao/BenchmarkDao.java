@@ -0,0 +1,10 @@
+package org.hswebframework.web.benchmark.dao;
+
+import org.hswebframework.web.dao.CrudDao;
+
+/**
+ * @author zhouhao
+ * @since 3.0.8
+ */
+public interface BenchmarkDao extends CrudDao<BenchmarkEntity, String> {
+}
@@ -0,0 +1,21 @@
+package org.hswebframework.web.benchmark.dao;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.hswebframework.web.commons.entity.SimpleGenericEntity;
+
+/**
+ * 查询性能测试使用的实体
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+@Getter
+@Setter
+public class BenchmarkEntity extends SimpleGenericEntity<String> {
+    private String name;
+
+    private Integer status;
+
+    private Long createTime;
+}
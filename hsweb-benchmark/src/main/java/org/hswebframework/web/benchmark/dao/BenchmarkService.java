@@ -0,0 +1,27 @@
+package org.hswebframework.web.benchmark.dao;
+
+import org.hswebframework.web.id.IDGenerator;
+import org.hswebframework.web.service.GenericEntityService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * @author zhouhao
+ * @since 3.0.8
+ */
+@Service
+public class BenchmarkService extends GenericEntityService<BenchmarkEntity, String> {
+
+    @Autowired
+    private BenchmarkDao benchmarkDao;
+
+    @Override
+    protected IDGenerator<String> getIDGenerator() {
+        return IDGenerator.MD5;
+    }
+
+    @Override
+    public BenchmarkDao getDao() {
+        return benchmarkDao;
+    }
+}
@@ -0,0 +1,104 @@
+package org.hswebframework.web.benchmark.dao;
+
+import org.hswebframework.web.commons.entity.param.QueryParamEntity;
+import org.hswebframework.web.dao.Dao;
+import org.hswebframework.web.dao.mybatis.builder.EasyOrmSqlBuilder;
+import org.hswebframework.web.service.DefaultDSLQueryService;
+import org.mybatis.spring.annotation.MapperScan;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 使用h2内存数据库测试常用的{@code createQuery().where(...).listNoPaging()}查询,
+ * 对比{@link EasyOrmSqlBuilder#useTemplateCache}开启前后的性能.
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuerySqlBenchmark {
+
+    @Param({"true", "false"})
+    private boolean templateCache;
+
+    private ConfigurableApplicationContext context;
+
+    private BenchmarkDao dao;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(BenchmarkApplication.class)
+                .web(false)
+                .properties("spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.username=sa",
+                        "mybatis.mapper-locations=classpath:org/hswebframework/web/benchmark/dao/*.xml",
+                        "logging.level.root=WARN")
+                .run();
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.execute("create table if not exists b_benchmark(" +
+                "id varchar(32) primary key,name varchar(32),status int,create_time bigint)");
+        jdbcTemplate.execute("delete from b_benchmark");
+        for (int i = 0; i < 100; i++) {
+            jdbcTemplate.update("insert into b_benchmark values(?,?,?,?)", "id-" + i, "name-" + i, i % 2, System.currentTimeMillis());
+        }
+        dao = context.getBean(BenchmarkDao.class);
+        EasyOrmSqlBuilder.getInstance().useTemplateCache = templateCache;
+        EasyOrmSqlBuilder.getInstance().clearTemplateCache();
+    }
+
+    @TearDown
+    public void shutdown() {
+        EasyOrmSqlBuilder.getInstance().useTemplateCache = true;
+        context.close();
+    }
+
+    @Benchmark
+    public List<BenchmarkEntity> listNoPaging() {
+        return DefaultDSLQueryService.createQuery(dao)
+                .where("name", "name-1")
+                .and("status", 1)
+                .listNoPaging();
+    }
+
+    @Benchmark
+    public List<BenchmarkEntity> listNoPagingWithSort() {
+        return DefaultDSLQueryService.createQuery(dao)
+                .where("status", 1)
+                .orderByAsc("createTime")
+                .listNoPaging();
+    }
+
+    @Benchmark
+    public List<BenchmarkEntity> listWithIncludes() {
+        QueryParamEntity param = QueryParamEntity.single("status", 0);
+        param.includes("id", "name");
+        param.setPaging(false);
+        return dao.query(param);
+    }
+
+    @SpringBootApplication
+    @MapperScan(value = "org.hswebframework.web.benchmark.dao", markerInterface = Dao.class, sqlSessionFactoryRef = "sqlSessionFactory")
+    public static class BenchmarkApplication {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(QuerySqlBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
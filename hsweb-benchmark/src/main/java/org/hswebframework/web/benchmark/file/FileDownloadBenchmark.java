@@ -0,0 +1,125 @@
+package org.hswebframework.web.benchmark.file;
+
+import org.hswebframework.web.service.file.simple.LocalFileService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.util.StreamUtils;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对比下载1GB文件时,原{@link InputStream#skip(long)}加{@link StreamUtils#copy(InputStream, OutputStream)}的方式
+ * 与{@link LocalFileService#writeFile(String, OutputStream, long, long)}使用{@link FileChannel#transferTo}的吞吐量.
+ * 吞吐量(MB/s)= 写出的数据量 / 平均耗时.
+ * <p>
+ * target为stream时模拟写出到servlet输出流,为file时写出到文件,此时由操作系统直接复制.
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FileDownloadBenchmark {
+
+    private static final long FILE_SIZE = 1024L * 1024 * 1024;
+
+    @Param({"0", "536870912"})
+    private long position;
+
+    @Param({"stream", "file"})
+    private String target;
+
+    private File file;
+
+    private File output;
+
+    private BenchmarkFileService fileService;
+
+    @Setup
+    public void setup() throws IOException {
+        file = File.createTempFile("download-benchmark", ".bin");
+        output = File.createTempFile("download-benchmark", ".out");
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1024 * 1024);
+            while (buffer.hasRemaining()) {
+                buffer.put((byte) buffer.position());
+            }
+            for (long i = 0; i < FILE_SIZE; i += buffer.capacity()) {
+                buffer.clear();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+        }
+        fileService = new BenchmarkFileService(file);
+    }
+
+    @TearDown
+    public void shutdown() throws IOException {
+        Files.deleteIfExists(file.toPath());
+        Files.deleteIfExists(output.toPath());
+    }
+
+    @Benchmark
+    public long inputStreamCopy() throws IOException {
+        try (OutputStream out = openOutput();
+             InputStream inputStream = new FileInputStream(file)) {
+            inputStream.skip(position);
+            return StreamUtils.copy(inputStream, out);
+        }
+    }
+
+    @Benchmark
+    public long transferTo() throws IOException {
+        try (OutputStream out = openOutput()) {
+            fileService.writeFile("benchmark", out, position, FILE_SIZE - position);
+        }
+        return FILE_SIZE - position;
+    }
+
+    private OutputStream openOutput() throws IOException {
+        if ("file".equals(target)) {
+            return new FileOutputStream(output);
+        }
+        return new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        };
+    }
+
+    static class BenchmarkFileService extends LocalFileService {
+        private final File file;
+
+        BenchmarkFileService(File file) {
+            this.file = file;
+        }
+
+        @Override
+        protected File getFile(String fileIdOrMd5) {
+            return file;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FileDownloadBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,123 @@
+package org.hswebframework.web.benchmark.file;
+
+import org.hswebframework.web.entity.file.FileInfoEntity;
+import org.hswebframework.web.entity.file.SimpleFileInfoEntity;
+import org.hswebframework.web.service.file.FileInfoService;
+import org.hswebframework.web.service.file.simple.LocalFileService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 测试{@link LocalFileService#saveFile(InputStream, String, String, String)}保存数GB文件的耗时,
+ * 吞吐量(MB/s)= 文件大小 / 平均耗时.上传的数据流不支持{@link InputStream#available()},模拟未缓冲的multipart流.
+ * <p>
+ * 使用{@link GCProfiler}运行可以看到每次上传分配的内存与文件大小无关.
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FileUploadBenchmark {
+
+    @Param({"1073741824", "4294967296"})
+    private long size;
+
+    private File basePath;
+
+    private LocalFileService fileService;
+
+    private int counter;
+
+    @Setup
+    public void setup() throws IOException {
+        basePath = Files.createTempDirectory("upload-benchmark").toFile();
+        fileService = new LocalFileService();
+        fileService.setFilePath(basePath.getAbsolutePath());
+        //不保存文件信息
+        fileService.setFileInfoService((FileInfoService) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{FileInfoService.class}, (proxy, method, args) -> {
+                    if ("createEntity".equals(method.getName())) {
+                        return new SimpleFileInfoEntity();
+                    }
+                    return null;
+                }));
+    }
+
+    @TearDown(Level.Iteration)
+    public void clean() throws IOException {
+        FileSystemUtils.deleteRecursively(basePath);
+        Files.createDirectories(basePath.toPath());
+    }
+
+    @TearDown
+    public void shutdown() {
+        FileSystemUtils.deleteRecursively(basePath);
+    }
+
+    @Benchmark
+    public FileInfoEntity saveFile() throws IOException {
+        //每次的内容不同,避免按md5去重
+        return fileService.saveFile(new GeneratedInputStream(size, (byte) counter++), "benchmark.bin", null, null);
+    }
+
+    //生成指定大小的数据,不占用内存
+    static class GeneratedInputStream extends InputStream {
+        private final byte seed;
+
+        private long remaining;
+
+        GeneratedInputStream(long size, byte seed) {
+            this.remaining = size;
+            this.seed = seed;
+        }
+
+        @Override
+        public int read() {
+            if (remaining <= 0) {
+                return -1;
+            }
+            return (byte) (seed + remaining--) & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int length = (int) Math.min(len, remaining);
+            for (int i = 0; i < length; i++) {
+                b[off + i] = (byte) (seed + remaining--);
+            }
+            return length;
+        }
+
+        @Override
+        public int available() {
+            return 0;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FileUploadBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,118 @@
+package org.hswebframework.web.benchmark.file;
+
+import org.hswebframework.expands.compress.Compress;
+import org.hswebframework.expands.compress.zip.ZIPWriter;
+import org.hswebframework.web.controller.file.ZipStreamWriter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对比原{@link ZIPWriter}与{@link ZipStreamWriter}构建zip文件的耗时,
+ * 使用{@link GCProfiler}运行可以对比每次构建分配的内存.
+ * <p>
+ * 文件内容一半为随机数据(png,不压缩),一半为重复的文本(txt,压缩).
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FileZipBenchmark {
+
+    @Param({"10"})
+    private int files;
+
+    @Param({"1048576", "16777216"})
+    private int fileSize;
+
+    private final List<File> fileList = new ArrayList<>();
+
+    private ExecutorService readAheadExecutor;
+
+    @Setup
+    public void setup() throws IOException {
+        readAheadExecutor = Executors.newFixedThreadPool(2);
+        Random random = new Random();
+        byte[] data = new byte[fileSize];
+        for (int i = 0; i < files; i++) {
+            boolean image = i % 2 == 0;
+            File file = File.createTempFile("zip-benchmark", image ? ".png" : ".txt");
+            if (image) {
+                random.nextBytes(data);
+            } else {
+                for (int j = 0; j < data.length; j++) {
+                    data[j] = (byte) ('a' + j % 26);
+                }
+            }
+            Files.write(file.toPath(), data);
+            fileList.add(file);
+        }
+    }
+
+    @TearDown
+    public void shutdown() {
+        fileList.forEach(File::delete);
+        readAheadExecutor.shutdown();
+    }
+
+    @Benchmark
+    public long zipWriter() throws IOException {
+        ZIPWriter writer = Compress.zip();
+        for (File file : fileList) {
+            writer.addFile(file.getName(), new FileInputStream(file));
+        }
+        CountingOutputStream out = new CountingOutputStream();
+        writer.write(out);
+        return out.size;
+    }
+
+    @Benchmark
+    public long zipStreamWriter() throws IOException {
+        ZipStreamWriter writer = new ZipStreamWriter(readAheadExecutor);
+        for (File file : fileList) {
+            writer.addFile(file.getName(), () -> new FileInputStream(file));
+        }
+        CountingOutputStream out = new CountingOutputStream();
+        writer.write(out);
+        return out.size;
+    }
+
+    //只统计写出的字节数,模拟写出到客户端
+    static class CountingOutputStream extends OutputStream {
+        long size;
+
+        @Override
+        public void write(int b) {
+            size++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            size += len;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FileZipBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
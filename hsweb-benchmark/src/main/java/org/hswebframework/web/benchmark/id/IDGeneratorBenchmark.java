@@ -0,0 +1,59 @@
+package org.hswebframework.web.benchmark.id;
+
+import org.hswebframework.web.id.IDGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ID生成器吞吐量对比,使用多线程运行以体现{@link IDGenerator#SNOW_FLAKE}的锁竞争.
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class IDGeneratorBenchmark {
+
+    @Benchmark
+    public String md5() {
+        return IDGenerator.MD5.generate();
+    }
+
+    @Benchmark
+    public Long snowflake() {
+        return IDGenerator.SNOW_FLAKE.generate();
+    }
+
+    @Benchmark
+    public String snowflakeHex() {
+        return IDGenerator.SNOW_FLAKE_HEX.generate();
+    }
+
+    @Benchmark
+    public Long fastSnowflake() {
+        return IDGenerator.FAST_SNOW_FLAKE.generate();
+    }
+
+    @Benchmark
+    public String timeOrdered() {
+        return IDGenerator.TIME_ORDERED.generate();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(IDGeneratorBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,241 @@
+package org.hswebframework.web.excel;
+
+import lombok.SneakyThrows;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.BeanUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.beans.PropertyDescriptor;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 使用{@link SXSSFWorkbook}导出xlsx,内存中只保留{@link ExportOptions#getWindowSize()}行,
+ * 超出的行写入临时文件,导出完成后删除.
+ * <p>
+ * 表头映射与{@link DefaultExcelImporter}相同,每个类型和分组的导出列只解析一次,导出每行数据时不再查找映射.
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+@SuppressWarnings("all")
+public class DefaultExcelExporter implements ExcelExporter {
+
+    //嵌套类型可能引用自身,限制嵌套的层级
+    private static final int MAX_NEST_DEPTH = 4;
+
+    private final DefaultExcelImporter importer = new DefaultExcelImporter();
+
+    private final Map<String, ExportPlan> plans = new ConcurrentHashMap<>();
+
+    @Override
+    @SneakyThrows
+    public <T> int doExport(Iterator<T> data, Class<T> type, OutputStream outputStream, ExportOptions options, Class... group) {
+        if (options == null) {
+            options = new ExportOptions();
+        }
+        ExportPlan plan = getPlan(type, group);
+        SXSSFWorkbook workbook = new SXSSFWorkbook(options.getWindowSize());
+        workbook.setCompressTempFiles(options.isCompressTempFiles());
+        try {
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat(options.getDateFormat()));
+
+            int total = 0;
+            int sheetIndex = 0;
+            int rowIndex = 0;
+            Sheet sheet = null;
+            while (data.hasNext()) {
+                T value = data.next();
+                if (sheet == null || rowIndex > options.getMaxRowsPerSheet()) {
+                    sheet = createSheet(workbook, plan, sheetIndex == 0 ? options.getSheetName() : options.getSheetName() + "(" + sheetIndex + ")");
+                    sheetIndex++;
+                    rowIndex = 1;
+                }
+                plan.write(sheet.createRow(rowIndex++), value, dateStyle);
+                total++;
+            }
+            if (sheet == null) {
+                createSheet(workbook, plan, options.getSheetName());
+            }
+            workbook.write(outputStream);
+            outputStream.flush();
+            return total;
+        } finally {
+            //删除临时文件
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private Sheet createSheet(SXSSFWorkbook workbook, ExportPlan plan, String name) {
+        Sheet sheet = workbook.createSheet(name);
+        Row header = sheet.createRow(0);
+        for (int i = 0; i < plan.columns.size(); i++) {
+            header.createCell(i).setCellValue(plan.columns.get(i).header);
+        }
+        return sheet;
+    }
+
+    protected ExportPlan getPlan(Class type, Class... group) {
+        StringJoiner key = new StringJoiner(",", type.getName() + ":", "");
+        if (group != null) {
+            for (Class g : group) {
+                key.add(g.getName());
+            }
+        }
+        return plans.computeIfAbsent(key.toString(), k -> {
+            DefaultExcelImporter.HeaderMapper mapper = importer.getHeaderMapper(type, group);
+            if (mapper == null) {
+                throw new UnsupportedOperationException("不支持导出此类型");
+            }
+            List<ExportColumn> columns = new ArrayList<>();
+            createColumns(type, mapper, "", new ArrayList<>(), columns, 0);
+            return new ExportPlan(columns);
+        });
+    }
+
+    private void createColumns(Class type,
+                               DefaultExcelImporter.HeaderMapper mapper,
+                               String headerPrefix,
+                               List<Getter> parents,
+                               List<ExportColumn> columns,
+                               int depth) {
+        List<DefaultExcelImporter.HeaderMapping> mappings = new ArrayList<>(mapper.getMappings());
+        Collections.sort(mappings);
+        for (DefaultExcelImporter.HeaderMapping mapping : mappings) {
+            if (!mapping.isEnableExport()) {
+                continue;
+            }
+            Getter getter = createGetter(type, mapping.getField());
+            if (getter == null) {
+                continue;
+            }
+            List<Getter> path = new ArrayList<>(parents);
+            path.add(getter);
+            DefaultExcelImporter.HeaderMapper children = depth < MAX_NEST_DEPTH ? mapping.getChildren().get() : null;
+            if (children != null && !children.getMappings().isEmpty()) {
+                createColumns(getter.type, children, headerPrefix.concat(mapping.getHeader()), path, columns, depth + 1);
+            } else {
+                columns.add(new ExportColumn(headerPrefix.concat(mapping.getHeader()), path.toArray(new Getter[0]), mapping.getConverter()));
+            }
+        }
+    }
+
+    private Getter createGetter(Class type, String property) {
+        PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(type, property);
+        if (descriptor != null && descriptor.getReadMethod() != null) {
+            Method method = descriptor.getReadMethod();
+            ReflectionUtils.makeAccessible(method);
+            return new Getter(descriptor.getPropertyType(), method, null);
+        }
+        Field field = ReflectionUtils.findField(type, property);
+        if (field == null) {
+            return null;
+        }
+        ReflectionUtils.makeAccessible(field);
+        return new Getter(field.getType(), null, field);
+    }
+
+    static class Getter {
+        private final Class type;
+
+        private final Method method;
+
+        private final Field field;
+
+        Getter(Class type, Method method, Field field) {
+            this.type = type;
+            this.method = method;
+            this.field = field;
+        }
+
+        Object get(Object target) {
+            return method != null
+                    ? ReflectionUtils.invokeMethod(method, target)
+                    : ReflectionUtils.getField(field, target);
+        }
+    }
+
+    static class ExportColumn {
+        private final String header;
+
+        private final Getter[] path;
+
+        private final ExcelCellConverter converter;
+
+        ExportColumn(String header, Getter[] path, ExcelCellConverter converter) {
+            this.header = header;
+            this.path = path;
+            this.converter = converter == null ? DefaultExcelImporter.DEFAULT_CONVERTER : converter;
+        }
+
+        Object getValue(Object target) {
+            Object value = target;
+            for (Getter getter : path) {
+                if (value == null) {
+                    return null;
+                }
+                value = getter.get(value);
+            }
+            return value == null ? null : converter.convertToCell(value);
+        }
+    }
+
+    static class ExportPlan {
+        //excel中数字只保留15位有效数字
+        private static final int MAX_NUMBER_PRECISION = 15;
+
+        private final List<ExportColumn> columns;
+
+        ExportPlan(List<ExportColumn> columns) {
+            this.columns = columns;
+        }
+
+        void write(Row row, Object data, CellStyle dateStyle) {
+            for (int i = 0; i < columns.size(); i++) {
+                Object value = columns.get(i).getValue(data);
+                if (value == null) {
+                    continue;
+                }
+                Cell cell = row.createCell(i);
+                if (value instanceof Number && isExactNumber((Number) value)) {
+                    cell.setCellValue(((Number) value).doubleValue());
+                } else if (value instanceof Date) {
+                    cell.setCellValue((Date) value);
+                    cell.setCellStyle(dateStyle);
+                } else if (value instanceof Boolean) {
+                    cell.setCellValue((Boolean) value);
+                } else {
+                    cell.setCellValue(String.valueOf(value));
+                }
+            }
+        }
+
+        /**
+         * 转为double后精度不会丢失的数字才写出为数字单元格,否则写出为字符串,
+         * 如超过15位的long类型id
+         */
+        static boolean isExactNumber(Number value) {
+            if (!(value instanceof Long || value instanceof BigInteger || value instanceof BigDecimal)) {
+                return true;
+            }
+            double doubleValue = value.doubleValue();
+            if (Double.isInfinite(doubleValue)) {
+                return false;
+            }
+            BigDecimal decimal = value instanceof BigDecimal ? ((BigDecimal) value) : new BigDecimal(value.toString());
+            return decimal.stripTrailingZeros().precision() <= MAX_NUMBER_PRECISION
+                    && BigDecimal.valueOf(doubleValue).compareTo(decimal) == 0;
+        }
+    }
+}
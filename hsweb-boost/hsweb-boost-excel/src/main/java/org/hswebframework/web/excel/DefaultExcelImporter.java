@@ -12,10 +12,15 @@ import org.hswebframework.web.dict.ItemDefine;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.ReflectionUtils;
 
+import java.io.BufferedInputStream;
 import java.io.InputStream;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -151,7 +156,8 @@ public class DefaultExcelImporter implements ExcelImporter {
             this.group = group;
         }
 
-        private Map<String, HeaderMapping> fastMapping = new HashMap<>();
+        //导入时可能在多个线程中获取
+        private Map<String, HeaderMapping> fastMapping = new ConcurrentHashMap<>();
 
         private final List<HeaderMapping> mappings = new ArrayList<HeaderMapping>() {
             private static final long serialVersionUID = 5995980497414973311L;
@@ -167,38 +173,61 @@ public class DefaultExcelImporter implements ExcelImporter {
 
         @Override
         public Optional<HeaderMapping> getMapping(String key) {
-            return Optional.ofNullable(fastMapping.computeIfAbsent(key, k -> {
-                //尝试获取嵌套的属性
-                for (HeaderMapping mapping : mappings) {
-                    String newKey = key;
-                    //字段嵌套
-                    if (newKey.startsWith(mapping.field)) {
-                        newKey = newKey.substring(mapping.field.length());
-                    }
-                    //表头嵌套
-                    else if (newKey.startsWith(mapping.header)) {
-                        newKey = newKey.substring(mapping.header.length());
-                    } else {
-                        continue;
-                    }
-                    HeaderMapper mapper = mapping.children.get();
-                    if (null != mapper) {
-                        HeaderMapping map = mapper.getMapping(newKey).orElse(null);
-                        if (map != null) {
-                            map = map.copy();
-                            map.field = mapping.field.concat(".").concat(map.field);
-                            map.header = mapping.header.concat(map.header);
-                            return map;
-                        }
+            HeaderMapping cached = fastMapping.get(key);
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+            //嵌套的类型可能是自身,不能在computeIfAbsent中递归获取
+            HeaderMapping nest = getNestMapping(key);
+            if (nest == null) {
+                return Optional.empty();
+            }
+            HeaderMapping old = fastMapping.putIfAbsent(key, nest);
+            return Optional.of(old == null ? nest : old);
+        }
+
+        @Override
+        public List<HeaderMapping> getMappings() {
+            return Collections.unmodifiableList(mappings);
+        }
+
+        private HeaderMapping getNestMapping(String key) {
+            //尝试获取嵌套的属性
+            for (HeaderMapping mapping : mappings) {
+                String newKey = key;
+                //字段嵌套
+                if (newKey.startsWith(mapping.field)) {
+                    newKey = newKey.substring(mapping.field.length());
+                }
+                //表头嵌套
+                else if (newKey.startsWith(mapping.header)) {
+                    newKey = newKey.substring(mapping.header.length());
+                } else {
+                    continue;
+                }
+                HeaderMapper mapper = mapping.children.get();
+                if (null != mapper) {
+                    HeaderMapping map = mapper.getMapping(newKey).orElse(null);
+                    if (map != null) {
+                        map = map.copy();
+                        map.field = mapping.field.concat(".").concat(map.field);
+                        map.header = mapping.header.concat(map.header);
+                        return map;
                     }
                 }
-                return null;
-            }));
+            }
+            return null;
         }
     }
 
     interface HeaderMapper {
         Optional<HeaderMapping> getMapping(String key);
+
+        /**
+         * @return 类型中直接声明的全部映射
+         * @since 3.0.8
+         */
+        List<HeaderMapping> getMappings();
     }
 
     protected HeaderMapper getHeaderMapper(Class type, Class... group) {
@@ -215,89 +244,276 @@ public class DefaultExcelImporter implements ExcelImporter {
         }
     }
 
+    protected HeaderMapper getRequiredHeaderMapper(Class type, Class... group) {
+        HeaderMapper headerMapper = getHeaderMapper(type, group);
+        if (headerMapper == null) {
+            throw new UnsupportedOperationException("不支持导入此类型");
+        }
+        return headerMapper;
+    }
+
     @Override
     @SneakyThrows
     public <T> Result<T> doImport(InputStream inputStream, Class<T> type, Function<T, Error> afterParsed, Class... group) {
-        AtomicInteger counter = new AtomicInteger(0);
-        AtomicInteger errorCounter = new AtomicInteger(0);
         List<T> data = new ArrayList<>();
         List<Error> errors = new ArrayList<>();
-        HeaderMapper headerMapper = getHeaderMapper(type, group);
-        if (headerMapper == null) {
-            throw new UnsupportedOperationException("不支持导入此类型");
+        ImportProcess<T> process = new ImportProcess<>(getRequiredHeaderMapper(type, group), type, afterParsed, new ImportOptions(), batch -> {
+            data.addAll(batch.data);
+            errors.addAll(batch.errors);
+        });
+        try {
+            ExcelIO.read(inputStream, row -> process.addRow(row.getSheet(), row.getResult()));
+            process.finish();
+        } finally {
+            process.cancel();
         }
-        ExcelIO.read(inputStream, row -> {
-            counter.getAndAdd(1);
-            Map<String, Object> mapValue = row.getResult();
+        return Result.<T>builder()
+                .data(data)
+                .errors(errors)
+                .success(process.total - process.error)
+                .total(process.total)
+                .error(process.error)
+                .build();
+    }
 
-            Map<String, Object> newValue = new HashMap<>();
+    @Override
+    @SneakyThrows
+    public <T> Result<T> doStreamImport(InputStream inputStream,
+                                        Class<T> type,
+                                        Function<T, Error> afterParsed,
+                                        Consumer<List<T>> sink,
+                                        ImportOptions options,
+                                        Class... group) {
+        List<Error> errors = new ArrayList<>();
+        ImportProcess<T> process = new ImportProcess<>(getRequiredHeaderMapper(type, group), type, afterParsed,
+                options == null ? new ImportOptions() : options, batch -> {
+            errors.addAll(batch.errors);
+            if (!batch.success.isEmpty()) {
+                sink.accept(batch.success);
+            }
+        });
+        try {
+            BufferedInputStream input = inputStream instanceof BufferedInputStream
+                    ? ((BufferedInputStream) inputStream)
+                    : new BufferedInputStream(inputStream);
+            if (XlsxStreamReader.isXlsx(input)) {
+                XlsxStreamReader.read(input, process::addRow);
+            } else {
+                ExcelIO.read(input, row -> process.addRow(row.getSheet(), row.getResult()));
+            }
+            process.finish();
+        } finally {
+            process.cancel();
+        }
+        return Result.<T>builder()
+                .data(Collections.emptyList())
+                .errors(errors)
+                .success(process.total - process.error)
+                .total(process.total)
+                .error(process.error)
+                .build();
+    }
+
+    /**
+     * 预先编译的表头映射,表头对应的字段路径已经拆分好,编译后不再修改,可以在多个线程中使用
+     */
+    static class ColumnPlan {
+        static final ColumnPlan NONE = new ColumnPlan(null, null);
+
+        private final String[] path;
 
-            for (Map.Entry<String, Object> entry : mapValue.entrySet()) {
-                String key = entry.getKey();
-                HeaderMapping mapping = headerMapper.getMapping(key).orElse(null);
+        private final ExcelCellConverter converter;
 
-                if (mapping == null || !mapping.enableImport) {
+        ColumnPlan(String[] path, ExcelCellConverter converter) {
+            this.path = path;
+            this.converter = converter;
+        }
+    }
+
+    static class RawRow {
+        private final int rowIndex;
+
+        private final int sheetIndex;
+
+        private final Map<String, ColumnPlan> plan;
+
+        private final Map<String, Object> values;
+
+        RawRow(int rowIndex, int sheetIndex, Map<String, ColumnPlan> plan, Map<String, Object> values) {
+            this.rowIndex = rowIndex;
+            this.sheetIndex = sheetIndex;
+            this.plan = plan;
+            this.values = values;
+        }
+    }
+
+    static class ConvertedBatch<T> {
+        private final List<T> data;
+
+        private final List<T> success;
+
+        private final List<Error> errors = new ArrayList<>();
+
+        ConvertedBatch(int size) {
+            data = new ArrayList<>(size);
+            success = new ArrayList<>(size);
+        }
+    }
+
+    /**
+     * 导入过程,在读取excel的线程中调用{@link #addRow(int, Map)},数据按批次转换,
+     * 使用线程池时转换结果仍然按提交的顺序交给consumer
+     */
+    class ImportProcess<T> {
+        private final HeaderMapper headerMapper;
+
+        private final Class<T> type;
+
+        private final Function<T, Error> afterParsed;
+
+        private final ImportOptions options;
+
+        private final Consumer<ConvertedBatch<T>> consumer;
+
+        private final Map<Integer, Map<String, ColumnPlan>> sheetPlans = new HashMap<>();
+
+        private final Deque<CompletableFuture<ConvertedBatch<T>>> pending = new ArrayDeque<>();
+
+        private List<RawRow> buffer;
+
+        private int total;
+
+        private int error;
+
+        ImportProcess(HeaderMapper headerMapper, Class<T> type, Function<T, Error> afterParsed, ImportOptions options, Consumer<ConvertedBatch<T>> consumer) {
+            this.headerMapper = headerMapper;
+            this.type = type;
+            this.afterParsed = afterParsed;
+            this.options = options;
+            this.consumer = consumer;
+            this.buffer = new ArrayList<>(getBatchSize());
+        }
+
+        private int getBatchSize() {
+            return Math.max(1, options.getBatchSize());
+        }
+
+        void addRow(int sheetIndex, Map<String, Object> values) {
+            buffer.add(new RawRow(++total, sheetIndex, getPlan(sheetIndex, values.keySet()), values));
+            if (buffer.size() >= getBatchSize()) {
+                submit();
+            }
+        }
+
+        //同一个工作表的表头相同,出现新的表头时复制一份新的映射,已提交的数据仍然使用旧的映射
+        private Map<String, ColumnPlan> getPlan(int sheetIndex, Set<String> headers) {
+            Map<String, ColumnPlan> plan = sheetPlans.get(sheetIndex);
+            if (plan != null && plan.keySet().containsAll(headers)) {
+                return plan;
+            }
+            Map<String, ColumnPlan> newPlan = plan == null ? new HashMap<>() : new HashMap<>(plan);
+            for (String header : headers) {
+                newPlan.computeIfAbsent(header, this::compile);
+            }
+            sheetPlans.put(sheetIndex, newPlan);
+            return newPlan;
+        }
+
+        private ColumnPlan compile(String header) {
+            HeaderMapping mapping = headerMapper.getMapping(header).orElse(null);
+            if (mapping == null || !mapping.enableImport) {
+                return ColumnPlan.NONE;
+            }
+            // nest.obj.name => [nest,obj,name]
+            return new ColumnPlan(mapping.getField().split("[.]"), mapping.getConverter());
+        }
+
+        private void submit() {
+            List<RawRow> rows = buffer;
+            buffer = new ArrayList<>(getBatchSize());
+            Executor executor = options.getExecutor();
+            if (executor == null) {
+                deliver(convert(rows));
+                return;
+            }
+            pending.add(CompletableFuture.supplyAsync(() -> convert(rows), executor));
+            while (pending.size() > Math.max(1, options.getMaxPendingBatches())) {
+                deliver(join(pending.poll()));
+            }
+        }
+
+        void finish() {
+            if (!buffer.isEmpty()) {
+                submit();
+            }
+            while (!pending.isEmpty()) {
+                deliver(join(pending.poll()));
+            }
+        }
+
+        void cancel() {
+            pending.forEach(future -> future.cancel(false));
+            pending.clear();
+        }
+
+        @SneakyThrows
+        private ConvertedBatch<T> join(CompletableFuture<ConvertedBatch<T>> future) {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                throw e.getCause() == null ? e : e.getCause();
+            }
+        }
+
+        private void deliver(ConvertedBatch<T> batch) {
+            error += batch.errors.size();
+            consumer.accept(batch);
+        }
+
+        private ConvertedBatch<T> convert(List<RawRow> rows) {
+            ConvertedBatch<T> batch = new ConvertedBatch<>(rows.size());
+            for (RawRow row : rows) {
+                T instance = convert(row);
+                batch.data.add(instance);
+                Error error = afterParsed.apply(instance);
+                if (null != error) {
+                    error.setRowIndex(row.rowIndex);
+                    error.setSheetIndex(row.sheetIndex);
+                    batch.errors.add(error);
+                } else {
+                    batch.success.add(instance);
+                }
+            }
+            return batch;
+        }
+
+        private T convert(RawRow row) {
+            Map<String, Object> newValue = new HashMap<>();
+            for (Map.Entry<String, Object> entry : row.values.entrySet()) {
+                ColumnPlan plan = row.plan.get(entry.getKey());
+                if (plan == null || plan == ColumnPlan.NONE) {
                     continue;
                 }
-                Object value = mapping.getConverter().convertFromCell(entry.getValue());
-
-                String field = mapping.getField();
-                //嵌套的字段
-                if (field.contains(".")) {
-                    String tmpField = field;
-                    Map<String, Object> nestMapValue = newValue;
-
-                    while (tmpField.contains(".")) {
-
-                        // nest.obj.name => [nest,obj.name]
-                        String[] nestFields = tmpField.split("[.]", 2);
-
-                        //nest
-                        String nestField = nestFields[0];
-
-                        //obj.name
-                        tmpField = nestFields[1];
-
-                        Object nestValue = nestMapValue.get(nestField);
-                        //构造嵌套对象为map
-                        if (nestValue == null) {
-                            nestMapValue.put(nestField, nestMapValue = new HashMap<>());
-                        } else {
-                            if (nestValue instanceof Map) {
-                                nestMapValue = ((Map) nestValue);
-                            } else {
-                                //这里几乎不可能进入...
-                                nestMapValue.put(nestField, nestMapValue = FastBeanCopier.copy(nestValue, new HashMap<>()));
-                            }
-                        }
+                Object value = plan.converter.convertFromCell(entry.getValue());
+                Map<String, Object> nestMapValue = newValue;
+                //嵌套的字段,构造嵌套对象为map
+                for (int i = 0; i < plan.path.length - 1; i++) {
+                    Object nestValue = nestMapValue.get(plan.path[i]);
+                    if (nestValue instanceof Map) {
+                        nestMapValue = ((Map) nestValue);
+                    } else if (nestValue == null) {
+                        nestMapValue.put(plan.path[i], nestMapValue = new HashMap<>());
+                    } else {
+                        //这里几乎不可能进入...
+                        nestMapValue.put(plan.path[i], nestMapValue = FastBeanCopier.copy(nestValue, new HashMap<>()));
                     }
-                    //最后nestMapValue就为最里层嵌套的对象了
-                    nestMapValue.put(tmpField, value);
-                } else {
-                    newValue.put(field, value);
                 }
+                nestMapValue.put(plan.path[plan.path.length - 1], value);
             }
             //创建实例并将map复制到实例中
             T instance = FastBeanCopier.getBeanFactory().newInstance(type);
-
             FastBeanCopier.copy(newValue, instance);
-
-            data.add(instance);
-
-            Error error = afterParsed.apply(instance);
-            if (null != error) {
-                errorCounter.getAndAdd(1);
-                error.setRowIndex(counter.get());
-                error.setSheetIndex(row.getSheet());
-                errors.add(error);
-            }
-        });
-        return Result.<T>builder()
-                .data(data)
-                .errors(errors)
-                .success(counter.get() - errorCounter.get())
-                .total(counter.get())
-                .error(errorCounter.get())
-                .build();
+            return instance;
+        }
     }
 }
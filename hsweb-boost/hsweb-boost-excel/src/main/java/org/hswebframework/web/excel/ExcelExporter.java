@@ -0,0 +1,82 @@
+package org.hswebframework.web.excel;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * excel导出,使用与导入相同的表头映射{@link Excel},只导出{@link Excel#enableExport()}的字段,
+ * 按{@link Excel#exportOrder()}排序.
+ * <p>
+ * 数据从{@link Iterator}中逐条获取,写入时只在内存中保留固定数量的行,可以配合流式查询导出大量数据:
+ * <pre>
+ *     try (Stream&lt;UserEntity&gt; stream = userService.selectStream(param)) {
+ *         ExcelExporter.instance.doExport(stream, UserEntity.class, response.getOutputStream(), null);
+ *     }
+ * </pre>
+ *
+ * @author zhouhao
+ * @see ExcelImporter
+ * @since 3.0.8
+ */
+public interface ExcelExporter {
+
+    ExcelExporter instance = new DefaultExcelExporter();
+
+    /**
+     * 导出数据到输出流,导出完成后不会关闭输出流
+     *
+     * @param data         要导出的数据
+     * @param type         数据类型
+     * @param outputStream 输出流
+     * @param options      导出配置,为null时使用默认配置
+     * @param group        导出的分组 {@link Excel#group()},如果不指定则为 {@link Void#getClass()}
+     * @param <T>          泛型
+     * @return 导出的数据行数
+     */
+    <T> int doExport(Iterator<T> data, Class<T> type, OutputStream outputStream, ExportOptions options, Class... group);
+
+    /**
+     * 导出数据到输出流,导出完成后不会关闭输出流和数据流
+     *
+     * @see #doExport(Iterator, Class, OutputStream, ExportOptions, Class[])
+     */
+    default <T> int doExport(Stream<T> data, Class<T> type, OutputStream outputStream, ExportOptions options, Class... group) {
+        return doExport(data.iterator(), type, outputStream, options, group);
+    }
+
+    /**
+     * 导出配置
+     */
+    @Getter
+    @Setter
+    class ExportOptions {
+        /**
+         * 工作表名称,数据超过{@link #maxRowsPerSheet}时,之后的工作表名称会追加序号
+         */
+        String sheetName = "Sheet1";
+
+        /**
+         * 内存中保留的行数,超过后的行会写入临时文件
+         */
+        int windowSize = 100;
+
+        /**
+         * 每个工作表最多的数据行数,不包含表头,xlsx最多支持1048575行数据
+         */
+        int maxRowsPerSheet = 1048575;
+
+        /**
+         * 是否压缩临时文件,压缩后占用更少的磁盘空间
+         */
+        boolean compressTempFiles = true;
+
+        /**
+         * 日期格式
+         */
+        String dateFormat = "yyyy-MM-dd HH:mm:ss";
+    }
+}
@@ -7,6 +7,8 @@ import org.hswebframework.web.bean.FastBeanCopier;
 
 import java.io.InputStream;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 /**
@@ -32,6 +34,54 @@ public interface ExcelImporter {
      */
     <T> Result<T> doImport(InputStream inputStream, Class<T> type, Function<T, Error> afterParsed, Class... group);
 
+    /**
+     * 流式解析excel,解析结果按批次推送给sink,不会在内存中保留全部数据,用于导入大量数据.
+     * xlsx使用SAX逐行读取,xls仍然需要加载整个工作簿.
+     * <p>
+     * 指定了{@link ImportOptions#setExecutor(Executor)}时,数据转换和afterParsed会在线程池中执行,afterParsed需要是线程安全的.
+     * sink始终在调用线程中按excel中的顺序执行,返回结果中的错误信息也按行号排序.
+     *
+     * @param inputStream excel文件流,支持xls和xlsx
+     * @param type        要解析为的类型
+     * @param afterParsed 每解析完一个对象都会调用此接口,返回错误信息的数据不会推送给sink
+     * @param sink        接收每一批解析成功的数据
+     * @param options     导入配置
+     * @param group       导入的分组 {@link Excel#group()},如果不指定则为 {@link Void#getClass()}
+     * @param <T>         泛型
+     * @return 导入结果, 不包含数据{@link Result#getData()}
+     * @since 3.0.8
+     */
+    <T> Result<T> doStreamImport(InputStream inputStream,
+                                 Class<T> type,
+                                 Function<T, Error> afterParsed,
+                                 Consumer<List<T>> sink,
+                                 ImportOptions options,
+                                 Class... group);
+
+    /**
+     * 流式导入配置
+     *
+     * @since 3.0.8
+     */
+    @Getter
+    @Setter
+    class ImportOptions {
+        /**
+         * 每批推送给sink的数据量
+         */
+        int batchSize = 1000;
+
+        /**
+         * 执行数据转换的线程池,为null时在调用线程中执行
+         */
+        Executor executor;
+
+        /**
+         * 使用线程池时,最多同时转换的批次数量,用于限制内存占用
+         */
+        int maxPendingBatches = 4;
+    }
+
     @Builder
     @Getter
     @Setter
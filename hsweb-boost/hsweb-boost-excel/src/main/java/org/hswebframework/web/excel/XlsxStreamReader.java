@@ -0,0 +1,271 @@
+package org.hswebframework.web.excel;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.SAXParserFactory;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * 使用SAX逐行读取xlsx,不会将整个工作簿加载到内存中.
+ * 每个工作表的第一行作为表头,之后每一行转换为表头与单元格值对应的map.
+ * <p>
+ * 单元格的值与{@link org.hswebframework.expands.office.excel.ExcelIO}读取的结果一致:
+ * 数字为{@link Double},日期格式的数字为{@link Date},布尔为{@link Boolean},错误为错误码,
+ * 行中没有值的单元格为空字符串.
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+class XlsxStreamReader {
+
+    interface RowHandler {
+        void handle(int sheetIndex, Map<String, Object> row);
+    }
+
+    private static final byte[] ZIP_HEADER = {0x50, 0x4B, 0x03, 0x04};
+
+    private XlsxStreamReader() {
+    }
+
+    /**
+     * @param inputStream 支持mark的输入流
+     * @return 是否为xlsx(zip)格式
+     */
+    static boolean isXlsx(BufferedInputStream inputStream) throws IOException {
+        inputStream.mark(ZIP_HEADER.length);
+        try {
+            for (byte b : ZIP_HEADER) {
+                if (inputStream.read() != b) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            inputStream.reset();
+        }
+    }
+
+    /**
+     * 读取xlsx,上传的数据先写入临时文件,再以只读方式打开.
+     * 直接从输入流打开时会将整个zip解压到内存中,文件较大时内存占用很高.
+     *
+     * @param inputStream 输入流
+     * @param handler     行处理器
+     */
+    static void read(InputStream inputStream, RowHandler handler) throws Exception {
+        Path file = Files.createTempFile("hsweb-excel-import", ".xlsx");
+        try {
+            Files.copy(inputStream, file, StandardCopyOption.REPLACE_EXISTING);
+            read(file, handler);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    static void read(Path file, RowHandler handler) throws Exception {
+        OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ);
+        try {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+            SAXParserFactory factory = SAXParserFactory.newInstance();
+            factory.setNamespaceAware(true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            int sheetIndex = 0;
+            while (sheets.hasNext()) {
+                try (InputStream sheet = sheets.next()) {
+                    XMLReader xmlReader = factory.newSAXParser().getXMLReader();
+                    xmlReader.setContentHandler(new SheetHandler(sheetIndex, strings, styles, handler));
+                    xmlReader.parse(new InputSource(sheet));
+                }
+                sheetIndex++;
+            }
+        } finally {
+            //只读,不保存
+            pkg.revert();
+        }
+    }
+
+    static class SheetHandler extends DefaultHandler {
+        private final int sheetIndex;
+
+        private final ReadOnlySharedStringsTable strings;
+
+        private final StylesTable styles;
+
+        private final RowHandler handler;
+
+        private final Map<Integer, Boolean> dateStyles = new HashMap<>();
+
+        private final StringBuilder text = new StringBuilder();
+
+        private final Map<Integer, Object> cells = new HashMap<>();
+
+        private Map<Integer, String> headers;
+
+        private boolean readingText;
+
+        private int column;
+
+        private int lastColumn;
+
+        private String cellType;
+
+        private int cellStyle;
+
+        SheetHandler(int sheetIndex, ReadOnlySharedStringsTable strings, StylesTable styles, RowHandler handler) {
+            this.sheetIndex = sheetIndex;
+            this.strings = strings;
+            this.styles = styles;
+            this.handler = handler;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "row":
+                    cells.clear();
+                    column = -1;
+                    lastColumn = -1;
+                    break;
+                case "c":
+                    String reference = attributes.getValue("r");
+                    column = reference == null ? column + 1 : columnIndex(reference);
+                    cellType = attributes.getValue("t");
+                    String style = attributes.getValue("s");
+                    cellStyle = style == null ? -1 : Integer.parseInt(style);
+                    text.setLength(0);
+                    break;
+                case "v":
+                case "t":
+                    readingText = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (readingText) {
+                text.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "v":
+                case "t":
+                    readingText = false;
+                    break;
+                case "c":
+                    cells.put(column, cellValue());
+                    lastColumn = Math.max(lastColumn, column);
+                    break;
+                case "row":
+                    endRow();
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private void endRow() {
+            //没有单元格的行
+            if (lastColumn < 0) {
+                return;
+            }
+            if (headers == null) {
+                headers = new TreeMap<>();
+                cells.forEach((index, value) -> {
+                    String header = String.valueOf(value);
+                    if (!header.isEmpty()) {
+                        headers.put(index, header);
+                    }
+                });
+                return;
+            }
+            //与ExcelIO一致,最后一个单元格之前没有值的单元格为空字符串
+            Map<String, Object> row = new LinkedHashMap<>(headers.size() * 4 / 3 + 1);
+            headers.forEach((index, header) -> {
+                if (index <= lastColumn) {
+                    row.put(header, cells.getOrDefault(index, ""));
+                }
+            });
+            handler.handle(sheetIndex, row);
+        }
+
+        private Object cellValue() {
+            String value = text.toString();
+            if (value.isEmpty()) {
+                return "";
+            }
+            if (cellType == null || "n".equals(cellType)) {
+                double number = Double.parseDouble(value);
+                if (isDateStyle(cellStyle)) {
+                    return DateUtil.getJavaDate(number);
+                }
+                return number;
+            }
+            switch (cellType) {
+                case "s":
+                    return strings.getEntryAt(Integer.parseInt(value));
+                case "b":
+                    return "1".equals(value);
+                case "e":
+                    return FormulaError.forString(value).getCode();
+                default:
+                    //inlineStr,str
+                    return value;
+            }
+        }
+
+        private boolean isDateStyle(int styleIndex) {
+            if (styleIndex < 0 || styles == null) {
+                return false;
+            }
+            return dateStyles.computeIfAbsent(styleIndex, index -> {
+                XSSFCellStyle style = styles.getStyleAt(index);
+                short format = style.getDataFormat();
+                String formatString = style.getDataFormatString();
+                if (formatString == null) {
+                    formatString = BuiltinFormats.getBuiltinFormat(format);
+                }
+                return formatString != null && DateUtil.isADateFormat(format, formatString);
+            });
+        }
+
+        //A1 => 0, AB12 => 27
+        static int columnIndex(String reference) {
+            int index = 0;
+            for (int i = 0; i < reference.length(); i++) {
+                char c = reference.charAt(i);
+                if (c < 'A' || c > 'Z') {
+                    break;
+                }
+                index = index * 26 + (c - 'A' + 1);
+            }
+            return index - 1;
+        }
+    }
+}
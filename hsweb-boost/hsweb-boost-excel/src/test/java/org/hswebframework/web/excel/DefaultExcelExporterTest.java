@@ -0,0 +1,175 @@
+package org.hswebframework.web.excel;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.SneakyThrows;
+import org.hswebframework.web.commons.bean.Bean;
+import org.hswebframework.web.commons.entity.DataStatusEnum;
+import org.hswebframework.web.excel.DefaultExcelImporterTest.TestBean;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * @author zhouhao
+ * @since 3.0.8
+ */
+public class DefaultExcelExporterTest {
+
+    private static final int ROWS = 1_000_000;
+
+    //使用XSSFWorkbook导出100万行时占用的内存远超过此值
+    private static final long MAX_MEMORY_INCREASE = 64 * 1024 * 1024;
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    @Test
+    public void testExport() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int total = ExcelExporter.instance.doExport(IntStream.rangeClosed(1, 100).mapToObj(i -> {
+            TestBean bean = createBean(i);
+            bean.setStatus(DataStatusEnum.ENABLED);
+            bean.setNest(createBean(i * 10));
+            return bean;
+        }), TestBean.class, out, null);
+        Assert.assertEquals(100, total);
+
+        List<TestBean> data = new ArrayList<>();
+        ExcelImporter.Result<TestBean> result = ExcelImporter.instance
+                .doStreamImport(new ByteArrayInputStream(out.toByteArray()), TestBean.class, bean -> null, data::addAll, null);
+        Assert.assertEquals(100, result.success);
+        for (int i = 0; i < data.size(); i++) {
+            TestBean bean = data.get(i);
+            Assert.assertEquals(i + 1, bean.getAge());
+            Assert.assertEquals("test" + (i + 1), bean.getName());
+            Assert.assertEquals("test" + (i + 1) * 10, bean.getNest().getName());
+        }
+    }
+
+    @Test
+    public void testExportSplitSheet() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExcelExporter.ExportOptions options = new ExcelExporter.ExportOptions();
+        options.setMaxRowsPerSheet(30);
+        ExcelExporter.instance.doExport(IntStream.rangeClosed(1, 100).mapToObj(this::createBean), TestBean.class, out, options);
+
+        List<TestBean> data = new ArrayList<>();
+        ExcelImporter.Result<TestBean> result = ExcelImporter.instance
+                .doStreamImport(new ByteArrayInputStream(out.toByteArray()), TestBean.class, bean -> null, data::addAll, null);
+        Assert.assertEquals(100, result.success);
+        Assert.assertEquals(100, data.get(data.size() - 1).getAge());
+    }
+
+    @Test
+    public void testExportLargeData() {
+        long baseline = usedMemory();
+        long[] maxIncrease = new long[1];
+
+        Iterator<TestBean> data = new Iterator<TestBean>() {
+            int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < ROWS;
+            }
+
+            @Override
+            public TestBean next() {
+                if (++index % 100_000 == 0) {
+                    maxIncrease[0] = Math.max(maxIncrease[0], usedMemory() - baseline);
+                }
+                return createBean(index);
+            }
+        };
+        CountingOutputStream out = new CountingOutputStream();
+        int total = ExcelExporter.instance.doExport(data, TestBean.class, out, null);
+
+        Assert.assertEquals(ROWS, total);
+        Assert.assertTrue(out.size > 0);
+        Assert.assertTrue("memory increase:" + maxIncrease[0], maxIncrease[0] < MAX_MEMORY_INCREASE);
+    }
+
+    @Test
+    @SneakyThrows
+    public void testExportLargeNumber() {
+        NumberBean bean = new NumberBean();
+        bean.setId(Long.MAX_VALUE);
+        bean.setCount(100L);
+        bean.setBigInteger(new BigInteger("123456789012345678901234567890"));
+        bean.setAmount(new BigDecimal("12345678901234567.89"));
+        bean.setPrice(new BigDecimal("0.10"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExcelExporter.instance.doExport(Stream.of(bean), NumberBean.class, out, null);
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        XlsxStreamReader.read(new ByteArrayInputStream(out.toByteArray()), (sheetIndex, row) -> rows.add(row));
+        Assert.assertEquals(1, rows.size());
+        Map<String, Object> row = rows.get(0);
+        //转为double后会丢失精度的数字写出为字符串
+        Assert.assertEquals(String.valueOf(Long.MAX_VALUE), row.get("编号"));
+        Assert.assertEquals("123456789012345678901234567890", row.get("大整数"));
+        Assert.assertEquals("12345678901234567.89", row.get("金额"));
+        Assert.assertEquals(100D, row.get("数量"));
+        Assert.assertEquals(0.1D, row.get("单价"));
+    }
+
+    private TestBean createBean(int index) {
+        TestBean bean = new TestBean();
+        bean.setName("test" + index);
+        bean.setAge(index);
+        return bean;
+    }
+
+    private long usedMemory() {
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    @Getter
+    @Setter
+    public static class NumberBean implements Bean {
+
+        private static final long serialVersionUID = 1L;
+
+        @Excel("编号")
+        private Long id;
+
+        @Excel("数量")
+        private Long count;
+
+        @Excel("大整数")
+        private BigInteger bigInteger;
+
+        @Excel("金额")
+        private BigDecimal amount;
+
+        @Excel("单价")
+        private BigDecimal price;
+    }
+
+    //只统计写出的字节数,模拟直接写出到客户端
+    static class CountingOutputStream extends OutputStream {
+        long size;
+
+        @Override
+        public void write(int b) {
+            size++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            size += len;
+        }
+    }
+}
@@ -4,12 +4,28 @@ import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.serializer.SerializerFeature;
 import lombok.Getter;
 import lombok.Setter;
+import lombok.SneakyThrows;
 import lombok.ToString;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.hswebframework.expands.office.excel.ExcelIO;
 import org.hswebframework.web.commons.bean.Bean;
 import org.hswebframework.web.commons.entity.DataStatusEnum;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
 
 /**
  * @author zhouhao
@@ -33,6 +49,116 @@ public class DefaultExcelImporterTest {
 
     }
 
+    @Test
+    public void testStreamImportXls() {
+        List<TestBean> data = new ArrayList<>();
+        ExcelImporter.Result<TestBean> result = ExcelImporter
+                .instance
+                .doStreamImport(this.getClass().getResourceAsStream("/test.xls"), TestBean.class, bean -> null, data::addAll, null);
+        Assert.assertEquals(1, result.success);
+        Assert.assertTrue(result.getData().isEmpty());
+        Assert.assertEquals(1, data.size());
+        Assert.assertNotNull(data.get(0).nest.nest);
+    }
+
+    @Test
+    @SneakyThrows
+    public void testStreamImportXlsx() {
+        int rows = 10000;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet();
+            Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue("姓名");
+            header.createCell(1).setCellValue("年龄");
+            header.createCell(2).setCellValue("嵌套-姓名");
+            for (int i = 1; i <= rows; i++) {
+                Row row = sheet.createRow(i);
+                row.createCell(0).setCellValue("test" + i);
+                row.createCell(1).setCellValue(i);
+                row.createCell(2).setCellValue("nest" + i);
+            }
+            workbook.write(out);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            ExcelImporter.ImportOptions options = new ExcelImporter.ImportOptions();
+            options.setBatchSize(100);
+            options.setExecutor(executor);
+            AtomicInteger batches = new AtomicInteger();
+            List<TestBean> data = new ArrayList<>();
+            ExcelImporter.Result<TestBean> result = ExcelImporter
+                    .instance
+                    .doStreamImport(new ByteArrayInputStream(out.toByteArray()), TestBean.class,
+                            bean -> bean.age % 7 == 0 ? ExcelImporter.Error.builder().reason("error").build() : null,
+                            batch -> {
+                                batches.incrementAndGet();
+                                data.addAll(batch);
+                            }, options);
+
+            Assert.assertEquals(rows, result.total);
+            Assert.assertEquals(rows / 7, result.error);
+            Assert.assertEquals(rows - rows / 7, result.success);
+            Assert.assertEquals(100, batches.get());
+            Assert.assertEquals(result.success, data.size());
+            //数据和错误信息都保持excel中的顺序
+            int lastAge = 0;
+            for (TestBean bean : data) {
+                Assert.assertTrue(bean.age > lastAge);
+                Assert.assertEquals("test" + bean.age, bean.name);
+                Assert.assertEquals("nest" + bean.age, bean.nest.name);
+                lastAge = bean.age;
+            }
+            int lastRow = 0;
+            for (ExcelImporter.Error error : result.errors) {
+                Assert.assertTrue(error.rowIndex > lastRow);
+                Assert.assertEquals(0, error.rowIndex % 7);
+                lastRow = error.rowIndex;
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    public void testXlsxStreamReaderSameAsExcelIO() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy-MM-dd"));
+            Sheet sheet = workbook.createSheet();
+            Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue("姓名");
+            header.createCell(1).setCellValue("年龄");
+            header.createCell(2).setCellValue("金额");
+            header.createCell(3).setCellValue("日期");
+            header.createCell(4).setCellValue("启用");
+            Row row = sheet.createRow(1);
+            row.createCell(0).setCellValue("test");
+            row.createCell(1).setCellValue(18);
+            row.createCell(2).setCellValue(1.5);
+            row.createCell(3).setCellValue(new Date(1_500_000_000_000L));
+            row.getCell(3).setCellStyle(dateStyle);
+            row.createCell(4).setCellValue(true);
+            //中间有空单元格
+            row = sheet.createRow(2);
+            row.createCell(0).setCellValue("empty");
+            row.createCell(2).setCellValue(2);
+            row.createCell(3);
+            workbook.write(out);
+        }
+        List<Map<String, Object>> expected = new ArrayList<>();
+        ExcelIO.read(new ByteArrayInputStream(out.toByteArray()), row -> expected.add(row.getResult()));
+
+        List<Map<String, Object>> actual = new ArrayList<>();
+        XlsxStreamReader.read(new ByteArrayInputStream(out.toByteArray()), (sheetIndex, row) -> actual.add(row));
+
+        Assert.assertEquals(2, actual.size());
+        Assert.assertEquals(expected, actual);
+    }
+
     @Getter
     @Setter
     @ToString
@@ -0,0 +1,29 @@
+package org.hswebframework.web.dao;
+
+import java.util.function.Consumer;
+
+/**
+ * 批量执行DAO操作.在{@link #executeBatch(Dao, Consumer)}中对dao的新增,修改,删除操作会使用JDBC批量执行,
+ * 执行结束时统一提交到数据库.批量执行期间dao方法的返回值无意义.
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+public interface BatchDaoExecutor {
+
+    /**
+     * @param dao dao
+     * @return 是否支持对此dao进行批量操作
+     */
+    boolean supports(Dao dao);
+
+    /**
+     * 批量执行dao操作
+     *
+     * @param dao        dao
+     * @param operations 对dao的操作,参数为批量模式下的dao
+     * @param <D>        dao类型
+     * @return 影响的记录数
+     */
+    <D extends Dao> int executeBatch(D dao, Consumer<D> operations);
+}
@@ -0,0 +1,48 @@
+package org.hswebframework.web.dao;
+
+import org.hswebframework.web.commons.entity.Entity;
+import org.hswebframework.web.dao.dynamic.QueryByEntityDao;
+
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * 流式执行{@link QueryByEntityDao#query(Entity)},查询结果逐条从数据库读取,不会一次性加载到内存中.
+ * 用于导出,数据迁移等需要处理大量数据的场景.
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+public interface StreamQueryDaoExecutor {
+
+    /**
+     * @param dao dao
+     * @return 是否支持对此dao进行流式查询
+     */
+    boolean supports(QueryByEntityDao<?> dao);
+
+    /**
+     * 流式查询,方法返回时数据库资源已经释放
+     *
+     * @param dao      dao
+     * @param param    查询参数
+     * @param consumer 逐条处理查询结果,不应该保留对结果的引用
+     * @param <E>      查询结果类型
+     */
+    <E> void query(QueryByEntityDao<E> dao, Entity param, Consumer<? super E> consumer);
+
+    /**
+     * 流式查询,返回的{@link Stream}持有数据库连接,使用完后必须关闭,如:
+     * <pre>
+     *     try(Stream&lt;E&gt; stream = executor.stream(dao, param)){
+     *         stream.forEach(...);
+     *     }
+     * </pre>
+     *
+     * @param dao   dao
+     * @param param 查询参数
+     * @param <E>   查询结果类型
+     * @return 查询结果
+     */
+    <E> Stream<E> stream(QueryByEntityDao<E> dao, Entity param);
+}
@@ -0,0 +1,97 @@
+package org.hswebframework.web.dao.mybatis;
+
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.hswebframework.web.dao.BatchDaoExecutor;
+import org.hswebframework.web.dao.Dao;
+import org.mybatis.spring.SqlSessionHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.ClassUtils;
+
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * 使用mybatis {@link ExecutorType#BATCH}批量执行dao操作.
+ * <p>
+ * 每次批量执行都会打开新的{@link SqlSession},不会与当前事务中已有的{@link ExecutorType#SIMPLE}会话冲突,
+ * 连接仍然通过spring获取,所以在事务中执行时与事务使用同一个连接.
+ * 批量执行后会清空事务中会话的一级缓存,避免在同一个事务中再次查询时返回批量执行前的数据.
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+public class MybatisBatchDaoExecutor implements BatchDaoExecutor {
+
+    private static final Class<?> NONE = Void.class;
+
+    private final SqlSessionFactory sqlSessionFactory;
+
+    private final Map<Class<?>, Class<?>> mapperTypes = new ConcurrentHashMap<>();
+
+    public MybatisBatchDaoExecutor(SqlSessionFactory sqlSessionFactory) {
+        this.sqlSessionFactory = sqlSessionFactory;
+    }
+
+    @Override
+    public boolean supports(Dao dao) {
+        return dao != null && getMapperType(dao) != NONE;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <D extends Dao> int executeBatch(D dao, Consumer<D> operations) {
+        Class<?> mapperType = getMapperType(dao);
+        if (mapperType == NONE) {
+            throw new UnsupportedOperationException("unsupported dao:" + dao);
+        }
+        try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+            operations.accept((D) session.getMapper(mapperType));
+            List<BatchResult> results = session.flushStatements();
+            //在spring事务中时不会真正提交
+            session.commit();
+            return countUpdates(results);
+        } finally {
+            clearTransactionSessionCache();
+        }
+    }
+
+    private void clearTransactionSessionCache() {
+        SqlSessionHolder holder = (SqlSessionHolder) TransactionSynchronizationManager.getResource(sqlSessionFactory);
+        if (holder != null) {
+            holder.getSqlSession().clearCache();
+        }
+    }
+
+    private Class<?> getMapperType(Dao dao) {
+        return mapperTypes.computeIfAbsent(dao.getClass(), type -> {
+            Configuration configuration = sqlSessionFactory.getConfiguration();
+            for (Class<?> interfaceType : ClassUtils.getAllInterfacesForClassAsSet(type)) {
+                if (Dao.class.isAssignableFrom(interfaceType) && configuration.hasMapper(interfaceType)) {
+                    return interfaceType;
+                }
+            }
+            return NONE;
+        });
+    }
+
+    private static int countUpdates(List<BatchResult> results) {
+        int total = 0;
+        for (BatchResult result : results) {
+            for (int count : result.getUpdateCounts()) {
+                if (count > 0) {
+                    total += count;
+                } else if (count == Statement.SUCCESS_NO_INFO) {
+                    total++;
+                }
+            }
+        }
+        return total;
+    }
+}
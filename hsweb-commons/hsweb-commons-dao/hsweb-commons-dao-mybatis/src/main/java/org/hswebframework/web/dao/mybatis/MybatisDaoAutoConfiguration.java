@@ -18,15 +18,21 @@
 
 package org.hswebframework.web.dao.mybatis;
 
+import org.apache.ibatis.session.SqlSessionFactory;
 import org.hswebframework.ezorm.rdb.render.dialect.Dialect;
+import org.hswebframework.web.dao.BatchDaoExecutor;
 import org.hswebframework.web.dao.Dao;
+import org.hswebframework.web.dao.StreamQueryDaoExecutor;
 import org.hswebframework.web.dao.mybatis.mapper.SqlTermCustomizer;
 import org.hswebframework.web.dao.mybatis.mapper.dict.DictInTermTypeMapper;
 import org.hswebframework.web.dao.mybatis.mapper.dict.DictTermTypeMapper;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
@@ -43,6 +49,20 @@ import java.util.List;
 @AutoConfigureAfter(MyBatisAutoConfiguration.class)
 @EnableConfigurationProperties(MybatisProperties.class)
 public class MybatisDaoAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(BatchDaoExecutor.class)
+    public MybatisBatchDaoExecutor mybatisBatchDaoExecutor(@Qualifier("sqlSessionFactory") SqlSessionFactory sqlSessionFactory) {
+        return new MybatisBatchDaoExecutor(sqlSessionFactory);
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "hsweb.dao.stream-query")
+    @ConditionalOnMissingBean(StreamQueryDaoExecutor.class)
+    public MybatisStreamQueryDaoExecutor mybatisStreamQueryDaoExecutor(@Qualifier("sqlSessionFactory") SqlSessionFactory sqlSessionFactory) {
+        return new MybatisStreamQueryDaoExecutor(sqlSessionFactory);
+    }
+
     @Bean
     public DictTermTypeMapper dictTermTypeMapper() {
         return new DictTermTypeMapper(false);
@@ -0,0 +1,165 @@
+package org.hswebframework.web.dao.mybatis;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.exceptions.ExceptionFactory;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.transaction.Transaction;
+import org.hswebframework.web.commons.entity.Entity;
+import org.hswebframework.web.dao.StreamQueryDaoExecutor;
+import org.hswebframework.web.dao.dynamic.QueryByEntityDao;
+import org.hswebframework.web.datasource.DataSourceHolder;
+import org.hswebframework.web.datasource.DatabaseType;
+import org.springframework.util.ClassUtils;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 使用mybatis {@link org.apache.ibatis.session.ResultHandler}和{@link Cursor}实现流式查询.
+ * <p>
+ * 使用dao中的query语句,复制为指定了fetchSize和{@link ResultSetType#FORWARD_ONLY}的新语句执行.
+ * 复制的语句只保存在当前对象中,不注册到{@link Configuration},运行时不会修改mybatis的配置.
+ * <p>
+ * 和{@link SqlSession}一样为每次查询打开新的{@link Executor},连接仍然通过spring获取,在事务中执行时与事务使用同一个连接.
+ * <p>
+ * mysql驱动只有在fetchSize为{@link Integer#MIN_VALUE}时才会逐条读取,读取完成前同一个连接不能执行其他sql.
+ * postgresql只有在关闭了自动提交时fetchSize才会生效,应该在事务中执行.
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+public class MybatisStreamQueryDaoExecutor implements StreamQueryDaoExecutor {
+
+    private static final String NONE = "";
+
+    private final SqlSessionFactory sqlSessionFactory;
+
+    private final Map<Class<?>, String> statements = new ConcurrentHashMap<>();
+
+    //key为原语句id和fetchSize
+    private final Map<String, MappedStatement> streamStatements = new ConcurrentHashMap<>();
+
+    /**
+     * 每次从数据库读取的数据量
+     */
+    @Getter
+    @Setter
+    private int fetchSize = 1000;
+
+    public MybatisStreamQueryDaoExecutor(SqlSessionFactory sqlSessionFactory) {
+        this.sqlSessionFactory = sqlSessionFactory;
+    }
+
+    @Override
+    public boolean supports(QueryByEntityDao<?> dao) {
+        return dao != null && !getQueryStatement(dao).isEmpty();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <E> void query(QueryByEntityDao<E> dao, Entity param, Consumer<? super E> consumer) {
+        MappedStatement statement = getStreamStatement(dao);
+        Executor executor = openExecutor();
+        try {
+            executor.query(statement, param, RowBounds.DEFAULT, context -> consumer.accept((E) context.getResultObject()));
+        } catch (SQLException e) {
+            throw ExceptionFactory.wrapException("Error querying database.  Cause: " + e, e);
+        } finally {
+            executor.close(false);
+        }
+    }
+
+    @Override
+    public <E> Stream<E> stream(QueryByEntityDao<E> dao, Entity param) {
+        MappedStatement statement = getStreamStatement(dao);
+        Executor executor = openExecutor();
+        try {
+            Cursor<E> cursor = executor.queryCursor(statement, param, RowBounds.DEFAULT);
+            //先关闭cursor再释放连接
+            return StreamSupport.stream(cursor.spliterator(), false)
+                    .onClose(() -> {
+                        try {
+                            cursor.close();
+                        } catch (IOException ignore) {
+                        } finally {
+                            executor.close(false);
+                        }
+                    });
+        } catch (SQLException e) {
+            executor.close(false);
+            throw ExceptionFactory.wrapException("Error querying database.  Cause: " + e, e);
+        } catch (RuntimeException | Error e) {
+            executor.close(false);
+            throw e;
+        }
+    }
+
+    private Executor openExecutor() {
+        Configuration configuration = sqlSessionFactory.getConfiguration();
+        Environment environment = configuration.getEnvironment();
+        Transaction transaction = environment.getTransactionFactory()
+                .newTransaction(environment.getDataSource(), null, false);
+        return configuration.newExecutor(transaction);
+    }
+
+    protected int getFetchSize(DatabaseType databaseType) {
+        return databaseType == DatabaseType.mysql ? Integer.MIN_VALUE : fetchSize;
+    }
+
+    private MappedStatement getStreamStatement(QueryByEntityDao<?> dao) {
+        String statement = getQueryStatement(dao);
+        if (statement.isEmpty()) {
+            throw new UnsupportedOperationException("unsupported dao:" + dao);
+        }
+        int fetchSize = getFetchSize(DataSourceHolder.currentDatabaseType());
+        String streamStatement = statement + "!stream" + fetchSize;
+        return streamStatements.computeIfAbsent(streamStatement, id ->
+                createStreamStatement(sqlSessionFactory.getConfiguration().getMappedStatement(statement), id, fetchSize));
+    }
+
+    private MappedStatement createStreamStatement(MappedStatement statement, String id, int fetchSize) {
+        return new MappedStatement.Builder(statement.getConfiguration(), id, statement.getSqlSource(), statement.getSqlCommandType())
+                .resource(statement.getResource())
+                .databaseId(statement.getDatabaseId())
+                .lang(statement.getLang())
+                .statementType(statement.getStatementType())
+                .parameterMap(statement.getParameterMap())
+                .resultMaps(statement.getResultMaps())
+                .resultOrdered(statement.isResultOrdered())
+                .timeout(statement.getTimeout())
+                .fetchSize(fetchSize)
+                .resultSetType(ResultSetType.FORWARD_ONLY)
+                .flushCacheRequired(false)
+                .useCache(false)
+                .build();
+    }
+
+    private String getQueryStatement(QueryByEntityDao<?> dao) {
+        return statements.computeIfAbsent(dao.getClass(), type -> {
+            Configuration configuration = sqlSessionFactory.getConfiguration();
+            for (Class<?> interfaceType : ClassUtils.getAllInterfacesForClassAsSet(type)) {
+                String statement = interfaceType.getName() + ".query";
+                if (QueryByEntityDao.class.isAssignableFrom(interfaceType)
+                        && configuration.hasMapper(interfaceType)
+                        && configuration.hasStatement(statement)) {
+                    return statement;
+                }
+            }
+            return NONE;
+        });
+    }
+}
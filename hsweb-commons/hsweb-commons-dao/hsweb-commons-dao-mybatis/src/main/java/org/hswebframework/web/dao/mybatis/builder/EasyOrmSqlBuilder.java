@@ -35,18 +35,21 @@ import org.hswebframework.ezorm.rdb.render.Sql;
 import org.hswebframework.ezorm.rdb.render.SqlAppender;
 import org.hswebframework.ezorm.rdb.render.SqlRender;
 import org.hswebframework.ezorm.rdb.render.dialect.*;
+import org.hswebframework.ezorm.rdb.render.dialect.term.BoostTermTypeMapper;
 import org.hswebframework.ezorm.rdb.render.support.simple.CommonSqlRender;
 import org.hswebframework.ezorm.rdb.render.support.simple.SimpleWhereSqlBuilder;
 import org.hswebframework.web.BusinessException;
 import org.hswebframework.web.commons.entity.Entity;
 import org.hswebframework.web.commons.entity.factory.EntityFactory;
 import org.hswebframework.web.dao.mybatis.builder.jpa.JpaAnnotationParser;
+import org.hswebframework.web.dao.mybatis.mapper.ChangedTermValue;
 import org.hswebframework.web.dao.mybatis.plgins.pager.Pager;
 import org.hswebframework.web.dao.mybatis.MybatisUtils;
 import org.hswebframework.utils.StringUtils;
 import org.hswebframework.web.datasource.DataSourceHolder;
 import org.hswebframework.web.datasource.DatabaseType;
 
+import java.lang.reflect.Array;
 import java.sql.JDBCType;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -64,6 +67,20 @@ public class EasyOrmSqlBuilder {
 
     public volatile boolean useJpa = false;
 
+    /**
+     * 是否缓存查询字段,排序和where条件的sql片段,相同结构的查询(表,数据库,查询字段,排序,条件)不再重复生成sql
+     *
+     * @since 3.0.8
+     */
+    public volatile boolean useTemplateCache = true;
+
+    /**
+     * 每种sql片段最多缓存的数量,超过后不再缓存新的片段,避免不固定的查询字段导致缓存无限增长
+     *
+     * @since 3.0.8
+     */
+    public volatile int maxTemplateCacheSize = 4096;
+
     public EntityFactory entityFactory;
 
     private static final EasyOrmSqlBuilder instance = new EasyOrmSqlBuilder();
@@ -114,6 +131,19 @@ public class EasyOrmSqlBuilder {
 
     private final ConcurrentMap<RDBDatabaseMetaData, Map<String, RDBTableMetaData>> metaCache = new ConcurrentHashMap<>();
 
+    private final ConcurrentMap<List<Object>, String> selectFieldsCache = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<List<Object>, String> orderCache = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<List<Object>, WhereTemplate> whereCache = new ConcurrentHashMap<>();
+
+    //只缓存内置的条件类型,自定义的条件类型可能根据值(如查询数据库)生成不同的sql
+    private static final Set<String> templateTermTypes = new HashSet<>(Arrays.asList(
+            TermType.eq, TermType.not, TermType.like, TermType.nlike,
+            TermType.gt, TermType.lt, TermType.gte, TermType.lte,
+            TermType.btw, TermType.nbtw, TermType.in, TermType.nin,
+            TermType.isnull, TermType.notnull));
+
     public RDBDatabaseMetaData getActiveDatabase() {
         DatabaseType type = DataSourceHolder.currentDatabaseType();
         switch (type) {
@@ -314,6 +344,22 @@ public class EasyOrmSqlBuilder {
         }
         RDBTableMetaData tableMetaData = createMeta(tableName, resultMapId);
         RDBDatabaseMetaData databaseMetaDate = getActiveDatabase();
+        List<Object> cacheKey = null;
+        String fields = null;
+        if (useTemplateCache) {
+            cacheKey = Arrays.asList(databaseMetaDate, resultMapId, tableName, tableMetaData.getName(),
+                    new ArrayList<>(param.getIncludes()), new ArrayList<>(param.getExcludes()));
+            fields = selectFieldsCache.get(cacheKey);
+        }
+        if (fields == null) {
+            fields = renderSelectFields(tableMetaData, databaseMetaDate, param);
+            putTemplate(selectFieldsCache, cacheKey, fields);
+        }
+        param.getIncludes().remove("*");
+        return fields;
+    }
+
+    protected String renderSelectFields(RDBTableMetaData tableMetaData, RDBDatabaseMetaData databaseMetaDate, QueryParam param) {
         Dialect dialect = databaseMetaDate.getDialect();
         CommonSqlRender render = (CommonSqlRender) databaseMetaDate.getRenderer(SqlRender.TYPE.SELECT);
         List<CommonSqlRender.OperationColumn> columns = render.parseOperationField(tableMetaData, param);
@@ -335,7 +381,6 @@ public class EasyOrmSqlBuilder {
                     , isJpa ? columnMetaData.getAlias() : columnMetaData.getName()
                     , dialect.getQuoteEnd());
         });
-        param.getIncludes().remove("*");
         if (appender.isEmpty()) {
             return "*";
         }
@@ -353,6 +398,23 @@ public class EasyOrmSqlBuilder {
         }
 
         RDBTableMetaData tableMetaData = createMeta(tableName, resultMapId);
+        if (!useTemplateCache) {
+            return renderOrder(tableMetaData, param);
+        }
+        List<Object> sorts = new ArrayList<>(param.getSorts().size());
+        for (Sort sort : param.getSorts()) {
+            sorts.add(Arrays.asList(sort.getName(), sort.getOrder()));
+        }
+        List<Object> cacheKey = Arrays.asList(tableMetaData.getDatabaseMetaData(), resultMapId, tableName, tableMetaData.getName(), sorts);
+        String order = orderCache.get(cacheKey);
+        if (order == null) {
+            order = renderOrder(tableMetaData, param);
+            putTemplate(orderCache, cacheKey, order);
+        }
+        return order;
+    }
+
+    protected String renderOrder(RDBTableMetaData tableMetaData, QueryParam param) {
         SqlAppender appender = new SqlAppender(" order by ");
         param.getSorts()
                 .forEach(sort -> {
@@ -376,6 +438,39 @@ public class EasyOrmSqlBuilder {
         return appender.toString();
     }
 
+    private void putTemplate(Map<List<Object>, String> cache, List<Object> cacheKey, String sql) {
+        if (cacheKey != null && cache.size() < maxTemplateCacheSize) {
+            cache.put(cacheKey, sql);
+        }
+    }
+
+    /**
+     * @return 缓存的查询字段和排序sql片段数量
+     * @since 3.0.8
+     */
+    public int getTemplateCacheSize() {
+        return selectFieldsCache.size() + orderCache.size() + whereCache.size();
+    }
+
+    /**
+     * @return 缓存的where条件sql片段数量
+     * @since 3.0.8
+     */
+    public int getWhereTemplateCacheSize() {
+        return whereCache.size();
+    }
+
+    /**
+     * 清空缓存的sql片段,修改了resultMap或者表结构后调用
+     *
+     * @since 3.0.8
+     */
+    public void clearTemplateCache() {
+        selectFieldsCache.clear();
+        orderCache.clear();
+        whereCache.clear();
+    }
+
     public String buildWhereForUpdate(String resultMapId, String tableName, List<Term> terms) {
         String where = buildWhere(resultMapId, tableName, terms);
         if (where.trim().isEmpty()) {
@@ -407,6 +502,36 @@ public class EasyOrmSqlBuilder {
     public String buildWhere(String resultMapId, String tableName, List<Term> terms) {
         RDBTableMetaData tableMetaData = createMeta(tableName, resultMapId);
         RDBDatabaseMetaData databaseMetaDate = getActiveDatabase();
+        if (!useTemplateCache) {
+            return renderWhere(tableMetaData, databaseMetaDate, terms);
+        }
+        List<Object> shape = createWhereShape(terms);
+        if (shape == null) {
+            return renderWhere(tableMetaData, databaseMetaDate, terms);
+        }
+        List<Object> cacheKey = Arrays.asList(databaseMetaDate, resultMapId, tableName, tableMetaData.getName(), shape);
+        WhereTemplate template = whereCache.get(cacheKey);
+        if (template != null && template.apply(terms)) {
+            return template.sql;
+        }
+        //按渲染前的值记录条件,渲染时条件的值会被转换
+        List<Term> flatTerms = new ArrayList<>();
+        flatTerms(terms, flatTerms);
+        List<Object> values = new ArrayList<>(flatTerms.size());
+        for (Term term : flatTerms) {
+            values.add(term.getValue());
+        }
+        String where = renderWhere(tableMetaData, databaseMetaDate, terms);
+        if (template == null && whereCache.size() < maxTemplateCacheSize) {
+            template = WhereTemplate.of(tableMetaData, where, flatTerms, values);
+            if (template != null) {
+                whereCache.put(cacheKey, template);
+            }
+        }
+        return where;
+    }
+
+    protected String renderWhere(RDBTableMetaData tableMetaData, RDBDatabaseMetaData databaseMetaDate, List<Term> terms) {
         SimpleWhereSqlBuilder builder = new SimpleWhereSqlBuilder() {
             @Override
             public Dialect getDialect() {
@@ -418,6 +543,161 @@ public class EasyOrmSqlBuilder {
         return appender.toString();
     }
 
+    /**
+     * 生成条件的结构:列,条件类型,and/or,条件选项,值的类型和数量以及嵌套条件.
+     * 结构相同的条件生成的sql相同,只是预编译参数的值不同
+     *
+     * @return 条件的结构, 包含不能缓存的条件时返回null
+     */
+    private static List<Object> createWhereShape(List<Term> terms) {
+        List<Object> shape = new ArrayList<>(terms.size());
+        for (Term term : terms) {
+            Object value = term.getValue();
+            if (value instanceof ChangedTermValue
+                    || (term.getColumn() != null && !templateTermTypes.contains(term.getTermType()))) {
+                return null;
+            }
+            List<Object> nest = createWhereShape(term.getTerms());
+            if (nest == null) {
+                return null;
+            }
+            shape.add(Arrays.asList(term.getType(), term.getColumn(), term.getTermType(),
+                    new ArrayList<>(term.getOptions()), createValueShape(value), nest));
+        }
+        return shape;
+    }
+
+    private static Object createValueShape(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Collection) {
+            return Arrays.asList(value.getClass(), ((Collection) value).size());
+        }
+        if (value.getClass().isArray()) {
+            return Arrays.asList(value.getClass(), Array.getLength(value));
+        }
+        if (value instanceof CharSequence) {
+            //空字符串的条件不会生成sql
+            return Arrays.asList(value.getClass(), ((CharSequence) value).length() == 0);
+        }
+        return value.getClass();
+    }
+
+    private static void flatTerms(List<Term> terms, List<Term> target) {
+        for (Term term : terms) {
+            target.add(term);
+            flatTerms(term.getTerms(), target);
+        }
+    }
+
+    /**
+     * 缓存的where条件,以及生成sql时对每个条件的值做的转换.
+     * 命中缓存时按相同的方式转换条件的值,保证预编译参数和生成sql时一致
+     */
+    private static class WhereTemplate {
+        private final String sql;
+
+        private final List<TermValue> values;
+
+        private WhereTemplate(String sql, List<TermValue> values) {
+            this.sql = sql;
+            this.values = values;
+        }
+
+        /**
+         * 根据渲染前后条件的值,推断值的转换方式.
+         * 只支持{@link ChangedTermValue}并且能通过{@link BoostTermTypeMapper}得到相同结果的转换,其他情况不缓存
+         */
+        static WhereTemplate of(RDBTableMetaData tableMetaData, String sql, List<Term> terms, List<Object> before) {
+            List<TermValue> values = new ArrayList<>(terms.size());
+            for (int i = 0; i < terms.size(); i++) {
+                Term term = terms.get(i);
+                Object old = before.get(i);
+                Object value = term.getValue();
+                if (value == old) {
+                    values.add(TermValue.same);
+                    continue;
+                }
+                if (!(value instanceof ChangedTermValue) || ((ChangedTermValue) value).getOld() != old) {
+                    return null;
+                }
+                RDBColumnMetaData column = tableMetaData.findColumn(term.getColumn());
+                //数据字典等列的值转换依赖选项,不缓存
+                if (column == null || column.getOptionConverter() != null
+                        || (column.getJavaType() != null && column.getJavaType().isArray())) {
+                    return null;
+                }
+                Object changed = ((ChangedTermValue) value).getValue();
+                if (changed instanceof List) {
+                    if (!changed.equals(BoostTermTypeMapper.convertList(column, old))) {
+                        return null;
+                    }
+                    values.add(new TermValue(column, true, ((List) changed).size()));
+                } else {
+                    if (!Objects.equals(changed, BoostTermTypeMapper.convertValue(column, old))) {
+                        return null;
+                    }
+                    values.add(new TermValue(column, false, 0));
+                }
+            }
+            return new WhereTemplate(sql, values);
+        }
+
+        /**
+         * 转换条件的值
+         *
+         * @return 是否能使用缓存的sql, 集合的数量和缓存时不同时返回false, 不修改条件
+         */
+        boolean apply(List<Term> terms) {
+            List<Term> flatTerms = new ArrayList<>(values.size());
+            flatTerms(terms, flatTerms);
+            if (flatTerms.size() != values.size()) {
+                return false;
+            }
+            Object[] changed = new Object[values.size()];
+            for (int i = 0; i < changed.length; i++) {
+                TermValue termValue = values.get(i);
+                Object old = flatTerms.get(i).getValue();
+                if (termValue.column == null) {
+                    continue;
+                }
+                if (termValue.list) {
+                    List<Object> list = BoostTermTypeMapper.convertList(termValue.column, old);
+                    if (list.size() != termValue.size) {
+                        return false;
+                    }
+                    changed[i] = new ChangedTermValue(old, list);
+                } else {
+                    changed[i] = new ChangedTermValue(old, BoostTermTypeMapper.convertValue(termValue.column, old));
+                }
+            }
+            for (int i = 0; i < changed.length; i++) {
+                if (changed[i] != null) {
+                    flatTerms.get(i).setValue(changed[i]);
+                }
+            }
+            return true;
+        }
+    }
+
+    private static class TermValue {
+        //值未被转换
+        static final TermValue same = new TermValue(null, false, 0);
+
+        private final RDBColumnMetaData column;
+
+        private final boolean list;
+
+        private final int size;
+
+        private TermValue(RDBColumnMetaData column, boolean list, int size) {
+            this.column = column;
+            this.list = list;
+            this.size = size;
+        }
+    }
+
     class MysqlMeta extends MysqlRDBDatabaseMetaData {
         MysqlMeta() {
             super();
@@ -0,0 +1,70 @@
+package org.hswebframework.web.dao.mybatis.plgins.pager;
+
+import org.hswebframework.web.datasource.DatabaseType;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 将无条件的count sql转换为从数据库统计信息中获取估算数量的sql,
+ * 用于{@link org.hswebframework.web.commons.entity.param.CountStrategy#estimate}.
+ * 统计信息不存在时返回0.
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+class EstimateCountSqlBuilder {
+
+    //BasicMapper.buildTotalSql生成的无条件count语句
+    private static final Pattern COUNT_ALL_PATTERN =
+            Pattern.compile("^\\s*select\\s+count\\(0\\)\\s+as\\s+total\\s+from\\s+([\\w.$]+)\\s*$", Pattern.CASE_INSENSITIVE);
+
+    private EstimateCountSqlBuilder() {
+    }
+
+    /**
+     * @param databaseType 数据库类型
+     * @param sql          原始sql
+     * @return 估算数量的sql, 不是无条件的count语句或者数据库不支持时返回null
+     */
+    static String build(DatabaseType databaseType, String sql) {
+        Matcher matcher = COUNT_ALL_PATTERN.matcher(sql);
+        if (!matcher.matches()) {
+            return null;
+        }
+        String fullTableName = matcher.group(1);
+        int index = fullTableName.lastIndexOf('.');
+        String schema = index > 0 ? fullTableName.substring(0, index) : null;
+        String table = fullTableName.substring(index + 1);
+        switch (databaseType) {
+            case mysql:
+                return "select coalesce((select table_rows from information_schema.tables where table_schema = "
+                        + (schema == null ? "database()" : quote(schema))
+                        + " and table_name = " + quote(table) + "), 0) as total";
+            case h2:
+                return "select coalesce((select row_count_estimate from information_schema.tables where upper(table_name) = upper("
+                        + quote(table) + ")"
+                        + (schema == null ? " and table_schema = schema()" : " and upper(table_schema) = upper(" + quote(schema) + ")")
+                        + "), 0) as total";
+            case postgresql:
+                return "select coalesce((select cast(greatest(c.reltuples, 0) as bigint) from pg_class c join pg_namespace n on n.oid = c.relnamespace"
+                        + " where c.relname = " + quote(table)
+                        + " and n.nspname = " + (schema == null ? "current_schema()" : quote(schema))
+                        + "), 0) as total";
+            case oracle:
+                return "select coalesce((select num_rows from all_tables where table_name = upper(" + quote(table) + ")"
+                        + " and owner = " + (schema == null ? "user" : "upper(" + quote(schema) + ")")
+                        + "), 0) as total from dual";
+            case sqlserver:
+            case jtds_sqlserver:
+                return "select coalesce((select sum(p.rows) from sys.partitions p where p.object_id = object_id("
+                        + quote(fullTableName) + ") and p.index_id in (0, 1)), 0) as total";
+            default:
+                return null;
+        }
+    }
+
+    private static String quote(String name) {
+        return "'" + name.replace("'", "''") + "'";
+    }
+}
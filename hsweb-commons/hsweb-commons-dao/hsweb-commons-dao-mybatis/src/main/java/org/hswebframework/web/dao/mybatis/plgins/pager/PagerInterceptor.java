@@ -27,7 +27,10 @@ import org.apache.ibatis.reflection.SystemMetaObject;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.hswebframework.ezorm.core.param.QueryParam;
+import org.hswebframework.web.commons.entity.param.CountStrategy;
+import org.hswebframework.web.commons.entity.param.QueryParamEntity;
 import org.hswebframework.web.dao.mybatis.builder.EasyOrmSqlBuilder;
+import org.hswebframework.web.datasource.DataSourceHolder;
 import org.springframework.stereotype.Component;
 
 import java.util.Properties;
@@ -46,27 +49,47 @@ public class PagerInterceptor implements Interceptor {
     public Object plugin(Object target) {
         if (target instanceof StatementHandler) {
             StatementHandler statementHandler = (StatementHandler) target;
-            MetaObject metaStatementHandler = SystemMetaObject.forObject(statementHandler);
             String sql = statementHandler.getBoundSql().getSql();
             Pager pager = Pager.getAndReset();
             String newSql = sql;
-            if (sql.trim().toLowerCase().startsWith("select")) {
+            if (isSelect(sql)) {
+                Object queryEntity = statementHandler.getParameterHandler().getParameterObject();
+                if (queryEntity instanceof QueryParamEntity
+                        && ((QueryParamEntity) queryEntity).getCountStrategy() == CountStrategy.estimate) {
+                    String estimateSql = EstimateCountSqlBuilder.build(DataSourceHolder.currentDatabaseType(), sql);
+                    if (estimateSql != null) {
+                        newSql = estimateSql;
+                    }
+                }
                 if (pager != null) {
                     newSql = EasyOrmSqlBuilder.getInstance()
                             .getActiveDatabase().getDialect()
                             .doPaging(sql, pager.pageIndex(), pager.pageSize());
                 }
-                Object queryEntity = statementHandler.getParameterHandler().getParameterObject();
                 if (queryEntity instanceof QueryParam && ((QueryParam) queryEntity).isForUpdate()) {
                     newSql = newSql + " for update";
                 }
-                metaStatementHandler.setValue("delegate.boundSql.sql", newSql);
+                //sql没有变化时不修改
+                if (newSql != sql) {
+                    MetaObject metaStatementHandler = SystemMetaObject.forObject(statementHandler);
+                    metaStatementHandler.setValue("delegate.boundSql.sql", newSql);
+                }
             }
 
         }
         return Plugin.wrap(target, this);
     }
 
+    //避免对完整的sql进行trim和toLowerCase
+    static boolean isSelect(String sql) {
+        int len = sql.length();
+        int offset = 0;
+        while (offset < len && sql.charAt(offset) <= ' ') {
+            offset++;
+        }
+        return sql.regionMatches(true, offset, "select", 0, 6);
+    }
+
     @Override
     public void setProperties(Properties properties) {
     }
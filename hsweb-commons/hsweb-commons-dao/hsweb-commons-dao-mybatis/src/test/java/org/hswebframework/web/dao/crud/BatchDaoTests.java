@@ -0,0 +1,76 @@
+package org.hswebframework.web.dao.crud;
+
+import org.hswebframework.ezorm.rdb.executor.SqlExecutor;
+import org.hswebframework.web.commons.entity.param.QueryParamEntity;
+import org.hswebframework.web.commons.entity.param.UpdateParamEntity;
+import org.hswebframework.web.dao.BatchDaoExecutor;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+
+/**
+ * 批量执行测试
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = TestApplication.class)
+public class BatchDaoTests {
+
+    @Autowired
+    private TestDao testDao;
+
+    @Autowired
+    private SqlExecutor sqlExecutor;
+
+    @Autowired
+    private BatchDaoExecutor batchDaoExecutor;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Before
+    public void init() throws SQLException {
+        sqlExecutor.exec("\n" +
+                "create table if not exists h_test(\n" +
+                "  id BIGINT AUTO_INCREMENT PRIMARY KEY,\n" +
+                "  name VARCHAR(32) ,\n" +
+                "  create_time DATETIME,\n" +
+                "  data_type SMALLINT,\n" +
+                "  data_types BIGINT\n" +
+                ")");
+    }
+
+    @Test
+    public void testQueryAfterBatchInTransaction() {
+        Assert.assertTrue(batchDaoExecutor.supports(testDao));
+
+        new TransactionTemplate(transactionManager).execute(status -> {
+            TestEntity entity = new TestEntity();
+            entity.setName("before");
+            testDao.insert(entity);
+
+            //查询结果保存在事务中会话的一级缓存中
+            Assert.assertEquals("before", testDao.query(QueryParamEntity.single("id", entity.getId())).get(0).getName());
+
+            batchDaoExecutor.executeBatch(testDao, dao -> UpdateParamEntity.newUpdate()
+                    .set("name", "after")
+                    .where("id", entity.getId())
+                    .exec(dao::update));
+
+            //批量执行后再次查询,不能返回缓存的旧数据
+            Assert.assertEquals("after", testDao.query(QueryParamEntity.single("id", entity.getId())).get(0).getName());
+            status.setRollbackOnly();
+            return null;
+        });
+    }
+}
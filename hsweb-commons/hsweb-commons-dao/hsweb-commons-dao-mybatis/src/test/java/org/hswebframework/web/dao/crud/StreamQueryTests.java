@@ -0,0 +1,139 @@
+package org.hswebframework.web.dao.crud;
+
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.hswebframework.ezorm.rdb.executor.SqlExecutor;
+import org.hswebframework.web.commons.entity.param.QueryParamEntity;
+import org.hswebframework.web.dao.StreamQueryDaoExecutor;
+import org.hswebframework.web.datasource.DataSourceHolder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * 流式查询100万条数据,内存占用不随数据量增长.
+ * 使用文件数据库,避免h2内存数据库将查询结果全部保存在内存中.
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = TestApplication.class, properties = "spring.datasource.url=jdbc:h2:file:./target/h2/stream-query")
+public class StreamQueryTests {
+
+    private static final int ROWS = 1_000_000;
+
+    //查询结果全部加载到内存中时,100万条数据占用的内存远超过此值
+    private static final long MAX_MEMORY_INCREASE = 48 * 1024 * 1024;
+
+    @Autowired
+    private TestDao testDao;
+
+    @Autowired
+    private SqlExecutor sqlExecutor;
+
+    @Autowired
+    private StreamQueryDaoExecutor streamQueryDaoExecutor;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    @Before
+    public void init() throws SQLException {
+        sqlExecutor.exec("drop table if exists h_stream_test");
+        sqlExecutor.exec("create table h_stream_test(\n" +
+                "  id BIGINT PRIMARY KEY,\n" +
+                "  name VARCHAR(32) ,\n" +
+                "  create_time DATETIME,\n" +
+                "  data_type SMALLINT,\n" +
+                "  data_types BIGINT\n" +
+                ")");
+        sqlExecutor.exec("insert into h_stream_test(id,name,create_time) " +
+                "select x, concat('stream', x), now() from system_range(1, " + ROWS + ")");
+        DataSourceHolder.tableSwitcher().use("h_test", "h_stream_test");
+    }
+
+    @After
+    public void cleanup() throws SQLException {
+        DataSourceHolder.tableSwitcher().reset();
+        sqlExecutor.exec("drop table if exists h_stream_test");
+    }
+
+    @Test
+    public void testQuery() {
+        Assert.assertTrue(streamQueryDaoExecutor.supports(testDao));
+
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+
+        long baseline = usedMemory();
+        AtomicLong counter = new AtomicLong();
+        AtomicLong maxIncrease = new AtomicLong();
+        template.execute(status -> {
+            streamQueryDaoExecutor.query(testDao, QueryParamEntity.empty().noPaging(), (TestEntity entity) -> {
+                long count = counter.incrementAndGet();
+                Assert.assertEquals("stream" + entity.getId(), entity.getName());
+                if (count % 100_000 == 0) {
+                    maxIncrease.set(Math.max(maxIncrease.get(), usedMemory() - baseline));
+                }
+            });
+            return null;
+        });
+        Assert.assertEquals(ROWS, counter.get());
+        Assert.assertTrue("memory increase:" + maxIncrease.get(), maxIncrease.get() < MAX_MEMORY_INCREASE);
+    }
+
+    @Test
+    public void testNotModifyConfiguration() {
+        int statements = sqlSessionFactory.getConfiguration().getMappedStatementNames().size();
+        try (Stream<TestEntity> stream = streamQueryDaoExecutor.stream(testDao, QueryParamEntity.single("id", 1).noPaging())) {
+            Assert.assertEquals(1, stream.count());
+        }
+        //流式查询使用的语句不注册到mybatis配置中
+        Assert.assertEquals(statements, sqlSessionFactory.getConfiguration().getMappedStatementNames().size());
+    }
+
+    @Test
+    public void testStream() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+
+        long baseline = usedMemory();
+        AtomicLong maxIncrease = new AtomicLong();
+        long count = template.execute(status -> {
+            try (Stream<TestEntity> stream = streamQueryDaoExecutor.stream(testDao, QueryParamEntity.single("id$gt", ROWS / 2).noPaging())) {
+                return stream
+                        .peek(entity -> {
+                            if (entity.getId() % 100_000 == 0) {
+                                maxIncrease.set(Math.max(maxIncrease.get(), usedMemory() - baseline));
+                            }
+                        })
+                        .count();
+            }
+        });
+        Assert.assertEquals(ROWS / 2, count);
+        Assert.assertTrue("memory increase:" + maxIncrease.get(), maxIncrease.get() < MAX_MEMORY_INCREASE);
+    }
+
+    private long usedMemory() {
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -3,9 +3,11 @@ package org.hswebframework.web.dao.crud;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.hswebframework.ezorm.core.param.QueryParam;
 import org.hswebframework.ezorm.rdb.executor.SqlExecutor;
+import org.hswebframework.web.commons.entity.param.CountStrategy;
 import org.hswebframework.web.commons.entity.param.DeleteParamEntity;
 import org.hswebframework.web.commons.entity.param.QueryParamEntity;
 import org.hswebframework.web.commons.entity.param.UpdateParamEntity;
+import org.hswebframework.web.dao.mybatis.builder.EasyOrmSqlBuilder;
 import org.hswebframework.web.datasource.DataSourceHolder;
 import org.hswebframework.web.dict.EnumDict;
 import org.junit.Assert;
@@ -44,7 +46,7 @@ public class TestCrud extends AbstractTransactionalJUnit4SpringContextTests {
     @Before
     public void init() throws SQLException {
         sqlExecutor.exec("\n" +
-                "create table h_test(\n" +
+                "create table if not exists h_test(\n" +
                 "  id BIGINT AUTO_INCREMENT PRIMARY KEY,\n" +
                 "  name VARCHAR(32) ,\n" +
                 "  create_time DATETIME,\n" +
@@ -52,7 +54,7 @@ public class TestCrud extends AbstractTransactionalJUnit4SpringContextTests {
                 "  data_types BIGINT\n" +
                 ")");
         sqlExecutor.exec("\n" +
-                "create table h_nest_table(\n" +
+                "create table if not exists h_nest_table(\n" +
                 "  id BIGINT AUTO_INCREMENT PRIMARY KEY,\n" +
                 "  name VARCHAR(32)\n" +
                 ")");
@@ -97,5 +99,68 @@ public class TestCrud extends AbstractTransactionalJUnit4SpringContextTests {
         System.out.println(entities);
     }
 
+    @Test
+    public void testTemplateCache() {
+        EasyOrmSqlBuilder builder = EasyOrmSqlBuilder.getInstance();
+        builder.clearTemplateCache();
+
+        TestEntity entity = new TestEntity();
+        entity.setName("cache");
+        testDao.insert(entity);
+        for (int i = 0; i < 3; i++) {
+            QueryParamEntity query = QueryParamEntity.single("name", "cache");
+            query.includes("id", "name");
+            List<TestEntity> entities = testDao.query(query);
+            Assert.assertEquals(1, entities.size());
+            Assert.assertEquals("cache", entities.get(0).getName());
+        }
+        int size = builder.getTemplateCacheSize();
+        Assert.assertTrue(size > 0);
+        //相同结构的条件只缓存一次
+        int whereSize = builder.getWhereTemplateCacheSize();
+        Assert.assertTrue(whereSize > 0);
+        Assert.assertEquals(0, testDao.query(QueryParamEntity.single("name", "other")).size());
+        Assert.assertEquals(whereSize, builder.getWhereTemplateCacheSize());
+
+        //值的数量不同时生成不同的sql
+        Assert.assertEquals(1, testDao.query(QueryParamEntity.single("name$in", Arrays.asList("cache", "a"))).size());
+        int inSize = builder.getWhereTemplateCacheSize();
+        Assert.assertTrue(inSize > whereSize);
+        Assert.assertEquals(1, testDao.query(QueryParamEntity.single("name$in", Arrays.asList("a", "cache"))).size());
+        Assert.assertEquals(inSize, builder.getWhereTemplateCacheSize());
+        Assert.assertEquals(1, testDao.query(QueryParamEntity.single("name$in", Arrays.asList("a", "b", "cache"))).size());
+        Assert.assertTrue(builder.getWhereTemplateCacheSize() > inSize);
+        //字符串转换后数量不同时不使用缓存
+        Assert.assertEquals(1, testDao.query(QueryParamEntity.single("name$in", "cache,a")).size());
+        Assert.assertEquals(1, testDao.query(QueryParamEntity.single("name$in", "a,b,cache")).size());
+        size = builder.getTemplateCacheSize();
+
+        //查询字段不同时重新生成
+        QueryParamEntity query = QueryParamEntity.single("name", "cache");
+        query.includes("id");
+        List<TestEntity> entities = testDao.query(query);
+        Assert.assertEquals(1, entities.size());
+        Assert.assertNull(entities.get(0).getName());
+        Assert.assertTrue(builder.getTemplateCacheSize() > size);
+
+        builder.clearTemplateCache();
+        Assert.assertEquals(0, builder.getTemplateCacheSize());
+    }
+
+    @Test
+    public void testEstimateCount() {
+        TestEntity entity = new TestEntity();
+        entity.setName("estimate");
+        testDao.insert(entity);
+
+        //无条件时使用统计信息
+        int estimate = testDao.count(new QueryParamEntity().count(CountStrategy.estimate));
+        Assert.assertTrue(estimate >= 0);
+
+        //有条件时执行count
+        QueryParamEntity query = QueryParamEntity.single("name", "estimate").count(CountStrategy.estimate);
+        Assert.assertEquals(testDao.count(QueryParamEntity.single("name", "estimate")), testDao.count(query));
+    }
+
 
 }
@@ -56,12 +56,18 @@ public class PagerResult<E> implements Entity {
     @ApiModelProperty("每页数据数量")
     private int pageSize;
 
-    @ApiModelProperty("数据总数量")
+    @ApiModelProperty("数据总数量,未统计总数时为-1")
     private int total;
 
     @ApiModelProperty("查询结果")
     private List<E> data;
 
+    /**
+     * @since 3.0.8
+     */
+    @ApiModelProperty("下一页游标,使用游标分页时返回,为null时表示没有更多数据")
+    private String nextCursor;
+
     public PagerResult() {
     }
 
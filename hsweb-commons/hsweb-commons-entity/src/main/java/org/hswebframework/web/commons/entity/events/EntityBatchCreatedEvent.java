@@ -0,0 +1,24 @@
+package org.hswebframework.web.commons.entity.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 批量新增数据事件,每批数据推送一次
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+@AllArgsConstructor
+@Getter
+public class EntityBatchCreatedEvent<E> implements Serializable {
+
+    private static final long serialVersionUID = 4413618592178389614L;
+
+    private List<E> entities;
+
+    private Class<E> entityType;
+}
@@ -0,0 +1,26 @@
+package org.hswebframework.web.commons.entity.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 批量修改数据事件,每批数据推送一次.{@link #before}和{@link #after}按下标对应,数据不存在时before中对应的元素为null
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+@AllArgsConstructor
+@Getter
+public class EntityBatchModifyEvent<E> implements Serializable {
+
+    private static final long serialVersionUID = -2587369032465913617L;
+
+    private List<E> before;
+
+    private List<E> after;
+
+    private Class<E> entityType;
+}
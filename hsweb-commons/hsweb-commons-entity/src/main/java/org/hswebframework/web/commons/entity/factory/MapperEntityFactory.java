@@ -28,6 +28,7 @@ import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Modifier;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
 /**
@@ -36,7 +37,7 @@ import java.util.function.Supplier;
  */
 @SuppressWarnings("unchecked")
 public class MapperEntityFactory implements EntityFactory, BeanFactory {
-    private Map<Class, Mapper>          realTypeMapper = new HashMap<>();
+    private Map<Class, Mapper>          realTypeMapper = new ConcurrentHashMap<>();
     private Logger                      logger         = LoggerFactory.getLogger(this.getClass());
     private Map<String, PropertyCopier> copierCache    = new HashMap<>();
 
@@ -111,6 +112,24 @@ public class MapperEntityFactory implements EntityFactory, BeanFactory {
         return target;
     }
 
+    /**
+     * 为所有已注册的实体预先生成{@link FastBeanCopier}复制器(实体&lt;-&gt;Map,实体-&gt;实体)
+     */
+    public void warmUpCopiers() {
+        realTypeMapper.values()
+                .stream()
+                .map(Mapper::getTarget)
+                .distinct()
+                .forEach(type -> {
+                    try {
+                        FastBeanCopier.warmUp(type, type, Map.class);
+                        FastBeanCopier.warmUp(Map.class, type);
+                    } catch (Exception e) {
+                        logger.warn("warm up copier for {} error", type, e);
+                    }
+                });
+    }
+
     protected <T> Mapper<T> initCache(Class<T> beanClass) {
         Mapper<T> mapper = null;
         Class<T> realType = null;
@@ -0,0 +1,30 @@
+package org.hswebframework.web.commons.entity.param;
+
+/**
+ * 分页查询时获取数据总数的策略
+ *
+ * @author zhouhao
+ * @see QueryParamEntity#setCountStrategy(CountStrategy)
+ * @since 3.0.8
+ */
+public enum CountStrategy {
+    /**
+     * 执行count查询获取精确的总数,默认策略
+     */
+    exact,
+
+    /**
+     * 不执行count查询,总数为-1.查询到最后一页时根据实际数据计算总数
+     */
+    skip,
+
+    /**
+     * 无查询条件时使用数据库统计信息估算总数,有条件时执行count查询.估算的总数只能作为参考
+     */
+    estimate,
+
+    /**
+     * 缓存相同查询条件的count结果,在缓存有效期内数据变化不会反映到总数上
+     */
+    cache
+}
@@ -37,6 +37,43 @@ public class QueryParamEntity extends QueryParam implements QueryEntity {
     @Getter
     private String termExpression;
 
+    /**
+     * 分页查询时获取数据总数的策略
+     *
+     * @since 3.0.8
+     */
+    @Getter
+    @Setter
+    private CountStrategy countStrategy = CountStrategy.exact;
+
+    /**
+     * 是否使用游标(keyset)分页,使用游标分页时根据上一页最后一条数据的排序字段值定位下一页,
+     * 不再使用offset,翻页性能不受页码影响.
+     *
+     * @since 3.0.8
+     */
+    @Setter
+    private boolean keyset;
+
+    /**
+     * 游标分页时上一页返回的游标{@link org.hswebframework.web.commons.entity.PagerResult#getNextCursor()},
+     * 为空时查询第一页
+     *
+     * @since 3.0.8
+     */
+    @Getter
+    @Setter
+    private String cursor;
+
+    /**
+     * 游标分页时唯一的排序字段,排序条件中没有此字段时自动追加,保证排序结果稳定
+     *
+     * @since 3.0.8
+     */
+    @Getter
+    @Setter
+    private String cursorKey = "id";
+
     /**
      * 创建一个空的查询参数实体,该实体无任何参数.
      *
@@ -158,4 +195,37 @@ public class QueryParamEntity extends QueryParam implements QueryEntity {
         return this;
     }
 
+    /**
+     * @return 是否使用游标分页, 设置了游标时也认为使用游标分页
+     * @since 3.0.8
+     */
+    public boolean isKeyset() {
+        return keyset || StringUtils.hasText(cursor);
+    }
+
+    /**
+     * 使用游标分页查询下一页
+     *
+     * @param cursor 上一页返回的游标,为null时查询第一页
+     * @return this
+     * @since 3.0.8
+     */
+    public QueryParamEntity seek(String cursor) {
+        setKeyset(true);
+        setCursor(cursor);
+        return this;
+    }
+
+    /**
+     * 设置获取数据总数的策略
+     *
+     * @param countStrategy 策略
+     * @return this
+     * @since 3.0.8
+     */
+    public QueryParamEntity count(CountStrategy countStrategy) {
+        setCountStrategy(countStrategy);
+        return this;
+    }
+
 }
@@ -18,6 +18,10 @@
 
 package org.hswebframework.web.service;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
 /**
  * @author zhouhao
  */
@@ -30,4 +34,17 @@ public interface InsertService<E, PK> extends Service {
      * @return 添加后生成的主键
      */
     PK insert(E data);
+
+    /**
+     * 批量添加数据,默认逐条调用{@link #insert(Object)},实现类可以重写为批量插入
+     *
+     * @param data 要添加的数据集合
+     * @return 添加后生成的主键集合
+     * @since 3.0.8
+     */
+    default List<PK> insertBatch(Collection<E> data) {
+        return data.stream()
+                .map(this::insert)
+                .collect(Collectors.toList());
+    }
 }
@@ -20,8 +20,11 @@ package org.hswebframework.web.service;
 
 import org.hswebframework.web.commons.entity.Entity;
 import org.hswebframework.web.commons.entity.PagerResult;
+import org.hswebframework.web.commons.entity.param.QueryParamEntity;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * 根据实体类参数执行各种查询的通用服务类
@@ -64,4 +67,35 @@ public interface QueryByEntityService<E> extends Service {
      * @return 查询结果
      */
     E selectSingle(Entity param);
+
+    /**
+     * 流式查询,查询结果逐条处理,不会一次性加载到内存中.流式查询不分页.
+     * 默认实现会先查询出全部数据,实现类应该使用数据库游标等方式实现.
+     *
+     * @param param    查询参数
+     * @param consumer 逐条处理查询结果
+     * @since 3.0.8
+     */
+    default void selectStream(Entity param, Consumer<? super E> consumer) {
+        selectStream(param).forEach(consumer);
+    }
+
+    /**
+     * 流式查询,返回的{@link Stream}可能持有数据库连接,使用完后必须关闭.流式查询不分页.
+     * 默认实现会先查询出全部数据,实现类应该使用数据库游标等方式实现.
+     *
+     * @param param 查询参数
+     * @return 查询结果
+     * @see #selectStream(Entity, Consumer)
+     * @since 3.0.8
+     */
+    default Stream<E> selectStream(Entity param) {
+        if (param == null) {
+            param = QueryParamEntity.empty();
+        }
+        if (param instanceof QueryParamEntity) {
+            ((QueryParamEntity) param).noPaging();
+        }
+        return select(param).stream();
+    }
 }
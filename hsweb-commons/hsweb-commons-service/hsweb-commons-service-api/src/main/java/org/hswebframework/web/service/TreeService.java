@@ -28,7 +28,7 @@ import java.util.List;
  * @author zhouhao
  * @since 3.0
  */
-public interface TreeService<E extends TreeSupportEntity, PK> extends Service {
+public interface TreeService<E extends TreeSupportEntity, PK> extends InsertService<E, PK> {
 
     /**
      * 查询所有父节点
@@ -60,12 +60,4 @@ public interface TreeService<E extends TreeSupportEntity, PK> extends Service {
      * @return 修改的数量
      */
     int updateBatch(Collection<E> data);
-
-    /**
-     * 批量添加数据
-     *
-     * @param data 数据集合
-     * @return 被添加数据集合的主键
-     */
-    List<PK> insertBatch(Collection<E> data);
 }
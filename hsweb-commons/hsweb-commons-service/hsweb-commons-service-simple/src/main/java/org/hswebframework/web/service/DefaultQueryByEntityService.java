@@ -21,6 +21,7 @@ package org.hswebframework.web.service;
 import org.hswebframework.ezorm.core.dsl.Query;
 import org.hswebframework.web.commons.entity.Entity;
 import org.hswebframework.web.commons.entity.PagerResult;
+import org.hswebframework.web.commons.entity.param.CountStrategy;
 import org.hswebframework.web.commons.entity.param.QueryParamEntity;
 import org.hswebframework.web.dao.dynamic.QueryByEntityDao;
 import org.springframework.transaction.annotation.Transactional;
@@ -33,7 +34,19 @@ public interface DefaultQueryByEntityService<E>
     QueryByEntityDao<E> getDao();
 
     /**
-     * 分页进行查询数据，查询条件同 {@link DefaultQueryByEntityService#select}
+     * 使用{@link CountStrategy#cache}时,count结果的缓存时间
+     *
+     * @return 缓存时间, 单位毫秒
+     * @since 3.0.8
+     */
+    default long getCountCacheTime() {
+        return PagerQuerySupport.DEFAULT_COUNT_CACHE_TIME;
+    }
+
+    /**
+     * 分页进行查询数据，查询条件同 {@link DefaultQueryByEntityService#select}.
+     * 可通过{@link QueryParamEntity#setCountStrategy(CountStrategy)}指定获取总数的策略,
+     * 通过{@link QueryParamEntity#seek(String)}使用游标分页
      *
      * @param param 查询参数
      * @return 分页查询结果
@@ -54,6 +67,10 @@ public interface DefaultQueryByEntityService<E>
                 pagerResult.setPageSize(pagerResult.getData().size());
                 return pagerResult;
             }
+            //游标分页或者不精确count
+            if (entity.isKeyset() || (entity.getCountStrategy() != null && entity.getCountStrategy() != CountStrategy.exact)) {
+                return PagerQuerySupport.selectPager(this, entity);
+            }
         }
         int total = getDao().count(param);
         pagerResult.setTotal(total);
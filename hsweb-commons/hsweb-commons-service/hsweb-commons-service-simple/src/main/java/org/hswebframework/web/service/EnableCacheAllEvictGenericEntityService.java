@@ -5,6 +5,7 @@ import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -28,6 +29,12 @@ public abstract class EnableCacheAllEvictGenericEntityService<E extends GenericE
         return super.updateByPk(data);
     }
 
+    @Override
+    @CacheEvict(allEntries = true)
+    public List<PK> insertBatch(Collection<E> data) {
+        return super.insertBatch(data);
+    }
+
     @Override
     @CacheEvict(allEntries = true)
     public int updateByPk(PK pk, E entity) {
@@ -50,6 +50,12 @@ public abstract class EnableCacheAllEvictTreeSortService<E extends TreeSortSuppo
         return super.updateByPk(data);
     }
 
+    @Override
+    @CacheEvict(allEntries = true)
+    public List<PK> insertBatch(Collection<E> data) {
+        return super.insertBatch(data);
+    }
+
     @Override
     @CacheEvict(allEntries = true)
     public int updateByPk(PK pk, E entity) {
@@ -5,6 +5,7 @@ import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -31,6 +32,12 @@ public abstract class EnableCacheGenericEntityService<E extends GenericEntity<PK
         return super.updateByPk(data);
     }
 
+    @Override
+    @CacheEvict(allEntries = true)
+    public List<PK> insertBatch(Collection<E> data) {
+        return super.insertBatch(data);
+    }
+
     @Override
     @Caching(
             evict = {
@@ -33,6 +33,12 @@ public abstract class EnableCacheTreeSortService<E extends TreeSortSupportEntity
         return super.updateByPk(data);
     }
 
+    @Override
+    @CacheEvict(allEntries = true)
+    public List<PK> insertBatch(Collection<E> data) {
+        return super.insertBatch(data);
+    }
+
     @Override
     @Caching(
             evict = {
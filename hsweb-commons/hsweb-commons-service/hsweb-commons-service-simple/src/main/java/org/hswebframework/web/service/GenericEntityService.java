@@ -18,25 +18,40 @@
 
 package org.hswebframework.web.service;
 
+import org.hswebframework.web.commons.entity.Entity;
 import org.hswebframework.web.commons.entity.GenericEntity;
 import org.hswebframework.web.commons.entity.LogicalDeleteEntity;
 import org.hswebframework.web.commons.entity.RecordCreationEntity;
 import org.hswebframework.web.commons.entity.RecordModifierEntity;
+import org.hswebframework.web.commons.entity.events.EntityBatchCreatedEvent;
+import org.hswebframework.web.commons.entity.events.EntityBatchModifyEvent;
 import org.hswebframework.web.commons.entity.events.EntityCreatedEvent;
 import org.hswebframework.web.commons.entity.events.EntityModifyEvent;
+import org.hswebframework.web.commons.entity.param.QueryParamEntity;
+import org.hswebframework.web.dao.BatchDaoExecutor;
+import org.hswebframework.web.dao.CrudDao;
+import org.hswebframework.web.dao.StreamQueryDaoExecutor;
 import org.hswebframework.web.id.IDGenerator;
 import org.hswebframework.web.validator.group.CreateGroup;
 import org.hswebframework.web.validator.group.UpdateGroup;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 
 import javax.annotation.PostConstruct;
-import java.util.ArrayList;
-import java.util.List;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * 通用实体服务类，提供增删改查的默认实现
@@ -63,11 +78,63 @@ public abstract class GenericEntityService<E extends GenericEntity<PK>, PK>
 
     protected ApplicationEventPublisher eventPublisher;
 
+    protected BatchDaoExecutor batchDaoExecutor;
+
+    protected StreamQueryDaoExecutor streamQueryDaoExecutor;
+
+    /**
+     * 批量新增,修改时每批的数据量
+     *
+     * @since 3.0.8
+     */
+    protected int batchSize = 1000;
+
+    /**
+     * 使用{@link org.hswebframework.web.commons.entity.param.CountStrategy#cache}分页查询时,count结果的缓存时间,单位毫秒
+     *
+     * @since 3.0.8
+     */
+    protected long countCacheTime = PagerQuerySupport.DEFAULT_COUNT_CACHE_TIME;
+
+    //子类重写了单条新增或者修改时,批量操作逐条调用,保证子类的逻辑生效
+    private final boolean batchInsertSupported = !isOverridden("insert", GenericEntity.class);
+
+    private final boolean batchUpdateSupported = !isOverridden("updateByPk", Object.class, GenericEntity.class);
+
     @Autowired(required = false)
     public void setEventPublisher(ApplicationEventPublisher eventPublisher) {
         this.eventPublisher = eventPublisher;
     }
 
+    @Autowired(required = false)
+    public void setBatchDaoExecutor(BatchDaoExecutor batchDaoExecutor) {
+        this.batchDaoExecutor = batchDaoExecutor;
+    }
+
+    @Autowired(required = false)
+    public void setStreamQueryDaoExecutor(StreamQueryDaoExecutor streamQueryDaoExecutor) {
+        this.streamQueryDaoExecutor = streamQueryDaoExecutor;
+    }
+
+    @Value("${hsweb.service.batch-size:1000}")
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    @Value("${hsweb.service.count-cache-time:60000}")
+    public void setCountCacheTime(long countCacheTime) {
+        this.countCacheTime = countCacheTime;
+    }
+
+    @Override
+    public long getCountCacheTime() {
+        return countCacheTime;
+    }
+
     @PostConstruct
     public void init() {
         if (logicPrimaryKeyValidator instanceof DefaultLogicPrimaryKeyValidator) {
@@ -125,11 +192,15 @@ public abstract class GenericEntityService<E extends GenericEntity<PK>, PK>
             E old = selectByPk(pk);
             eventPublisher.publishEvent(new GenericsPayloadApplicationEvent<>(this, new EntityModifyEvent<>(old, entity, getEntityType()), getEntityType()));
         }
-        return createUpdate(entity)
+        return doUpdate(getDao(), entity);
+    }
+
+    protected int doUpdate(CrudDao<E, PK> dao, E entity) {
+        return DefaultDSLUpdateService.createUpdate(dao, entity)
                 //如果是RecordCreationEntity则不修改creator_id和creator_time
                 .when(entity instanceof RecordCreationEntity,
                         update -> update.and().excludes(((RecordCreationEntity) entity).getCreatorIdProperty(), RecordCreationEntity.createTime))
-                .where(GenericEntity.id, pk)
+                .where(GenericEntity.id, entity.getId())
                 .exec();
     }
 
@@ -137,12 +208,161 @@ public abstract class GenericEntityService<E extends GenericEntity<PK>, PK>
         return updateByPk(entity.getId(), entity);
     }
 
+    /**
+     * 批量修改数据,按{@link #batchSize}分批使用JDBC批量执行,修改前的数据使用一次in查询获取.
+     * 每条数据依然推送{@link EntityModifyEvent}事件,每批数据再推送一次{@link EntityBatchModifyEvent}事件.
+     * 子类重写了{@link #updateByPk(Object, GenericEntity)}时逐条修改.
+     *
+     * @param data 要修改的数据
+     * @return 影响的记录数
+     */
     @Override
     public int updateByPk(List<E> data) {
-        return data.stream()
-                .map(this::updateByPk)
-                .reduce(Math::addExact)
-                .orElse(0);
+        if (CollectionUtils.isEmpty(data)) {
+            return 0;
+        }
+        if (!batchUpdateSupported) {
+            return data.stream()
+                    .mapToInt(this::updateByPk)
+                    .sum();
+        }
+        for (E entity : data) {
+            Assert.notNull(entity, "entity can not be null");
+            Assert.notNull(entity.getId(), "primary key can not be null");
+            Assert.hasText(String.valueOf(entity.getId()), "primary key can not be null");
+            tryValidate(entity, UpdateGroup.class);
+        }
+        boolean pushEvent = eventPublisher != null && pushModifyEvent();
+        int total = 0;
+        for (List<E> batch : partition(data)) {
+            if (pushEvent) {
+                Map<PK, E> oldData = selectByPkInBatch(batch.stream().map(E::getId).collect(Collectors.toList()));
+                List<E> before = batch.stream().map(entity -> oldData.get(entity.getId())).collect(Collectors.toList());
+                for (int i = 0; i < batch.size(); i++) {
+                    eventPublisher.publishEvent(new GenericsPayloadApplicationEvent<>(this, new EntityModifyEvent<>(before.get(i), batch.get(i), getEntityType()), getEntityType()));
+                }
+                eventPublisher.publishEvent(new GenericsPayloadApplicationEvent<>(this, new EntityBatchModifyEvent<>(before, batch, getEntityType()), getEntityType()));
+            }
+            total += executeBatch(batch, this::doUpdate);
+        }
+        return total;
+    }
+
+    /**
+     * 批量新增数据,使用一次in查询检查主键是否已存在,按{@link #batchSize}分批使用JDBC批量插入.
+     * 每条数据依然推送{@link EntityCreatedEvent}事件,每批数据再推送一次{@link EntityBatchCreatedEvent}事件.
+     * 子类重写了{@link #insert(GenericEntity)}时逐条新增.
+     *
+     * @param data 要新增的数据
+     * @return 新增数据的主键
+     * @since 3.0.8
+     */
+    @Override
+    public List<PK> insertBatch(Collection<E> data) {
+        if (CollectionUtils.isEmpty(data)) {
+            return new ArrayList<>();
+        }
+        if (!batchInsertSupported) {
+            return data.stream()
+                    .map(this::insert)
+                    .collect(Collectors.toList());
+        }
+        List<E> entities = new ArrayList<>(data);
+        Set<PK> ids = new HashSet<>();
+        for (E entity : entities) {
+            PK id = entity.getId();
+            if (!StringUtils.isEmpty(id)) {
+                if (id instanceof String) {
+                    tryValidateProperty(id.toString().matches("[a-zA-Z0-9_\\-]+"), "id", "只能由数字,字母,下划线,和-组成");
+                }
+                tryValidateProperty(ids.add(id), "id", id + "已存在");
+            }
+        }
+        if (!ids.isEmpty()) {
+            Map<PK, E> existing = selectByPkInBatch(new ArrayList<>(ids));
+            tryValidateProperty(existing.isEmpty(), "id", existing.keySet().stream().findFirst().orElse(null) + "已存在");
+        }
+        for (E entity : entities) {
+            if (StringUtils.isEmpty(entity.getId()) && getIDGenerator() != null) {
+                entity.setId(getIDGenerator().generate());
+            }
+            if (entity instanceof RecordCreationEntity) {
+                ((RecordCreationEntity) entity).setCreateTimeNow();
+            }
+            tryValidate(entity, CreateGroup.class);
+        }
+        boolean pushEvent = eventPublisher != null && pushCreatedEvent();
+        for (List<E> batch : partition(entities)) {
+            executeBatch(batch, (dao, entity) -> {
+                dao.insert(entity);
+                return 1;
+            });
+            if (pushEvent) {
+                for (E entity : batch) {
+                    eventPublisher.publishEvent(new GenericsPayloadApplicationEvent<>(this, new EntityCreatedEvent<>(entity, getEntityType()), getEntityType()));
+                }
+                eventPublisher.publishEvent(new GenericsPayloadApplicationEvent<>(this, new EntityBatchCreatedEvent<>(batch, getEntityType()), getEntityType()));
+            }
+        }
+        return entities.stream()
+                .map(E::getId)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 对一批数据执行dao操作,支持批量执行时使用{@link BatchDaoExecutor}执行
+     *
+     * @param batch     数据
+     * @param operation dao操作,返回影响的记录数
+     * @return 影响的记录数
+     * @since 3.0.8
+     */
+    protected int executeBatch(List<E> batch, BiFunction<CrudDao<E, PK>, E, Integer> operation) {
+        CrudDao<E, PK> dao = getDao();
+        if (batchDaoExecutor != null && batch.size() > 1 && batchDaoExecutor.supports(dao)) {
+            return batchDaoExecutor.executeBatch(dao, batchDao -> batch.forEach(entity -> operation.apply(batchDao, entity)));
+        }
+        int total = 0;
+        for (E entity : batch) {
+            total += operation.apply(dao, entity);
+        }
+        return total;
+    }
+
+    //按主键分批查询,不使用selectByPk,避免命中缓存
+    private Map<PK, E> selectByPkInBatch(List<PK> ids) {
+        Map<PK, E> result = new HashMap<>();
+        for (List<PK> batch : partition(ids)) {
+            createQuery().where().in(GenericEntity.id, batch)
+                    .listNoPaging()
+                    .stream()
+                    .filter(entity -> batch.contains(entity.getId()))
+                    .forEach(entity -> result.put(entity.getId(), entity));
+        }
+        return result;
+    }
+
+    private boolean isOverridden(String methodName, Class<?>... parameterTypes) {
+        Method method = ReflectionUtils.findMethod(getClass(), methodName, parameterTypes);
+        if (method == null) {
+            return false;
+        }
+        Class<?> declaringClass = method.getDeclaringClass();
+        return declaringClass != GenericEntityService.class
+                && declaringClass != EnableCacheGenericEntityService.class
+                && declaringClass != EnableCacheAllEvictGenericEntityService.class;
+    }
+
+    private <T> List<List<T>> partition(List<T> data) {
+        int size = Math.max(1, batchSize);
+        if (data.size() <= size) {
+            return Collections.singletonList(data);
+        }
+        List<List<T>> partitions = new ArrayList<>(data.size() / size + 1);
+        for (int i = 0; i < data.size(); i += size) {
+            partitions.add(data.subList(i, Math.min(data.size(), i + size)));
+        }
+        return partitions;
     }
 
     @Override
@@ -206,4 +426,51 @@ public abstract class GenericEntityService<E extends GenericEntity<PK>, PK>
         return createQuery().where().in(GenericEntity.id, id).listNoPaging();
     }
 
+    /**
+     * 使用{@link StreamQueryDaoExecutor}在只读事务中流式查询,方法返回时数据库资源已经释放
+     *
+     * @since 3.0.8
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void selectStream(Entity param, Consumer<? super E> consumer) {
+        if (!isStreamQuerySupported()) {
+            GenericService.super.selectStream(param, consumer);
+            return;
+        }
+        streamQueryDaoExecutor.query(getDao(), noPaging(param), consumer);
+    }
+
+    /**
+     * 使用{@link StreamQueryDaoExecutor}流式查询,必须在事务中调用,并且在事务结束前关闭返回的{@link Stream}
+     *
+     * @since 3.0.8
+     */
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Stream<E> selectStream(Entity param) {
+        if (!isStreamQuerySupported()) {
+            return GenericService.super.selectStream(param);
+        }
+        //没有事务时连接会在方法返回时被释放
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("流式查询需要在事务中执行");
+        }
+        return streamQueryDaoExecutor.stream(getDao(), noPaging(param));
+    }
+
+    private boolean isStreamQuerySupported() {
+        return streamQueryDaoExecutor != null && streamQueryDaoExecutor.supports(getDao());
+    }
+
+    private Entity noPaging(Entity param) {
+        if (param == null) {
+            return QueryParamEntity.empty().noPaging();
+        }
+        if (param instanceof QueryParamEntity) {
+            ((QueryParamEntity) param).noPaging();
+        }
+        return param;
+    }
+
 }
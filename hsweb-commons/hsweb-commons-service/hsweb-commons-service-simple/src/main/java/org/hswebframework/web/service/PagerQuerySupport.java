@@ -0,0 +1,242 @@
+package org.hswebframework.web.service;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import org.hswebframework.ezorm.core.NestConditional;
+import org.hswebframework.ezorm.core.dsl.Query;
+import org.hswebframework.ezorm.core.param.Sort;
+import org.hswebframework.ezorm.core.param.TermType;
+import org.hswebframework.web.BusinessException;
+import org.hswebframework.web.commons.entity.PagerResult;
+import org.hswebframework.web.commons.entity.param.CountStrategy;
+import org.hswebframework.web.commons.entity.param.QueryParamEntity;
+import org.hswebframework.web.dao.dynamic.QueryByEntityDao;
+import org.hswebframework.web.datasource.DataSourceHolder;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 分页查询支持,实现{@link CountStrategy}和游标分页.
+ * <p>
+ * 游标为上一页最后一条数据的排序字段值,下一页的查询条件为:
+ * <pre>
+ *     (a > ?) or (a = ? and b > ?) or (a = ? and b = ? and id > ?)
+ * </pre>
+ * 排序字段存在null值时,只有数据库将null值排在最后时结果才是正确的,建议使用非空字段排序.
+ *
+ * @author zhouhao
+ * @see DefaultQueryByEntityService#selectPager(org.hswebframework.web.commons.entity.Entity)
+ * @since 3.0.8
+ */
+final class PagerQuerySupport {
+
+    /**
+     * 默认count缓存有效期,单位毫秒
+     *
+     * @see DefaultQueryByEntityService#getCountCacheTime()
+     */
+    static final long DEFAULT_COUNT_CACHE_TIME = 60_000L;
+
+    static final int MAX_COUNT_CACHE_SIZE = 4096;
+
+    private static final ConcurrentMap<String, long[]> countCache = new ConcurrentHashMap<>();
+
+    private PagerQuerySupport() {
+    }
+
+    static <E> PagerResult<E> selectPager(DefaultQueryByEntityService<E> service, QueryParamEntity param) {
+        CountStrategy strategy = param.getCountStrategy() == null ? CountStrategy.exact : param.getCountStrategy();
+        int total = count(service.getDao(), param, strategy, service.getCountCacheTime());
+
+        PagerResult<E> pagerResult = new PagerResult<>();
+        pagerResult.setPageSize(param.getPageSize());
+        pagerResult.setPageIndex(param.getThinkPageIndex());
+        if (total == 0 && strategy == CountStrategy.exact) {
+            pagerResult.setData(new ArrayList<>());
+            return pagerResult;
+        }
+        if (param.isKeyset()) {
+            int pageIndex = param.getPageIndex();
+            int pageSize = param.getPageSize();
+            List<Sort> sorts = applyCursor(param);
+            //多查询一条,用于判断是否还有下一页
+            param.doPaging(0, pageSize + 1);
+            List<E> data = service.select(param);
+            param.doPaging(pageIndex, pageSize);
+            if (data.size() > pageSize) {
+                data = new ArrayList<>(data.subList(0, pageSize));
+                pagerResult.setNextCursor(encodeCursor(sorts, data.get(pageSize - 1)));
+            }
+            pagerResult.setData(data);
+        } else {
+            List<E> data = service.select(param);
+            int offset = param.getPageIndex() * param.getPageSize();
+            if (data.size() < param.getPageSize() && (offset == 0 || !data.isEmpty())) {
+                //已经是最后一页,可以计算出准确的总数
+                total = offset + data.size();
+            } else if (total >= 0 && total < offset + data.size()) {
+                total = offset + data.size();
+            }
+            pagerResult.setData(data);
+        }
+        pagerResult.setTotal(total);
+        return pagerResult;
+    }
+
+    static int count(QueryByEntityDao<?> dao, QueryParamEntity param, CountStrategy strategy, long cacheTime) {
+        switch (strategy) {
+            case skip:
+                return -1;
+            case cache:
+                return cachedCount(dao, param, cacheTime);
+            default:
+                //estimate由dao实现,不支持时执行普通count
+                return dao.count(param);
+        }
+    }
+
+    static int cachedCount(QueryByEntityDao<?> dao, QueryParamEntity param, long cacheTime) {
+        if (cacheTime <= 0) {
+            return dao.count(param);
+        }
+        String key = createCountCacheKey(dao, param);
+
+        long now = System.currentTimeMillis();
+        long[] cached = countCache.get(key);
+        if (cached != null && cached[1] > now) {
+            return (int) cached[0];
+        }
+        int total = dao.count(param);
+        if (countCache.size() >= MAX_COUNT_CACHE_SIZE) {
+            countCache.values().removeIf(value -> value[1] <= now);
+            if (countCache.size() >= MAX_COUNT_CACHE_SIZE) {
+                countCache.clear();
+            }
+        }
+        countCache.put(key, new long[]{total, now + cacheTime});
+        return total;
+    }
+
+    /**
+     * 只使用查询条件作为key,不同的分页和排序共用count结果.
+     * key中包含当前使用的数据源,数据库和切换的表,避免不同数据源或者表的count结果混用
+     */
+    static String createCountCacheKey(QueryByEntityDao<?> dao, QueryParamEntity param) {
+        QueryParamEntity termParam = new QueryParamEntity();
+        termParam.setTerms(param.getTerms());
+        StringBuilder key = new StringBuilder(dao.getClass().getName())
+                .append(':').append(DataSourceHolder.switcher().currentDataSourceId())
+                .append(':').append(DataSourceHolder.databaseSwitcher().currentDatabase());
+        Map<String, String> tables = DataSourceHolder.tableSwitcher().getSwitchedTables();
+        if (!tables.isEmpty()) {
+            key.append(':').append(new TreeMap<>(tables));
+        }
+        return key.append(':').append(termParam.toHttpQueryParamString()).toString();
+    }
+
+    static void clearCountCache() {
+        countCache.clear();
+    }
+
+    /**
+     * 追加唯一排序字段,并根据游标追加查询条件
+     *
+     * @return 排序字段
+     */
+    static List<Sort> applyCursor(QueryParamEntity param) {
+        String cursorKey = StringUtils.hasText(param.getCursorKey()) ? param.getCursorKey() : "id";
+        boolean hasCursorKey = param.getSorts()
+                .stream()
+                .anyMatch(sort -> cursorKey.equals(sort.getName()));
+        if (!hasCursorKey) {
+            param.toQuery().orderByAsc(cursorKey);
+        }
+        List<Sort> sorts = new ArrayList<>(param.getSorts());
+        if (!StringUtils.hasText(param.getCursor())) {
+            return sorts;
+        }
+        List<Object> values = decodeCursor(param.getCursor());
+        if (values.size() != sorts.size()) {
+            throw new BusinessException("无效的分页游标", 400);
+        }
+        //将原有条件包装为嵌套条件,避免与游标条件的or混淆
+        Query<Object, QueryParamEntity> query = CollectionUtils.isEmpty(param.getTerms())
+                ? param.toQuery()
+                : param.toNestQuery();
+        NestConditional<?> seek = query.nest();
+        boolean first = true;
+        for (int i = 0; i < sorts.size(); i++) {
+            Object value = values.get(i);
+            if (value == null) {
+                continue;
+            }
+            NestConditional<?> nest = first ? seek.nest() : seek.orNest();
+            first = false;
+            for (int j = 0; j < i; j++) {
+                Object before = values.get(j);
+                if (before == null) {
+                    nest.accept(sorts.get(j).getName(), TermType.isnull, 1);
+                } else {
+                    nest.accept(sorts.get(j).getName(), TermType.eq, before);
+                }
+            }
+            Sort sort = sorts.get(i);
+            nest.accept(sort.getName(), "desc".equalsIgnoreCase(sort.getOrder()) ? TermType.lt : TermType.gt, value);
+            nest.end();
+        }
+        seek.end();
+        return sorts;
+    }
+
+    @SuppressWarnings("unchecked")
+    static String encodeCursor(List<Sort> sorts, Object row) {
+        List<Object> values = new ArrayList<>(sorts.size());
+        BeanWrapper wrapper = row instanceof Map ? null : new BeanWrapperImpl(row);
+        for (Sort sort : sorts) {
+            Object value;
+            if (wrapper == null) {
+                value = ((Map<String, Object>) row).get(sort.getName());
+            } else if (wrapper.isReadableProperty(sort.getName())) {
+                value = wrapper.getPropertyValue(sort.getName());
+            } else {
+                throw new UnsupportedOperationException("无法获取排序字段[" + sort.getName() + "]的值,不支持游标分页");
+            }
+            //日期转为时间戳,解析时再转回日期
+            if (value instanceof Date) {
+                value = Collections.singletonMap("date", ((Date) value).getTime());
+            }
+            values.add(value);
+        }
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(JSON.toJSONString(values).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static List<Object> decodeCursor(String cursor) {
+        JSONArray array;
+        try {
+            array = JSON.parseArray(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            throw new BusinessException("无效的分页游标", 400);
+        }
+        if (array == null) {
+            throw new BusinessException("无效的分页游标", 400);
+        }
+        List<Object> values = new ArrayList<>(array.size());
+        for (Object value : array) {
+            if (value instanceof JSONObject && ((JSONObject) value).containsKey("date")) {
+                value = new Date(((JSONObject) value).getLongValue("date"));
+            }
+            values.add(value);
+        }
+        return values;
+    }
+}
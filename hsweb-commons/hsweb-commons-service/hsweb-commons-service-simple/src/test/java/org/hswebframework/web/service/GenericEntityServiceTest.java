@@ -1,9 +1,19 @@
 package org.hswebframework.web.service;
 
+import org.hswebframework.web.commons.entity.Entity;
 import org.hswebframework.web.commons.entity.PagerResult;
+import org.hswebframework.web.commons.entity.events.EntityBatchCreatedEvent;
+import org.hswebframework.web.commons.entity.events.EntityBatchModifyEvent;
+import org.hswebframework.web.commons.entity.events.EntityCreatedEvent;
+import org.hswebframework.web.commons.entity.events.EntityModifyEvent;
 import org.hswebframework.web.commons.entity.factory.MapperEntityFactory;
 import org.hswebframework.web.commons.entity.param.QueryParamEntity;
+import org.hswebframework.web.dao.BatchDaoExecutor;
 import org.hswebframework.web.dao.CrudDao;
+import org.hswebframework.web.dao.Dao;
+import org.hswebframework.web.dao.StreamQueryDaoExecutor;
+import org.hswebframework.web.dao.dynamic.QueryByEntityDao;
+import org.hswebframework.web.id.IDGenerator;
 import org.hswebframework.web.validate.ValidationException;
 import org.junit.Assert;
 import org.junit.Before;
@@ -15,11 +25,16 @@ import org.mockito.runners.MockitoJUnitRunner;
 import org.mockito.stubbing.Answer;
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.PayloadApplicationEvent;
 
 import javax.validation.Validation;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static org.mockito.Mockito.*;
 
@@ -123,4 +138,172 @@ public class GenericEntityServiceTest {
         Assert.assertEquals(i, 1);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testInsertBatch() {
+        AtomicInteger batchCounter = new AtomicInteger();
+        entityService.setBatchSize(2);
+        entityService.setBatchDaoExecutor(new BatchDaoExecutor() {
+            @Override
+            public boolean supports(Dao dao) {
+                return true;
+            }
+
+            @Override
+            public <D extends Dao> int executeBatch(D dao, Consumer<D> operations) {
+                batchCounter.incrementAndGet();
+                operations.accept(dao);
+                return 2;
+            }
+        });
+        List<TestEntity> entities = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            entities.add(TestEntity.builder().age((byte) 1).enabled(true).name("测试" + i).build());
+        }
+        entities.get(0).setId("batch0");
+        List<String> ids = entityService.insertBatch(entities);
+        Assert.assertEquals(5, ids.size());
+        Assert.assertEquals("batch0", ids.get(0));
+        Assert.assertEquals(5, new HashSet<>(ids).size());
+        //3批数据,最后一批只有一条,不使用批量执行
+        Assert.assertEquals(2, batchCounter.get());
+        verify(dao, times(5)).insert(any());
+
+        //主键已存在
+        TestEntity exists = TestEntity.builder().age((byte) 1).enabled(true).name("测试").build();
+        exists.setId("testId");
+        try {
+            entityService.insertBatch(Arrays.asList(exists));
+            Assert.fail();
+        } catch (ValidationException e) {
+            Assert.assertEquals("id", e.getResults().get(0).getField());
+        }
+
+        //主键重复
+        TestEntity duplicate = TestEntity.builder().age((byte) 1).enabled(true).name("测试").build();
+        duplicate.setId("batch0");
+        try {
+            entityService.insertBatch(Arrays.asList(entities.get(0), duplicate));
+            Assert.fail();
+        } catch (ValidationException e) {
+            Assert.assertEquals("id", e.getResults().get(0).getField());
+        }
+    }
+
+    @Test
+    public void testUpdateBatch() {
+        entityService.setBatchSize(10);
+        List<TestEntity> entities = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            TestEntity entity = TestEntity.builder().age((byte) 1).enabled(true).name("测试" + i).build();
+            entity.setId("test" + i);
+            entities.add(entity);
+        }
+        Assert.assertEquals(3, entityService.updateByPk(entities));
+        verify(dao, times(3)).update(any());
+    }
+
+    @Test
+    public void testBatchEvents() {
+        EventEntityService eventService = new EventEntityService(dao);
+        eventService.setEntityFactory(new MapperEntityFactory());
+        eventService.setValidator(Validation.buildDefaultValidatorFactory().getValidator());
+        List<Object> events = new ArrayList<>();
+        eventService.setEventPublisher(new ApplicationEventPublisher() {
+            @Override
+            public void publishEvent(ApplicationEvent event) {
+                events.add(((PayloadApplicationEvent) event).getPayload());
+            }
+
+            @Override
+            public void publishEvent(Object event) {
+                events.add(event);
+            }
+        });
+        List<TestEntity> entities = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            entities.add(TestEntity.builder().age((byte) 1).enabled(true).name("测试" + i).build());
+        }
+        //每条数据推送EntityCreatedEvent,再推送一次EntityBatchCreatedEvent
+        eventService.insertBatch(entities);
+        Assert.assertEquals(4, events.size());
+        Assert.assertEquals(3, events.stream().filter(EntityCreatedEvent.class::isInstance).count());
+        Assert.assertTrue(events.get(3) instanceof EntityBatchCreatedEvent);
+
+        events.clear();
+        eventService.updateByPk(entities);
+        Assert.assertEquals(4, events.size());
+        Assert.assertEquals(3, events.stream().filter(EntityModifyEvent.class::isInstance).count());
+        Assert.assertTrue(events.get(3) instanceof EntityBatchModifyEvent);
+    }
+
+    @Test
+    public void testSelectStream() {
+        //不支持流式查询时查询全部数据
+        List<TestEntity> fallback = new ArrayList<>();
+        entityService.selectStream(QueryParamEntity.empty(), fallback::add);
+        Assert.assertEquals(1, fallback.size());
+        Assert.assertEquals(1, entityService.selectStream(QueryParamEntity.empty()).count());
+
+        AtomicInteger counter = new AtomicInteger();
+        entityService.setStreamQueryDaoExecutor(new StreamQueryDaoExecutor() {
+            @Override
+            public boolean supports(QueryByEntityDao<?> dao) {
+                return true;
+            }
+
+            @Override
+            public <E> void query(QueryByEntityDao<E> dao, Entity param, Consumer<? super E> consumer) {
+                Assert.assertFalse(((QueryParamEntity) param).isPaging());
+                for (E e : dao.query(param)) {
+                    counter.incrementAndGet();
+                    consumer.accept(e);
+                }
+            }
+
+            @Override
+            public <E> Stream<E> stream(QueryByEntityDao<E> dao, Entity param) {
+                return dao.query(param).stream();
+            }
+        });
+        List<TestEntity> entities = new ArrayList<>();
+        entityService.selectStream(QueryParamEntity.single("name", "test"), entities::add);
+        Assert.assertEquals(1, entities.size());
+        Assert.assertEquals(1, counter.get());
+
+        //没有事务时不能返回持有连接的Stream
+        try {
+            entityService.selectStream(QueryParamEntity.empty());
+            Assert.fail();
+        } catch (IllegalStateException ignore) {
+        }
+    }
+
+    static class EventEntityService extends GenericEntityService<TestEntity, String> {
+
+        private final CrudDao<TestEntity, String> dao;
+
+        EventEntityService(CrudDao<TestEntity, String> dao) {
+            this.dao = dao;
+        }
+
+        @Override
+        protected IDGenerator<String> getIDGenerator() {
+            return IDGenerator.MD5;
+        }
+
+        @Override
+        public CrudDao<TestEntity, String> getDao() {
+            return dao;
+        }
+
+        @Override
+        protected boolean pushModifyEvent() {
+            return true;
+        }
+
+        @Override
+        protected boolean pushCreatedEvent() {
+            return true;
+        }
+    }
+}
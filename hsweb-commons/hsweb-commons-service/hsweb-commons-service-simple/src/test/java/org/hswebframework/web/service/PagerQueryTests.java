@@ -0,0 +1,149 @@
+package org.hswebframework.web.service;
+
+import org.hswebframework.ezorm.core.param.Term;
+import org.hswebframework.ezorm.core.param.TermType;
+import org.hswebframework.web.BusinessException;
+import org.hswebframework.web.commons.entity.PagerResult;
+import org.hswebframework.web.commons.entity.factory.MapperEntityFactory;
+import org.hswebframework.web.commons.entity.param.CountStrategy;
+import org.hswebframework.web.commons.entity.param.QueryParamEntity;
+import org.hswebframework.web.dao.CrudDao;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * @author zhouhao
+ * @since 3.0.8
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class PagerQueryTests {
+
+    @InjectMocks
+    private TestEntityService entityService = new TestEntityService();
+
+    @Mock
+    private CrudDao<TestEntity, String> dao;
+
+    private int rows = 25;
+
+    @Before
+    public void init() {
+        entityService.setEntityFactory(new MapperEntityFactory());
+        PagerQuerySupport.clearCountCache();
+        when(dao.count(any())).then((Answer<Integer>) invocation -> rows);
+        when(dao.query(any())).then((Answer<List<TestEntity>>) invocation -> {
+            QueryParamEntity param = invocation.getArgumentAt(0, QueryParamEntity.class);
+            int offset = param.getPageIndex() * param.getPageSize();
+            List<TestEntity> entities = new ArrayList<>();
+            for (int i = offset; i < Math.min(rows, offset + param.getPageSize()); i++) {
+                TestEntity entity = TestEntity.builder().name("test" + i).build();
+                entity.setId(String.format("id%02d", i));
+                entities.add(entity);
+            }
+            return entities;
+        });
+    }
+
+    @Test
+    public void testSkipCount() {
+        QueryParamEntity param = new QueryParamEntity().count(CountStrategy.skip);
+        param.doPaging(0, 10);
+        PagerResult<TestEntity> result = entityService.selectPager(param);
+        Assert.assertEquals(-1, result.getTotal());
+        Assert.assertEquals(10, result.getData().size());
+
+        //最后一页时计算出总数
+        param = new QueryParamEntity().count(CountStrategy.skip);
+        param.doPaging(2, 10);
+        result = entityService.selectPager(param);
+        Assert.assertEquals(25, result.getTotal());
+        Assert.assertEquals(5, result.getData().size());
+
+        verify(dao, never()).count(any());
+    }
+
+    @Test
+    public void testCacheCount() {
+        for (int i = 0; i < 3; i++) {
+            QueryParamEntity param = QueryParamEntity.single("name", "test").count(CountStrategy.cache);
+            param.doPaging(i, 5);
+            Assert.assertEquals(25, entityService.selectPager(param).getTotal());
+        }
+        verify(dao, times(1)).count(any());
+
+        //条件不同时重新count
+        QueryParamEntity param = QueryParamEntity.single("name", "test2").count(CountStrategy.cache);
+        param.doPaging(0, 5);
+        entityService.selectPager(param);
+        verify(dao, times(2)).count(any());
+    }
+
+    @Test
+    public void testEstimateCount() {
+        rows = 3;
+        QueryParamEntity param = new QueryParamEntity().count(CountStrategy.estimate);
+        param.doPaging(0, 10);
+        PagerResult<TestEntity> result = entityService.selectPager(param);
+        Assert.assertEquals(3, result.getTotal());
+        Assert.assertEquals(3, result.getData().size());
+    }
+
+    @Test
+    public void testKeyset() {
+        QueryParamEntity param = QueryParamEntity.single("name", "test").seek(null);
+        param.doPaging(0, 10);
+        PagerResult<TestEntity> result = entityService.selectPager(param);
+        Assert.assertEquals(25, result.getTotal());
+        Assert.assertEquals(10, result.getData().size());
+        Assert.assertNotNull(result.getNextCursor());
+        //自动追加唯一排序字段
+        Assert.assertEquals(1, param.getSorts().size());
+        Assert.assertEquals("id", param.getSorts().get(0).getName());
+
+        QueryParamEntity next = QueryParamEntity.single("name", "test").seek(result.getNextCursor());
+        next.doPaging(0, 10);
+        entityService.selectPager(next);
+        //原有条件被包装为嵌套条件
+        Assert.assertEquals(2, next.getTerms().size());
+        Term seek = next.getTerms().get(1).getTerms().get(0).getTerms().get(0);
+        Assert.assertEquals("id", seek.getColumn());
+        Assert.assertEquals(TermType.gt, seek.getTermType());
+        Assert.assertEquals("id09", seek.getValue());
+
+        //倒序时使用lt
+        QueryParamEntity desc = new QueryParamEntity().seek(result.getNextCursor());
+        desc.toQuery().orderByDesc("id");
+        desc.doPaging(0, 10);
+        entityService.selectPager(desc);
+        seek = desc.getTerms().get(0).getTerms().get(0).getTerms().get(0);
+        Assert.assertEquals(TermType.lt, seek.getTermType());
+    }
+
+    @Test
+    public void testKeysetLastPage() {
+        rows = 10;
+        QueryParamEntity param = new QueryParamEntity().seek(null);
+        param.doPaging(0, 10);
+        PagerResult<TestEntity> result = entityService.selectPager(param);
+        Assert.assertEquals(10, result.getData().size());
+        Assert.assertNull(result.getNextCursor());
+    }
+
+    @Test(expected = BusinessException.class)
+    public void testInvalidCursor() {
+        QueryParamEntity param = new QueryParamEntity().seek("not a cursor");
+        entityService.selectPager(param);
+    }
+
+}
@@ -19,7 +19,9 @@
 package org.hswebframework.web;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Supplier;
 
 /**
@@ -44,6 +46,8 @@ public final class ThreadLocalUtils {
 
     private static final ThreadLocal<Map<String, Object>> local = ThreadLocal.withInitial(HashMap::new);
 
+    private static final List<Runnable> clearListeners = new CopyOnWriteArrayList<>();
+
     /**
      * @return threadLocal中的全部值
      */
@@ -82,6 +86,20 @@ public final class ThreadLocalUtils {
      */
     public static void clear() {
         local.remove();
+        for (Runnable listener : clearListeners) {
+            listener.run();
+        }
+    }
+
+    /**
+     * 添加清空监听器,在{@link #clear()}时于当前线程中执行,
+     * 用于清理不保存在此工具类中的ThreadLocal
+     *
+     * @param listener 监听器
+     * @since 3.0.8
+     */
+    public static void onClear(Runnable listener) {
+        clearListeners.add(listener);
     }
 
     /**
@@ -1,43 +1,201 @@
 package org.hswebframework.web.concurrent.lock;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.Function;
 
 /**
- * TODO 完成注释
+ * 锁管理器抽象实现,使用引用计数管理锁.
+ * <p>
+ * {@link #getLock(String)}和{@link #getReadWriteLock(String)}返回的是按名称代理的锁,
+ * 加锁时才从注册表中获取真实的锁并增加引用计数,解锁后引用计数减少,
+ * 没有线程持有或者等待的锁会从注册表中删除,因此可以使用任意数量的锁名称.
+ * 调用{@link Lock#newCondition()}后,对应的锁将不会再被删除.
  *
  * @author zhouhao
  */
 public abstract class AbstractLockManager implements LockManager {
-    private final Map<String, Lock>          lockStore          = new HashMap<>(128);
-    private final Map<String, ReadWriteLock> readWriteLockStore = new HashMap<>(128);
+    private final LockRegistry<Lock>          lockStore          = new LockRegistry<>(this::createLock);
+    private final LockRegistry<ReadWriteLock> readWriteLockStore = new LockRegistry<>(this::createReadWriteLock);
 
     @Override
     public Lock getLock(String lockName) {
-        Lock lock = lockStore.get(lockName);
-        if (lock != null) {
-            return lock;
-        }
-        synchronized (lockStore) {
-            return lockStore.computeIfAbsent(lockName, this::createLock);
-        }
+        return new RegistryLock<>(lockStore, lockName, Function.identity());
     }
 
     @Override
     public ReadWriteLock getReadWriteLock(String lockName) {
-        ReadWriteLock lock = readWriteLockStore.get(lockName);
-        if (lock != null) {
-            return lock;
-        }
-        synchronized (readWriteLockStore) {
-            return readWriteLockStore.computeIfAbsent(lockName, this::createReadWriteLock);
-        }
+        Lock readLock = new RegistryLock<>(readWriteLockStore, lockName, ReadWriteLock::readLock);
+        Lock writeLock = new RegistryLock<>(readWriteLockStore, lockName, ReadWriteLock::writeLock);
+        return new ReadWriteLock() {
+            @Override
+            public Lock readLock() {
+                return readLock;
+            }
+
+            @Override
+            public Lock writeLock() {
+                return writeLock;
+            }
+        };
+    }
+
+    /**
+     * @return 当前被持有或者等待中的锁数量
+     */
+    public int getLiveLockCount() {
+        return lockStore.size() + readWriteLockStore.size();
+    }
+
+    /**
+     * @return 加锁时锁已被持有或者有其他线程在等待的次数
+     */
+    public long getContentionCount() {
+        return lockStore.contention.sum() + readWriteLockStore.contention.sum();
     }
 
     protected abstract Lock createLock(String lockName);
 
     protected abstract ReadWriteLock createReadWriteLock(String lockName);
 
+    static class LockEntry<T> {
+        private final T lock;
+
+        //只在ConcurrentHashMap.compute中修改
+        private int references;
+
+        LockEntry(T lock) {
+            this.lock = lock;
+        }
+    }
+
+    static class LockRegistry<T> {
+        private final ConcurrentMap<String, LockEntry<T>> store = new ConcurrentHashMap<>(128);
+
+        private final Function<String, T> lockFactory;
+
+        private final LongAdder contention = new LongAdder();
+
+        LockRegistry(Function<String, T> lockFactory) {
+            this.lockFactory = lockFactory;
+        }
+
+        LockEntry<T> acquire(String lockName) {
+            return store.compute(lockName, (name, entry) -> {
+                if (entry == null) {
+                    entry = new LockEntry<>(lockFactory.apply(name));
+                } else if (entry.references > 0) {
+                    contention.increment();
+                }
+                entry.references++;
+                return entry;
+            });
+        }
+
+        LockEntry<T> get(String lockName) {
+            return store.get(lockName);
+        }
+
+        void release(String lockName, LockEntry<T> lockEntry) {
+            store.computeIfPresent(lockName, (name, entry) -> {
+                if (entry != lockEntry) {
+                    return entry;
+                }
+                return --entry.references <= 0 ? null : entry;
+            });
+        }
+
+        int size() {
+            return store.size();
+        }
+    }
+
+    static class RegistryLock<T> implements Lock {
+        private final LockRegistry<T> registry;
+
+        private final String lockName;
+
+        private final Function<T, Lock> lockGetter;
+
+        RegistryLock(LockRegistry<T> registry, String lockName, Function<T, Lock> lockGetter) {
+            this.registry = registry;
+            this.lockName = lockName;
+            this.lockGetter = lockGetter;
+        }
+
+        @Override
+        public void lock() {
+            LockEntry<T> entry = registry.acquire(lockName);
+            try {
+                lockGetter.apply(entry.lock).lock();
+            } catch (RuntimeException | Error e) {
+                registry.release(lockName, entry);
+                throw e;
+            }
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            LockEntry<T> entry = registry.acquire(lockName);
+            try {
+                lockGetter.apply(entry.lock).lockInterruptibly();
+            } catch (InterruptedException | RuntimeException | Error e) {
+                registry.release(lockName, entry);
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean tryLock() {
+            LockEntry<T> entry = registry.acquire(lockName);
+            boolean success = false;
+            try {
+                return success = lockGetter.apply(entry.lock).tryLock();
+            } finally {
+                if (!success) {
+                    registry.release(lockName, entry);
+                }
+            }
+        }
+
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            LockEntry<T> entry = registry.acquire(lockName);
+            boolean success = false;
+            try {
+                return success = lockGetter.apply(entry.lock).tryLock(time, unit);
+            } finally {
+                if (!success) {
+                    registry.release(lockName, entry);
+                }
+            }
+        }
+
+        @Override
+        public void unlock() {
+            LockEntry<T> entry = registry.get(lockName);
+            if (entry == null) {
+                throw new IllegalMonitorStateException("lock [" + lockName + "] is not locked");
+            }
+            lockGetter.apply(entry.lock).unlock();
+            registry.release(lockName, entry);
+        }
+
+        @Override
+        public Condition newCondition() {
+            //不释放引用,保证Condition对应的锁一直存在
+            LockEntry<T> entry = registry.acquire(lockName);
+            return lockGetter.apply(entry.lock).newCondition();
+        }
+
+        @Override
+        public String toString() {
+            return "RegistryLock[" + lockName + "]";
+        }
+    }
 }
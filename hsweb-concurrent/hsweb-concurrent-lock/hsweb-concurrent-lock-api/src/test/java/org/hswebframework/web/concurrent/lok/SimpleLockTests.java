@@ -1,10 +1,12 @@
 package org.hswebframework.web.concurrent.lok;
 
+import org.hswebframework.web.concurrent.lock.AbstractLockManager;
 import org.hswebframework.web.concurrent.lock.LockManager;
 import org.hswebframework.web.concurrent.lock.SimpleLockManager;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.function.Consumer;
@@ -76,4 +78,39 @@ public class SimpleLockTests {
         }
         Thread.sleep(5000);
     }
+
+    @Test
+    public void testReleaseUnusedLock() throws InterruptedException {
+        AbstractLockManager manager = new SimpleLockManager();
+        for (int i = 0; i < 1000; i++) {
+            Lock lock = manager.getLock("order-" + i);
+            lock.lock();
+            lock.unlock();
+        }
+        Assert.assertEquals(0, manager.getLiveLockCount());
+
+        Lock lock = manager.getLock("foo");
+        lock.lock();
+        lock.lock();
+        Assert.assertEquals(1, manager.getLiveLockCount());
+
+        //相同名称的锁必须互斥
+        AtomicBoolean locked = new AtomicBoolean(true);
+        Thread thread = new Thread(() -> locked.set(manager.getLock("foo").tryLock()));
+        thread.start();
+        thread.join();
+        Assert.assertFalse(locked.get());
+
+        lock.unlock();
+        Assert.assertEquals(1, manager.getLiveLockCount());
+        lock.unlock();
+        Assert.assertEquals(0, manager.getLiveLockCount());
+        Assert.assertTrue(manager.getContentionCount() >= 2);
+
+        ReadWriteLock readWriteLock = manager.getReadWriteLock("foo");
+        readWriteLock.readLock().lock();
+        Assert.assertEquals(1, manager.getLiveLockCount());
+        readWriteLock.readLock().unlock();
+        Assert.assertEquals(0, manager.getLiveLockCount());
+    }
 }
@@ -33,7 +33,13 @@ public class LockProcessor<A extends Annotation, L> {
 
     private LockAccepter<L> unlockAccepter;
 
-    private Map<String, L> lockStore = new HashMap<>();
+    //按名称排序后的锁,所有方法都按相同的顺序加锁,避免死锁
+    private String[] lockNames;
+
+    private Object[] locks;
+
+    //已成功加锁的数量
+    private int lockedSize;
 
     private LockProcessor() {
     }
@@ -71,13 +77,19 @@ public class LockProcessor<A extends Annotation, L> {
         Objects.requireNonNull(lockNameGetter);
         String[] lockNameArr = lockNameGetter.apply(lockAnn);
         if (lockNameArr.length == 0) {
-            String name = createLockName(null);
-            lockStore.put(name, lockGetter.apply(name));
+            lockNames = new String[]{createLockName(null)};
+        } else if (lockNameArr.length == 1) {
+            lockNames = new String[]{createLockName(lockNameArr[0])};
         } else {
-            for (String expression : lockNameArr) {
-                String name = createLockName(expression);
-                lockStore.put(name, lockGetter.apply(name));
-            }
+            lockNames = Arrays.stream(lockNameArr)
+                    .map(this::createLockName)
+                    .distinct()
+                    .sorted()
+                    .toArray(String[]::new);
+        }
+        locks = new Object[lockNames.length];
+        for (int i = 0; i < lockNames.length; i++) {
+            locks[i] = lockGetter.apply(lockNames[i]);
         }
         return this;
     }
@@ -93,32 +105,31 @@ public class LockProcessor<A extends Annotation, L> {
         }
     }
 
-    private List<L> successLock = new ArrayList<>();
-
     public Throwable doLock() {
-        Throwable lockError = null;
-        for (Map.Entry<String, L> lock : lockStore.entrySet()) {
+        for (int i = 0; i < locks.length; i++) {
             try {
-                boolean success = lockAccepter.accept(lock.getValue());
+                boolean success = lockAccepter.accept((L) locks[i]);
                 if (!success) {
-                    return new TimeoutException("try lock " + lock.getKey() + " error");
+                    return new TimeoutException("try lock " + lockNames[i] + " error");
                 }
-                successLock.add(lock.getValue());
+                lockedSize++;
             } catch (Throwable throwable) {
-                lockError = throwable;
+                return throwable;
             }
         }
-        return lockError;
+        return null;
     }
 
     public void doUnlock() {
-        for (L lock : successLock) {
+        //按加锁的相反顺序解锁
+        for (int i = lockedSize - 1; i >= 0; i--) {
             try {
-                unlockAccepter.accept(lock);
+                unlockAccepter.accept((L) locks[i]);
             } catch (Throwable error) {
                 logger.error("unlock {} error", interceptorHolder.getMethod(), error);
             }
         }
+        lockedSize = 0;
     }
 
     public interface LockAccepter<T> {
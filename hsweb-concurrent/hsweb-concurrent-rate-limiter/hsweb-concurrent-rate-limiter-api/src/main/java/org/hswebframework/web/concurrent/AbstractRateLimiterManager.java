@@ -1,26 +1,197 @@
 package org.hswebframework.web.concurrent;
 
+import lombok.Getter;
+import lombok.Setter;
+
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
+ * 限流器管理器抽象实现,限流器保存在有界的注册表中,长时间未使用的限流器将被删除.
+ * <p>
+ * 只删除已经恢复到初始状态(令牌已填满)的限流器,避免删除后重新创建的限流器绕过限流.
+ *
  * @author zhouhao
  * @since 3.0.4
  */
 public abstract class AbstractRateLimiterManager implements RateLimiterManager {
-    private final Map<String, RateLimiter> counterStore = new HashMap<>(128);
+    private final ConcurrentMap<String, RateLimiterEntry> counterStore = new ConcurrentHashMap<>(128);
+
+    private final AtomicBoolean cleaning = new AtomicBoolean();
+
+    private volatile long nextCleanTime = System.currentTimeMillis();
+
+    /**
+     * 最大限流器数量,超过后将删除最久未使用的限流器.令牌未填满的限流器不会被删除,因此数量可能暂时超过此值
+     */
+    @Getter
+    @Setter
+    private int maxSize = 10000;
+
+    /**
+     * 限流器空闲多久后删除,单位毫秒.令牌填满需要的时间更长时,以填满时间为准
+     */
+    @Getter
+    @Setter
+    private long idleTimeout = TimeUnit.MINUTES.toMillis(10);
 
     protected abstract RateLimiter createRateLimiter(String key, double permits, TimeUnit timeUnit);
 
+    protected RateLimiter createRateLimiter(String key, double permits, TimeUnit timeUnit, double burst) {
+        return createRateLimiter(key, permits, timeUnit);
+    }
+
+    /**
+     * 获取限流器从耗尽到完全恢复(令牌填满)需要的时间,空闲超过此时间的限流器才可以删除
+     *
+     * @param permits  时间单位内允许的请求数
+     * @param timeUnit 时间单位
+     * @param burst    突发请求数
+     * @return 恢复时间, 单位毫秒
+     */
+    protected long getRefillTime(double permits, TimeUnit timeUnit, double burst) {
+        return (long) Math.ceil(timeUnit.toMillis(1) * Math.max(1, burst / permits));
+    }
+
     @Override
     public RateLimiter getRateLimiter(String key, double permits, TimeUnit timeUnit) {
-        RateLimiter counter = counterStore.get(key);
-        if (counter != null) {
-            return counter;
+        return getRateLimiter(key, permits, timeUnit, 0);
+    }
+
+    @Override
+    public RateLimiter getRateLimiter(String key, double permits, TimeUnit timeUnit, double burst) {
+        long now = System.currentTimeMillis();
+        RateLimiterEntry entry = counterStore.get(key);
+        if (entry == null) {
+            entry = counterStore.computeIfAbsent(key, k -> new RateLimiterEntry(createRateLimiter(k, permits, timeUnit, burst),
+                    getRefillTime(permits, timeUnit, burst)));
+            if (counterStore.size() > maxSize) {
+                cleanup(now, true);
+            }
+        }
+        if (entry.lastAccessTime != now) {
+            entry.lastAccessTime = now;
+        }
+        if (now >= nextCleanTime) {
+            cleanup(now, false);
+        }
+        return entry;
+    }
+
+    /**
+     * 删除空闲并且令牌已填满的限流器,数量超过{@link #maxSize}时,继续删除最久未使用并且令牌已填满的限流器
+     */
+    protected void cleanup(long now, boolean force) {
+        if (!cleaning.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long idleTime = now - idleTimeout;
+            counterStore.values().removeIf(entry -> entry.lastAccessTime < idleTime && entry.isRefilled(now));
+            int overflow = counterStore.size() - maxSize;
+            if (force && overflow > 0) {
+                long oldestAccessTime = Long.MAX_VALUE;
+                for (RateLimiterEntry entry : counterStore.values()) {
+                    if (entry.isRefilled(now)) {
+                        oldestAccessTime = Math.min(oldestAccessTime, entry.lastAccessTime);
+                    }
+                }
+                if (oldestAccessTime == Long.MAX_VALUE) {
+                    //没有可以删除的限流器
+                    return;
+                }
+                //删除最早访问的一批限流器,至少删除1/10,避免频繁清理
+                long threshold = oldestAccessTime + (now - oldestAccessTime) / 10;
+                int removeSize = Math.max(overflow, maxSize / 10);
+                Iterator<RateLimiterEntry> iterator = counterStore.values().iterator();
+                while (iterator.hasNext() && removeSize > 0) {
+                    RateLimiterEntry entry = iterator.next();
+                    if (entry.lastAccessTime <= threshold && entry.isRefilled(now)) {
+                        iterator.remove();
+                        removeSize--;
+                    }
+                }
+            }
+            nextCleanTime = now + Math.max(1000, idleTimeout / 2);
+        } finally {
+            cleaning.set(false);
+        }
+    }
+
+    /**
+     * @return 当前限流器数量
+     */
+    public int size() {
+        return counterStore.size();
+    }
+
+    /**
+     * @param key 限流key
+     * @return 被拒绝的请求数, key不存在时返回0
+     */
+    public long getRejectedCount(String key) {
+        RateLimiterEntry entry = counterStore.get(key);
+        return entry == null ? 0 : entry.rejected.sum();
+    }
+
+    /**
+     * @return 全部限流key被拒绝的请求数
+     */
+    public Map<String, Long> getRejectedCounts() {
+        Map<String, Long> counts = new HashMap<>();
+        counterStore.forEach((key, entry) -> counts.put(key, entry.rejected.sum()));
+        return counts;
+    }
+
+    /**
+     * @return 全部限流key通过的请求数
+     */
+    public Map<String, Long> getAcquiredCounts() {
+        Map<String, Long> counts = new HashMap<>();
+        counterStore.forEach((key, entry) -> counts.put(key, entry.acquired.sum()));
+        return counts;
+    }
+
+    static class RateLimiterEntry implements RateLimiter {
+        private final RateLimiter rateLimiter;
+
+        private final LongAdder acquired = new LongAdder();
+
+        private final LongAdder rejected = new LongAdder();
+
+        //令牌从耗尽到填满需要的时间
+        private final long refillTime;
+
+        private volatile long lastAccessTime = System.currentTimeMillis();
+
+        //最后一次获取到令牌的时间,从未获取过时为0
+        private volatile long lastAcquireTime;
+
+        RateLimiterEntry(RateLimiter rateLimiter, long refillTime) {
+            this.rateLimiter = rateLimiter;
+            this.refillTime = refillTime;
+        }
+
+        boolean isRefilled(long now) {
+            return now - lastAcquireTime >= refillTime;
         }
-        synchronized (counterStore) {
-            return counterStore.computeIfAbsent(key, k -> createRateLimiter(key, permits, timeUnit));
+
+        @Override
+        public boolean tryAcquire(int permits, long timeout, TimeUnit timeUnit) {
+            boolean success = rateLimiter.tryAcquire(permits, timeout, timeUnit);
+            if (success) {
+                lastAcquireTime = System.currentTimeMillis();
+                acquired.increment();
+            } else {
+                rejected.increment();
+            }
+            return success;
         }
     }
 }
@@ -0,0 +1,47 @@
+package org.hswebframework.web.concurrent;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 进程内限流器管理器,支持令牌桶和滑动窗口两种算法
+ *
+ * @author zhouhao
+ * @see TokenBucketRateLimiter
+ * @see SlidingWindowRateLimiter
+ * @since 3.0.8
+ */
+@Getter
+@Setter
+public class LocalRateLimiterManager extends AbstractRateLimiterManager {
+
+    private Algorithm algorithm = Algorithm.tokenBucket;
+
+    @Override
+    protected RateLimiter createRateLimiter(String key, double permits, TimeUnit timeUnit) {
+        return createRateLimiter(key, permits, timeUnit, 0);
+    }
+
+    @Override
+    protected RateLimiter createRateLimiter(String key, double permits, TimeUnit timeUnit, double burst) {
+        if (algorithm == Algorithm.slidingWindow) {
+            return new SlidingWindowRateLimiter(permits, timeUnit);
+        }
+        return new TokenBucketRateLimiter(permits, timeUnit, burst <= 0 ? permits : burst);
+    }
+
+    @Override
+    protected long getRefillTime(double permits, TimeUnit timeUnit, double burst) {
+        if (algorithm == Algorithm.slidingWindow) {
+            //上一个窗口的请求数在下一个窗口结束后才不再计入
+            return timeUnit.toMillis(2);
+        }
+        return super.getRefillTime(permits, timeUnit, burst);
+    }
+
+    public enum Algorithm {
+        tokenBucket, slidingWindow
+    }
+}
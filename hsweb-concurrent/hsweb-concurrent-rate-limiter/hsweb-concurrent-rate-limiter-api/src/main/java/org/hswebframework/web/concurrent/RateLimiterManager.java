@@ -9,4 +9,18 @@ import java.util.concurrent.TimeUnit;
 public interface RateLimiterManager {
 
     RateLimiter getRateLimiter(String key, double permits, TimeUnit timeUnit);
+
+    /**
+     * 获取限流器
+     *
+     * @param key      限流key
+     * @param permits  时间单位内允许访问次数
+     * @param timeUnit 时间单位
+     * @param burst    允许突发的最大请求数,小于等于0时使用permits.不支持突发的实现将忽略此参数
+     * @return 限流器
+     * @since 3.0.8
+     */
+    default RateLimiter getRateLimiter(String key, double permits, TimeUnit timeUnit, double burst) {
+        return getRateLimiter(key, permits, timeUnit);
+    }
 }
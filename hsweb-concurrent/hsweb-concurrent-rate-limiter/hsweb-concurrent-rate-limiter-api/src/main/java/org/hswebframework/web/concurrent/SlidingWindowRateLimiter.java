@@ -0,0 +1,92 @@
+package org.hswebframework.web.concurrent;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 滑动窗口限流器,根据上一个窗口和当前窗口的请求数估算滑动窗口内的请求数,通过CAS更新窗口.
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+public class SlidingWindowRateLimiter implements RateLimiter {
+
+    private final long windowNanos;
+
+    private final double permits;
+
+    private final long baseTime = System.nanoTime();
+
+    private final AtomicReference<Window> window = new AtomicReference<>(new Window(0, 0, 0));
+
+    /**
+     * @param permits  窗口内允许的请求数
+     * @param timeUnit 窗口大小
+     */
+    public SlidingWindowRateLimiter(double permits, TimeUnit timeUnit) {
+        if (permits <= 0) {
+            throw new IllegalArgumentException("permits must be greater than 0");
+        }
+        this.permits = permits;
+        this.windowNanos = timeUnit.toNanos(1);
+    }
+
+    @Override
+    public boolean tryAcquire(int permits, long timeout, TimeUnit timeUnit) {
+        long deadline = System.nanoTime() + Math.max(0, timeUnit.toNanos(timeout));
+        for (; ; ) {
+            long now = System.nanoTime();
+            if (tryAcquire(permits, now - baseTime)) {
+                return true;
+            }
+            long remaining = deadline - now;
+            if (remaining <= 0) {
+                return false;
+            }
+            //等待一个请求的平均间隔后重试
+            LockSupport.parkNanos(Math.min(remaining, Math.max(1, (long) (windowNanos / this.permits))));
+        }
+    }
+
+    private boolean tryAcquire(int permits, long now) {
+        for (; ; ) {
+            Window current = window.get();
+            Window next = current.slide(now, windowNanos);
+            double elapsed = (double) (now - next.start) / windowNanos;
+            double estimated = next.previousCount * (1 - elapsed) + next.count;
+            if (estimated + permits > this.permits) {
+                if (next != current) {
+                    window.compareAndSet(current, next);
+                }
+                return false;
+            }
+            if (window.compareAndSet(current, new Window(next.start, next.previousCount, next.count + permits))) {
+                return true;
+            }
+        }
+    }
+
+    static final class Window {
+        private final long start;
+
+        private final long previousCount;
+
+        private final long count;
+
+        Window(long start, long previousCount, long count) {
+            this.start = start;
+            this.previousCount = previousCount;
+            this.count = count;
+        }
+
+        Window slide(long now, long windowNanos) {
+            long elapsedWindows = (now - start) / windowNanos;
+            if (elapsedWindows <= 0) {
+                return this;
+            }
+            long newStart = start + elapsedWindows * windowNanos;
+            return new Window(newStart, elapsedWindows == 1 ? count : 0, 0);
+        }
+    }
+}
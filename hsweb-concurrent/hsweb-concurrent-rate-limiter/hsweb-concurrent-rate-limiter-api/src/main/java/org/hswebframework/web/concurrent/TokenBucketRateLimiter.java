@@ -0,0 +1,60 @@
+package org.hswebframework.web.concurrent;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 令牌桶限流器,使用GCRA算法实现,只保存一个理论到达时间,通过CAS更新,不需要加锁.
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+public class TokenBucketRateLimiter implements RateLimiter {
+
+    //每个令牌的生成间隔,单位纳秒
+    private final long intervalNanos;
+
+    //桶满时允许提前消费的时间,即(容量-1)*生成间隔
+    private final long burstNanos;
+
+    //理论到达时间,相对于baseTime的纳秒数
+    private final AtomicLong theoreticalArrivalTime = new AtomicLong();
+
+    private final long baseTime = System.nanoTime();
+
+    /**
+     * @param permits  时间单位内生成的令牌数
+     * @param timeUnit 时间单位
+     * @param capacity 桶容量,即允许突发的最大请求数,小于1时为1
+     */
+    public TokenBucketRateLimiter(double permits, TimeUnit timeUnit, double capacity) {
+        if (permits <= 0) {
+            throw new IllegalArgumentException("permits must be greater than 0");
+        }
+        this.intervalNanos = Math.max(1, (long) (timeUnit.toNanos(1) / permits));
+        this.burstNanos = (long) ((Math.max(1, capacity) - 1) * intervalNanos);
+    }
+
+    @Override
+    public boolean tryAcquire(int permits, long timeout, TimeUnit timeUnit) {
+        long timeoutNanos = Math.max(0, timeUnit.toNanos(timeout));
+        long cost = permits * intervalNanos;
+        for (; ; ) {
+            long now = System.nanoTime() - baseTime;
+            long tat = theoreticalArrivalTime.get();
+            long newTat = Math.max(tat, now) + cost;
+            //需要等待的时间
+            long waitNanos = newTat - cost - burstNanos - now;
+            if (waitNanos > timeoutNanos) {
+                return false;
+            }
+            if (theoreticalArrivalTime.compareAndSet(tat, newTat)) {
+                if (waitNanos > 0) {
+                    LockSupport.parkNanos(waitNanos);
+                }
+                return true;
+            }
+        }
+    }
+}
@@ -33,6 +33,12 @@ public @interface RateLimiter {
      */
     TimeUnit timeUnit() default TimeUnit.SECONDS;
 
+    /**
+     * @return 允许突发的最大请求数(令牌桶容量), 小于等于0时与{@link #permits()}相同
+     * @since 3.0.8
+     */
+    double burst() default 0D;
+
     long acquire() default 10;
 
     TimeUnit acquireTimeUnit() default TimeUnit.SECONDS;
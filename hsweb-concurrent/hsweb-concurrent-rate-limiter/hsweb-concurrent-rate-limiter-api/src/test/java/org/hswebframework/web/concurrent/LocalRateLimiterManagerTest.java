@@ -0,0 +1,87 @@
+package org.hswebframework.web.concurrent;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author zhouhao
+ * @since 3.0.8
+ */
+public class LocalRateLimiterManagerTest {
+
+    @Test
+    public void testTokenBucketBurst() {
+        LocalRateLimiterManager manager = new LocalRateLimiterManager();
+        RateLimiter limiter = manager.getRateLimiter("test", 1, TimeUnit.SECONDS, 5);
+        int success = 0;
+        for (int i = 0; i < 10; i++) {
+            if (limiter.tryAcquire(0, TimeUnit.SECONDS)) {
+                success++;
+            }
+        }
+        Assert.assertEquals(5, success);
+        Assert.assertEquals(5, manager.getRejectedCount("test"));
+        Assert.assertEquals(Long.valueOf(5), manager.getAcquiredCounts().get("test"));
+    }
+
+    @Test
+    public void testSlidingWindow() {
+        LocalRateLimiterManager manager = new LocalRateLimiterManager();
+        manager.setAlgorithm(LocalRateLimiterManager.Algorithm.slidingWindow);
+        RateLimiter limiter = manager.getRateLimiter("test", 3, TimeUnit.MINUTES);
+        Assert.assertTrue(limiter.tryAcquire(0, TimeUnit.SECONDS));
+        Assert.assertTrue(limiter.tryAcquire(0, TimeUnit.SECONDS));
+        Assert.assertTrue(limiter.tryAcquire(0, TimeUnit.SECONDS));
+        Assert.assertFalse(limiter.tryAcquire(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testBoundedRegistry() {
+        LocalRateLimiterManager manager = new LocalRateLimiterManager();
+        manager.setMaxSize(100);
+        for (int i = 0; i < 1000; i++) {
+            manager.getRateLimiter("user-" + i, 1, TimeUnit.SECONDS);
+        }
+        Assert.assertTrue(manager.size() <= 100);
+
+        manager.setIdleTimeout(0);
+        manager.cleanup(System.currentTimeMillis() + 1, false);
+        Assert.assertEquals(0, manager.size());
+    }
+
+    @Test
+    public void testNotEvictUnfilledLimiter() {
+        LocalRateLimiterManager manager = new LocalRateLimiterManager();
+        manager.setMaxSize(10);
+        for (int i = 0; i < 20; i++) {
+            Assert.assertTrue(manager.getRateLimiter("user-" + i, 1, TimeUnit.SECONDS).tryAcquire(0, TimeUnit.SECONDS));
+        }
+        //令牌未填满的限流器不会被删除
+        Assert.assertEquals(20, manager.size());
+
+        manager.setIdleTimeout(0);
+        manager.cleanup(System.currentTimeMillis() + 1, true);
+        Assert.assertEquals(20, manager.size());
+
+        manager.cleanup(System.currentTimeMillis() + 1001, true);
+        Assert.assertEquals(0, manager.size());
+    }
+
+    @Test
+    public void testWindowLongerThanIdleTimeout() {
+        LocalRateLimiterManager manager = new LocalRateLimiterManager();
+        manager.setIdleTimeout(TimeUnit.MINUTES.toMillis(10));
+        RateLimiter limiter = manager.getRateLimiter("test", 1, TimeUnit.HOURS);
+        Assert.assertTrue(limiter.tryAcquire(0, TimeUnit.SECONDS));
+
+        //空闲超过idleTimeout,但是令牌还未填满,不能删除
+        manager.cleanup(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(11), false);
+        Assert.assertEquals(1, manager.size());
+        Assert.assertFalse(manager.getRateLimiter("test", 1, TimeUnit.HOURS).tryAcquire(0, TimeUnit.SECONDS));
+
+        manager.cleanup(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(61), false);
+        Assert.assertEquals(0, manager.size());
+    }
+}
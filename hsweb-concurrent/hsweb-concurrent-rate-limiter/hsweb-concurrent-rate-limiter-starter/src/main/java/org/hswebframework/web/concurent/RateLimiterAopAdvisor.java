@@ -1,19 +1,28 @@
 package org.hswebframework.web.concurent;
 
 import lombok.extern.slf4j.Slf4j;
-import org.hswebframework.web.ExpressionUtils;
 import org.hswebframework.web.authorization.Authentication;
 import org.hswebframework.web.concurrent.RateLimiterManager;
 import org.hswebframework.web.concurrent.annotation.RateLimiter;
 import org.springframework.aop.MethodBeforeAdvice;
 import org.springframework.aop.support.StaticMethodMatcherPointcutAdvisor;
+import org.springframework.context.expression.MapAccessor;
 import org.springframework.core.LocalVariableTableParameterNameDiscoverer;
+import org.springframework.core.MethodClassKey;
 import org.springframework.core.ParameterNameDiscoverer;
 import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.common.CompositeStringExpression;
+import org.springframework.expression.common.LiteralExpression;
+import org.springframework.expression.common.TemplateParserContext;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.util.ClassUtils;
 
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeoutException;
 
 /**
@@ -25,40 +34,51 @@ public class RateLimiterAopAdvisor extends StaticMethodMatcherPointcutAdvisor {
 
     private static final long                    serialVersionUID = -1076122956392948260L;
     private static final ParameterNameDiscoverer nameDiscoverer   = new LocalVariableTableParameterNameDiscoverer();
+    private static final SpelExpressionParser    parser           = new SpelExpressionParser();
+    private static final TemplateParserContext   templateContext  = new TemplateParserContext("${", "}");
+    private static final MapAccessor             mapAccessor      = new MapAccessor();
+
+    //方法对应的限流配置,不存在注解时为NONE
+    private final Map<MethodClassKey, RateLimiterDefinition> definitions = new ConcurrentHashMap<>();
 
     public RateLimiterAopAdvisor(RateLimiterManager rateLimiterManager) {
         setAdvice((MethodBeforeAdvice) (method, args, target) -> {
-            String[] names = nameDiscoverer.getParameterNames(method);
-            RateLimiter limiter = Optional.ofNullable(AnnotationUtils.findAnnotation(method, RateLimiter.class))
-                    .orElseGet(() -> AnnotationUtils.findAnnotation(ClassUtils.getUserClass(target), RateLimiter.class));
-            if (limiter != null) {
-                List<String> keyExpressionList = new ArrayList<>(Arrays.asList(limiter.key()));
-                if (keyExpressionList.isEmpty()) {
-                    keyExpressionList.add(method.toString());
-                }
-                for (String keyExpress : keyExpressionList) {
-                    if (keyExpress.contains("${")) {
-                        Map<String, Object> params = new HashMap<>();
-                        params.put("user", Authentication.current().map(Authentication::getUser).orElse(null));
-                        for (int i = 0; i < args.length; i++) {
-                            params.put(names.length > i ? names[i] : "arg" + i, args[i]);
-                            params.put("arg" + i, args[i]);
-
-                        }
-                        keyExpress = ExpressionUtils.analytical(keyExpress, params, "spel");
-                    }
-                    log.debug("do rate limiter:[{}]. ", keyExpress);
-                    boolean success = rateLimiterManager
-                            .getRateLimiter(keyExpress, limiter.permits(), limiter.timeUnit())
-                            .tryAcquire(limiter.acquire(), limiter.acquireTimeUnit());
-                    if (!success) {
-                        throw new TimeoutException("请求超时");
+            RateLimiterDefinition definition = getDefinition(method, ClassUtils.getUserClass(target));
+            if (definition == RateLimiterDefinition.NONE) {
+                return;
+            }
+            RateLimiter limiter = definition.limiter;
+            ArgumentVariables variables = null;
+            for (int i = 0; i < definition.keys.length; i++) {
+                String keyExpress = definition.keys[i];
+                Expression expression = definition.expressions[i];
+                if (expression != null) {
+                    if (variables == null) {
+                        variables = new ArgumentVariables(definition.parameterIndexes, args);
                     }
+                    keyExpress = variables.evaluate(expression);
+                }
+                log.debug("do rate limiter:[{}]. ", keyExpress);
+                boolean success = rateLimiterManager
+                        .getRateLimiter(keyExpress, limiter.permits(), limiter.timeUnit(), limiter.burst())
+                        .tryAcquire(limiter.acquire(), limiter.acquireTimeUnit());
+                if (!success) {
+                    throw new TimeoutException("请求超时");
                 }
             }
         });
     }
 
+    protected RateLimiterDefinition getDefinition(Method method, Class<?> targetClass) {
+        return definitions.computeIfAbsent(new MethodClassKey(method, targetClass), key -> {
+            RateLimiter limiter = Optional.ofNullable(AnnotationUtils.findAnnotation(method, RateLimiter.class))
+                    .orElseGet(() -> AnnotationUtils.findAnnotation(targetClass, RateLimiter.class));
+            if (limiter == null) {
+                return RateLimiterDefinition.NONE;
+            }
+            return new RateLimiterDefinition(method, limiter);
+        });
+    }
 
     @Override
     public boolean matches(Method method, Class<?> targetClass) {
@@ -66,4 +86,111 @@ public class RateLimiterAopAdvisor extends StaticMethodMatcherPointcutAdvisor {
         return AnnotationUtils.findAnnotation(method, RateLimiter.class) != null
                 || AnnotationUtils.findAnnotation(targetClass, RateLimiter.class) != null;
     }
+
+    static class RateLimiterDefinition {
+        static final RateLimiterDefinition NONE = new RateLimiterDefinition();
+
+        private RateLimiter limiter;
+
+        private String[] keys;
+
+        //不包含表达式的key对应的值为null
+        private Expression[] expressions;
+
+        private Map<String, Integer> parameterIndexes;
+
+        private RateLimiterDefinition() {
+        }
+
+        RateLimiterDefinition(Method method, RateLimiter limiter) {
+            this.limiter = limiter;
+            this.keys = limiter.key().length == 0 ? new String[]{method.toString()} : limiter.key();
+            this.expressions = new Expression[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i].contains("${")) {
+                    expressions[i] = parser.parseExpression(keys[i], templateContext);
+                }
+            }
+            String[] names = nameDiscoverer.getParameterNames(method);
+            int parameterCount = method.getParameterCount();
+            parameterIndexes = new HashMap<>(parameterCount * 2);
+            for (int i = 0; i < parameterCount; i++) {
+                parameterIndexes.put(names != null && names.length > i ? names[i] : "arg" + i, i);
+                parameterIndexes.put("arg" + i, i);
+            }
+        }
+    }
+
+    /**
+     * 表达式变量,直接从方法参数中获取,不复制参数
+     */
+    static class ArgumentVariables extends AbstractMap<String, Object> {
+        private final Map<String, Integer> parameterIndexes;
+
+        private final Object[] args;
+
+        private Map<String, Object> materialized;
+
+        ArgumentVariables(Map<String, Integer> parameterIndexes, Object[] args) {
+            this.parameterIndexes = parameterIndexes;
+            this.args = args;
+        }
+
+        String evaluate(Expression expression) {
+            StandardEvaluationContext context = new StandardEvaluationContext(this) {
+                @Override
+                public Object lookupVariable(String name) {
+                    Object value = super.lookupVariable(name);
+                    return value == null ? get(name) : value;
+                }
+            };
+            context.addPropertyAccessor(mapAccessor);
+            if (expression instanceof CompositeStringExpression) {
+                StringBuilder builder = new StringBuilder();
+                for (Expression part : ((CompositeStringExpression) expression).getExpressions()) {
+                    builder.append(render(part, context));
+                }
+                return builder.toString();
+            }
+            return render(expression, context);
+        }
+
+        //值为null时和表达式工具一致,输出"null"
+        private String render(Expression expression, EvaluationContext context) {
+            if (expression instanceof LiteralExpression) {
+                return expression.getExpressionString();
+            }
+            return String.valueOf(expression.getValue(context));
+        }
+
+        @Override
+        public Object get(Object key) {
+            //参数名为user时优先使用参数
+            Integer index = parameterIndexes.get(key);
+            if (index != null) {
+                return index >= args.length ? null : args[index];
+            }
+            if ("user".equals(key)) {
+                return Authentication.current().map(Authentication::getUser).orElse(null);
+            }
+            return null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return "user".equals(key) || parameterIndexes.containsKey(key);
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            if (materialized == null) {
+                materialized = new HashMap<>();
+                materialized.put("user", get("user"));
+                for (String key : parameterIndexes.keySet()) {
+                    materialized.put(key, get(key));
+                }
+            }
+            return materialized.entrySet();
+        }
+    }
 }
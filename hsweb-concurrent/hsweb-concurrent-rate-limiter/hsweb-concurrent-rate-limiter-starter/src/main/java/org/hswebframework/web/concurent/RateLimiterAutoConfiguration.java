@@ -1,10 +1,13 @@
 package org.hswebframework.web.concurent;
 
 import org.hswebframework.web.concurrent.GuavaRateLimiterManager;
+import org.hswebframework.web.concurrent.LocalRateLimiterManager;
 import org.hswebframework.web.concurrent.RateLimiterManager;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -18,10 +21,19 @@ public class RateLimiterAutoConfiguration {
     @Bean
     @ConditionalOnMissingBean(RateLimiterManager.class)
     @ConditionalOnClass(name = "com.google.common.util.concurrent.RateLimiter")
+    @ConditionalOnProperty(prefix = "hsweb.rate-limiter", name = "type", havingValue = "guava", matchIfMissing = true)
+    @ConfigurationProperties(prefix = "hsweb.rate-limiter")
     public GuavaRateLimiterManager guavaRateLimiterManager() {
         return new GuavaRateLimiterManager();
     }
 
+    @Bean
+    @ConditionalOnMissingBean(RateLimiterManager.class)
+    @ConfigurationProperties(prefix = "hsweb.rate-limiter")
+    public LocalRateLimiterManager localRateLimiterManager() {
+        return new LocalRateLimiterManager();
+    }
+
     @Bean
     @ConditionalOnBean(RateLimiterManager.class)
     public RateLimiterAopAdvisor rateLimiterAopAdvisor(RateLimiterManager rateLimiterManager) {
@@ -2,6 +2,8 @@ package org.hswebframework.web.concurent
 
 import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.expression.common.TemplateParserContext
+import org.springframework.expression.spel.standard.SpelExpressionParser
 import org.springframework.test.context.ContextConfiguration
 import spock.lang.Specification
 
@@ -45,4 +47,22 @@ class RateLimiterAopAdvisorTest extends Specification {
         TestService.counter.get() == 1
         timeoutException != null
     }
+
+    def "测试参数名为user时使用参数"() {
+        given:
+        def variables = new RateLimiterAopAdvisor.ArgumentVariables(["user": 0, "arg0": 0], ["admin"] as Object[])
+        def expression = new SpelExpressionParser().parseExpression('${#user}', new TemplateParserContext('${', '}'))
+        expect:
+        variables.evaluate(expression) == "admin"
+    }
+
+    def "测试表达式值为null"() {
+        given:
+        def variables = new RateLimiterAopAdvisor.ArgumentVariables(["name": 0, "arg0": 0], [null] as Object[])
+        def parser = new SpelExpressionParser()
+        def context = new TemplateParserContext('${', '}')
+        expect:
+        variables.evaluate(parser.parseExpression('${#name}', context)) == "null"
+        variables.evaluate(parser.parseExpression('key-${#name}-${#arg0}', context)) == "key-null-null"
+    }
 }
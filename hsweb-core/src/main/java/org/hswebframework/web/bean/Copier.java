@@ -1,6 +1,7 @@
 package org.hswebframework.web.bean;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -8,7 +9,14 @@ public interface Copier {
     void copy(Object source, Object target, Set<String> ignore, Converter converter);
 
     default void copy(Object source, Object target, String... ignore){
-        copy(source,target,new HashSet<>(Arrays.asList(ignore)),FastBeanCopier.DEFAULT_CONVERT);
+        copy(source,target,ignore.length == 0 ? Collections.emptySet() : new HashSet<>(Arrays.asList(ignore)),FastBeanCopier.DEFAULT_CONVERT);
+    }
+
+    /**
+     * @return 复制的属性数量, 未知时返回-1
+     */
+    default int getPropertySize() {
+        return -1;
     }
 
 }
@@ -15,7 +15,10 @@ import org.springframework.util.ReflectionUtils;
 
 import java.beans.PropertyDescriptor;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -28,7 +31,16 @@ import java.util.stream.Stream;
  */
 @Slf4j
 public final class FastBeanCopier {
-    private static final Map<CacheKey, Copier> CACHE = new HashMap<>();
+    /**
+     * 按源类型缓存复制器,key为目标类型.
+     * 查找时无需创建key对象,并且每一对类型只会生成一次复制器
+     */
+    private static final ClassValue<ConcurrentMap<Class, Copier>> CACHE = new ClassValue<ConcurrentMap<Class, Copier>>() {
+        @Override
+        protected ConcurrentMap<Class, Copier> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
 
     private static final PropertyUtilsBean propertyUtils = BeanUtilsBean.getInstance().getPropertyUtils();
 
@@ -94,7 +106,25 @@ public final class FastBeanCopier {
     }
 
     public static <T, S> T copy(S source, T target, Converter converter, String... ignore) {
-        return copy(source, target, converter, (ignore == null || ignore.length == 0) ? new java.util.HashSet<>() : new HashSet<>(Arrays.asList(ignore)));
+        return copy(source, target, converter, (ignore == null || ignore.length == 0) ? Collections.emptySet() : new HashSet<>(Arrays.asList(ignore)));
+    }
+
+    /**
+     * 复制bean到新的{@link HashMap}中,map的初始容量根据bean的属性数量计算,避免扩容
+     *
+     * @param source 源对象
+     * @param ignore 忽略的属性
+     * @return 复制后的map
+     */
+    public static Map<String, Object> copyToMap(Object source, String... ignore) {
+        if (source instanceof Map) {
+            return copy(source, new HashMap<>(), ignore);
+        }
+        Copier copier = getCopier(source, Collections.emptyMap(), true);
+        int size = copier.getPropertySize();
+        Map<String, Object> target = size < 0 ? new HashMap<>() : new HashMap<>((int) (size / 0.75F) + 1);
+        copier.copy(source, target, (ignore == null || ignore.length == 0) ? Collections.emptySet() : new HashSet<>(Arrays.asList(ignore)), DEFAULT_CONVERT);
+        return target;
     }
 
     public static <T, S> T copy(S source, T target, Set<String> ignore) {
@@ -116,17 +146,36 @@ public final class FastBeanCopier {
     public static Copier getCopier(Object source, Object target, boolean autoCreate) {
         Class sourceType = source instanceof Map ? Map.class : ClassUtils.getUserClass(source);
         Class targetType = target instanceof Map ? Map.class : ClassUtils.getUserClass(target);
-        CacheKey key = createCacheKey(sourceType, targetType);
-        if (autoCreate) {
-            return CACHE.computeIfAbsent(key, k -> createCopier(sourceType, targetType));
-        } else {
-            return CACHE.get(key);
-        }
+        return lookupCopier(sourceType, targetType, autoCreate);
+    }
 
+    /**
+     * 根据类型获取复制器,Map类型请使用{@link Map}.class
+     *
+     * @param sourceType 源类型
+     * @param targetType 目标类型
+     * @param autoCreate 不存在时是否自动创建
+     * @return 复制器, autoCreate为false并且未创建过时返回null
+     */
+    public static Copier lookupCopier(Class sourceType, Class targetType, boolean autoCreate) {
+        ConcurrentMap<Class, Copier> copiers = CACHE.get(sourceType);
+        Copier copier = copiers.get(targetType);
+        if (copier == null && autoCreate) {
+            copier = copiers.computeIfAbsent(targetType, type -> createCopier(sourceType, type));
+        }
+        return copier;
     }
 
-    private static CacheKey createCacheKey(Class source, Class target) {
-        return new CacheKey(source, target);
+    /**
+     * 预先生成复制器,避免在首次请求时生成代码
+     *
+     * @param sourceType  源类型
+     * @param targetTypes 目标类型
+     */
+    public static void warmUp(Class sourceType, Class... targetTypes) {
+        for (Class targetType : targetTypes) {
+            lookupCopier(sourceType, targetType, true);
+        }
     }
 
     public static Copier createCopier(Class source, Class target) {
@@ -138,12 +187,14 @@ public final class FastBeanCopier {
         if (tartName.startsWith("package ")) {
             tartName = tartName.substring("package ".length());
         }
+        CopierCode copierCode = createCopierCode(source, target);
         String method = "public void copy(Object s, Object t, java.util.Set ignore, " +
                 "org.hswebframework.web.bean.Converter converter){\n" +
                 "try{\n\t" +
                 sourceName + " source=(" + sourceName + ")s;\n\t" +
                 tartName + " target=(" + tartName + ")t;\n\t" +
-                createCopierCode(source, target) +
+                "boolean _fast=converter instanceof org.hswebframework.web.bean.FastBeanCopier$DefaultConverter;\n\t" +
+                copierCode.code +
                 "}catch(Exception e){\n" +
                 "\tthrow new RuntimeException(e.getMessage(),e);" +
                 "\n}\n" +
@@ -151,6 +202,7 @@ public final class FastBeanCopier {
         try {
             return Proxy.create(Copier.class)
                     .addMethod(method)
+                    .addMethod("public int getPropertySize(){return " + copierCode.propertySize + ";}")
                     .newInstance();
         } catch (Exception e) {
             log.error("创建bean copy 代理对象失败:\n{}", method, e);
@@ -177,7 +229,14 @@ public final class FastBeanCopier {
                 .collect(Collectors.toMap(ClassProperty::getName, Function.identity(), (k, k2) -> k, LinkedHashMap::new));
     }
 
-    private static String createCopierCode(Class source, Class target) {
+    @AllArgsConstructor
+    private static class CopierCode {
+        private String code;
+
+        private int propertySize;
+    }
+
+    private static CopierCode createCopierCode(Class source, Class target) {
         Map<String, ClassProperty> sourceProperties = null;
 
         Map<String, ClassProperty> targetProperties = null;
@@ -203,33 +262,127 @@ public final class FastBeanCopier {
             throw new UnsupportedOperationException("不支持的类型,source:" + source + " target:" + target);
         }
         StringBuilder code = new StringBuilder();
-
+        int size = 0;
         for (ClassProperty sourceProperty : sourceProperties.values()) {
             ClassProperty targetProperty = targetProperties.get(sourceProperty.getName());
             if (targetProperty == null) {
                 continue;
             }
+            String var = "_v" + size++;
             code.append("if(!ignore.contains(\"").append(sourceProperty.getName()).append("\")){\n\t");
-            if (!sourceProperty.isPrimitive()) {
-                code.append("if(source.").append(sourceProperty.getReadMethod()).append("!=null){\n");
+            if (sourceProperty instanceof MapClassProperty) {
+                appendMapToBeanCode(code, var, sourceProperty, targetProperty, target);
+            } else if (targetProperty instanceof MapClassProperty) {
+                appendBeanToMapCode(code, var, sourceProperty, targetProperty, target);
+            } else {
+                appendConvertCode(code, sourceProperty, targetProperty, target, true);
             }
-            code.append(targetProperty.generateVar(targetProperty.getName())).append("=")
-                    .append(sourceProperty.generateGetter(target, targetProperty.getType()))
-                    .append(";\n");
+            code.append("}\n");
+        }
+        return new CopierCode(code.toString(), size);
+    }
 
-            if (!targetProperty.isPrimitive()) {
-                code.append("\tif(").append(sourceProperty.getName()).append("!=null){\n");
-            }
-            code.append("\ttarget.").append(targetProperty.generateSetter(targetProperty.getType(), sourceProperty.getName())).append(";\n");
-            if (!targetProperty.isPrimitive()) {
-                code.append("\t}\n");
-            }
-            if (!sourceProperty.isPrimitive()) {
-                code.append("\t}\n");
+    /**
+     * 通过转换器复制属性的代码
+     */
+    private static void appendConvertCode(StringBuilder code, ClassProperty sourceProperty, ClassProperty targetProperty, Class target, boolean checkSourceNull) {
+        boolean sourceNullCheck = checkSourceNull && !sourceProperty.isPrimitive();
+        if (sourceNullCheck) {
+            code.append("if(source.").append(sourceProperty.getReadMethod()).append("!=null){\n");
+        }
+        code.append(targetProperty.generateVar(targetProperty.getName())).append("=")
+                .append(sourceProperty.generateGetter(target, targetProperty.getType()))
+                .append(";\n");
+
+        if (!targetProperty.isPrimitive()) {
+            code.append("\tif(").append(sourceProperty.getName()).append("!=null){\n");
+        }
+        code.append("\ttarget.").append(targetProperty.generateSetter(targetProperty.getType(), sourceProperty.getName())).append(";\n");
+        if (!targetProperty.isPrimitive()) {
+            code.append("\t}\n");
+        }
+        if (sourceNullCheck) {
+            code.append("\t}\n");
+        }
+    }
+
+    /**
+     * Map-&gt;bean: 只调用一次map.get,值的类型与属性类型一致时直接调用setter,基本数据类型直接拆箱,不经过转换器
+     */
+    private static void appendMapToBeanCode(StringBuilder code, String var, ClassProperty sourceProperty, ClassProperty targetProperty, Class target) {
+        Class type = targetProperty.getType();
+        String setter = targetProperty.getWriteMethodName();
+        code.append("Object ").append(var).append("=source.").append(sourceProperty.getReadMethod()).append(";\n\t");
+        code.append("if(").append(var).append("!=null){\n\t");
+        if (type.isPrimitive() && type != void.class) {
+            Class wrapper = wrapperClassMapping.get(type);
+            code.append("if(_fast&&").append(var).append(" instanceof ").append(wrapper.getName()).append("){\n\t")
+                    .append("target.").append(setter).append("(((").append(wrapper.getName()).append(")").append(var).append(").")
+                    .append(type.getName()).append("Value());\n\t}");
+            if (type != boolean.class && type != char.class) {
+                code.append("else if(_fast&&").append(var).append(" instanceof java.lang.Number){\n\t")
+                        .append("target.").append(setter).append("(((java.lang.Number)").append(var).append(").")
+                        .append(type.getName()).append("Value());\n\t}");
             }
-            code.append("}\n");
+            code.append("else{\n");
+            appendConvertCode(code, sourceProperty, targetProperty, target, false);
+            code.append("\t}\n");
+        } else if (isImmutableType(type)) {
+            String typeName = targetProperty.getTypeName();
+            code.append("if(_fast&&").append(var).append(" instanceof ").append(typeName).append("){\n\t")
+                    .append("target.").append(setter).append("((").append(typeName).append(")").append(var).append(");\n\t}")
+                    .append("else{\n");
+            appendConvertCode(code, sourceProperty, targetProperty, target, false);
+            code.append("\t}\n");
+        } else {
+            appendConvertCode(code, sourceProperty, targetProperty, target, false);
         }
-        return code.toString();
+        code.append("}\n");
+    }
+
+    /**
+     * bean-&gt;Map: 默认转换器只会转换{@link EnumDict},其他值直接put,基本数据类型直接装箱
+     */
+    private static void appendBeanToMapCode(StringBuilder code, String var, ClassProperty sourceProperty, ClassProperty targetProperty, Class target) {
+        String key = "\"" + targetProperty.getName() + "\"";
+        if (sourceProperty.isPrimitive()) {
+            code.append("if(_fast){\n\t")
+                    .append("target.put(").append(key).append(",").append(sourceProperty.castWrapper("source." + sourceProperty.getReadMethod())).append(");\n\t")
+                    .append("}else{\n");
+            appendConvertCode(code, sourceProperty, targetProperty, target, false);
+            code.append("\t}\n");
+            return;
+        }
+        Class type = sourceProperty.getType();
+        code.append(sourceProperty.getTypeName()).append(" ").append(var).append("=source.").append(sourceProperty.getReadMethod()).append(";\n\t");
+        code.append("if(").append(var).append("!=null){\n\t");
+        if (EnumDict.class.isAssignableFrom(type)) {
+            //枚举字典需要转换为字典的值
+            appendConvertCode(code, sourceProperty, targetProperty, target, false);
+            code.append("}\n");
+            return;
+        }
+        code.append("if(_fast");
+        if (!type.isArray() && !Modifier.isFinal(type.getModifiers())) {
+            code.append("&&!(").append(var).append(" instanceof org.hswebframework.web.dict.EnumDict)");
+        }
+        code.append("){\n\t")
+                .append("target.put(").append(key).append(",").append(var).append(");\n\t")
+                .append("}else{\n");
+        appendConvertCode(code, sourceProperty, targetProperty, target, false);
+        code.append("\t}\n");
+        code.append("}\n");
+    }
+
+    /**
+     * 不可变的类型,复制时可以直接使用引用
+     */
+    private static boolean isImmutableType(Class type) {
+        return wrapperClassMapping.containsValue(type)
+                || type == String.class
+                || type == java.math.BigDecimal.class
+                || type == java.math.BigInteger.class
+                || type.isEnum();
     }
 
     static abstract class ClassProperty {
@@ -572,6 +725,10 @@ public final class FastBeanCopier {
         }
     }
 
+    /**
+     * @deprecated 复制器已按类型缓存, 不再使用此key
+     */
+    @Deprecated
     @AllArgsConstructor
     public static class CacheKey {
 
@@ -0,0 +1,82 @@
+package org.hswebframework.web.id;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无锁的雪花算法ID生成器,ID结构与{@link SnowflakeIdGenerator}相同:
+ * 41位时间戳+5位数据中心+5位机器+12位序列.
+ * <p>
+ * 时间戳和序列保存在同一个{@link AtomicLong}中,通过CAS递增,不使用synchronized.
+ * 同一毫秒内序列用完时借用下一毫秒,时钟回拨时继续使用上一次的时间戳,
+ * 因此生成的ID在单个实例中严格递增,不会因为时钟回拨抛出异常.
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+public class FastSnowflakeIdGenerator {
+
+    private static final long TWEPOCH = 1288834974657L;
+
+    private static final long WORKER_ID_BITS = 5L;
+
+    private static final long DATA_CENTER_ID_BITS = 5L;
+
+    private static final long SEQUENCE_BITS = 12L;
+
+    private static final long MAX_WORKER_ID = ~(-1L << WORKER_ID_BITS);
+
+    private static final long MAX_DATA_CENTER_ID = ~(-1L << DATA_CENTER_ID_BITS);
+
+    private static final long SEQUENCE_MASK = ~(-1L << SEQUENCE_BITS);
+
+    private static final long TIMESTAMP_LEFT_SHIFT = SEQUENCE_BITS + WORKER_ID_BITS + DATA_CENTER_ID_BITS;
+
+    private static final FastSnowflakeIdGenerator generator;
+
+    static {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long workerId = Long.getLong("id-worker", random.nextInt(31));
+        long dataCenterId = Long.getLong("id-datacenter", random.nextInt(31));
+        generator = new FastSnowflakeIdGenerator(workerId, dataCenterId);
+    }
+
+    public static FastSnowflakeIdGenerator getInstance() {
+        return generator;
+    }
+
+    private final long node;
+
+    /**
+     * 高位为时间戳(相对twepoch),低12位为序列
+     */
+    private final AtomicLong state = new AtomicLong();
+
+    public FastSnowflakeIdGenerator(long workerId, long dataCenterId) {
+        if (workerId > MAX_WORKER_ID || workerId < 0) {
+            throw new IllegalArgumentException(String.format("worker Id can't be greater than %d or less than 0", MAX_WORKER_ID));
+        }
+        if (dataCenterId > MAX_DATA_CENTER_ID || dataCenterId < 0) {
+            throw new IllegalArgumentException(String.format("datacenter Id can't be greater than %d or less than 0", MAX_DATA_CENTER_ID));
+        }
+        this.node = (dataCenterId << (SEQUENCE_BITS + WORKER_ID_BITS)) | (workerId << SEQUENCE_BITS);
+    }
+
+    public long nextId() {
+        long timestamp = timeGen() - TWEPOCH;
+        for (; ; ) {
+            long current = state.get();
+            long next = (current >>> SEQUENCE_BITS) < timestamp
+                    ? timestamp << SEQUENCE_BITS
+                    //同一毫秒或者时钟回拨,序列递增,溢出时进位到时间戳
+                    : current + 1;
+            if (state.compareAndSet(current, next)) {
+                return ((next >>> SEQUENCE_BITS) << TIMESTAMP_LEFT_SHIFT) | node | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    protected long timeGen() {
+        return System.currentTimeMillis();
+    }
+}
@@ -81,4 +81,27 @@ public interface IDGenerator<T> {
      * 雪花算法的16进制
      */
     IDGenerator<String> SNOW_FLAKE_HEX = () -> Long.toHexString(SNOW_FLAKE.generate());
+
+    /**
+     * 无锁雪花算法
+     *
+     * @see FastSnowflakeIdGenerator
+     * @since 3.0.8
+     */
+    IDGenerator<Long> FAST_SNOW_FLAKE = FastSnowflakeIdGenerator.getInstance()::nextId;
+
+    /**
+     * 无锁雪花算法转String
+     *
+     * @since 3.0.8
+     */
+    IDGenerator<String> FAST_SNOW_FLAKE_STRING = () -> String.valueOf(FAST_SNOW_FLAKE.generate());
+
+    /**
+     * 按时间排序的20位base62字符串,可在service中通过getIDGenerator替代{@link #MD5}
+     *
+     * @see TimeOrderedIdGenerator
+     * @since 3.0.8
+     */
+    IDGenerator<String> TIME_ORDERED = TimeOrderedIdGenerator.getInstance()::nextId;
 }
@@ -0,0 +1,76 @@
+package org.hswebframework.web.id;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按时间排序的紧凑字符串ID生成器,生成20位base62字符串:
+ * 9位毫秒时间戳+3位序列+8位随机数.
+ * <p>
+ * 字符表按ASCII顺序排列,因此ID按字符串排序即为生成顺序.
+ * 单个实例内通过时间戳和序列保证唯一,多个实例之间通过47位随机数避免冲突.
+ * 不使用{@link java.security.MessageDigest},可以替代{@link IDGenerator#MD5}.
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+public class TimeOrderedIdGenerator {
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+
+    private static final int TIMESTAMP_LENGTH = 9;
+
+    private static final int SEQUENCE_LENGTH = 3;
+
+    private static final int RANDOM_LENGTH = 8;
+
+    private static final long SEQUENCE_BITS = 16L;
+
+    private static final long SEQUENCE_MASK = ~(-1L << SEQUENCE_BITS);
+
+    private static final long RANDOM_BOUND = 1L << 47;
+
+    public static final int LENGTH = TIMESTAMP_LENGTH + SEQUENCE_LENGTH + RANDOM_LENGTH;
+
+    private static final TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator();
+
+    public static TimeOrderedIdGenerator getInstance() {
+        return generator;
+    }
+
+    /**
+     * 高位为毫秒时间戳,低16位为序列
+     */
+    private final AtomicLong state = new AtomicLong();
+
+    public String nextId() {
+        long timestamp = timeGen();
+        long next;
+        for (; ; ) {
+            long current = state.get();
+            next = (current >>> SEQUENCE_BITS) < timestamp
+                    ? timestamp << SEQUENCE_BITS
+                    : current + 1;
+            if (state.compareAndSet(current, next)) {
+                break;
+            }
+        }
+        char[] chars = new char[LENGTH];
+        encode(next >>> SEQUENCE_BITS, chars, 0, TIMESTAMP_LENGTH);
+        encode(next & SEQUENCE_MASK, chars, TIMESTAMP_LENGTH, SEQUENCE_LENGTH);
+        encode(ThreadLocalRandom.current().nextLong(RANDOM_BOUND), chars, TIMESTAMP_LENGTH + SEQUENCE_LENGTH, RANDOM_LENGTH);
+        return new String(chars);
+    }
+
+    //定长编码,高位补0
+    private static void encode(long value, char[] chars, int offset, int length) {
+        for (int i = offset + length - 1; i >= offset; i--) {
+            chars[i] = ALPHABET[(int) (value % 62)];
+            value /= 62;
+        }
+    }
+
+    protected long timeGen() {
+        return System.currentTimeMillis();
+    }
+}
@@ -4,9 +4,13 @@ import org.apache.commons.beanutils.BeanUtils;
 import org.junit.Test;
 
 import java.lang.reflect.InvocationTargetException;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
 
 /**
  * @author zhouhao
@@ -88,5 +92,86 @@ public class FastBeanCopierTest {
         System.out.println(FastBeanCopier.copy(target, new Source()));
     }
 
+    @Test
+    public void testConcurrentGetCopier() throws Exception {
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch latch = new CountDownLatch(1);
+        try {
+            List<Future<Copier>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    latch.await();
+                    return FastBeanCopier.getCopier(new NestObject(), new HashMap<>(), true);
+                }));
+            }
+            latch.countDown();
+            Copier copier = futures.get(0).get();
+            assertNotNull(copier);
+            for (Future<Copier> future : futures) {
+                assertSame(copier, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertSame(FastBeanCopier.lookupCopier(NestObject.class, Map.class, false),
+                FastBeanCopier.getCopier(new NestObject(), new HashMap<>(), false));
+    }
+
+    @Test
+    public void testWarmUp() {
+        assertNull(FastBeanCopier.lookupCopier(Map.class, Target.class, false));
+        FastBeanCopier.warmUp(Map.class, Target.class);
+        assertNotNull(FastBeanCopier.lookupCopier(Map.class, Target.class, false));
+    }
+
+    @Test
+    public void testMapToBeanFastPath() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("name", "test");
+        map.put("age", 10L);
+        map.put("age2", 20);
+        map.put("boy", true);
+        map.put("color", Color.BLUE);
+        map.put("color3", "2");
+
+        Source source = FastBeanCopier.copy(map, new Source());
+        assertEquals("test", source.getName());
+        assertEquals(10, source.getAge());
+        assertEquals(Integer.valueOf(20), source.getAge2());
+        assertTrue(source.isBoy());
+        assertEquals(Color.BLUE, source.getColor());
+        assertEquals(2, source.getColor3());
+    }
+
+    @Test
+    public void testBeanToMapFastPath() {
+        Source source = new Source();
+        source.setName("test");
+        source.setAge(10);
+
+        Map<String, Object> map = FastBeanCopier.copyToMap(source, "arr");
+        assertEquals("test", map.get("name"));
+        assertEquals(10, map.get("age"));
+        //枚举字典转为字典的值
+        assertEquals(Color.RED.getValue(), map.get("color"));
+        assertFalse(map.containsKey("arr"));
+        assertTrue(FastBeanCopier.getCopier(source, map, false).getPropertySize() > 0);
+    }
+
+    @Test
+    public void testCustomConverter() {
+        Source source = new Source();
+        source.setName("test");
+        Map<String, Object> map = new HashMap<>();
+
+        FastBeanCopier.copy(source, map, new Converter() {
+            @Override
+            public <T> T convert(Object source, Class<T> targetClass, Class[] genericType) {
+                return targetClass.cast("custom");
+            }
+        }, FastBeanCopier.include("name"));
+        assertEquals("custom", map.get("name"));
+    }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,84 @@
+package org.hswebframework.web.id;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+/**
+ * @author zhouhao
+ * @since 3.0.8
+ */
+public class FastIdGeneratorTests {
+
+    private <T> void assertUnique(Supplier<T> generator) throws InterruptedException {
+        int threads = 8, size = 50000;
+        Set<T> ids = ConcurrentHashMap.newKeySet(threads * size);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch end = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            new Thread(() -> {
+                try {
+                    start.await();
+                    for (int j = 0; j < size; j++) {
+                        ids.add(generator.get());
+                    }
+                } catch (InterruptedException ignore) {
+                } finally {
+                    end.countDown();
+                }
+            }).start();
+        }
+        start.countDown();
+        end.await();
+        Assert.assertEquals(threads * size, ids.size());
+    }
+
+    @Test
+    public void testFastSnowflakeUnique() throws InterruptedException {
+        assertUnique(IDGenerator.FAST_SNOW_FLAKE::generate);
+    }
+
+    @Test
+    public void testTimeOrderedUnique() throws InterruptedException {
+        assertUnique(IDGenerator.TIME_ORDERED::generate);
+    }
+
+    @Test
+    public void testFastSnowflakeMonotonic() {
+        long last = 0;
+        for (int i = 0; i < 100000; i++) {
+            long id = IDGenerator.FAST_SNOW_FLAKE.generate();
+            Assert.assertTrue(id > last);
+            last = id;
+        }
+    }
+
+    @Test
+    public void testFastSnowflakeClockBackwards() {
+        long[] time = {System.currentTimeMillis()};
+        FastSnowflakeIdGenerator generator = new FastSnowflakeIdGenerator(1, 1) {
+            @Override
+            protected long timeGen() {
+                return time[0];
+            }
+        };
+        long first = generator.nextId();
+        time[0] -= 1000;
+        Assert.assertTrue(generator.nextId() > first);
+    }
+
+    @Test
+    public void testTimeOrdered() {
+        String last = "";
+        for (int i = 0; i < 100000; i++) {
+            String id = IDGenerator.TIME_ORDERED.generate();
+            Assert.assertEquals(TimeOrderedIdGenerator.LENGTH, id.length());
+            Assert.assertTrue(id.compareTo(last) > 0);
+            last = id;
+        }
+    }
+}
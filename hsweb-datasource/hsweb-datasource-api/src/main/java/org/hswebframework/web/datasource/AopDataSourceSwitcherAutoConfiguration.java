@@ -1,6 +1,8 @@
 package org.hswebframework.web.datasource;
 
+import lombok.AllArgsConstructor;
 import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
 import org.hswebframework.web.ExpressionUtils;
 import org.hswebframework.web.boost.aop.context.MethodInterceptorContext;
 import org.hswebframework.web.boost.aop.context.MethodInterceptorHolder;
@@ -12,6 +14,7 @@ import org.springframework.aop.support.StaticMethodMatcherPointcutAdvisor;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodClassKey;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.StringUtils;
 
@@ -19,11 +22,6 @@ import java.lang.reflect.Method;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.function.Consumer;
-import java.util.function.Function;
-
-import static org.hswebframework.web.datasource.strategy.AnnotationDataSourceSwitchStrategyMatcher.*;
 
 /**
  * 通过aop方式进行对注解方式切换数据源提供支持
@@ -75,91 +73,82 @@ public class AopDataSourceSwitcherAutoConfiguration {
 
         private List<TableSwitchStrategyMatcher> tableSwitcher;
 
-        private Map<CachedDataSourceSwitchStrategyMatcher.CacheKey, DataSourceSwitchStrategyMatcher> cache
-                = new ConcurrentHashMap<>();
-        private Map<CachedTableSwitchStrategyMatcher.CacheKey, TableSwitchStrategyMatcher> tableCache
-                = new ConcurrentHashMap<>();
+        private final Map<MethodClassKey, SwitchDefinition> definitions = new ConcurrentHashMap<>();
 
         public SwitcherMethodMatcherPointcutAdvisor(List<DataSourceSwitchStrategyMatcher> matchers,
                                                     List<TableSwitchStrategyMatcher> tableSwitcher) {
             this.matchers = matchers;
             this.tableSwitcher = tableSwitcher;
             setAdvice((MethodInterceptor) methodInvocation -> {
-                CacheKey key = new CacheKey(ClassUtils.getUserClass(methodInvocation.getThis()), methodInvocation.getMethod());
-                CachedTableSwitchStrategyMatcher.CacheKey tableKey = new CachedTableSwitchStrategyMatcher.CacheKey(ClassUtils.getUserClass(methodInvocation.getThis()), methodInvocation.getMethod());
-
-                DataSourceSwitchStrategyMatcher matcher = cache.get(key);
-                TableSwitchStrategyMatcher tableMatcher = tableCache.get(tableKey);
-
-                Consumer<MethodInterceptorContext> before = context -> {
-                };
-                AtomicBoolean dataSourceChanged = new AtomicBoolean(false);
-                AtomicBoolean databaseChanged = new AtomicBoolean(false);
-
-                if (matcher != null) {
-                    before = before.andThen(context -> {
-                        Strategy strategy = matcher.getStrategy(context);
+                Class<?> targetClass = ClassUtils.getUserClass(methodInvocation.getThis());
+                SwitchDefinition definition = getDefinition(methodInvocation.getMethod(), targetClass);
+                if (definition == SwitchDefinition.NONE) {
+                    return methodInvocation.proceed();
+                }
+                boolean dataSourceChanged = false;
+                boolean databaseChanged = false;
+                //只在策略依赖调用参数时才创建上下文
+                MethodInterceptorContext context = null;
+                try {
+                    DataSourceSwitchStrategyMatcher matcher = definition.matcher;
+                    if (matcher != null) {
+                        DataSourceSwitchStrategyMatcher.Strategy strategy = definition.strategy;
+                        if (strategy == null) {
+                            strategy = matcher.getStrategy(context = createContext(methodInvocation));
+                        }
                         if (strategy == null) {
-                            dataSourceChanged.set(false);
                             logger.warn("strategy matcher found:{}, but strategy is null!", matcher);
                         } else {
                             logger.debug("switch datasource. use strategy:{}", strategy);
                             if (strategy.isUseDefaultDataSource()) {
                                 DataSourceHolder.switcher().useDefault();
+                                dataSourceChanged = true;
                             } else {
-                                try {
-                                    String id = strategy.getDataSourceId();
-                                    if (StringUtils.hasText(id)) {
-                                        if (id.contains("${")) {
-                                            id = ExpressionUtils.analytical(id, context.getParams(), "spel");
+                                String id = strategy.getDataSourceId();
+                                if (StringUtils.hasText(id)) {
+                                    if (id.contains("${")) {
+                                        if (context == null) {
+                                            context = createContext(methodInvocation);
                                         }
-                                        if (!DataSourceHolder.existing(id)) {
-                                            if (strategy.isFallbackDefault()) {
-                                                DataSourceHolder.switcher().useDefault();
-                                            } else {
-                                                throw new DataSourceNotFoundException("数据源[" + id + "]不存在");
-                                            }
+                                        id = analytical(id, context);
+                                    }
+                                    if (!DataSourceHolder.existing(id)) {
+                                        if (strategy.isFallbackDefault()) {
+                                            DataSourceHolder.switcher().useDefault();
                                         } else {
-                                            DataSourceHolder.switcher().use(id);
+                                            throw new DataSourceNotFoundException("数据源[" + id + "]不存在");
                                         }
-                                        dataSourceChanged.set(true);
+                                    } else {
+                                        DataSourceHolder.switcher().use(id);
                                     }
-                                } catch (RuntimeException e) {
-                                    dataSourceChanged.set(false);
-                                    throw e;
-                                } catch (Exception e) {
-                                    dataSourceChanged.set(false);
-                                    throw new RuntimeException(e.getMessage(), e);
+                                    dataSourceChanged = true;
                                 }
                             }
                             if (StringUtils.hasText(strategy.getDatabase())) {
-                                databaseChanged.set(true);
                                 DataSourceHolder.databaseSwitcher().use(strategy.getDatabase());
+                                databaseChanged = true;
                             }
                         }
-                    });
-                }
-                if (tableMatcher != null) {
-                    before = before.andThen(context -> {
-                        TableSwitchStrategyMatcher.Strategy strategy = tableMatcher.getStrategy(context);
+                    }
+                    TableSwitchStrategyMatcher tableMatcher = definition.tableMatcher;
+                    if (tableMatcher != null) {
+                        TableSwitchStrategyMatcher.Strategy strategy = definition.tableStrategy;
+                        if (strategy == null) {
+                            strategy = tableMatcher.getStrategy(context == null ? createContext(methodInvocation) : context);
+                        }
                         if (null != strategy) {
                             logger.debug("switch table. use strategy:{}", strategy);
                             strategy.getMapping().forEach(DataSourceHolder.tableSwitcher()::use);
                         } else {
-                            logger.warn("table strategy matcher found:{}, but strategy is null!", matcher);
+                            logger.warn("table strategy matcher found:{}, but strategy is null!", tableMatcher);
                         }
-                    });
-                }
-
-                MethodInterceptorHolder holder = MethodInterceptorHolder.create(methodInvocation);
-                before.accept(holder.createParamContext());
-                try {
+                    }
                     return methodInvocation.proceed();
                 } finally {
-                    if (dataSourceChanged.get()) {
+                    if (dataSourceChanged) {
                         DataSourceHolder.switcher().useLast();
                     }
-                    if (databaseChanged.get()) {
+                    if (databaseChanged) {
                         DataSourceHolder.databaseSwitcher().useLast();
                     }
                     DataSourceHolder.tableSwitcher().reset();
@@ -167,29 +156,72 @@ public class AopDataSourceSwitcherAutoConfiguration {
             });
         }
 
-        @Override
-        public boolean matches(Method method, Class<?> aClass) {
-            Class<?> targetClass = ClassUtils.getUserClass(aClass);
+        private static String analytical(String expression, MethodInterceptorContext context) {
+            try {
+                return ExpressionUtils.analytical(expression, context.getParams(), "spel");
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException(e.getMessage(), e);
+            }
+        }
+
+        private static MethodInterceptorContext createContext(MethodInvocation invocation) {
+            return MethodInterceptorHolder.create(invocation).createParamContext();
+        }
 
-            CacheKey key = new CacheKey(targetClass, method);
-            matchers.stream()
-                    .filter(matcher -> matcher.match(targetClass, method))
+        private SwitchDefinition getDefinition(Method method, Class<?> targetClass) {
+            MethodClassKey key = new MethodClassKey(method, targetClass);
+            SwitchDefinition definition = definitions.get(key);
+            if (definition == null) {
+                //代理调用的方法与创建代理时匹配的方法不一致时,在这里解析
+                definition = createDefinition(method, targetClass);
+                definitions.put(key, definition);
+            }
+            return definition;
+        }
+
+        private SwitchDefinition createDefinition(Method method, Class<?> targetClass) {
+            DataSourceSwitchStrategyMatcher matcher = matchers.stream()
+                    .filter(m -> m.match(targetClass, method))
                     .findFirst()
-                    .ifPresent((matcher) -> cache.put(key, matcher));
-
-            boolean datasourceMatched = cache.containsKey(key);
-            boolean tableMatched = false;
-            if (null != tableSwitcher) {
-                CachedTableSwitchStrategyMatcher.CacheKey tableCacheKey = new CachedTableSwitchStrategyMatcher
-                        .CacheKey(targetClass, method);
-                tableSwitcher.stream()
-                        .filter(matcher -> matcher.match(targetClass, method))
-                        .findFirst()
-                        .ifPresent((matcher) -> tableCache.put(tableCacheKey, matcher));
-                tableMatched = tableCache.containsKey(tableCacheKey);
+                    .orElse(null);
+            TableSwitchStrategyMatcher tableMatcher = tableSwitcher == null ? null : tableSwitcher.stream()
+                    .filter(m -> m.match(targetClass, method))
+                    .findFirst()
+                    .orElse(null);
+            if (matcher == null && tableMatcher == null) {
+                return SwitchDefinition.NONE;
             }
+            return new SwitchDefinition(matcher,
+                    matcher == null ? null : matcher.getStrategy(targetClass, method),
+                    tableMatcher,
+                    tableMatcher == null ? null : tableMatcher.getStrategy(targetClass, method));
+        }
 
-            return datasourceMatched || tableMatched;
+        @Override
+        public boolean matches(Method method, Class<?> aClass) {
+            Class<?> targetClass = ClassUtils.getUserClass(aClass);
+            SwitchDefinition definition = createDefinition(method, targetClass);
+            definitions.put(new MethodClassKey(method, targetClass), definition);
+            return definition != SwitchDefinition.NONE;
         }
     }
+
+    /**
+     * 创建代理时解析的切换定义
+     */
+    @AllArgsConstructor
+    static class SwitchDefinition {
+        static final SwitchDefinition NONE = new SwitchDefinition(null, null, null, null);
+
+        private final DataSourceSwitchStrategyMatcher matcher;
+
+        //与调用参数无关的策略,为null时调用方法时获取
+        private final DataSourceSwitchStrategyMatcher.Strategy strategy;
+
+        private final TableSwitchStrategyMatcher tableMatcher;
+
+        private final TableSwitchStrategyMatcher.Strategy tableStrategy;
+    }
 }
@@ -0,0 +1,18 @@
+package org.hswebframework.web.datasource.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 数据源配置新增,修改或者删除后触发,用于刷新已缓存的数据源.
+ * {@link #dataSourceId}为null时刷新全部数据源.
+ *
+ * @author zhouhao
+ * @see org.hswebframework.web.datasource.service.AbstractDynamicDataSourceService#handleConfigChanged(DataSourceConfigChangedEvent)
+ * @since 3.0.8
+ */
+@AllArgsConstructor
+@Getter
+public class DataSourceConfigChangedEvent {
+    private String dataSourceId;
+}
@@ -0,0 +1,163 @@
+package org.hswebframework.web.datasource.replica;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 只读副本,记录副本的权重,健康状态和正在使用的连接数
+ *
+ * @author zhouhao
+ * @see ReplicaGroupDataSource
+ * @since 3.0.8
+ */
+@Slf4j
+public class ReplicaDataSource {
+
+    @Getter
+    private final String id;
+
+    @Getter
+    private final DataSource dataSource;
+
+    @Getter
+    private final int weight;
+
+    @Getter
+    private volatile boolean healthy = true;
+
+    private final AtomicInteger activeConnections = new AtomicInteger();
+
+    private final LongAdder selectedCount = new LongAdder();
+
+    private final LongAdder failureCount = new LongAdder();
+
+    public ReplicaDataSource(String id, DataSource dataSource, int weight) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("replica [" + id + "] weight must be greater than 0");
+        }
+        this.id = id;
+        this.dataSource = dataSource;
+        this.weight = weight;
+    }
+
+    /**
+     * @return 正在使用的连接数
+     */
+    public int getActiveConnections() {
+        return activeConnections.get();
+    }
+
+    /**
+     * @return 被选中的次数
+     */
+    public long getSelectedCount() {
+        return selectedCount.sum();
+    }
+
+    /**
+     * @return 获取连接或者健康检查失败的次数
+     */
+    public long getFailureCount() {
+        return failureCount.sum();
+    }
+
+    Connection getConnection() throws SQLException {
+        selectedCount.increment();
+        Connection connection = dataSource.getConnection();
+        activeConnections.incrementAndGet();
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class[]{ConnectionProxy.class},
+                new CountingConnectionHandler(connection));
+    }
+
+    /**
+     * 检查副本是否可用
+     *
+     * @param timeout 超时时间,单位秒
+     * @return 健康状态是否发生了变化
+     */
+    boolean check(int timeout) {
+        boolean valid;
+        try (Connection connection = dataSource.getConnection()) {
+            valid = connection.isValid(timeout);
+        } catch (SQLException | RuntimeException e) {
+            log.debug("check replica [{}] error", id, e);
+            valid = false;
+        }
+        if (!valid) {
+            failureCount.increment();
+        }
+        return setHealthy(valid);
+    }
+
+    boolean setHealthy(boolean healthy) {
+        if (this.healthy == healthy) {
+            return false;
+        }
+        this.healthy = healthy;
+        if (healthy) {
+            log.info("replica [{}] recovered", id);
+        } else {
+            log.warn("replica [{}] is unavailable, evict it", id);
+        }
+        return true;
+    }
+
+    void markFailure(SQLException e) {
+        failureCount.increment();
+        log.warn("get connection from replica [{}] error", id, e);
+        setHealthy(false);
+    }
+
+    @Override
+    public String toString() {
+        return "Replica(" + id + ",weight=" + weight + ",healthy=" + healthy + ",active=" + activeConnections.get() + ")";
+    }
+
+    //连接关闭时减少连接数
+    private class CountingConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        CountingConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getTargetConnection":
+                    return target;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "close":
+                    if (closed.compareAndSet(false, true)) {
+                        activeConnections.decrementAndGet();
+                    }
+                    break;
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package org.hswebframework.web.datasource.replica;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 读写分离数据源,由一个主库和多个只读副本组成.
+ * <p>
+ * 在只读事务({@code @Transactional(readOnly = true)})中获取连接时,按{@link ReplicaLoadBalancer}从可用的副本中选择,
+ * 其他情况使用主库.获取副本连接失败时,副本将被剔除并尝试其他副本,没有可用的副本时使用主库,被剔除的副本在健康检查通过后重新加入.
+ * <p>
+ * 事务管理器在事务开始时就会获取连接,此时还未设置事务只读,所以{@link #getConnection()}返回的是
+ * {@link LazyConnectionDataSourceProxy}延迟获取的连接,在执行第一条语句时才选择主库或者副本.
+ * 同一个事务中的操作会使用事务开始时绑定的同一个连接,所以在读写事务中调用的只读方法仍然使用主库.
+ * <pre>
+ * &#064;Bean
+ * public ReplicaGroupDataSource orderDataSource() {
+ *     return new ReplicaGroupDataSource(primary)
+ *             .addReplica("replica-1", replica1, 2)
+ *             .addReplica("replica-2", replica2, 1);
+ * }
+ * </pre>
+ * 定义为Bean后即可通过{@code @UseDataSource("orderDataSource")}使用.
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+@Slf4j
+public class ReplicaGroupDataSource extends AbstractDataSource implements Closeable {
+
+    @Getter
+    private final DataSource primary;
+
+    private final List<ReplicaDataSource> replicas = new CopyOnWriteArrayList<>();
+
+    //可用的副本,副本健康状态变化时重建
+    private volatile List<ReplicaDataSource> availableReplicas = Collections.emptyList();
+
+    /**
+     * 副本负载均衡策略
+     */
+    @Getter
+    @Setter
+    private ReplicaLoadBalancer loadBalancer = ReplicaLoadBalancer.WEIGHTED;
+
+    /**
+     * 健康检查间隔,单位毫秒,小于等于0时不进行健康检查,被剔除的副本将不会恢复
+     */
+    @Getter
+    @Setter
+    private long healthCheckInterval = 5000;
+
+    /**
+     * 健康检查超时时间,单位秒
+     */
+    @Getter
+    @Setter
+    private int healthCheckTimeout = 3;
+
+    //在执行第一条语句时才通过router选择主库或者副本
+    private volatile LazyConnectionDataSourceProxy lazyProxy;
+
+    private volatile ScheduledExecutorService healthChecker;
+
+    private volatile boolean closed;
+
+    private final LongAdder primaryConnections = new LongAdder();
+
+    private final LongAdder replicaConnections = new LongAdder();
+
+    public ReplicaGroupDataSource(DataSource primary) {
+        this.primary = Objects.requireNonNull(primary, "primary datasource can not be null");
+    }
+
+    public ReplicaGroupDataSource addReplica(String id, DataSource dataSource) {
+        return addReplica(id, dataSource, 1);
+    }
+
+    public ReplicaGroupDataSource addReplica(String id, DataSource dataSource, int weight) {
+        replicas.add(new ReplicaDataSource(id, dataSource, weight));
+        refreshAvailableReplicas();
+        return this;
+    }
+
+    public List<ReplicaDataSource> getReplicas() {
+        return Collections.unmodifiableList(replicas);
+    }
+
+    /**
+     * @return 当前可用的副本
+     */
+    public List<ReplicaDataSource> getAvailableReplicas() {
+        return availableReplicas;
+    }
+
+    /**
+     * @return 从主库获取连接的次数
+     */
+    public long getPrimaryConnectionCount() {
+        return primaryConnections.sum();
+    }
+
+    /**
+     * @return 从副本获取连接的次数
+     */
+    public long getReplicaConnectionCount() {
+        return replicaConnections.sum();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getLazyProxy().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        //指定用户名密码时不进行读写分离
+        primaryConnections.increment();
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * 立即选择主库或者副本获取连接,在只读事务中使用副本,其他情况使用主库
+     *
+     * @return 数据库连接
+     * @throws SQLException 获取连接失败
+     */
+    protected Connection determineConnection() throws SQLException {
+        if (useReplica()) {
+            Connection connection = getReplicaConnection();
+            if (connection != null) {
+                return connection;
+            }
+        }
+        return getPrimaryConnection();
+    }
+
+    /**
+     * 判断是否使用副本,默认在只读事务中使用副本
+     *
+     * @return 是否使用副本
+     */
+    protected boolean useReplica() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    /**
+     * 检查全部副本的健康状态
+     */
+    public void checkHealth() {
+        boolean changed = false;
+        for (ReplicaDataSource replica : replicas) {
+            changed |= replica.check(healthCheckTimeout);
+        }
+        if (changed) {
+            refreshAvailableReplicas();
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        ScheduledExecutorService checker = healthChecker;
+        if (checker != null) {
+            checker.shutdownNow();
+            healthChecker = null;
+        }
+    }
+
+    protected Connection getPrimaryConnection() throws SQLException {
+        primaryConnections.increment();
+        return primary.getConnection();
+    }
+
+    protected Connection getReplicaConnection() throws SQLException {
+        List<ReplicaDataSource> candidates = availableReplicas;
+        while (!candidates.isEmpty()) {
+            ReplicaDataSource replica = loadBalancer.select(candidates);
+            try {
+                Connection connection = replica.getConnection();
+                replicaConnections.increment();
+                return connection;
+            } catch (SQLException e) {
+                replica.markFailure(e);
+                refreshAvailableReplicas();
+                startHealthCheck();
+                //尝试剩余的副本
+                if (candidates.size() == 1) {
+                    break;
+                }
+                candidates = new ArrayList<>(candidates);
+                candidates.remove(replica);
+            }
+        }
+        log.warn("no replica available, use primary datasource");
+        return null;
+    }
+
+    //在第一次使用时才创建,直接从主库读取默认的autoCommit和隔离级别,避免创建时经过router计入连接次数
+    private LazyConnectionDataSourceProxy getLazyProxy() throws SQLException {
+        LazyConnectionDataSourceProxy proxy = lazyProxy;
+        if (proxy == null) {
+            synchronized (this) {
+                proxy = lazyProxy;
+                if (proxy == null) {
+                    proxy = new LazyConnectionDataSourceProxy();
+                    proxy.setTargetDataSource(new Router());
+                    try (Connection connection = primary.getConnection()) {
+                        proxy.setDefaultAutoCommit(connection.getAutoCommit());
+                        proxy.setDefaultTransactionIsolation(connection.getTransactionIsolation());
+                    }
+                    proxy.afterPropertiesSet();
+                    lazyProxy = proxy;
+                }
+            }
+        }
+        return proxy;
+    }
+
+    private void refreshAvailableReplicas() {
+        List<ReplicaDataSource> available = new ArrayList<>(replicas.size());
+        for (ReplicaDataSource replica : replicas) {
+            if (replica.isHealthy()) {
+                available.add(replica);
+            }
+        }
+        availableReplicas = Collections.unmodifiableList(available);
+    }
+
+    //有副本被剔除时才启动健康检查
+    private void startHealthCheck() {
+        if (healthChecker != null || closed || healthCheckInterval <= 0) {
+            return;
+        }
+        synchronized (this) {
+            if (healthChecker != null || closed) {
+                return;
+            }
+            ScheduledExecutorService checker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "replica-health-checker");
+                thread.setDaemon(true);
+                return thread;
+            });
+            checker.scheduleWithFixedDelay(() -> {
+                try {
+                    checkHealth();
+                } catch (Throwable e) {
+                    log.warn("check replica health error", e);
+                }
+            }, healthCheckInterval, healthCheckInterval, TimeUnit.MILLISECONDS);
+            healthChecker = checker;
+        }
+    }
+
+    private class Router extends AbstractDataSource {
+        @Override
+        public Connection getConnection() throws SQLException {
+            return determineConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return ReplicaGroupDataSource.this.getConnection(username, password);
+        }
+    }
+}
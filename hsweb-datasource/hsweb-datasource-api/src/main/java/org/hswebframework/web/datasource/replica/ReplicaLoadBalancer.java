@@ -0,0 +1,68 @@
+package org.hswebframework.web.datasource.replica;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 副本负载均衡策略
+ *
+ * @author zhouhao
+ * @see ReplicaGroupDataSource#setLoadBalancer(ReplicaLoadBalancer)
+ * @since 3.0.8
+ */
+@FunctionalInterface
+public interface ReplicaLoadBalancer {
+
+    /**
+     * 从可用的副本中选择一个
+     *
+     * @param replicas 可用的副本,不为空
+     * @return 选中的副本
+     */
+    ReplicaDataSource select(List<ReplicaDataSource> replicas);
+
+    /**
+     * 按权重随机选择
+     */
+    ReplicaLoadBalancer WEIGHTED = replicas -> {
+        int size = replicas.size();
+        if (size == 1) {
+            return replicas.get(0);
+        }
+        int total = 0;
+        for (int i = 0; i < size; i++) {
+            total += replicas.get(i).getWeight();
+        }
+        int random = ThreadLocalRandom.current().nextInt(total);
+        for (int i = 0; i < size; i++) {
+            ReplicaDataSource replica = replicas.get(i);
+            random -= replica.getWeight();
+            if (random < 0) {
+                return replica;
+            }
+        }
+        return replicas.get(size - 1);
+    };
+
+    /**
+     * 选择正在使用的连接数除以权重最小的副本,从随机位置开始比较,避免连接数相同时总是选择第一个
+     */
+    ReplicaLoadBalancer LEAST_CONNECTIONS = replicas -> {
+        int size = replicas.size();
+        if (size == 1) {
+            return replicas.get(0);
+        }
+        int offset = ThreadLocalRandom.current().nextInt(size);
+        ReplicaDataSource selected = null;
+        double minLoad = Double.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            ReplicaDataSource replica = replicas.get((i + offset) % size);
+            double load = (double) replica.getActiveConnections() / replica.getWeight();
+            if (load < minLoad) {
+                minLoad = load;
+                selected = replica;
+            }
+        }
+        return selected;
+    };
+}
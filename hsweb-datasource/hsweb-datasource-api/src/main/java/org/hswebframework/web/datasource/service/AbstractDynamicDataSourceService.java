@@ -1,21 +1,39 @@
 package org.hswebframework.web.datasource.service;
 
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
 import org.hswebframework.web.datasource.DynamicDataSource;
 import org.hswebframework.web.datasource.DynamicDataSourceProxy;
 import org.hswebframework.web.datasource.DynamicDataSourceService;
 import org.hswebframework.web.datasource.config.DynamicDataSourceConfig;
 import org.hswebframework.web.datasource.config.DynamicDataSourceConfigRepository;
+import org.hswebframework.web.datasource.events.DataSourceConfigChangedEvent;
 import org.hswebframework.web.datasource.exception.DataSourceNotFoundException;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.sql.DataSource;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
+ * 动态数据源服务抽象实现.
+ * <p>
+ * 数据源在第一次获取时根据配置创建并缓存,之后获取数据源只查询缓存,不再每次查询配置.
+ * 配置变更时通过{@link DataSourceConfigChangedEvent}或者{@link #refresh(String)}刷新缓存,
+ * 集群部署时可设置{@link #refreshInterval}定时检查配置是否变化.
+ *
  * @author zhouhao
  */
+@Slf4j
 public abstract class AbstractDynamicDataSourceService<C extends DynamicDataSourceConfig> implements DynamicDataSourceService {
     protected final Map<String, DataSourceCache> dataSourceStore = new ConcurrentHashMap<>(32);
 
@@ -23,6 +41,23 @@ public abstract class AbstractDynamicDataSourceService<C extends DynamicDataSour
 
     private DynamicDataSourceConfigRepository<C> repository;
 
+    /**
+     * 定时检查配置变化的间隔,单位毫秒,小于等于0时不检查
+     *
+     * @since 3.0.8
+     */
+    @Getter
+    @Setter
+    private long refreshInterval = 0;
+
+    private ScheduledExecutorService refreshExecutor;
+
+    private final Map<String, Object> createLocks = new ConcurrentHashMap<>();
+
+    private final LongAdder createCount = new LongAdder();
+
+    private final LongAdder rebuildCount = new LongAdder();
+
     public void setRepository(DynamicDataSourceConfigRepository<C> repository) {
         this.repository = repository;
     }
@@ -36,30 +71,143 @@ public abstract class AbstractDynamicDataSourceService<C extends DynamicDataSour
         this(repository, new DynamicDataSourceProxy(null, dataSource));
     }
 
+    @PostConstruct
+    public synchronized void startRefresh() {
+        if (refreshInterval <= 0 || refreshExecutor != null) {
+            return;
+        }
+        refreshExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dynamic-datasource-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refreshExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                refreshAll();
+            } catch (Exception e) {
+                log.warn("refresh dynamic datasource error", e);
+            }
+        }, refreshInterval, refreshInterval, TimeUnit.MILLISECONDS);
+    }
+
     @PreDestroy
     public void destroy() {
+        synchronized (this) {
+            if (refreshExecutor != null) {
+                refreshExecutor.shutdownNow();
+                refreshExecutor = null;
+            }
+        }
         dataSourceStore.values().forEach(DataSourceCache::closeDataSource);
     }
 
     @Override
     public DynamicDataSource getDataSource(String dataSourceId) {
-        C config = repository.findById(dataSourceId);
-        if (config == null) {
-            throw new DataSourceNotFoundException(dataSourceId, "数据源" + dataSourceId + "不存在");
+        DataSourceCache cache = dataSourceStore.get(dataSourceId);
+        if (cache == null) {
+            cache = loadCache(dataSourceId);
+        }
+        return cache.getDataSource();
+    }
+
+    //同一个数据源只创建一次,创建不同的数据源互不阻塞
+    private DataSourceCache loadCache(String dataSourceId) {
+        Object lock = createLocks.computeIfAbsent(dataSourceId, id -> new Object());
+        try {
+            synchronized (lock) {
+                DataSourceCache cache = dataSourceStore.get(dataSourceId);
+                if (cache != null) {
+                    return cache;
+                }
+                C config = loadConfig(dataSourceId);
+                if (config == null) {
+                    throw new DataSourceNotFoundException(dataSourceId, "数据源" + dataSourceId + "不存在");
+                }
+                cache = createCache(config);
+                createCount.increment();
+                dataSourceStore.put(dataSourceId, cache);
+                return cache;
+            }
+        } finally {
+            createLocks.remove(dataSourceId, lock);
         }
+    }
+
+    /**
+     * 从配置仓库中加载配置,只在数据源未缓存或者刷新时调用
+     *
+     * @param dataSourceId 数据源ID
+     * @return 配置, 不存在时返回null
+     * @since 3.0.8
+     */
+    protected C loadConfig(String dataSourceId) {
+        return repository.findById(dataSourceId);
+    }
+
+    /**
+     * 重新加载配置,配置不存在或者已经变化时关闭缓存的数据源,下一次获取时重新创建
+     *
+     * @param dataSourceId 数据源ID
+     * @return 数据源是否被关闭
+     * @since 3.0.8
+     */
+    public boolean refresh(String dataSourceId) {
         DataSourceCache cache = dataSourceStore.get(dataSourceId);
         if (cache == null) {
-            cache = createCache(config);
-            dataSourceStore.put(dataSourceId, cache);
-            return cache.getDataSource();
+            return false;
+        }
+        C config = loadConfig(dataSourceId);
+        if (config != null && cache.getHash() == config.hashCode()) {
+            return false;
         }
-        if (cache.getHash() != config.hashCode()) {
-            dataSourceStore.remove(dataSourceId);
+        if (dataSourceStore.remove(dataSourceId, cache)) {
+            log.info("datasource [{}] config changed, close it", dataSourceId);
+            rebuildCount.increment();
             cache.closeDataSource();
-            //重新获取
-            return getDataSource(dataSourceId);
+            return true;
         }
-        return cache.getDataSource();
+        return false;
+    }
+
+    /**
+     * 重新加载全部已缓存的数据源配置
+     *
+     * @since 3.0.8
+     */
+    public void refreshAll() {
+        for (String dataSourceId : new ArrayList<>(dataSourceStore.keySet())) {
+            refresh(dataSourceId);
+        }
+    }
+
+    /**
+     * 配置变更事务提交后刷新数据源
+     *
+     * @since 3.0.8
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleConfigChanged(DataSourceConfigChangedEvent event) {
+        if (event.getDataSourceId() == null) {
+            refreshAll();
+        } else {
+            refresh(event.getDataSourceId());
+        }
+    }
+
+    /**
+     * @return 创建数据源的次数
+     * @since 3.0.8
+     */
+    public long getCreateCount() {
+        return createCount.sum();
+    }
+
+    /**
+     * @return 因为配置变化而关闭数据源的次数
+     * @since 3.0.8
+     */
+    public long getRebuildCount() {
+        return rebuildCount.sum();
     }
 
     @Override
@@ -3,6 +3,7 @@ package org.hswebframework.web.datasource.strategy;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.hswebframework.web.boost.aop.context.MethodInterceptorContext;
+import org.springframework.core.MethodClassKey;
 import org.springframework.util.ClassUtils;
 
 import java.lang.reflect.Method;
@@ -16,52 +17,59 @@ import java.util.concurrent.ConcurrentHashMap;
 @Slf4j
 public abstract class CachedDataSourceSwitchStrategyMatcher implements DataSourceSwitchStrategyMatcher {
 
-    static Map<CacheKey, Strategy> cache = new ConcurrentHashMap<>();
+    private final Map<MethodClassKey, Strategy> cache = new ConcurrentHashMap<>();
 
     public abstract Strategy createStrategyIfMatch(Class target, Method method);
 
     @Override
     public boolean match(Class target, Method method) {
-        Strategy strategy = createStrategyIfMatch(target, method);
-        if (null != strategy) {
-            if (log.isDebugEnabled()) {
-                log.debug("create data source switcher strategy:{} for method:{}", strategy, method);
+        return getStrategy(target, method) != null;
+    }
+
+    @Override
+    public Strategy getStrategy(Class target, Method method) {
+        MethodClassKey key = new MethodClassKey(method, target);
+        Strategy strategy = cache.get(key);
+        if (strategy == null) {
+            strategy = createStrategyIfMatch(target, method);
+            if (null != strategy) {
+                if (log.isDebugEnabled()) {
+                    log.debug("create data source switcher strategy:{} for method:{}", strategy, method);
+                }
+                cache.put(key, strategy);
             }
-            CacheKey cacheKey = new CacheKey(target, method);
-            cache.put(cacheKey, strategy);
-            return true;
         }
-        return false;
+        return strategy;
     }
 
     @Override
     public Strategy getStrategy(MethodInterceptorContext context) {
-        Method method = context.getMethod();
-        Class target = ClassUtils.getUserClass(context.getTarget());
-        return cache.get(new CacheKey(target, method));
+        return getStrategy(ClassUtils.getUserClass(context.getTarget()), context.getMethod());
     }
 
+    /**
+     * @deprecated 使用{@link MethodClassKey}代替
+     */
+    @Deprecated
     @AllArgsConstructor
     public static class CacheKey {
 
-        private Class<?> target;
+        private Class target;
 
         private Method method;
 
         @Override
-        public boolean equals(Object targetObject) {
-            if (!(targetObject instanceof CacheKey)) {
+        public boolean equals(Object obj) {
+            if (!(obj instanceof CacheKey)) {
                 return false;
             }
-            CacheKey targetCacheKey = ((CacheKey) targetObject);
-            return targetCacheKey.target.isAssignableFrom(this.target)
-                    && targetCacheKey.method.getName().equals(method.getName())
-                    && targetCacheKey.method.getParameterCount() == method.getParameterCount();
+            CacheKey target = ((CacheKey) obj);
+            return target.target == this.target && method.equals(target.method);
         }
 
         public int hashCode() {
-            int result = this.target != null ? this.target.getName().hashCode() : 0;
-            result = 31 * result + (this.method != null ? this.method.getName().hashCode() : 0);
+            int result = this.target != null ? this.target.hashCode() : 0;
+            result = 31 * result + (this.method != null ? this.method.hashCode() : 0);
             return result;
         }
     }
@@ -3,6 +3,7 @@ package org.hswebframework.web.datasource.strategy;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.hswebframework.web.boost.aop.context.MethodInterceptorContext;
+import org.springframework.core.MethodClassKey;
 import org.springframework.util.ClassUtils;
 
 import java.lang.reflect.Method;
@@ -15,31 +16,41 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 @Slf4j
 public abstract class CachedTableSwitchStrategyMatcher implements TableSwitchStrategyMatcher {
-    static Map<CacheKey, Strategy> cache = new ConcurrentHashMap<>();
+
+    private final Map<MethodClassKey, Strategy> cache = new ConcurrentHashMap<>();
 
     public abstract Strategy createStrategyIfMatch(Class target, Method method);
 
     @Override
     public boolean match(Class target, Method method) {
-        Strategy strategy = createStrategyIfMatch(target, method);
-        if (null != strategy) {
-            if (log.isDebugEnabled()) {
-                log.debug("create table switcher strategy:{} for method:{}", strategy, method);
+        return getStrategy(target, method) != null;
+    }
+
+    @Override
+    public Strategy getStrategy(Class target, Method method) {
+        MethodClassKey key = new MethodClassKey(method, target);
+        Strategy strategy = cache.get(key);
+        if (strategy == null) {
+            strategy = createStrategyIfMatch(target, method);
+            if (null != strategy) {
+                if (log.isDebugEnabled()) {
+                    log.debug("create table switcher strategy:{} for method:{}", strategy, method);
+                }
+                cache.put(key, strategy);
             }
-            CacheKey cacheKey = new CacheKey(target, method);
-            cache.put(cacheKey, strategy);
-            return true;
         }
-        return false;
+        return strategy;
     }
 
     @Override
     public Strategy getStrategy(MethodInterceptorContext context) {
-        Method method = context.getMethod();
-        Class target = ClassUtils.getUserClass(context.getTarget());
-        return cache.get(new CacheKey(target, method));
+        return getStrategy(ClassUtils.getUserClass(context.getTarget()), context.getMethod());
     }
 
+    /**
+     * @deprecated 使用{@link MethodClassKey}代替
+     */
+    @Deprecated
     @AllArgsConstructor
     public static class CacheKey {
 
@@ -53,7 +64,7 @@ public abstract class CachedTableSwitchStrategyMatcher implements TableSwitchStr
                 return false;
             }
             CacheKey target = ((CacheKey) obj);
-            return target.target == this.target && target.method == method;
+            return target.target == this.target && method.equals(target.method);
         }
 
         public int hashCode() {
@@ -30,6 +30,19 @@ public interface DataSourceSwitchStrategyMatcher {
      */
     Strategy getStrategy(MethodInterceptorContext context);
 
+    /**
+     * 获取与调用参数无关的切换策略,在创建代理时调用,返回的策略将被缓存,调用方法时不再获取策略.
+     * 策略依赖调用参数时返回null,调用方法时将使用{@link #getStrategy(MethodInterceptorContext)}获取
+     *
+     * @param target 类
+     * @param method 方法
+     * @return 切换策略
+     * @since 3.0.8
+     */
+    default Strategy getStrategy(Class target, Method method) {
+        return null;
+    }
+
     /**
      * 数据源切换策略
      */
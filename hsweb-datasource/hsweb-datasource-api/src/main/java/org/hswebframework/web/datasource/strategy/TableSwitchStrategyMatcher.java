@@ -34,6 +34,19 @@ public interface TableSwitchStrategyMatcher {
      */
     Strategy getStrategy(MethodInterceptorContext context);
 
+    /**
+     * 获取与调用参数无关的切换策略,策略依赖调用参数时返回null
+     *
+     * @param target 类
+     * @param method 方法
+     * @return 切换策略
+     * @see DataSourceSwitchStrategyMatcher#getStrategy(Class, Method)
+     * @since 3.0.8
+     */
+    default Strategy getStrategy(Class target, Method method) {
+        return null;
+    }
+
     /**
      * 表切换策略
      */
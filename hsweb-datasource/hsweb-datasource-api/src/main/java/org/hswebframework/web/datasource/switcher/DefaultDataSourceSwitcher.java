@@ -4,11 +4,9 @@ import org.hswebframework.web.ThreadLocalUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Deque;
-import java.util.LinkedList;
 
 /**
- * 默认的动态数据源切换器,基于ThreadLocal,queue
+ * 默认的动态数据源切换器,基于ThreadLocal,数组栈
  *
  * @author zhouhao
  * @since 3.0
@@ -20,19 +18,26 @@ public class DefaultDataSourceSwitcher implements DataSourceSwitcher {
 
     private Logger logger = LoggerFactory.getLogger(this.getClass());
 
-    private Deque<String> getUsedHistoryQueue() {
-        // 从ThreadLocal中获取一个使用记录
-        return ThreadLocalUtils.get(DefaultDataSourceSwitcher.class.getName() + "_queue", LinkedList::new);
+    private static final ThreadLocal<SwitchHistory> history = ThreadLocal.withInitial(SwitchHistory::new);
+
+    static {
+        //和ThreadLocalUtils一起清空,避免未成对调用时影响下一次请求
+        ThreadLocalUtils.onClear(history::remove);
+    }
+
+    private SwitchHistory getUsedHistory() {
+        return history.get();
     }
 
     @Override
     public void useLast() {
+        SwitchHistory history = getUsedHistory();
         // 没有上一次了
-        if (getUsedHistoryQueue().isEmpty()) {
+        if (history.isEmpty()) {
             return;
         }
-        //移除队尾,则当前的队尾则为上一次的数据源
-        getUsedHistoryQueue().removeLast();
+        //移除栈顶,则当前的栈顶则为上一次的数据源
+        history.pop();
         if (logger.isDebugEnabled()) {
             String current = currentDataSourceId();
             if (null != current) {
@@ -45,8 +50,8 @@ public class DefaultDataSourceSwitcher implements DataSourceSwitcher {
 
     @Override
     public void use(String dataSourceId) {
-        //添加对队尾
-        getUsedHistoryQueue().addLast(dataSourceId);
+        //压入栈顶
+        getUsedHistory().push(dataSourceId);
         if (logger.isDebugEnabled()) {
             logger.debug("try use datasource : {}", dataSourceId);
         }
@@ -54,7 +59,7 @@ public class DefaultDataSourceSwitcher implements DataSourceSwitcher {
 
     @Override
     public void useDefault() {
-        getUsedHistoryQueue().addLast(DEFAULT_DATASOURCE_ID);
+        getUsedHistory().push(DEFAULT_DATASOURCE_ID);
         if (logger.isDebugEnabled()) {
             logger.debug("try use default datasource");
         }
@@ -62,12 +67,8 @@ public class DefaultDataSourceSwitcher implements DataSourceSwitcher {
 
     @Override
     public String currentDataSourceId() {
-        if (getUsedHistoryQueue().isEmpty()) {
-            return null;
-        }
-
-        String activeId = getUsedHistoryQueue().getLast();
-        if (DEFAULT_DATASOURCE_ID.equals(activeId)) {
+        String activeId = getUsedHistory().peek();
+        if (activeId == null || DEFAULT_DATASOURCE_ID.equals(activeId)) {
             return null;
         }
         return activeId;
@@ -75,7 +76,7 @@ public class DefaultDataSourceSwitcher implements DataSourceSwitcher {
 
     @Override
     public void reset() {
-        getUsedHistoryQueue().clear();
+        getUsedHistory().clear();
         if (logger.isDebugEnabled()) {
             logger.debug("reset datasource history");
         }
@@ -2,6 +2,7 @@ package org.hswebframework.web.datasource.switcher;
 
 import org.hswebframework.web.ThreadLocalUtils;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -28,6 +29,11 @@ public class DefaultTableSwitcher implements TableSwitcher {
                 .getOrDefault(name, staticMapping.getOrDefault(name, name));
     }
 
+    @Override
+    public Map<String, String> getSwitchedTables() {
+        return Collections.unmodifiableMap(getMapping());
+    }
+
     @Override
     public void reset() {
         ThreadLocalUtils.remove(DefaultTableSwitcher.class.getName() + "_current");
@@ -0,0 +1,42 @@
+package org.hswebframework.web.datasource.switcher;
+
+import java.util.Arrays;
+
+/**
+ * 线程内的切换记录,使用可复用的数组作为栈,切换时不创建新对象
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+final class SwitchHistory {
+
+    private String[] elements = new String[8];
+
+    private int size;
+
+    void push(String element) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size << 1);
+        }
+        elements[size++] = element;
+    }
+
+    void pop() {
+        if (size > 0) {
+            elements[--size] = null;
+        }
+    }
+
+    String peek() {
+        return size == 0 ? null : elements[size - 1];
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        Arrays.fill(elements, 0, size, null);
+        size = 0;
+    }
+}
@@ -1,5 +1,8 @@
 package org.hswebframework.web.datasource.switcher;
 
+import java.util.Collections;
+import java.util.Map;
+
 /**
  * 表切换器
  *
@@ -12,4 +15,12 @@ public interface TableSwitcher {
     String getTable(String name);
 
     void reset();
+
+    /**
+     * @return 当前线程中切换的表, key为原表名, value为切换后的表名
+     * @since 3.0.8
+     */
+    default Map<String, String> getSwitchedTables() {
+        return Collections.emptyMap();
+    }
 }
@@ -0,0 +1,206 @@
+package org.hswebframework.web.datasource.replica;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * @author zhouhao
+ * @since 3.0.8
+ */
+public class ReplicaGroupDataSourceTest {
+
+    private ReplicaGroupDataSource dataSource;
+
+    private BrokenDataSource replica1;
+
+    private BrokenDataSource replica2;
+
+    @Before
+    public void init() throws SQLException {
+        DataSource primary = createDataSource("primary");
+        replica1 = new BrokenDataSource(createDataSource("replica"));
+        replica2 = new BrokenDataSource(createDataSource("replica2"));
+        dataSource = new ReplicaGroupDataSource(primary)
+                .addReplica("replica", replica1, 1);
+        dataSource.setHealthCheckInterval(0);
+    }
+
+    @After
+    public void close() {
+        dataSource.close();
+    }
+
+    @Test
+    public void testReadWriteSplitting() {
+        //不需要再使用LazyConnectionDataSourceProxy包装
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        TransactionTemplate readOnly = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        readOnly.setReadOnly(true);
+        TransactionTemplate readWrite = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        Assert.assertEquals("replica", readOnly.execute(status -> queryName(jdbcTemplate)));
+        Assert.assertEquals("primary", readWrite.execute(status -> queryName(jdbcTemplate)));
+        //没有事务时使用主库
+        Assert.assertEquals("primary", queryName(jdbcTemplate));
+
+        //读写事务中的只读操作使用同一个连接,能读取到刚写入的数据
+        Assert.assertEquals("new", readWrite.execute(status -> {
+            jdbcTemplate.update("update db_name set name = ?", "new");
+            String name = readOnly.execute(s -> queryName(jdbcTemplate));
+            status.setRollbackOnly();
+            return name;
+        }));
+        Assert.assertEquals(1, dataSource.getReplicaConnectionCount());
+    }
+
+    @Test
+    public void testTransactionalReadOnly() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        ProxyFactory factory = new ProxyFactory(new NameService(jdbcTemplate));
+        factory.setProxyTargetClass(true);
+        factory.addAdvice(new TransactionInterceptor(new DataSourceTransactionManager(dataSource),
+                new AnnotationTransactionAttributeSource()));
+        NameService service = (NameService) factory.getProxy();
+
+        Assert.assertEquals("replica", service.readOnly());
+        Assert.assertEquals("primary", service.readWrite());
+        Assert.assertEquals(1, dataSource.getReplicaConnectionCount());
+        Assert.assertEquals(1, dataSource.getReplicas().get(0).getSelectedCount());
+        Assert.assertEquals(0, dataSource.getReplicas().get(0).getActiveConnections());
+    }
+
+    @Test
+    public void testEvictAndRecover() throws SQLException {
+        dataSource.addReplica("replica2", replica2, 100);
+        replica2.broken = true;
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try {
+            for (int i = 0; i < 10; i++) {
+                Assert.assertEquals("replica", queryName(dataSource));
+            }
+            Assert.assertEquals(1, dataSource.getAvailableReplicas().size());
+            Assert.assertEquals(1, dataSource.getReplicas().get(1).getFailureCount());
+
+            replica2.broken = false;
+            dataSource.checkHealth();
+            Assert.assertEquals(2, dataSource.getAvailableReplicas().size());
+            dataSource.setLoadBalancer(replicas -> replicas.get(1));
+            Assert.assertEquals("replica2", queryName(dataSource));
+
+            //没有可用的副本时使用主库
+            dataSource.setLoadBalancer(ReplicaLoadBalancer.WEIGHTED);
+            replica1.broken = true;
+            replica2.broken = true;
+            Assert.assertEquals("primary", queryName(dataSource));
+            Assert.assertTrue(dataSource.getAvailableReplicas().isEmpty());
+        } finally {
+            TransactionSynchronizationManager.clear();
+        }
+    }
+
+    @Test
+    public void testLeastConnections() throws SQLException {
+        dataSource.addReplica("replica2", replica2, 1);
+        dataSource.setLoadBalancer(ReplicaLoadBalancer.LEAST_CONNECTIONS);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try (Connection first = dataSource.getConnection();
+             Connection second = dataSource.getConnection()) {
+            Assert.assertNotEquals(queryName(first), queryName(second));
+            Assert.assertEquals(1, dataSource.getReplicas().get(0).getActiveConnections());
+            Assert.assertEquals(1, dataSource.getReplicas().get(1).getActiveConnections());
+        } finally {
+            TransactionSynchronizationManager.clear();
+        }
+        Assert.assertEquals(0, dataSource.getReplicas().get(0).getActiveConnections());
+        Assert.assertEquals(0, dataSource.getReplicas().get(1).getActiveConnections());
+    }
+
+    public static class NameService {
+        private final JdbcTemplate jdbcTemplate;
+
+        public NameService(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        @Transactional(readOnly = true)
+        public String readOnly() {
+            return queryName(jdbcTemplate);
+        }
+
+        @Transactional
+        public String readWrite() {
+            return queryName(jdbcTemplate);
+        }
+    }
+
+    private static String queryName(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForObject("select name from db_name", String.class);
+    }
+
+    private static String queryName(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return queryName(connection);
+        }
+    }
+
+    private static String queryName(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("select name from db_name")) {
+            resultSet.next();
+            return resultSet.getString(1);
+        }
+    }
+
+    private static DataSource createDataSource(String name) throws SQLException {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("create table if not exists db_name(name varchar(32))");
+            statement.execute("delete from db_name");
+            statement.execute("insert into db_name values('" + name + "')");
+        }
+        return dataSource;
+    }
+
+    static class BrokenDataSource extends AbstractDataSource {
+        private final DataSource target;
+
+        private volatile boolean broken;
+
+        BrokenDataSource(DataSource target) {
+            this.target = target;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (broken) {
+                throw new SQLException("broken");
+            }
+            return target.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return getConnection();
+        }
+    }
+}
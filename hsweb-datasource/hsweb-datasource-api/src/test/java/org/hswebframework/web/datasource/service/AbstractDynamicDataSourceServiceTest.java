@@ -0,0 +1,89 @@
+package org.hswebframework.web.datasource.service;
+
+import org.hswebframework.web.datasource.DatabaseType;
+import org.hswebframework.web.datasource.DynamicDataSource;
+import org.hswebframework.web.datasource.DynamicDataSourceProxy;
+import org.hswebframework.web.datasource.config.InSpringDynamicDataSourceConfig;
+import org.hswebframework.web.datasource.events.DataSourceConfigChangedEvent;
+import org.hswebframework.web.datasource.exception.DataSourceNotFoundException;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author zhouhao
+ * @since 3.0.8
+ */
+public class AbstractDynamicDataSourceServiceTest {
+
+    private InSpringDynamicDataSourceConfigRepository repository;
+
+    private AtomicInteger findCounter = new AtomicInteger();
+
+    private AbstractDynamicDataSourceService<InSpringDynamicDataSourceConfig> service;
+
+    @Before
+    public void init() {
+        repository = new InSpringDynamicDataSourceConfigRepository() {
+            @Override
+            public InSpringDynamicDataSourceConfig findById(String dataSourceId) {
+                findCounter.incrementAndGet();
+                return super.findById(dataSourceId);
+            }
+        };
+        repository.add(createConfig("test", "test"));
+        service = new AbstractDynamicDataSourceService<InSpringDynamicDataSourceConfig>(repository, (DynamicDataSource) null) {
+            @Override
+            protected DataSourceCache createCache(InSpringDynamicDataSourceConfig config) {
+                return new DataSourceCache(config.hashCode(),
+                        new DynamicDataSourceProxy(config.getId(), DatabaseType.h2, null),
+                        new CountDownLatch(0),
+                        config);
+            }
+        };
+    }
+
+    private InSpringDynamicDataSourceConfig createConfig(String id, String beanName) {
+        InSpringDynamicDataSourceConfig config = new InSpringDynamicDataSourceConfig();
+        config.setId(id);
+        config.setName(id);
+        config.setBeanName(beanName);
+        return config;
+    }
+
+    @Test
+    public void testCache() {
+        DynamicDataSource dataSource = service.getDataSource("test");
+        for (int i = 0; i < 100; i++) {
+            Assert.assertSame(dataSource, service.getDataSource("test"));
+        }
+        Assert.assertEquals(1, findCounter.get());
+        Assert.assertEquals(1, service.getCreateCount());
+    }
+
+    @Test
+    public void testRefresh() {
+        DynamicDataSource dataSource = service.getDataSource("test");
+
+        //配置未变化
+        Assert.assertFalse(service.refresh("test"));
+        Assert.assertSame(dataSource, service.getDataSource("test"));
+
+        repository.add(createConfig("test", "test2"));
+        service.handleConfigChanged(new DataSourceConfigChangedEvent("test"));
+        Assert.assertEquals(1, service.getRebuildCount());
+        Assert.assertNotSame(dataSource, service.getDataSource("test"));
+        Assert.assertEquals(2, service.getCreateCount());
+
+        repository.remove("test");
+        service.handleConfigChanged(new DataSourceConfigChangedEvent(null));
+        try {
+            service.getDataSource("test");
+            Assert.fail();
+        } catch (DataSourceNotFoundException ignore) {
+        }
+    }
+}
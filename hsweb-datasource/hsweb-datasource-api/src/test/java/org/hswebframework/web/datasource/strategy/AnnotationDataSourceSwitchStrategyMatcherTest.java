@@ -0,0 +1,48 @@
+package org.hswebframework.web.datasource.strategy;
+
+import org.hswebframework.web.datasource.annotation.UseDataSource;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+
+/**
+ * @author zhouhao
+ * @since 3.0.8
+ */
+public class AnnotationDataSourceSwitchStrategyMatcherTest {
+
+    AnnotationDataSourceSwitchStrategyMatcher matcher = new AnnotationDataSourceSwitchStrategyMatcher();
+
+    @Test
+    public void testOverloadMethod() throws NoSuchMethodException {
+        Method query = TestService.class.getMethod("query", String.class);
+        Method queryById = TestService.class.getMethod("query", Integer.class);
+        Method queryAll = TestService.class.getMethod("query");
+
+        Assert.assertTrue(matcher.match(TestService.class, query));
+        Assert.assertTrue(matcher.match(TestService.class, queryById));
+        Assert.assertFalse(matcher.match(TestService.class, queryAll));
+
+        Assert.assertEquals("read", matcher.getStrategy(TestService.class, query).getDataSourceId());
+        Assert.assertEquals("write", matcher.getStrategy(TestService.class, queryById).getDataSourceId());
+        Assert.assertNull(matcher.getStrategy(TestService.class, queryAll));
+    }
+
+    public static class TestService {
+
+        @UseDataSource("read")
+        public void query(String name) {
+
+        }
+
+        @UseDataSource("write")
+        public void query(Integer id) {
+
+        }
+
+        public void query() {
+
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package org.hswebframework.web.datasource.switcher;
 
 import lombok.SneakyThrows;
+import org.hswebframework.web.ThreadLocalUtils;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -59,6 +60,27 @@ public class DefaultDataSourceSwitcherTest {
         assertEquals(switcher.currentDataSourceId(), "test");
     }
 
+    @Test
+    public void testDeepSwitch() {
+        switcher.reset();
+        for (int i = 0; i < 100; i++) {
+            switcher.use("test" + i);
+        }
+        for (int i = 99; i >= 0; i--) {
+            assertEquals(switcher.currentDataSourceId(), "test" + i);
+            switcher.useLast();
+        }
+        assertTrue(switcher.currentDataSourceId() == null);
+    }
+
+    @Test
+    public void testClearWithThreadLocalUtils() {
+        switcher.use("test");
+        assertEquals(switcher.currentDataSourceId(), "test");
+        ThreadLocalUtils.clear();
+        assertTrue(switcher.currentDataSourceId() == null);
+    }
+
     public class Test2 extends TestClass {
 
     }
@@ -0,0 +1,79 @@
+package org.hswebframework.web.loggin.aop;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 有界无锁环形缓冲区,支持多个线程写入,单个线程读取
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+class AccessLoggerRingBuffer<T> {
+
+    private final AtomicReferenceArray<T> buffer;
+
+    private final int mask;
+
+    private final AtomicLong tail = new AtomicLong();
+
+    private final AtomicLong head = new AtomicLong();
+
+    AccessLoggerRingBuffer(int capacity) {
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.buffer = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    int capacity() {
+        return buffer.length();
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    /**
+     * 写入元素,缓冲区已满时返回false
+     */
+    boolean offer(T element) {
+        for (; ; ) {
+            long currentTail = tail.get();
+            if (currentTail - head.get() >= buffer.length()) {
+                return false;
+            }
+            if (tail.compareAndSet(currentTail, currentTail + 1)) {
+                buffer.lazySet((int) currentTail & mask, element);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 读取元素到集合中,只能在一个线程中调用
+     *
+     * @return 读取的数量
+     */
+    int drainTo(List<T> target, int maxSize) {
+        long currentHead = head.get();
+        int size = 0;
+        while (size < maxSize) {
+            int index = (int) currentHead & mask;
+            T element = buffer.get(index);
+            //还未写入完成
+            if (element == null) {
+                break;
+            }
+            buffer.lazySet(index, null);
+            target.add(element);
+            currentHead++;
+            size++;
+        }
+        head.lazySet(currentHead);
+        return size;
+    }
+}
@@ -0,0 +1,100 @@
+package org.hswebframework.web.loggin.aop;
+
+import java.lang.reflect.Array;
+import java.time.temporal.TemporalAccessor;
+import java.util.*;
+
+/**
+ * 将请求参数和响应结果转换为长度受限的快照,避免日志持有大对象
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+class AccessLoggerSnapshot {
+
+    private AccessLoggerSnapshot() {
+    }
+
+    static Map<String, Object> snapshot(Map<String, Object> parameters, int maxLength) {
+        if (parameters == null) {
+            return null;
+        }
+        Map<String, Object> snapshot = new LinkedHashMap<>(parameters.size() * 2);
+        for (Map.Entry<String, Object> entry : parameters.entrySet()) {
+            snapshot.put(entry.getKey(), snapshot(entry.getValue(), maxLength));
+        }
+        return snapshot;
+    }
+
+    static Object snapshot(Object value, int maxLength) {
+        if (value == null || isSimpleValue(value)) {
+            return value;
+        }
+        if (value instanceof CharSequence) {
+            return truncate(value.toString(), maxLength);
+        }
+        StringBuilder builder = new StringBuilder(Math.min(maxLength, 256));
+        render(value, builder, maxLength);
+        return truncate(builder.toString(), maxLength);
+    }
+
+    private static boolean isSimpleValue(Object value) {
+        return value instanceof Number
+                || value instanceof Boolean
+                || value instanceof Character
+                || value instanceof Enum
+                || value instanceof Date
+                || value instanceof TemporalAccessor
+                || value instanceof Class;
+    }
+
+    //集合类型逐个元素输出,超过长度后停止,避免对大集合调用toString
+    private static void render(Object value, StringBuilder builder, int maxLength) {
+        if (builder.length() > maxLength) {
+            return;
+        }
+        if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            builder.append('{');
+            Iterator<? extends Map.Entry<?, ?>> iterator = map.entrySet().iterator();
+            while (iterator.hasNext() && builder.length() <= maxLength) {
+                Map.Entry<?, ?> entry = iterator.next();
+                builder.append(entry.getKey()).append('=');
+                render(entry.getValue(), builder, maxLength);
+                if (iterator.hasNext()) {
+                    builder.append(", ");
+                }
+            }
+            builder.append('}');
+        } else if (value instanceof Collection) {
+            builder.append('[');
+            Iterator<?> iterator = ((Collection<?>) value).iterator();
+            while (iterator.hasNext() && builder.length() <= maxLength) {
+                render(iterator.next(), builder, maxLength);
+                if (iterator.hasNext()) {
+                    builder.append(", ");
+                }
+            }
+            builder.append(']');
+        } else if (value != null && value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            builder.append('[');
+            for (int i = 0; i < length && builder.length() <= maxLength; i++) {
+                if (i > 0) {
+                    builder.append(", ");
+                }
+                render(Array.get(value, i), builder, maxLength);
+            }
+            builder.append(']');
+        } else {
+            builder.append(truncate(String.valueOf(value), maxLength - builder.length()));
+        }
+    }
+
+    private static String truncate(String value, int maxLength) {
+        if (value.length() <= maxLength) {
+            return value;
+        }
+        return value.substring(0, Math.max(0, maxLength)).concat("...");
+    }
+}
@@ -1,11 +1,14 @@
 package org.hswebframework.web.loggin.aop;
 
+import lombok.Getter;
+import lombok.Setter;
 import org.aopalliance.intercept.MethodInterceptor;
 import org.hswebframework.web.WebUtil;
 import org.hswebframework.web.boost.aop.context.MethodInterceptorHolder;
 import org.hswebframework.web.id.IDGenerator;
 import org.hswebframework.web.logging.AccessLoggerInfo;
 import org.hswebframework.web.logging.AccessLoggerListener;
+import org.hswebframework.web.logging.BatchAccessLoggerListener;
 import org.hswebframework.web.logging.LoggerDefine;
 import org.hswebframework.web.logging.events.AccessLoggerAfterEvent;
 import org.hswebframework.web.logging.events.AccessLoggerBeforeEvent;
@@ -15,13 +18,16 @@ import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.Ordered;
 import org.springframework.util.ClassUtils;
 
+import javax.annotation.PostConstruct;
 import javax.servlet.http.HttpServletRequest;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
- * 使用AOP记录访问日志,并触发{@link AccessLoggerListener#onLogger(AccessLoggerInfo)}
+ * 使用AOP记录访问日志,并触发{@link AccessLoggerListener#onLogger(AccessLoggerInfo)},
+ * {@link BatchAccessLoggerListener}通过{@link AsyncAccessLoggerDispatcher}异步批量分发
  *
  * @author zhouhao
  * @since 3.0
@@ -34,9 +40,21 @@ public class AopAccessLoggerSupport extends StaticMethodMatcherPointcutAdvisor {
     @Autowired(required = false)
     private final List<AccessLoggerParser> loggerParsers = new ArrayList<>();
 
+    @Autowired(required = false)
+    private final List<BatchAccessLoggerListener> batchListeners = new ArrayList<>();
+
     @Autowired
     private ApplicationEventPublisher eventPublisher;
 
+    @Autowired(required = false)
+    private AsyncAccessLoggerDispatcher dispatcher;
+
+    /**
+     * 日志id生成器,默认使用snowflake,避免每次请求计算md5
+     */
+    @Getter
+    @Setter
+    private IDGenerator<String> idGenerator = IDGenerator.SNOW_FLAKE_HEX;
 
     public AopAccessLoggerSupport addListener(AccessLoggerListener loggerListener) {
         if (!listeners.contains(loggerListener)) {
@@ -45,6 +63,29 @@ public class AopAccessLoggerSupport extends StaticMethodMatcherPointcutAdvisor {
         return this;
     }
 
+    public AopAccessLoggerSupport addListener(BatchAccessLoggerListener loggerListener) {
+        if (!batchListeners.contains(loggerListener)) {
+            batchListeners.add(loggerListener);
+            if (dispatcher != null) {
+                dispatcher.addListener(loggerListener);
+            }
+        }
+        return this;
+    }
+
+    public AopAccessLoggerSupport setDispatcher(AsyncAccessLoggerDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+        batchListeners.forEach(dispatcher::addListener);
+        return this;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (dispatcher != null) {
+            batchListeners.forEach(dispatcher::addListener);
+        }
+    }
+
     public AopAccessLoggerSupport addParser(AccessLoggerParser parser) {
         if (!loggerParsers.contains(parser)) {
             loggerParsers.add(parser);
@@ -70,6 +111,15 @@ public class AopAccessLoggerSupport extends StaticMethodMatcherPointcutAdvisor {
                 //触发监听
                 eventPublisher.publishEvent(new AccessLoggerAfterEvent(info));
                 listeners.forEach(listener -> listener.onLogger(info));
+                //批量监听器异步分发,不阻塞请求
+                if (dispatcher != null) {
+                    if (dispatcher.hasListener()) {
+                        dispatcher.dispatch(info);
+                    }
+                } else if (!batchListeners.isEmpty()) {
+                    List<AccessLoggerInfo> infos = Collections.singletonList(info);
+                    batchListeners.forEach(listener -> listener.onLogger(infos));
+                }
             }
             return response;
         });
@@ -77,7 +127,7 @@ public class AopAccessLoggerSupport extends StaticMethodMatcherPointcutAdvisor {
 
     protected AccessLoggerInfo createLogger(MethodInterceptorHolder holder) {
         AccessLoggerInfo info = new AccessLoggerInfo();
-        info.setId(IDGenerator.MD5.generate());
+        info.setId(idGenerator.generate());
 
         info.setRequestTime(System.currentTimeMillis());
         LoggerDefine define = loggerParsers.stream()
@@ -6,6 +6,8 @@ import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -25,6 +27,13 @@ public class AopAccessLoggerSupportAutoConfiguration {
         return new AopAccessLoggerSupport();
     }
 
+    @Bean(destroyMethod = "shutdown")
+    @ConfigurationProperties(prefix = "hsweb.access-logger.async")
+    @ConditionalOnProperty(prefix = "hsweb.access-logger.async", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public AsyncAccessLoggerDispatcher asyncAccessLoggerDispatcher() {
+        return new AsyncAccessLoggerDispatcher();
+    }
+
     @Bean
     public DefaultAccessLoggerParser defaultAccessLoggerParser(){
         return new DefaultAccessLoggerParser();
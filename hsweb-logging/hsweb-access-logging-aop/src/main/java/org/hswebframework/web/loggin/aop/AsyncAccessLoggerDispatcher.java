@@ -0,0 +1,289 @@
+package org.hswebframework.web.loggin.aop;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.hswebframework.web.logging.AccessLoggerInfo;
+import org.hswebframework.web.logging.BatchAccessLoggerListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 异步批量分发访问日志,请求线程将日志转换为不可变的快照后写入有界的环形缓冲区,
+ * 由单独的线程批量调用{@link BatchAccessLoggerListener#onLogger(List)},请求线程不会等待日志持久化.
+ * <p>
+ * 缓冲区满时根据{@link #overflowPolicy}处理新的日志.
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+@Slf4j
+public class AsyncAccessLoggerDispatcher {
+
+    public enum OverflowPolicy {
+        /**
+         * 缓冲区满时丢弃新的日志
+         */
+        drop,
+        /**
+         * 缓冲区使用超过一半时按{@link #sampleRate}采样,满时丢弃
+         */
+        sample,
+        /**
+         * 缓冲区满时阻塞请求线程,直到有空间
+         */
+        block
+    }
+
+    private final List<BatchAccessLoggerListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * 缓冲区大小,将调整为2的幂
+     */
+    @Getter
+    @Setter
+    private int capacity = 8192;
+
+    /**
+     * 每批最多分发的日志数量
+     */
+    @Getter
+    @Setter
+    private int batchSize = 256;
+
+    /**
+     * 未达到批量大小时,最长等待多久分发一次,单位毫秒
+     */
+    @Getter
+    @Setter
+    private long flushInterval = 1000;
+
+    @Getter
+    @Setter
+    private OverflowPolicy overflowPolicy = OverflowPolicy.drop;
+
+    /**
+     * 采样模式下,每多少条日志保留一条
+     */
+    @Getter
+    @Setter
+    private int sampleRate = 10;
+
+    /**
+     * 参数和响应结果快照的最大字符长度
+     */
+    @Getter
+    @Setter
+    private int maxSnapshotLength = 2048;
+
+    private volatile AccessLoggerRingBuffer<AccessLoggerInfo> buffer;
+
+    private volatile Thread worker;
+
+    private volatile boolean running;
+
+    private volatile boolean closed;
+
+    private final AtomicLong sampleCounter = new AtomicLong();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final LongAdder sampledOut = new LongAdder();
+
+    private final LongAdder delivered = new LongAdder();
+
+    public AsyncAccessLoggerDispatcher addListener(BatchAccessLoggerListener listener) {
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+        return this;
+    }
+
+    public boolean hasListener() {
+        return !listeners.isEmpty();
+    }
+
+    public synchronized void start() {
+        if (running || closed) {
+            return;
+        }
+        if (buffer == null) {
+            buffer = new AccessLoggerRingBuffer<>(Math.max(2, capacity));
+        }
+        running = true;
+        worker = new Thread(this::dispatchLoop, "access-logger-dispatcher");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * 停止分发线程,缓冲区中剩余的日志将在停止前分发
+     */
+    public void shutdown() {
+        Thread thread;
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            closed = true;
+            thread = worker;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join(Math.max(flushInterval, 1000) * 5);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 在当前线程中生成日志快照后提交到缓冲区,方法返回后参数和响应结果再被修改也不会影响日志
+     *
+     * @return 是否被接受, 被丢弃或者采样过滤时返回false
+     */
+    public boolean dispatch(AccessLoggerInfo info) {
+        if (!running) {
+            start();
+            if (!running) {
+                dropped.increment();
+                return false;
+            }
+        }
+        AccessLoggerRingBuffer<AccessLoggerInfo> buffer = this.buffer;
+        if (overflowPolicy == OverflowPolicy.sample
+                && buffer.size() >= buffer.capacity() >> 1
+                && sampleCounter.incrementAndGet() % Math.max(1, sampleRate) != 0) {
+            sampledOut.increment();
+            return false;
+        }
+        AccessLoggerInfo snapshot;
+        try {
+            snapshot = snapshot(info);
+        } catch (Throwable e) {
+            log.error("create access logger snapshot error", e);
+            dropped.increment();
+            return false;
+        }
+        while (!buffer.offer(snapshot)) {
+            if (overflowPolicy != OverflowPolicy.block || !running) {
+                dropped.increment();
+                return false;
+            }
+            LockSupport.unpark(worker);
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+            if (Thread.currentThread().isInterrupted()) {
+                dropped.increment();
+                return false;
+            }
+        }
+        if (buffer.size() == batchSize) {
+            LockSupport.unpark(worker);
+        }
+        return true;
+    }
+
+    private void dispatchLoop() {
+        List<AccessLoggerInfo> batch = new ArrayList<>(batchSize);
+        long lastFlushTime = System.currentTimeMillis();
+        try {
+            while (true) {
+                boolean stopping = !running;
+                int size = buffer.drainTo(batch, batchSize - batch.size());
+                long now = System.currentTimeMillis();
+                if (batch.size() >= batchSize
+                        || (!batch.isEmpty() && (stopping || now - lastFlushTime >= flushInterval))) {
+                    try {
+                        deliver(batch);
+                    } catch (Throwable e) {
+                        log.error("dispatch access logger error", e);
+                    }
+                    batch = new ArrayList<>(batchSize);
+                    lastFlushTime = now;
+                    continue;
+                }
+                if (stopping && size == 0) {
+                    return;
+                }
+                if (size == 0) {
+                    LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(Math.max(1, Math.min(flushInterval, 100))));
+                }
+            }
+        } finally {
+            //分发线程意外退出时,允许下一次提交日志时重新启动
+            synchronized (this) {
+                if (worker == Thread.currentThread()) {
+                    running = false;
+                    worker = null;
+                }
+            }
+        }
+    }
+
+    private void deliver(List<AccessLoggerInfo> batch) {
+        List<AccessLoggerInfo> snapshots = Collections.unmodifiableList(batch);
+        for (BatchAccessLoggerListener listener : listeners) {
+            try {
+                listener.onLogger(snapshots);
+            } catch (Throwable e) {
+                log.error("access logger listener [{}] error", listener, e);
+            }
+        }
+        delivered.add(snapshots.size());
+    }
+
+    protected AccessLoggerInfo snapshot(AccessLoggerInfo info) {
+        AccessLoggerInfo snapshot = new AccessLoggerInfo();
+        snapshot.setId(info.getId());
+        snapshot.setAction(info.getAction());
+        snapshot.setDescribe(info.getDescribe());
+        snapshot.setMethod(info.getMethod());
+        snapshot.setTarget(info.getTarget());
+        snapshot.setIp(info.getIp());
+        snapshot.setUrl(info.getUrl());
+        snapshot.setHttpHeaders(info.getHttpHeaders());
+        snapshot.setHttpMethod(info.getHttpMethod());
+        snapshot.setRequestTime(info.getRequestTime());
+        snapshot.setResponseTime(info.getResponseTime());
+        snapshot.setException(info.getException());
+        snapshot.setParameters(AccessLoggerSnapshot.snapshot(info.getParameters(), maxSnapshotLength));
+        snapshot.setResponse(AccessLoggerSnapshot.snapshot(info.getResponse(), maxSnapshotLength));
+        return snapshot;
+    }
+
+    /**
+     * @return 缓冲区满被丢弃的日志数量
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return 采样模式下被过滤的日志数量
+     */
+    public long getSampledOutCount() {
+        return sampledOut.sum();
+    }
+
+    /**
+     * @return 已分发的日志数量
+     */
+    public long getDeliveredCount() {
+        return delivered.sum();
+    }
+
+    /**
+     * @return 缓冲区中等待分发的日志数量
+     */
+    public int getPendingCount() {
+        AccessLoggerRingBuffer<AccessLoggerInfo> buffer = this.buffer;
+        return buffer == null ? 0 : buffer.size();
+    }
+}
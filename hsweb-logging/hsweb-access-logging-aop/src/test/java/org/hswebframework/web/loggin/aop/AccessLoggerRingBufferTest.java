@@ -0,0 +1,107 @@
+package org.hswebframework.web.loggin.aop;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author zhouhao
+ * @since 3.0.8
+ */
+public class AccessLoggerRingBufferTest {
+
+    @Test
+    public void testCapacity() {
+        Assert.assertEquals(2, new AccessLoggerRingBuffer<>(2).capacity());
+        Assert.assertEquals(8, new AccessLoggerRingBuffer<>(5).capacity());
+        Assert.assertEquals(1024, new AccessLoggerRingBuffer<>(1024).capacity());
+    }
+
+    @Test
+    public void testWrapAround() {
+        AccessLoggerRingBuffer<Long> buffer = new AccessLoggerRingBuffer<>(4);
+        List<Long> target = new ArrayList<>();
+        long sequence = 0;
+        long expect = 0;
+        //多次写满并读取,下标会多次回绕
+        for (int round = 0; round < 100; round++) {
+            while (buffer.offer(sequence)) {
+                sequence++;
+            }
+            Assert.assertEquals(4, buffer.size());
+            //每次只读取一部分,使下一轮的起始位置不同
+            int drained = buffer.drainTo(target, round % 4 + 1);
+            Assert.assertEquals(round % 4 + 1, drained);
+            for (Long value : target) {
+                Assert.assertEquals(expect++, value.longValue());
+            }
+            target.clear();
+        }
+        buffer.drainTo(target, Integer.MAX_VALUE);
+        for (Long value : target) {
+            Assert.assertEquals(expect++, value.longValue());
+        }
+        Assert.assertEquals(sequence, expect);
+        Assert.assertEquals(0, buffer.size());
+    }
+
+    @Test(timeout = 30000)
+    public void testConcurrentProducers() throws InterruptedException {
+        int producers = 4;
+        int count = 50000;
+        //容量远小于总数量,保证多次回绕
+        AccessLoggerRingBuffer<Long> buffer = new AccessLoggerRingBuffer<>(64);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < producers; i++) {
+            long offset = (long) i * count;
+            executor.submit(() -> {
+                start.await();
+                for (long sequence = offset; sequence < offset + count; sequence++) {
+                    while (!buffer.offer(sequence)) {
+                        Thread.yield();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+
+        BitSet received = new BitSet(producers * count);
+        long[] lastSequence = new long[producers];
+        Arrays.fill(lastSequence, -1);
+        List<Long> batch = new ArrayList<>();
+        int total = 0;
+        while (total < producers * count) {
+            batch.clear();
+            int size = buffer.drainTo(batch, 256);
+            Assert.assertEquals(size, batch.size());
+            for (Long sequence : batch) {
+                int index = sequence.intValue();
+                Assert.assertFalse("重复读取:" + sequence, received.get(index));
+                received.set(index);
+                //同一个生产者写入的顺序不变
+                int producer = index / count;
+                Assert.assertTrue(sequence > lastSequence[producer]);
+                lastSequence[producer] = sequence;
+            }
+            total += size;
+            if (size == 0) {
+                Thread.yield();
+            }
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        Assert.assertEquals(producers * count, received.cardinality());
+        Assert.assertEquals(0, buffer.size());
+        Assert.assertEquals(0, buffer.drainTo(batch, 256));
+    }
+}
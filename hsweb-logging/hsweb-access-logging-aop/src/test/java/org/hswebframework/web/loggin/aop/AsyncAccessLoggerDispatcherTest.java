@@ -0,0 +1,175 @@
+package org.hswebframework.web.loggin.aop;
+
+import org.hswebframework.web.logging.AccessLoggerInfo;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * @author zhouhao
+ * @since 3.0.8
+ */
+public class AsyncAccessLoggerDispatcherTest {
+
+    private AsyncAccessLoggerDispatcher dispatcher;
+
+    //分发线程处理第一批日志时阻塞,直到release
+    private CountDownLatch entered;
+
+    private CountDownLatch release;
+
+    private List<AccessLoggerInfo> received;
+
+    @Before
+    public void init() {
+        entered = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+        received = new CopyOnWriteArrayList<>();
+        dispatcher = new AsyncAccessLoggerDispatcher();
+        dispatcher.setBatchSize(1);
+        dispatcher.setFlushInterval(10);
+        dispatcher.addListener(loggerInfos -> {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.addAll(loggerInfos);
+        });
+    }
+
+    @After
+    public void shutdown() {
+        release.countDown();
+        dispatcher.shutdown();
+    }
+
+    @Test(timeout = 10000)
+    public void testDrop() throws InterruptedException {
+        dispatcher.setCapacity(4);
+        blockWorker();
+
+        for (int i = 0; i < 4; i++) {
+            Assert.assertTrue(dispatcher.dispatch(createInfo("log-" + i)));
+        }
+        Assert.assertFalse(dispatcher.dispatch(createInfo("dropped")));
+        Assert.assertEquals(1, dispatcher.getDroppedCount());
+        Assert.assertEquals(4, dispatcher.getPendingCount());
+
+        release.countDown();
+        waitFor(() -> dispatcher.getDeliveredCount() == 5);
+        Assert.assertEquals(5, received.size());
+        Assert.assertEquals("blocker", received.get(0).getId());
+        for (int i = 0; i < 4; i++) {
+            Assert.assertEquals("log-" + i, received.get(i + 1).getId());
+        }
+        Assert.assertEquals(0, dispatcher.getSampledOutCount());
+    }
+
+    @Test(timeout = 10000)
+    public void testSample() throws InterruptedException {
+        dispatcher.setCapacity(8);
+        dispatcher.setOverflowPolicy(AsyncAccessLoggerDispatcher.OverflowPolicy.sample);
+        dispatcher.setSampleRate(2);
+        blockWorker();
+
+        //使用量未超过一半时全部接受
+        for (int i = 0; i < 4; i++) {
+            Assert.assertTrue(dispatcher.dispatch(createInfo("log-" + i)));
+        }
+        Assert.assertEquals(0, dispatcher.getSampledOutCount());
+
+        //超过一半后每2条保留1条,写满后丢弃
+        int accepted = 0;
+        for (int i = 0; i < 10; i++) {
+            if (dispatcher.dispatch(createInfo("sample-" + i))) {
+                accepted++;
+            }
+        }
+        Assert.assertEquals(4, accepted);
+        Assert.assertEquals(5, dispatcher.getSampledOutCount());
+        Assert.assertEquals(1, dispatcher.getDroppedCount());
+        Assert.assertEquals(8, dispatcher.getPendingCount());
+
+        release.countDown();
+        waitFor(() -> dispatcher.getDeliveredCount() == 9);
+        Assert.assertEquals(9, received.size());
+    }
+
+    @Test(timeout = 10000)
+    public void testBlock() throws Exception {
+        dispatcher.setCapacity(2);
+        dispatcher.setOverflowPolicy(AsyncAccessLoggerDispatcher.OverflowPolicy.block);
+        blockWorker();
+
+        Assert.assertTrue(dispatcher.dispatch(createInfo("log-0")));
+        Assert.assertTrue(dispatcher.dispatch(createInfo("log-1")));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> blocked = executor.submit(() -> dispatcher.dispatch(createInfo("log-2")));
+            //缓冲区满时请求线程等待,不丢弃日志
+            Thread.sleep(200);
+            Assert.assertFalse(blocked.isDone());
+            Assert.assertEquals(0, dispatcher.getDroppedCount());
+
+            release.countDown();
+            Assert.assertTrue(blocked.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        waitFor(() -> dispatcher.getDeliveredCount() == 4);
+        Assert.assertEquals("log-2", received.get(3).getId());
+        Assert.assertEquals(0, dispatcher.getDroppedCount());
+    }
+
+    @Test(timeout = 10000)
+    public void testListenerError() throws InterruptedException {
+        dispatcher = new AsyncAccessLoggerDispatcher();
+        dispatcher.setFlushInterval(10);
+        dispatcher.addListener(loggerInfos -> {
+            throw new IllegalStateException("listener error");
+        });
+        dispatcher.addListener(received::addAll);
+
+        Assert.assertTrue(dispatcher.dispatch(createInfo("log-0")));
+        waitFor(() -> received.size() == 1);
+
+        //监听器异常不影响其他监听器,分发线程继续工作
+        Assert.assertTrue(dispatcher.dispatch(createInfo("log-1")));
+        Assert.assertTrue(dispatcher.dispatch(createInfo("log-2")));
+        waitFor(() -> received.size() == 3);
+        Assert.assertEquals(3, dispatcher.getDeliveredCount());
+        Assert.assertEquals("log-2", received.get(2).getId());
+    }
+
+    //提交第一条日志,等待分发线程阻塞在监听器中,此后提交的日志都保留在缓冲区
+    private void blockWorker() throws InterruptedException {
+        Assert.assertTrue(dispatcher.dispatch(createInfo("blocker")));
+        Assert.assertTrue(entered.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(0, dispatcher.getPendingCount());
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        while (!condition.getAsBoolean()) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static AccessLoggerInfo createInfo(String id) {
+        AccessLoggerInfo info = new AccessLoggerInfo();
+        info.setId(id);
+        return info;
+    }
+}
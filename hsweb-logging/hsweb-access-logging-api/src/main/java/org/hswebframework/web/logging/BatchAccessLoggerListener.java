@@ -0,0 +1,23 @@
+package org.hswebframework.web.logging;
+
+import java.util.List;
+
+/**
+ * 批量访问日志监听器,实现此接口并注入到spring容器即可批量获取访问日志信息.
+ * <p>
+ * 与{@link AccessLoggerListener}不同,此监听器在独立的线程中异步调用,适合将日志持久化到数据库等耗时操作.
+ * 日志中的请求参数和响应结果已被转换为长度受限的快照,不会持有原始对象.
+ *
+ * @author zhouhao
+ * @see AccessLoggerListener
+ * @since 3.0.8
+ */
+public interface BatchAccessLoggerListener {
+
+    /**
+     * 批量处理日志,此方法在日志分发线程中调用,抛出的异常不会影响其他监听器
+     *
+     * @param loggerInfos 日志信息
+     */
+    void onLogger(List<AccessLoggerInfo> loggerInfos);
+}
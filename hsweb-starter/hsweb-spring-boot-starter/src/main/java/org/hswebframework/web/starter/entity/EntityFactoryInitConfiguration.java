@@ -4,14 +4,25 @@ import org.hswebframework.web.commons.entity.factory.DefaultPropertyCopier;
 import org.hswebframework.web.commons.entity.factory.MapperEntityFactory;
 import org.hswebframework.web.commons.entity.factory.PropertyCopier;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 
-public class EntityFactoryInitConfiguration implements BeanPostProcessor {
+public class EntityFactoryInitConfiguration implements BeanPostProcessor, SmartInitializingSingleton {
 
     @Autowired
     private MapperEntityFactory mapperEntityFactory;
 
+    @Autowired(required = false)
+    private EntityProperties entityProperties;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (entityProperties != null && entityProperties.isWarmUpCopier()) {
+            mapperEntityFactory.warmUpCopiers();
+        }
+    }
+
     @Override
     public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
         return bean;
@@ -43,6 +43,19 @@ import java.util.stream.Collectors;
 public class EntityProperties {
     List<Mapping> mappings;
 
+    /**
+     * 启动时是否为所有实体预先生成属性复制器
+     */
+    boolean warmUpCopier = false;
+
+    public boolean isWarmUpCopier() {
+        return warmUpCopier;
+    }
+
+    public void setWarmUpCopier(boolean warmUpCopier) {
+        this.warmUpCopier = warmUpCopier;
+    }
+
     public void setMappings(List<Mapping> mappings) {
         this.mappings = mappings;
     }
@@ -0,0 +1,17 @@
+package org.hswebframework.web.service.authorization.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 权限新增,修改或者删除后触发,用于增量更新权限关系图
+ *
+ * @author zhouhao
+ * @see org.springframework.transaction.event.TransactionalEventListener
+ * @since 3.0.8
+ */
+@AllArgsConstructor
+@Getter
+public class PermissionChangedEvent {
+    private String permissionId;
+}
@@ -0,0 +1,204 @@
+package org.hswebframework.web.service.authorization.simple;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.hswebframework.web.authorization.Permission;
+import org.hswebframework.web.entity.authorization.ActionEntity;
+import org.hswebframework.web.entity.authorization.ParentPermission;
+import org.hswebframework.web.entity.authorization.PermissionEntity;
+
+import java.util.*;
+
+import static org.apache.commons.collections.CollectionUtils.isEmpty;
+
+/**
+ * 权限关系图,包含全部权限信息,权限的action以及权限之间的关联关系.
+ * <p>
+ * 图是只读的,权限变更时通过{@link #with(PermissionEntity)},{@link #without(String)}增量生成新版本,
+ * 可以在多个线程中共享同一个版本.
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+public class PermissionGraph {
+
+    public static final PermissionGraph EMPTY = new PermissionGraph(0, Collections.emptyMap(), Collections.emptyMap(),
+            Collections.emptyMap(), Collections.emptyMap());
+
+    @Getter
+    private final long version;
+
+    private final Map<String, PermissionEntity> permissions;
+
+    private final Map<String, Set<String>> actions;
+
+    //无前置条件的关联权限,key为被关联的权限
+    private final Map<String, List<ParentPermissionDetail>> unconditionalParents;
+
+    //有前置条件的关联权限,key为设置关联的权限
+    private final Map<String, List<ParentPermissionDetail>> conditionalParents;
+
+    private PermissionGraph(long version,
+                            Map<String, PermissionEntity> permissions,
+                            Map<String, Set<String>> actions,
+                            Map<String, List<ParentPermissionDetail>> unconditionalParents,
+                            Map<String, List<ParentPermissionDetail>> conditionalParents) {
+        this.version = version;
+        this.permissions = permissions;
+        this.actions = actions;
+        this.unconditionalParents = unconditionalParents;
+        this.conditionalParents = conditionalParents;
+    }
+
+    public static PermissionGraph of(Collection<PermissionEntity> entities) {
+        PermissionGraph graph = new PermissionGraph(1, new HashMap<>(), new HashMap<>(), new HashMap<>(), new HashMap<>());
+        for (PermissionEntity entity : entities) {
+            graph.index(entity);
+        }
+        return graph;
+    }
+
+    public PermissionEntity getPermission(String permissionId) {
+        return permissions.get(permissionId);
+    }
+
+    /**
+     * @param permissionId 权限ID
+     * @return 权限定义的全部action, 不能对返回值进行修改
+     */
+    public Set<String> getActions(String permissionId) {
+        Set<String> actionSet = actions.get(permissionId);
+        return actionSet == null ? Collections.emptySet() : actionSet;
+    }
+
+    public int size() {
+        return permissions.size();
+    }
+
+    /**
+     * 根据已持有的权限计算通过关联关系获得的action,key为被关联的权限ID.
+     * 关联的前置条件只根据已持有权限本身的action进行判断
+     *
+     * @param holdPermissions 已持有的权限
+     * @return 关联获得的action
+     */
+    public Map<String, Set<String>> resolveParentActions(Map<String, Permission> holdPermissions) {
+        Map<String, Set<String>> parentActions = new HashMap<>();
+        unconditionalParents.forEach((permissionId, parents) -> {
+            Set<String> actionSet = parentActions.computeIfAbsent(permissionId, id -> new HashSet<>());
+            for (ParentPermissionDetail parent : parents) {
+                actionSet.addAll(parent.getActions());
+            }
+        });
+        for (Permission source : holdPermissions.values()) {
+            List<ParentPermissionDetail> parents = conditionalParents.get(source.getId());
+            if (parents == null) {
+                continue;
+            }
+            for (ParentPermissionDetail parent : parents) {
+                if (source.getActions().containsAll(parent.getPreActions())) {
+                    parentActions.computeIfAbsent(parent.getPermission(), id -> new HashSet<>())
+                            .addAll(parent.getActions());
+                }
+            }
+        }
+        return parentActions;
+    }
+
+    /**
+     * 添加或者替换权限,返回新版本的图
+     *
+     * @param entity 权限
+     * @return 新版本的图
+     */
+    public PermissionGraph with(PermissionEntity entity) {
+        PermissionGraph graph = copyWithout(entity.getId());
+        graph.index(entity);
+        return graph;
+    }
+
+    /**
+     * 删除权限,返回新版本的图
+     *
+     * @param permissionId 权限ID
+     * @return 新版本的图
+     */
+    public PermissionGraph without(String permissionId) {
+        return copyWithout(permissionId);
+    }
+
+    private PermissionGraph copyWithout(String permissionId) {
+        PermissionGraph graph = new PermissionGraph(version + 1,
+                new HashMap<>(permissions),
+                new HashMap<>(actions),
+                new HashMap<>(unconditionalParents),
+                new HashMap<>(conditionalParents));
+        PermissionEntity old = graph.permissions.remove(permissionId);
+        graph.actions.remove(permissionId);
+        graph.conditionalParents.remove(permissionId);
+        if (old != null && !isEmpty(old.getParents())) {
+            for (ParentPermission parent : old.getParents()) {
+                if (parent == null) {
+                    continue;
+                }
+                List<ParentPermissionDetail> details = graph.unconditionalParents.get(parent.getPermission());
+                if (details == null) {
+                    continue;
+                }
+                List<ParentPermissionDetail> newDetails = new ArrayList<>(details);
+                newDetails.removeIf(detail -> permissionId.equals(detail.getSourcePermission()));
+                if (newDetails.isEmpty()) {
+                    graph.unconditionalParents.remove(parent.getPermission());
+                } else {
+                    graph.unconditionalParents.put(parent.getPermission(), newDetails);
+                }
+            }
+        }
+        return graph;
+    }
+
+    //只能在创建新版本时调用
+    private void index(PermissionEntity entity) {
+        permissions.put(entity.getId(), entity);
+        if (!isEmpty(entity.getActions())) {
+            Set<String> actionSet = new HashSet<>();
+            for (ActionEntity action : entity.getActions()) {
+                actionSet.add(action.getAction());
+            }
+            actions.put(entity.getId(), actionSet);
+        }
+        if (isEmpty(entity.getParents())) {
+            return;
+        }
+        for (ParentPermission parent : entity.getParents()) {
+            //未设置action的关联不生效
+            if (parent == null || parent.getPermission() == null || isEmpty(parent.getActions())) {
+                continue;
+            }
+            ParentPermissionDetail detail = ParentPermissionDetail.of(entity, parent);
+            if (isEmpty(parent.getPreActions())) {
+                List<ParentPermissionDetail> details = unconditionalParents.get(parent.getPermission());
+                details = details == null ? new ArrayList<>() : new ArrayList<>(details);
+                details.add(detail);
+                unconditionalParents.put(parent.getPermission(), details);
+            } else {
+                conditionalParents.computeIfAbsent(entity.getId(), id -> new ArrayList<>()).add(detail);
+            }
+        }
+    }
+
+    @Getter
+    @Setter
+    static class ParentPermissionDetail extends ParentPermission {
+        private String sourcePermission;
+
+        public static ParentPermissionDetail of(PermissionEntity entity, ParentPermission parent) {
+            ParentPermissionDetail permissionDetail = new ParentPermissionDetail();
+            permissionDetail.setActions(parent.getActions());
+            permissionDetail.setSourcePermission(entity.getId());
+            permissionDetail.setPreActions(parent.getPreActions());
+            permissionDetail.setPermission(parent.getPermission());
+            return permissionDetail;
+        }
+    }
+}
@@ -11,14 +11,23 @@ import org.hswebframework.web.authorization.simple.PlainTextUsernamePasswordAuth
 import org.hswebframework.web.commons.entity.DataStatus;
 import org.hswebframework.web.entity.authorization.UserEntity;
 import org.hswebframework.web.service.authorization.UserService;
+import org.hswebframework.web.service.authorization.events.ClearUserAuthorizationCacheEvent;
 import org.hswebframework.web.validate.ValidationException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.transaction.event.TransactionalEventListener;
 
-import java.util.function.Supplier;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * @author zhouhao
@@ -37,6 +46,37 @@ public class SimpleAuthenticationManager implements AuthenticationManager {
     @Autowired(required = false)
     private CacheManager cacheManager;
 
+    /**
+     * 是否在{@link CacheManager}之前使用本地缓存,本地缓存在{@link ClearUserAuthorizationCacheEvent}时,
+     * 先清空{@link CacheManager}中的缓存再清空
+     */
+    @Setter
+    @Getter
+    private boolean nearCacheEnabled = false;
+
+    @Setter
+    @Getter
+    private int nearCacheMaxSize = 1024;
+
+    /**
+     * 本地缓存有效期(毫秒),避免其他节点修改权限时,本地缓存一直使用旧的权限信息
+     */
+    @Setter
+    @Getter
+    private long nearCacheTimeToLive = TimeUnit.MINUTES.toMillis(5);
+
+    private final ConcurrentMap<String, NearCacheEntry> nearCache = new ConcurrentHashMap<>();
+
+    private final AtomicLong nearCacheVersion = new AtomicLong();
+
+    private final ConcurrentMap<String, CompletableFuture<Authentication>> loadingAuthentications = new ConcurrentHashMap<>();
+
+    private final LongAdder loads = new LongAdder();
+
+    private final LongAdder coalescedWaits = new LongAdder();
+
+    private final LongAdder nearCacheHits = new LongAdder();
+
     public SimpleAuthenticationManager() {
     }
 
@@ -84,29 +124,150 @@ public class SimpleAuthenticationManager implements AuthenticationManager {
     @Override
 //    @Cacheable(value = USER_AUTH_CACHE_NAME, key = "#userId")
     public Authentication getByUserId(String userId) {
-        Supplier<Authentication> supplier = () -> {
-            Authentication authentication = null;
-            if (parent != null) {
-                authentication = parent.getByUserId(userId);
+        if (null == userId) {
+            return loadAuthentication(null);
+        }
+        if (nearCacheEnabled) {
+            NearCacheEntry entry = nearCache.get(userId);
+            if (entry != null) {
+                if (!entry.isExpired()) {
+                    nearCacheHits.increment();
+                    return entry.authentication;
+                }
+                nearCache.remove(userId, entry);
+            }
+        }
+        if (null != cacheManager) {
+            //在读取缓存之前获取版本,读取期间缓存被清空时不放入本地缓存
+            long version = nearCacheVersion.get();
+            Cache.ValueWrapper wrapper = cacheManager.getCache(USER_AUTH_CACHE_NAME).get(userId);
+            if (wrapper != null) {
+                Authentication authentication = (Authentication) wrapper.get();
+                putNearCache(userId, authentication, version);
+                return authentication;
+            }
+        }
+        return singleFlightLoad(userId);
+    }
+
+    /**
+     * 同一个用户同时只有一个线程进行加载,其他线程等待加载结果
+     */
+    protected Authentication singleFlightLoad(String userId) {
+        CompletableFuture<Authentication> future = new CompletableFuture<>();
+        CompletableFuture<Authentication> loadingFuture = loadingAuthentications.putIfAbsent(userId, future);
+        if (loadingFuture != null) {
+            coalescedWaits.increment();
+            try {
+                return loadingFuture.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
             }
-            if (authentication == null) {
-                authentication = authenticationInitializeService.initUserAuthorization(userId);
+        }
+        long version = nearCacheVersion.get();
+        try {
+            Authentication authentication = null;
+            Cache cache = null == cacheManager ? null : cacheManager.getCache(USER_AUTH_CACHE_NAME);
+            Cache.ValueWrapper wrapper = null == cache ? null : cache.get(userId);
+            if (wrapper != null) {
+                authentication = (Authentication) wrapper.get();
+            } else {
+                authentication = loadAuthentication(userId);
+                if (null != cache) {
+                    cache.put(userId, authentication);
+                }
             }
+            putNearCache(userId, authentication, version);
+            future.complete(authentication);
             return authentication;
-        };
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loadingAuthentications.remove(userId, future);
+        }
+    }
+
+    protected Authentication loadAuthentication(String userId) {
+        loads.increment();
+        Authentication authentication = null;
+        if (parent != null) {
+            authentication = parent.getByUserId(userId);
+        }
+        if (authentication == null) {
+            authentication = authenticationInitializeService.initUserAuthorization(userId);
+        }
+        return authentication;
+    }
 
+    private void putNearCache(String userId, Authentication authentication, long version) {
+        if (!nearCacheEnabled || authentication == null) {
+            return;
+        }
+        if (nearCache.size() >= nearCacheMaxSize) {
+            Iterator<String> iterator = nearCache.keySet().iterator();
+            if (iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+        NearCacheEntry entry = new NearCacheEntry(authentication, System.currentTimeMillis() + nearCacheTimeToLive);
+        nearCache.put(userId, entry);
+        //加载期间缓存被清空,丢弃加载结果,避免缓存旧的权限信息
+        if (nearCacheVersion.get() != version) {
+            nearCache.remove(userId, entry);
+        }
+    }
+
+    /**
+     * 清空本地缓存.先清空{@link CacheManager}中的缓存,再清空本地缓存,
+     * 避免并发读取时将{@link CacheManager}中旧的权限信息重新放入本地缓存
+     *
+     * @param event 清空缓存事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void clearNearCache(ClearUserAuthorizationCacheEvent event) {
+        if (!event.isAll() && event.getUserId() == null) {
+            return;
+        }
         if (null != cacheManager) {
             Cache cache = cacheManager.getCache(USER_AUTH_CACHE_NAME);
-            Cache.ValueWrapper wrapper = cache.get(userId);
-            if (wrapper == null) {
-                Authentication authentication = supplier.get();
-                cache.put(userId, authentication);
-                return authentication;
+            if (event.isAll()) {
+                cache.clear();
             } else {
-                return (Authentication) wrapper.get();
+                cache.evict(event.getUserId());
             }
         }
-        return supplier.get();
+        nearCacheVersion.incrementAndGet();
+        if (event.isAll()) {
+            nearCache.clear();
+        } else {
+            nearCache.remove(event.getUserId());
+        }
+    }
+
+    /**
+     * @return 从数据库等加载权限信息的次数
+     */
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    /**
+     * @return 等待其他线程加载权限信息的次数
+     */
+    public long getCoalescedWaits() {
+        return coalescedWaits.sum();
+    }
+
+    /**
+     * @return 本地缓存命中次数
+     */
+    public long getNearCacheHits() {
+        return nearCacheHits.sum();
     }
 
     @Override
@@ -115,6 +276,24 @@ public class SimpleAuthenticationManager implements AuthenticationManager {
         if (parent != null) {
             parent.sync(authentication);
         }
+        if (authentication != null && authentication.getUser() != null) {
+            putNearCache(authentication.getUser().getId(), authentication, nearCacheVersion.get());
+        }
         return authentication;
     }
+
+    private static class NearCacheEntry {
+        private final Authentication authentication;
+
+        private final long expireTime;
+
+        private NearCacheEntry(Authentication authentication, long expireTime) {
+            this.authentication = authentication;
+            this.expireTime = expireTime;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() > expireTime;
+        }
+    }
 }
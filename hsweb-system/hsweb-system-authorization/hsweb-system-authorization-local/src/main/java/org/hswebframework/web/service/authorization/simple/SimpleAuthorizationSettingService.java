@@ -16,8 +16,6 @@
  */
 package org.hswebframework.web.service.authorization.simple;
 
-import lombok.Getter;
-import lombok.Setter;
 import org.hswebframework.web.authorization.Authentication;
 import org.hswebframework.web.authorization.AuthenticationInitializeService;
 import org.hswebframework.web.authorization.Permission;
@@ -38,11 +36,15 @@ import org.hswebframework.web.service.GenericEntityService;
 import org.hswebframework.web.service.authorization.*;
 import org.hswebframework.web.service.authorization.AuthorizationSettingTypeSupplier.SettingInfo;
 import org.hswebframework.web.service.authorization.events.ClearUserAuthorizationCacheEvent;
+import org.hswebframework.web.service.authorization.events.PermissionChangedEvent;
 import org.hswebframework.web.validator.group.CreateGroup;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.event.TransactionalEventListener;
 import org.springframework.util.CollectionUtils;
@@ -88,6 +90,17 @@ public class SimpleAuthorizationSettingService extends GenericEntityService<Auth
 
     private DataAccessFactory dataAccessFactory;
 
+    private volatile PermissionGraph permissionGraph;
+
+    //权限关系图加载时间
+    private volatile long permissionGraphLoadTime;
+
+    /**
+     * 权限关系图有效期(毫秒),超过有效期后重新从数据库加载,集群中其他节点修改的权限在有效期后生效
+     */
+    @Value("${hsweb.authorize.permission-graph-time-to-live:300000}")
+    private long permissionGraphTimeToLive = 300000;
+
     @Override
     protected IDGenerator<String> getIDGenerator() {
         return IDGenerator.MD5;
@@ -361,47 +374,22 @@ public class SimpleAuthorizationSettingService extends GenericEntityService<Auth
         return initPermission(detailList);
     }
 
-    @Getter
-    @Setter
-    static class ParentPermissionDetail extends ParentPermission {
-        private String sourcePermission;
-
-        public static Stream<ParentPermissionDetail> of(PermissionEntity entity) {
-            if (isEmpty(entity.getParents())) {
-                return Stream.empty();
-            }
-            return entity.getParents()
-                    .stream()
-                    .filter(Objects::nonNull)
-                    .map(parent -> {
-                        ParentPermissionDetail permissionDetail = new ParentPermissionDetail();
-                        permissionDetail.setActions(parent.getActions());
-                        permissionDetail.setSourcePermission(entity.getId());
-                        permissionDetail.setPreActions(parent.getPreActions());
-                        permissionDetail.setPermission(parent.getPermission());
-                        return permissionDetail;
-                    });
-        }
-    }
-
     private List<Permission> initPermission(List<AuthorizationSettingDetailEntity> detailList) {
         //权限id集合
 //        List<String> permissionIds = detailList.stream()
 //                .map(AuthorizationSettingDetailEntity::getPermissionId)
 //                .distinct()
 //                .collect(Collectors.toList());
-        //权限信息缓存
-        Map<String, PermissionEntity> permissionEntityCache = permissionService.select()
-                .stream()
-                .collect(Collectors.toMap(PermissionEntity::getId, Function.identity()));
+        //权限关系图
+        PermissionGraph permissionGraph = getPermissionGraph();
 
         //防止越权
         detailList = detailList.stream().filter(detail -> {
-            PermissionEntity entity = permissionEntityCache.get(detail.getPermissionId());
+            PermissionEntity entity = permissionGraph.getPermission(detail.getPermissionId());
             if (entity == null || !STATUS_ENABLED.equals(entity.getStatus())) {
                 return false;
             }
-            List<String> allActions = entity.getActions().stream().map(ActionEntity::getAction).collect(Collectors.toList());
+            Set<String> allActions = permissionGraph.getActions(entity.getId());
 
             if (isNotEmpty(entity.getActions()) && isNotEmpty(detail.getActions())) {
 
@@ -433,7 +421,7 @@ public class SimpleAuthorizationSettingService extends GenericEntityService<Auth
         List<Permission> permissions = new ArrayList<>();
 
         settings.forEach((permissionId, details) -> {
-            PermissionEntity entity = permissionEntityCache.get(permissionId);
+            PermissionEntity entity = permissionGraph.getPermission(permissionId);
             if (entity == null || !DataStatus.STATUS_ENABLED.equals(entity.getStatus())) {
                 return;
             }
@@ -473,65 +461,87 @@ public class SimpleAuthorizationSettingService extends GenericEntityService<Auth
                 .collect(Collectors.toMap(Permission::getId, Function.identity()));
 
         //获取关联的权限信息
-        Map<String, List<ParentPermissionDetail>> parentsPermissions = permissionEntityCache
-                .values()
-                .stream()
-                .flatMap(ParentPermissionDetail::of)
-                .collect(Collectors.groupingBy(ParentPermission::getPermission));
-
-        //判断是否满足关联权限的条件
-        Predicate<ParentPermissionDetail> preActionPredicate = parent -> {
-            if (isEmpty(parent.getActions())) {
-                return false;
-            }
-            if (isEmpty(parent.getPreActions())) {
-                return true;
-            }
-            Permission source = permissionCache.get(parent.getSourcePermission());
-            return source != null && source.getActions().containsAll(parent.getPreActions());
-        };
+        Map<String, Set<String>> parentsPermissions = permissionGraph.resolveParentActions(permissionCache);
 
         for (Permission permission : permissions) {
-            //有其他权限关联了此权限
-            List<ParentPermissionDetail> parents = parentsPermissions.get(permission.getId());
-            if (parents != null) {
-                //添加action
-                permission.getActions()
-                        .addAll(parents.stream()
-                                .filter(preActionPredicate)
-                                .map(ParentPermission::getActions)
-                                .flatMap(Collection::stream)
-                                .collect(Collectors.toSet()));
-                //删除被合并的权限配置
-                parentsPermissions.remove(permission.getId());
+            //有其他权限关联了此权限,添加action
+            Set<String> parentActions = parentsPermissions.remove(permission.getId());
+            if (parentActions != null) {
+                permission.getActions().addAll(parentActions);
             }
         }
         //没有赋予被关联的权限时,直接关联权限
-        parentsPermissions.forEach((per, all) -> {
-            PermissionEntity entity = permissionEntityCache.get(per);
+        parentsPermissions.forEach((per, actions) -> {
+            PermissionEntity entity = permissionGraph.getPermission(per);
             if (entity == null || !DataStatus.STATUS_ENABLED.equals(entity.getStatus())) {
                 return;
             }
+            if (isEmpty(actions)) {
+                return;
+            }
             SimplePermission permission = new SimplePermission();
             permission.setId(per);
             permission.setName(entity.getName());
-            permission.setActions(all.stream()
-                    .filter(preActionPredicate)
-                    .map(ParentPermission::getActions)
-                    .flatMap(Collection::stream)
-                    .collect(Collectors.toSet()));
-            if (isEmpty(permission.getActions())) {
-                return;
-            }
+            permission.setActions(actions);
             permissions.add(permission);
         });
-        parentsPermissions.clear();
-        permissionCache.clear();
 
         return permissions;
     }
 
 
+    /**
+     * 获取权限关系图,第一次调用时从数据库加载全部权限,之后通过{@link PermissionChangedEvent}增量更新,
+     * 超过{@link #permissionGraphTimeToLive}后重新加载
+     *
+     * @return 权限关系图
+     */
+    public PermissionGraph getPermissionGraph() {
+        PermissionGraph graph = permissionGraph;
+        if (graph == null || isPermissionGraphExpired()) {
+            synchronized (this) {
+                if ((graph = permissionGraph) == null || isPermissionGraphExpired()) {
+                    permissionGraph = graph = PermissionGraph.of(permissionService.select());
+                    permissionGraphLoadTime = System.currentTimeMillis();
+                }
+            }
+        }
+        return graph;
+    }
+
+    private boolean isPermissionGraphExpired() {
+        return permissionGraphTimeToLive > 0
+                && System.currentTimeMillis() - permissionGraphLoadTime > permissionGraphTimeToLive;
+    }
+
+    /**
+     * 更新权限关系图,在清空用户权限缓存({@link ClearUserAuthorizationCacheEvent})之前执行,
+     * 避免清空缓存后使用旧的权限关系图重新初始化用户权限
+     *
+     * @param event 权限变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void updatePermissionGraph(PermissionChangedEvent event) {
+        synchronized (this) {
+            if (permissionGraph == null) {
+                return;
+            }
+            PermissionEntity entity = permissionService.selectByPk(event.getPermissionId());
+            permissionGraph = entity == null
+                    ? permissionGraph.without(event.getPermissionId())
+                    : permissionGraph.with(entity);
+            logger.debug("update permission graph:{},version:{}", event.getPermissionId(), permissionGraph.getVersion());
+        }
+    }
+
+    /**
+     * 重新从数据库加载全部权限
+     */
+    public void reloadPermissionGraph() {
+        permissionGraph = null;
+    }
+
     @Autowired
     public void setDataAccessFactory(DataAccessFactory dataAccessFactory) {
         this.dataAccessFactory = dataAccessFactory;
@@ -7,6 +7,7 @@ import org.hswebframework.web.id.IDGenerator;
 import org.hswebframework.web.service.GenericEntityService;
 import org.hswebframework.web.service.authorization.PermissionService;
 import org.hswebframework.web.service.authorization.events.ClearUserAuthorizationCacheEvent;
+import org.hswebframework.web.service.authorization.events.PermissionChangedEvent;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
@@ -40,12 +41,15 @@ public class SimplePermissionService extends GenericEntityService<PermissionEnti
     @Override
     public String insert(PermissionEntity entity) {
         entity.setStatus(DataStatus.STATUS_ENABLED);
-        return super.insert(entity);
+        String id = super.insert(entity);
+        eventPublisher.publishEvent(new PermissionChangedEvent(id));
+        return id;
     }
 
     @Override
     public int updateByPk(String id, PermissionEntity entity) {
         int len = super.updateByPk(id, entity);
+        eventPublisher.publishEvent(new PermissionChangedEvent(id));
         eventPublisher.publishEvent(new ClearUserAuthorizationCacheEvent(null, true));
         return len;
     }
@@ -53,6 +57,7 @@ public class SimplePermissionService extends GenericEntityService<PermissionEnti
     @Override
     public PermissionEntity deleteByPk(String id) {
         PermissionEntity old = super.deleteByPk(id);
+        eventPublisher.publishEvent(new PermissionChangedEvent(id));
         eventPublisher.publishEvent(new ClearUserAuthorizationCacheEvent(null, true));
         return old;
     }
@@ -53,6 +53,7 @@ public class AuthorizationAutoConfiguration {
     public static class NoEmbedAuthenticationManagerAutoConfiguration {
         @Bean
         @Primary
+        @ConfigurationProperties(prefix = "hsweb.authorize.authentication-manager")
         public AuthenticationManager authenticationManager(AuthenticationInitializeService authenticationInitializeService) {
             return new SimpleAuthenticationManager(authenticationInitializeService);
         }
@@ -69,6 +70,7 @@ public class AuthorizationAutoConfiguration {
 
         @Bean
         @Primary
+        @ConfigurationProperties(prefix = "hsweb.authorize.authentication-manager")
         public AuthenticationManager authenticationManager(EmbedAuthenticationManager embedAuthenticationManager,
                                                            AuthenticationInitializeService authenticationInitializeService) {
             return new SimpleAuthenticationManager(authenticationInitializeService, embedAuthenticationManager);
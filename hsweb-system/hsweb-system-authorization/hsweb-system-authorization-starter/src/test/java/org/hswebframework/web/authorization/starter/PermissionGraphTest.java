@@ -0,0 +1,82 @@
+package org.hswebframework.web.authorization.starter;
+
+import org.hswebframework.web.authorization.Permission;
+import org.hswebframework.web.authorization.simple.SimplePermission;
+import org.hswebframework.web.entity.authorization.ActionEntity;
+import org.hswebframework.web.entity.authorization.ParentPermission;
+import org.hswebframework.web.entity.authorization.PermissionEntity;
+import org.hswebframework.web.entity.authorization.SimplePermissionEntity;
+import org.hswebframework.web.service.authorization.simple.PermissionGraph;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+/**
+ * @author zhouhao
+ * @since 3.0.8
+ */
+public class PermissionGraphTest {
+
+    private PermissionEntity permission(String id, List<ParentPermission> parents, String... actions) {
+        SimplePermissionEntity entity = new SimplePermissionEntity();
+        entity.setId(id);
+        entity.setName(id);
+        entity.setStatus((byte) 1);
+        List<ActionEntity> actionEntities = new ArrayList<>();
+        for (String action : actions) {
+            actionEntities.add(new ActionEntity(action));
+        }
+        entity.setActions(actionEntities);
+        entity.setParents(parents);
+        return entity;
+    }
+
+    private Set<String> set(String... values) {
+        return new HashSet<>(Arrays.asList(values));
+    }
+
+    private Map<String, Permission> hold(String id, String... actions) {
+        return Collections.singletonMap(id, SimplePermission.builder().id(id).actions(set(actions)).build());
+    }
+
+    @Test
+    public void testResolveParentActions() {
+        PermissionGraph graph = PermissionGraph.of(Arrays.asList(
+                permission("user", Arrays.asList(
+                        new ParentPermission("role", set("query"), set("update")),
+                        new ParentPermission("menu", set("query"), null)), "query", "update"),
+                permission("role", null, "query"),
+                permission("menu", null, "query")));
+
+        Assert.assertEquals(set("query", "update"), graph.getActions("user"));
+
+        Map<String, Set<String>> parents = graph.resolveParentActions(hold("user", "query", "update"));
+        Assert.assertEquals(set("query"), parents.get("role"));
+        Assert.assertEquals(set("query"), parents.get("menu"));
+
+        //未满足前置条件
+        parents = graph.resolveParentActions(hold("user", "query"));
+        Assert.assertNull(parents.get("role"));
+        Assert.assertEquals(set("query"), parents.get("menu"));
+    }
+
+    @Test
+    public void testIncrementalUpdate() {
+        PermissionGraph graph = PermissionGraph.of(Arrays.asList(
+                permission("user", Collections.singletonList(new ParentPermission("menu", set("query"), null)), "query"),
+                permission("menu", null, "query")));
+        Assert.assertEquals(2, graph.size());
+
+        PermissionGraph newGraph = graph.with(permission("user", null, "query", "delete"));
+        Assert.assertEquals(graph.getVersion() + 1, newGraph.getVersion());
+        Assert.assertEquals(set("query", "delete"), newGraph.getActions("user"));
+        Assert.assertTrue(newGraph.resolveParentActions(Collections.emptyMap()).isEmpty());
+        //旧版本不受影响
+        Assert.assertEquals(set("query"), graph.resolveParentActions(Collections.emptyMap()).get("menu"));
+
+        newGraph = newGraph.without("menu");
+        Assert.assertNull(newGraph.getPermission("menu"));
+        Assert.assertEquals(1, newGraph.size());
+    }
+}
@@ -0,0 +1,111 @@
+package org.hswebframework.web.authorization.starter;
+
+import org.hswebframework.web.authorization.Authentication;
+import org.hswebframework.web.authorization.AuthenticationManager;
+import org.hswebframework.web.authorization.simple.SimpleAuthentication;
+import org.hswebframework.web.authorization.simple.SimpleUser;
+import org.hswebframework.web.service.authorization.events.ClearUserAuthorizationCacheEvent;
+import org.hswebframework.web.service.authorization.simple.SimpleAuthenticationManager;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author zhouhao
+ * @since 3.0.8
+ */
+public class SimpleAuthenticationManagerTest {
+
+    private AtomicInteger initCounter = new AtomicInteger();
+
+    private CountDownLatch initLatch = new CountDownLatch(1);
+
+    private SimpleAuthenticationManager manager = new SimpleAuthenticationManager(userId -> {
+        initCounter.incrementAndGet();
+        try {
+            initLatch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        SimpleAuthentication authentication = new SimpleAuthentication();
+        authentication.setUser(SimpleUser.builder().id(userId).username(userId).build());
+        return authentication;
+    });
+
+    @Test
+    public void testSingleFlight() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Authentication>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> manager.getByUserId("admin")));
+            }
+            while (manager.getCoalescedWaits() < threads - 1) {
+                Thread.sleep(10);
+            }
+            initLatch.countDown();
+            Authentication authentication = futures.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<Authentication> future : futures) {
+                Assert.assertSame(authentication, future.get(5, TimeUnit.SECONDS));
+            }
+            Assert.assertEquals(1, initCounter.get());
+            Assert.assertEquals(1, manager.getLoads());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testNearCache() {
+        initLatch.countDown();
+        manager.setNearCacheEnabled(true);
+        Authentication authentication = manager.getByUserId("admin");
+        Assert.assertSame(authentication, manager.getByUserId("admin"));
+        Assert.assertEquals(1, manager.getNearCacheHits());
+        Assert.assertEquals(1, initCounter.get());
+
+        manager.clearNearCache(new ClearUserAuthorizationCacheEvent("admin", false));
+        Assert.assertNotSame(authentication, manager.getByUserId("admin"));
+        Assert.assertEquals(2, initCounter.get());
+
+        manager.clearNearCache(new ClearUserAuthorizationCacheEvent(null, true));
+        manager.getByUserId("admin");
+        Assert.assertEquals(3, initCounter.get());
+    }
+
+    @Test
+    public void testNearCacheTimeToLive() throws InterruptedException {
+        initLatch.countDown();
+        manager.setNearCacheEnabled(true);
+        manager.setNearCacheTimeToLive(10);
+        Authentication authentication = manager.getByUserId("admin");
+        Thread.sleep(20);
+        Assert.assertNotSame(authentication, manager.getByUserId("admin"));
+        Assert.assertEquals(0, manager.getNearCacheHits());
+        Assert.assertEquals(2, initCounter.get());
+    }
+
+    @Test
+    public void testClearCacheBeforeNearCache() {
+        initLatch.countDown();
+        manager.setNearCacheEnabled(true);
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+        ReflectionTestUtils.setField(manager, "cacheManager", cacheManager);
+
+        Authentication authentication = manager.getByUserId("admin");
+        Assert.assertSame(authentication, cacheManager.getCache(AuthenticationManager.USER_AUTH_CACHE_NAME).get("admin").get());
+
+        //清空本地缓存时同时清空CacheManager中的缓存,不会再读取到旧的权限信息
+        manager.clearNearCache(new ClearUserAuthorizationCacheEvent("admin", false));
+        Assert.assertNull(cacheManager.getCache(AuthenticationManager.USER_AUTH_CACHE_NAME).get("admin"));
+        Assert.assertNotSame(authentication, manager.getByUserId("admin"));
+        Assert.assertEquals(2, initCounter.get());
+    }
+}
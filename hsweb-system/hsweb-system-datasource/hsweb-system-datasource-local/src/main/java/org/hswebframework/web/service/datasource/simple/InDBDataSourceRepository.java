@@ -2,6 +2,7 @@ package org.hswebframework.web.service.datasource.simple;
 
 import org.hswebframework.web.bean.FastBeanCopier;
 import org.hswebframework.web.commons.entity.factory.EntityFactory;
+import org.hswebframework.web.commons.entity.param.QueryParamEntity;
 import org.hswebframework.web.datasource.annotation.UseDefaultDataSource;
 import org.hswebframework.web.datasource.config.DynamicDataSourceConfigRepository;
 import org.hswebframework.web.entity.datasource.DataSourceConfigEntity;
@@ -58,7 +59,8 @@ public class InDBDataSourceRepository implements DynamicDataSourceConfigReposito
 
     @Override
     public InDBDynamicDataSourceConfig findById(String dataSourceId) {
-        return convert(dataSourceConfigService.selectByPk(dataSourceId));
+        //不使用selectByPk的缓存,保证刷新数据源时获取到最新的配置
+        return convert(dataSourceConfigService.selectSingle(QueryParamEntity.single("id", dataSourceId)));
     }
 
     @Override
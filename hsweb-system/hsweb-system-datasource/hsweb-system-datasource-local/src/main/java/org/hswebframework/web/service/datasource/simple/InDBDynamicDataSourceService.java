@@ -9,6 +9,8 @@ import org.hswebframework.web.datasource.DynamicDataSource;
 import org.hswebframework.web.datasource.DynamicDataSourceProxy;
 import org.hswebframework.web.datasource.annotation.UseDefaultDataSource;
 import org.hswebframework.web.datasource.config.DynamicDataSourceConfigRepository;
+import org.hswebframework.web.datasource.replica.ReplicaDataSource;
+import org.hswebframework.web.datasource.replica.ReplicaGroupDataSource;
 import org.hswebframework.web.datasource.service.AbstractDynamicDataSourceService;
 import org.hswebframework.web.datasource.service.DataSourceCache;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
@@ -20,12 +22,14 @@ import org.springframework.util.ReflectionUtils;
 import javax.sql.DataSource;
 import java.io.Closeable;
 import java.lang.reflect.Method;
+import java.util.*;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 /**
  * @author zhouhao
@@ -44,19 +48,82 @@ public class InDBDynamicDataSourceService extends AbstractDynamicDataSourceServi
     ExecutorService executorService = Executors.newFixedThreadPool(2);
 
     @Override
-    public DynamicDataSource getDataSource(String dataSourceId) {
+    protected InDBDynamicDataSourceConfig loadConfig(String dataSourceId) {
+        //配置保存在默认数据源中,只在创建或者刷新数据源时查询
         try {
             DataSourceHolder.switcher().useDefault();
-            return super.getDataSource(dataSourceId);
+            return super.loadConfig(dataSourceId);
         } finally {
             DataSourceHolder.switcher().useLast();
         }
     }
 
+    @SuppressWarnings("unchecked")
+    protected List<Map<String, Object>> getReplicas(InDBDynamicDataSourceConfig config) {
+        Object replicas = config.getProperties().get("replicas");
+        if (!(replicas instanceof Collection)) {
+            return Collections.emptyList();
+        }
+        return ((Collection<Object>) replicas)
+                .stream()
+                .filter(Map.class::isInstance)
+                .map(replica -> (Map<String, Object>) replica)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 根据配置中的replicas创建读写分离数据源,每个副本的配置会覆盖主库的配置,未配置的属性(如驱动,连接池参数)使用主库的配置.
+     * <pre>
+     * {"url":"jdbc:mysql://primary/db","username":"root","password":"root",
+     *  "replicas":[{"id":"replica-1","url":"jdbc:mysql://replica-1/db","weight":2},
+     *              {"id":"replica-2","url":"jdbc:mysql://replica-2/db"}]}
+     * </pre>
+     *
+     * @since 3.0.8
+     */
+    protected ReplicaGroupDataSource createReplicaGroup(InDBDynamicDataSourceConfig config,
+                                                        DataSource primary,
+                                                        List<Map<String, Object>> replicas) {
+        ReplicaGroupDataSource group = new ReplicaGroupDataSource(primary);
+        Map<String, Object> primaryProperties = new HashMap<>(config.getProperties());
+        primaryProperties.remove("replicas");
+        try {
+            int index = 0;
+            for (Map<String, Object> replica : replicas) {
+                Map<String, Object> properties = new HashMap<>(primaryProperties);
+                properties.putAll(replica);
+                String id = String.valueOf(properties.getOrDefault("id", config.getId() + "-replica-" + index++));
+                int weight = Integer.parseInt(String.valueOf(properties.getOrDefault("weight", "1")));
+
+                DataSourceProperties dataSourceProperties = new DataSourceProperties();
+                FastBeanCopier.copy(properties, dataSourceProperties);
+                DataSource dataSource = dataSourceProperties
+                        .initializeDataSourceBuilder()
+                        .build();
+                FastBeanCopier.copy(properties, dataSource);
+                //先加入副本,初始化失败时能一起关闭;副本不可用时会被剔除,不影响数据源初始化
+                group.addReplica(id, dataSource, weight);
+            }
+        } catch (RuntimeException e) {
+            closeDataSource(group);
+            throw e;
+        }
+        return group;
+    }
+
     protected void closeDataSource(DataSource dataSource) {
         if (null == dataSource) {
             return;
         }
+        if (dataSource instanceof ReplicaGroupDataSource) {
+            ReplicaGroupDataSource group = (ReplicaGroupDataSource) dataSource;
+            group.close();
+            closeDataSource(group.getPrimary());
+            for (ReplicaDataSource replica : group.getReplicas()) {
+                closeDataSource(replica.getDataSource());
+            }
+            return;
+        }
         try {
             if (dataSource instanceof Closeable) {
                 ((Closeable) dataSource).close();
@@ -95,6 +162,11 @@ public class InDBDynamicDataSourceService extends AbstractDynamicDataSourceServi
                 FastBeanCopier.copy(config.getProperties(), dataSource);
                 //test datasource init success
                 dataSource.getConnection().close();
+                List<Map<String, Object>> replicas = getReplicas(config);
+                if (!replicas.isEmpty()) {
+                    dataSource = createReplicaGroup(config, dataSource, replicas);
+                    dataSourceReference.set(dataSource);
+                }
                 if (closed.get()) {
                     closeDataSource(dataSource);
                 } else {
@@ -1,6 +1,7 @@
 package org.hswebframework.web.service.datasource.simple;
 
 import org.hswebframework.web.dao.datasource.DataSourceConfigDao;
+import org.hswebframework.web.datasource.events.DataSourceConfigChangedEvent;
 import org.hswebframework.web.entity.datasource.DataSourceConfigEntity;
 import org.hswebframework.web.service.EnableCacheGenericEntityService;
 import org.hswebframework.web.service.GenericEntityService;
@@ -8,6 +9,8 @@ import org.hswebframework.web.id.IDGenerator;
 import org.hswebframework.web.service.datasource.DataSourceConfigService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 
 /**
@@ -32,4 +35,52 @@ public class SimpleDataSourceConfigService extends EnableCacheGenericEntityServi
         return dataSourceConfigDao;
     }
 
+    @Override
+    @Caching(
+            evict = {
+                    @CacheEvict(key = "'id:'+#result"),
+                    @CacheEvict(key = "'all'"),
+                    @CacheEvict(key = "'count'")
+            }
+    )
+    public String insert(DataSourceConfigEntity entity) {
+        String id = super.insert(entity);
+        publishChangedEvent(id);
+        return id;
+    }
+
+    @Override
+    @Caching(
+            evict = {
+                    @CacheEvict(key = "'id:'+#id"),
+                    @CacheEvict(key = "'all'"),
+                    @CacheEvict(key = "'count'")
+            }
+    )
+    public int updateByPk(String id, DataSourceConfigEntity entity) {
+        int len = super.updateByPk(id, entity);
+        publishChangedEvent(id);
+        return len;
+    }
+
+    @Override
+    @Caching(
+            evict = {
+                    @CacheEvict(key = "'id:'+#id"),
+                    @CacheEvict(key = "'all'"),
+                    @CacheEvict(key = "'count'")
+            }
+    )
+    public DataSourceConfigEntity deleteByPk(String id) {
+        DataSourceConfigEntity old = super.deleteByPk(id);
+        publishChangedEvent(id);
+        return old;
+    }
+
+    protected void publishChangedEvent(String id) {
+        if (eventPublisher != null) {
+            eventPublisher.publishEvent(new DataSourceConfigChangedEvent(id));
+        }
+    }
+
 }
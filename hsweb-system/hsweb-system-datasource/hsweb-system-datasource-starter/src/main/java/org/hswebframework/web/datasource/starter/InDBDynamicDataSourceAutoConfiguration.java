@@ -30,6 +30,7 @@ import org.hswebframework.web.service.datasource.simple.InDBJtaDynamicDataSource
 import org.springframework.boot.autoconfigure.AutoConfigureBefore;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingClass;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
@@ -55,6 +56,7 @@ public class InDBDynamicDataSourceAutoConfiguration {
 
     @Bean
     @ConditionalOnMissingClass("org.hswebframework.web.datasource.jta.JtaDynamicDataSourceService")
+    @ConfigurationProperties(prefix = "hsweb.datasource.dynamic")
     public DynamicDataSourceService inDBDynamicDataSourceService(DynamicDataSourceConfigRepository repository,
                                                                  DataSource dataSource) {
         return new InDBDynamicDataSourceService(repository, new DynamicDataSourceProxy("dataSource", dataSource));
@@ -64,6 +66,7 @@ public class InDBDynamicDataSourceAutoConfiguration {
     @ConditionalOnClass(org.hswebframework.web.datasource.jta.JtaDynamicDataSourceService.class)
     public static class InDBJtaDynamicDataSourceServiceAutoConfiguration {
         @Bean
+        @ConfigurationProperties(prefix = "hsweb.datasource.dynamic")
         public DynamicDataSourceService inDBJtaDynamicDataSourceService(DynamicDataSourceConfigRepository repository,
                                                                         DataSource dataSource) {
             return new InDBJtaDynamicDataSourceService(repository, new DynamicDataSourceProxy("dataSource", dataSource));
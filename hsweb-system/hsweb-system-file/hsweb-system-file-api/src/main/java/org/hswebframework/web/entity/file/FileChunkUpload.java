@@ -0,0 +1,56 @@
+package org.hswebframework.web.entity.file;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 分片上传信息
+ *
+ * @author zhouhao
+ * @see org.hswebframework.web.service.file.FileChunkService
+ * @since 3.0.8
+ */
+@Getter
+@Setter
+public class FileChunkUpload implements Serializable {
+
+    private static final long serialVersionUID = -2516371253585563470L;
+
+    //上传ID
+    private String id;
+    //文件名称
+    private String name;
+    //类型
+    private String type;
+    //文件大小
+    private long size;
+    //分片大小,最后一个分片可能小于此值
+    private int chunkSize;
+    //分片数量
+    private int chunks;
+    //创建人
+    private String creatorId;
+    //创建时间
+    private long createTime;
+    //还未上传的分片序号,从0开始
+    private List<Integer> missingChunks;
+
+    /**
+     * @param index 分片序号
+     * @return 分片在文件中的开始位置
+     */
+    public long getChunkPosition(int index) {
+        return (long) index * chunkSize;
+    }
+
+    /**
+     * @param index 分片序号
+     * @return 分片的大小
+     */
+    public long getChunkLength(int index) {
+        return Math.min(chunkSize, size - getChunkPosition(index));
+    }
+}
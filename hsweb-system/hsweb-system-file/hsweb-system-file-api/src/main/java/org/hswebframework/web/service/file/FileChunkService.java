@@ -0,0 +1,86 @@
+package org.hswebframework.web.service.file;
+
+import org.hswebframework.web.entity.file.FileChunkUpload;
+import org.hswebframework.web.entity.file.FileInfoEntity;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 分片上传服务,大文件按固定大小分片后分别上传,分片可以并发上传,上传失败时只需要重新上传失败的分片.
+ * <pre>
+ *     1. {@link #init(String, String, long, int, String)} 初始化,获得上传ID
+ *     2. {@link #writeChunk(String, int, InputStream, String, String)} 上传每个分片
+ *     3. {@link #getUpload(String, String)} 查询还未上传的分片,用于断点续传
+ *     4. {@link #complete(String, String, String)} 全部分片上传完成后合并为文件
+ * </pre>
+ * 初始化之后的操作只允许上传人执行,长时间没有上传分片的上传将被自动清理.
+ *
+ * @author zhouhao
+ * @see FileService
+ * @since 3.0.8
+ */
+public interface FileChunkService {
+
+    /**
+     * 初始化分片上传
+     *
+     * @param fileName  文件名称
+     * @param type      文件类型(contentType)
+     * @param size      文件大小
+     * @param chunkSize 分片大小
+     * @param creatorId 上传人
+     * @return 分片上传信息
+     * @throws IOException                               创建文件失败
+     * @throws org.hswebframework.web.BusinessException 文件大小超过限制
+     */
+    FileChunkUpload init(String fileName, String type, long size, int chunkSize, String creatorId) throws IOException;
+
+    /**
+     * 上传分片,重复上传同一个分片时将覆盖之前的数据
+     *
+     * @param uploadId 上传ID
+     * @param index    分片序号,从0开始
+     * @param data     分片数据
+     * @param md5      分片的md5值,为null时不校验
+     * @param userId   当前用户,必须与上传人一致
+     * @throws IOException                               写入文件失败
+     * @throws org.hswebframework.web.NotFoundException  上传不存在
+     * @throws org.hswebframework.web.BusinessException 分片序号,大小错误,校验失败或者不是上传人
+     */
+    void writeChunk(String uploadId, int index, InputStream data, String md5, String userId) throws IOException;
+
+    /**
+     * 获取分片上传信息,包含还未上传的分片
+     *
+     * @param uploadId 上传ID
+     * @param userId   当前用户,必须与上传人一致
+     * @return 分片上传信息
+     * @throws org.hswebframework.web.NotFoundException  上传不存在
+     * @throws org.hswebframework.web.BusinessException 不是上传人
+     */
+    FileChunkUpload getUpload(String uploadId, String userId);
+
+    /**
+     * 完成上传,将所有分片合并为文件,并保存文件信息.
+     * 与{@link FileService#saveFile(InputStream, String, String, String)}相同,如果存在相同的文件,则返回已保存的文件
+     *
+     * @param uploadId 上传ID
+     * @param md5      整个文件的md5值,为null时不校验
+     * @param userId   当前用户,必须与上传人一致
+     * @return 文件信息
+     * @throws IOException                               读写文件失败
+     * @throws org.hswebframework.web.BusinessException 还有分片未上传,正在上传分片,文件校验失败或者不是上传人
+     */
+    FileInfoEntity complete(String uploadId, String md5, String userId) throws IOException;
+
+    /**
+     * 取消上传,删除已上传的分片
+     *
+     * @param uploadId 上传ID
+     * @param userId   当前用户,必须与上传人一致
+     * @throws IOException                               删除文件失败
+     * @throws org.hswebframework.web.BusinessException 不是上传人
+     */
+    void cancel(String uploadId, String userId) throws IOException;
+}
@@ -1,6 +1,7 @@
 package org.hswebframework.web.service.file;
 
 import org.hswebframework.web.entity.file.FileInfoEntity;
+import org.springframework.util.StreamUtils;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -22,6 +23,18 @@ public interface FileService {
      */
     InputStream readFile(String fileIdOrMd5);
 
+    /**
+     * 根据已经查询到的文件信息获取文件流.
+     * 默认通过{@link #readFile(String)}读取,实现类可以直接根据文件的存储位置读取,不再查询文件信息.
+     *
+     * @param fileInfo 文件信息
+     * @return 文件流
+     * @since 3.0.8
+     */
+    default InputStream readFile(FileInfoEntity fileInfo) {
+        return readFile(fileInfo.getId());
+    }
+
     /**
      * 保存文件,并返回文件信息,如果存在相同的文件,则不会保存,而是返回已保存的文件
      *
@@ -55,4 +68,44 @@ public interface FileService {
      */
     void writeFile(String fileId, OutputStream out, long skip) throws IOException;
 
+    /**
+     * 将已上传文件中指定范围的数据写出到指定的输出流,用于分段下载.
+     * 默认通过{@link #readFile(String)}跳过前面的数据后写出,实现类可以直接从指定位置读取.
+     *
+     * @param fileId   已上传的文件id
+     * @param out      要写出的流
+     * @param position 开始位置
+     * @param length   写出的长度
+     * @throws IOException 读写文件错误
+     * @since 3.0.8
+     */
+    default void writeFile(String fileId, OutputStream out, long position, long length) throws IOException {
+        if (length <= 0) {
+            return;
+        }
+        try (InputStream inputStream = readFile(fileId)) {
+            StreamUtils.copyRange(inputStream, out, position, position + length - 1);
+        }
+    }
+
+    /**
+     * 根据已经查询到的文件信息,将文件中指定范围的数据写出到指定的输出流.
+     * 默认通过{@link #readFile(FileInfoEntity)}跳过前面的数据后写出,实现类可以直接从文件的存储位置读取,不再查询文件信息.
+     *
+     * @param fileInfo 文件信息
+     * @param out      要写出的流
+     * @param position 开始位置
+     * @param length   写出的长度
+     * @throws IOException 读写文件错误
+     * @since 3.0.8
+     */
+    default void writeFile(FileInfoEntity fileInfo, OutputStream out, long position, long length) throws IOException {
+        if (length <= 0) {
+            return;
+        }
+        try (InputStream inputStream = readFile(fileInfo)) {
+            StreamUtils.copyRange(inputStream, out, position, position + length - 1);
+        }
+    }
+
 }
@@ -50,7 +50,11 @@ public class FdfsFileService implements FileService {
 
     @Override
     public InputStream readFile(String fileIdOrMd5) {
-        FileInfoEntity entity = fileInfoService.selectByIdOrMd5(fileIdOrMd5);
+        return readFile(fileInfoService.selectByIdOrMd5(fileIdOrMd5));
+    }
+
+    @Override
+    public InputStream readFile(FileInfoEntity entity) {
         StorePath path = StorePath.praseFromUrl(entity.getLocation());
         return fastFileStorageClient.downloadFile(path.getGroup(), path.getPath(), ins -> ins);
     }
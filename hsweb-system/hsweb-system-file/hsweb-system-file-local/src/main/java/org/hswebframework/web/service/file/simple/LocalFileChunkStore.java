@@ -0,0 +1,366 @@
+package org.hswebframework.web.service.file.simple;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.hswebframework.web.BusinessException;
+import org.hswebframework.web.NotFoundException;
+import org.hswebframework.web.entity.file.FileChunkUpload;
+import org.hswebframework.web.entity.file.FileInfoEntity;
+import org.hswebframework.web.id.IDGenerator;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * 本地分片上传存储,每个上传在文件上传目录下的.chunks/{uploadId}目录中保存:
+ * <ul>
+ * <li>info: 上传信息</li>
+ * <li>data: 按文件大小预先分配的文件,分片按位置直接写入</li>
+ * <li>chunks: 每个分片占用1个字节,分片写入并校验完成后标记为1,开始写入时清除标记</li>
+ * </ul>
+ * 上传状态都保存在文件中,服务重启后可以继续上传.
+ * <p>
+ * 每个上传使用一个读写锁,写入分片时获取读锁,多个分片可以同时写入;
+ * 合并,取消和清理时获取写锁,保证没有正在写入的分片,合并后的文件不会再被修改.
+ * <p>
+ * 初始化之后的操作只允许上传人执行,超过过期时间没有上传分片的上传通过{@link #cleanExpired(long)}清理.
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+final class LocalFileChunkStore {
+
+    private static final String CHUNK_DIR = ".chunks";
+
+    private static final Pattern UPLOAD_ID_PATTERN = Pattern.compile("[0-9a-zA-Z]+");
+
+    //单个文件最多的分片数量
+    private static final int MAX_CHUNKS = 100_000;
+
+    private final LocalFileService fileService;
+
+    private final Map<String, FileChunkUpload> uploads = new ConcurrentHashMap<>();
+
+    private final Map<String, ReadWriteLock> locks = new ConcurrentHashMap<>();
+
+    LocalFileChunkStore(LocalFileService fileService) {
+        this.fileService = fileService;
+    }
+
+    FileChunkUpload init(String fileName, String type, long size, int chunkSize, String creatorId) throws IOException {
+        if (size < 0 || chunkSize <= 0) {
+            throw new BusinessException("文件大小或分片大小错误", 400);
+        }
+        long maxSize = fileService.getMaxChunkUploadSize();
+        if (maxSize > 0 && size > maxSize) {
+            throw new BusinessException("文件大小不能超过" + maxSize, 400);
+        }
+        long chunks = size == 0 ? 1 : (size + chunkSize - 1) / chunkSize;
+        if (chunks > MAX_CHUNKS) {
+            throw new BusinessException("分片数量不能超过" + MAX_CHUNKS, 400);
+        }
+        FileChunkUpload upload = new FileChunkUpload();
+        upload.setId(IDGenerator.MD5.generate());
+        upload.setName(fileName);
+        upload.setType(type);
+        upload.setSize(size);
+        upload.setChunkSize(chunkSize);
+        upload.setChunks((int) chunks);
+        upload.setCreatorId(creatorId);
+        upload.setCreateTime(System.currentTimeMillis());
+
+        Path dir = getUploadPath(upload.getId());
+        Files.createDirectories(dir);
+        try (RandomAccessFile data = new RandomAccessFile(dir.resolve("data").toFile(), "rw");
+             RandomAccessFile marks = new RandomAccessFile(dir.resolve("chunks").toFile(), "rw")) {
+            data.setLength(size);
+            marks.setLength(chunks);
+        }
+        //最后写入上传信息,存在info时上传才可用
+        Properties info = new Properties();
+        info.setProperty("name", fileName == null ? "" : fileName);
+        info.setProperty("type", type == null ? "" : type);
+        info.setProperty("size", String.valueOf(size));
+        info.setProperty("chunkSize", String.valueOf(chunkSize));
+        info.setProperty("creatorId", creatorId == null ? "" : creatorId);
+        info.setProperty("createTime", String.valueOf(upload.getCreateTime()));
+        try (OutputStream out = Files.newOutputStream(dir.resolve("info"))) {
+            info.store(out, null);
+        }
+        uploads.put(upload.getId(), upload);
+        upload.setMissingChunks(getMissingChunks(upload));
+        return upload;
+    }
+
+    void writeChunk(String uploadId, int index, InputStream data, String md5, String userId) throws IOException {
+        FileChunkUpload upload = loadUpload(uploadId, userId);
+        if (index < 0 || index >= upload.getChunks()) {
+            throw new BusinessException("分片序号错误", 400);
+        }
+        ReadWriteLock readWriteLock = getLock(uploadId);
+        Lock lock = readWriteLock.readLock();
+        if (!lock.tryLock()) {
+            throw new BusinessException("文件正在合并", 409);
+        }
+        try {
+            Path dir = getUploadPath(uploadId);
+            //获取锁之前上传已经合并或者取消
+            if (!Files.exists(dir.resolve("info"))) {
+                locks.remove(uploadId, readWriteLock);
+                throw new NotFoundException("上传不存在");
+            }
+            long position = upload.getChunkPosition(index);
+            long length = upload.getChunkLength(index);
+            //先清除标记,重新上传已完成的分片时,写入失败或者中断后分片需要再次上传
+            mark(dir, index, (byte) 0);
+            MessageDigest digest = DigestUtils.getMd5Digest();
+            byte[] buffer = LocalFileService.BUFFER.get();
+            long written = 0;
+            //多个分片可以同时写入同一个文件的不同位置
+            try (FileChannel channel = FileChannel.open(dir.resolve("data"), StandardOpenOption.WRITE)) {
+                int len;
+                while ((len = data.read(buffer)) != -1) {
+                    if (written + len > length) {
+                        throw new BusinessException("分片大小错误", 400);
+                    }
+                    digest.update(buffer, 0, len);
+                    ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, len);
+                    while (byteBuffer.hasRemaining()) {
+                        written += channel.write(byteBuffer, position + written);
+                    }
+                }
+            }
+            if (written != length) {
+                throw new BusinessException("分片大小错误", 400);
+            }
+            if (md5 != null && !md5.equalsIgnoreCase(Hex.encodeHexString(digest.digest()))) {
+                throw new BusinessException("分片校验失败", 400);
+            }
+            //数据写入并校验完成后再标记分片
+            mark(dir, index, (byte) 1);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void mark(Path dir, int index, byte mark) throws IOException {
+        try (FileChannel marks = FileChannel.open(dir.resolve("chunks"), StandardOpenOption.WRITE)) {
+            marks.write(ByteBuffer.wrap(new byte[]{mark}), index);
+        }
+    }
+
+    FileChunkUpload getUpload(String uploadId, String userId) throws IOException {
+        FileChunkUpload upload = loadUpload(uploadId, userId);
+        FileChunkUpload copy = new FileChunkUpload();
+        copy.setId(upload.getId());
+        copy.setName(upload.getName());
+        copy.setType(upload.getType());
+        copy.setSize(upload.getSize());
+        copy.setChunkSize(upload.getChunkSize());
+        copy.setChunks(upload.getChunks());
+        copy.setCreatorId(upload.getCreatorId());
+        copy.setCreateTime(upload.getCreateTime());
+        copy.setMissingChunks(getMissingChunks(upload));
+        return copy;
+    }
+
+    FileInfoEntity complete(String uploadId, String fileMd5, String userId) throws IOException {
+        FileChunkUpload upload = loadUpload(uploadId, userId);
+        Lock lock = lockForRemove(uploadId);
+        try {
+            List<Integer> missing = getMissingChunks(upload);
+            if (!missing.isEmpty()) {
+                throw new BusinessException("还有" + missing.size() + "个分片未上传", 400);
+            }
+            Path dir = getUploadPath(uploadId);
+            Path data = dir.resolve("data");
+            String md5 = md5(data);
+            if (fileMd5 != null && !fileMd5.equalsIgnoreCase(md5)) {
+                throw new BusinessException("文件校验失败", 400);
+            }
+            FileInfoEntity fileInfo = fileService.storeFile(data, md5, upload.getSize(),
+                    upload.getName(), upload.getType(), upload.getCreatorId());
+            removeUpload(uploadId);
+            return fileInfo;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void cancel(String uploadId, String userId) throws IOException {
+        loadUpload(uploadId, userId);
+        Lock lock = lockForRemove(uploadId);
+        try {
+            removeUpload(uploadId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //获取写锁,有正在写入的分片或者正在合并时不等待
+    private Lock lockForRemove(String uploadId) {
+        Lock lock = getLock(uploadId).writeLock();
+        if (!lock.tryLock()) {
+            throw new BusinessException("文件正在上传或合并", 409);
+        }
+        if (!Files.exists(getUploadPath(uploadId).resolve("info"))) {
+            lock.unlock();
+            throw new NotFoundException("上传不存在");
+        }
+        return lock;
+    }
+
+    private ReadWriteLock getLock(String uploadId) {
+        return locks.computeIfAbsent(uploadId, id -> new ReentrantReadWriteLock());
+    }
+
+    /**
+     * 清理过期的上传,最后一次上传分片的时间超过过期时间的上传将被删除
+     *
+     * @param expireTime 过期时间,单位毫秒
+     * @return 清理的上传数量
+     * @throws IOException 读取上传目录失败
+     */
+    int cleanExpired(long expireTime) throws IOException {
+        Path chunkDir = Paths.get(fileService.getFilePath(), CHUNK_DIR);
+        //目录已经不存在的上传
+        uploads.keySet().removeIf(uploadId -> !Files.exists(getUploadPath(uploadId)));
+        if (!Files.isDirectory(chunkDir)) {
+            return 0;
+        }
+        long deadline = System.currentTimeMillis() - expireTime;
+        int count = 0;
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(chunkDir)) {
+            for (Path dir : dirs) {
+                String uploadId = dir.getFileName().toString();
+                try {
+                    if (getLastModified(dir) > deadline) {
+                        continue;
+                    }
+                } catch (NoSuchFileException e) {
+                    //已经合并或者取消
+                    continue;
+                }
+                //正在写入分片或者合并的上传不清理
+                Lock lock = getLock(uploadId).writeLock();
+                if (!lock.tryLock()) {
+                    continue;
+                }
+                try {
+                    //获取锁之前可能有新的分片写入
+                    if (Files.exists(dir) && getLastModified(dir) <= deadline) {
+                        removeUpload(uploadId);
+                        count++;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+        return count;
+    }
+
+    //写入分片时会修改chunks文件,没有chunks文件时(初始化失败)使用目录的修改时间
+    private long getLastModified(Path dir) throws IOException {
+        Path marks = dir.resolve("chunks");
+        return Files.exists(marks)
+                ? Files.getLastModifiedTime(marks).toMillis()
+                : Files.getLastModifiedTime(dir).toMillis();
+    }
+
+    //需要持有上传的写锁
+    private void removeUpload(String uploadId) {
+        uploads.remove(uploadId);
+        FileSystemUtils.deleteRecursively(getUploadPath(uploadId).toFile());
+        locks.remove(uploadId);
+    }
+
+    private String md5(Path file) throws IOException {
+        MessageDigest digest = DigestUtils.getMd5Digest();
+        byte[] buffer = LocalFileService.BUFFER.get();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+            int len;
+            while ((len = channel.read(byteBuffer)) != -1) {
+                digest.update(buffer, 0, len);
+                byteBuffer.clear();
+            }
+        }
+        return Hex.encodeHexString(digest.digest());
+    }
+
+    private List<Integer> getMissingChunks(FileChunkUpload upload) throws IOException {
+        byte[] marks = Files.readAllBytes(getUploadPath(upload.getId()).resolve("chunks"));
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < upload.getChunks(); i++) {
+            if (i >= marks.length || marks[i] == 0) {
+                missing.add(i);
+            }
+        }
+        return missing;
+    }
+
+    private FileChunkUpload loadUpload(String uploadId, String userId) throws IOException {
+        FileChunkUpload upload = loadUpload(uploadId);
+        if (!Objects.equals(upload.getCreatorId(), userId)) {
+            throw new BusinessException("只有上传人可以操作此上传", 403);
+        }
+        return upload;
+    }
+
+    private FileChunkUpload loadUpload(String uploadId) throws IOException {
+        if (uploadId == null || !UPLOAD_ID_PATTERN.matcher(uploadId).matches()) {
+            throw new NotFoundException("上传不存在");
+        }
+        FileChunkUpload cached = uploads.get(uploadId);
+        if (cached != null) {
+            return cached;
+        }
+        Path info = getUploadPath(uploadId).resolve("info");
+        if (!Files.exists(info)) {
+            throw new NotFoundException("上传不存在");
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(info)) {
+            properties.load(in);
+        }
+        FileChunkUpload upload = new FileChunkUpload();
+        upload.setId(uploadId);
+        upload.setName(properties.getProperty("name"));
+        upload.setType(emptyToNull(properties.getProperty("type")));
+        upload.setSize(Long.parseLong(properties.getProperty("size")));
+        upload.setChunkSize(Integer.parseInt(properties.getProperty("chunkSize")));
+        upload.setChunks(upload.getSize() == 0 ? 1 : (int) ((upload.getSize() + upload.getChunkSize() - 1) / upload.getChunkSize()));
+        upload.setCreatorId(emptyToNull(properties.getProperty("creatorId")));
+        upload.setCreateTime(Long.parseLong(properties.getProperty("createTime")));
+        FileChunkUpload old = uploads.putIfAbsent(uploadId, upload);
+        return old == null ? upload : old;
+    }
+
+    private String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    private Path getUploadPath(String uploadId) {
+        return Paths.get(fileService.getFilePath(), CHUNK_DIR, uploadId);
+    }
+}
@@ -1,11 +1,14 @@
 package org.hswebframework.web.service.file.simple;
 
+import lombok.SneakyThrows;
 import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.hswebframework.utils.time.DateFormatter;
 import org.hswebframework.web.NotFoundException;
 import org.hswebframework.web.commons.entity.DataStatus;
+import org.hswebframework.web.entity.file.FileChunkUpload;
 import org.hswebframework.web.entity.file.FileInfoEntity;
+import org.hswebframework.web.service.file.FileChunkService;
 import org.hswebframework.web.service.file.FileInfoService;
 import org.hswebframework.web.service.file.FileService;
 import org.slf4j.Logger;
@@ -15,9 +18,21 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StreamUtils;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
 import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.*;
 import java.security.MessageDigest;
 import java.util.Date;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * 本地文件服务,将文件上传到本地文件系统中
@@ -26,10 +41,30 @@ import java.util.Date;
  * @since 3.0
  */
 //@Service("fileService")
-public class LocalFileService implements FileService {
+public class LocalFileService implements FileService, FileChunkService {
     private FileInfoService fileInfoService;
 
     private Logger logger         = LoggerFactory.getLogger(this.getClass());
+
+    /**
+     * 上传文件时使用的临时目录,在文件上传目录下,保证可以原子地移动到存储目录
+     */
+    private static final String TEMP_DIR = ".tmp";
+
+    //复制上传文件时每个线程复用的缓冲区
+    static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[64 * 1024]);
+
+    //按md5加锁,避免同时上传相同的文件时重复保存文件信息
+    private final Lock[] locks = new Lock[64];
+
+    {
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    private final LocalFileChunkStore chunkStore = new LocalFileChunkStore(this);
+
     /**
      * 静态文件存储目录,不能以/结尾
      */
@@ -45,6 +80,29 @@ public class LocalFileService implements FileService {
      */
     private String filePath = "./upload/file";
 
+    /**
+     * 分片上传的最大文件大小,单位字节,小于等于0时不限制.初始化时会按文件大小预先分配磁盘空间
+     *
+     * @since 3.0.8
+     */
+    private long maxChunkUploadSize = 10L * 1024 * 1024 * 1024;
+
+    /**
+     * 分片上传的过期时间,单位毫秒,超过此时间没有上传分片的上传将被清理
+     *
+     * @since 3.0.8
+     */
+    private long chunkUploadExpireTime = TimeUnit.HOURS.toMillis(24);
+
+    /**
+     * 清理过期分片上传的间隔,单位毫秒,小于等于0时不清理
+     *
+     * @since 3.0.8
+     */
+    private long chunkUploadCleanInterval = TimeUnit.HOURS.toMillis(1);
+
+    private ScheduledExecutorService chunkUploadCleaner;
+
     @Value("${hsweb.web.upload.static-file-path:./static/upload}")
     public void setStaticFilePath(String staticFilePath) {
         this.staticFilePath = staticFilePath;
@@ -64,6 +122,71 @@ public class LocalFileService implements FileService {
         return filePath;
     }
 
+    @Value("${hsweb.web.upload.chunk.max-size:10737418240}")
+    public void setMaxChunkUploadSize(long maxChunkUploadSize) {
+        this.maxChunkUploadSize = maxChunkUploadSize;
+    }
+
+    public long getMaxChunkUploadSize() {
+        return maxChunkUploadSize;
+    }
+
+    @Value("${hsweb.web.upload.chunk.expire-time:86400000}")
+    public void setChunkUploadExpireTime(long chunkUploadExpireTime) {
+        this.chunkUploadExpireTime = chunkUploadExpireTime;
+    }
+
+    public long getChunkUploadExpireTime() {
+        return chunkUploadExpireTime;
+    }
+
+    @Value("${hsweb.web.upload.chunk.clean-interval:3600000}")
+    public void setChunkUploadCleanInterval(long chunkUploadCleanInterval) {
+        this.chunkUploadCleanInterval = chunkUploadCleanInterval;
+    }
+
+    @PostConstruct
+    public synchronized void startChunkUploadCleaner() {
+        if (chunkUploadCleanInterval <= 0 || chunkUploadCleaner != null) {
+            return;
+        }
+        chunkUploadCleaner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hsweb-chunk-upload-cleaner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        chunkUploadCleaner.scheduleWithFixedDelay(() -> {
+            try {
+                cleanExpiredChunkUploads();
+            } catch (Exception e) {
+                logger.warn("clean expired chunk upload error", e);
+            }
+        }, chunkUploadCleanInterval, chunkUploadCleanInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public synchronized void stopChunkUploadCleaner() {
+        if (chunkUploadCleaner != null) {
+            chunkUploadCleaner.shutdownNow();
+            chunkUploadCleaner = null;
+        }
+    }
+
+    /**
+     * 清理超过{@link #getChunkUploadExpireTime()}没有上传分片的上传,删除已上传的分片
+     *
+     * @return 清理的上传数量
+     * @throws IOException 删除文件失败
+     * @since 3.0.8
+     */
+    public int cleanExpiredChunkUploads() throws IOException {
+        int count = chunkStore.cleanExpired(chunkUploadExpireTime);
+        if (count > 0) {
+            logger.info("cleaned {} expired chunk uploads", count);
+        }
+        return count;
+    }
+
     public String getStaticFilePath() {
         return staticFilePath;
     }
@@ -77,18 +200,51 @@ public class LocalFileService implements FileService {
         this.fileInfoService = fileInfoService;
     }
 
-    @Override
-    public InputStream readFile(String fileIdOrMd5) {
+    /**
+     * 获取已上传文件在本地文件系统中的文件
+     *
+     * @param fileIdOrMd5 文件id或者md5值
+     * @return 本地文件
+     * @throws NotFoundException 文件不存在或者已禁用
+     * @since 3.0.8
+     */
+    protected File getFile(String fileIdOrMd5) {
         FileInfoEntity fileInfo = fileInfoService.selectByIdOrMd5(fileIdOrMd5);
         if (fileInfo == null || !DataStatus.STATUS_ENABLED.equals(fileInfo.getStatus())) {
             throw new NotFoundException("file not found or disabled");
         }
+        return getFile(fileInfo);
+    }
+
+    /**
+     * 获取文件在本地文件系统中的文件,不查询文件信息
+     *
+     * @param fileInfo 文件信息
+     * @return 本地文件
+     * @throws NotFoundException 文件不存在
+     * @since 3.0.8
+     */
+    protected File getFile(FileInfoEntity fileInfo) {
         //配置中的文件上传根路径
         String filePath = getFilePath() + "/" + fileInfo.getLocation();
         File file = new File(filePath);
         if (!file.exists()) {
             throw new NotFoundException("file not found");
         }
+        return file;
+    }
+
+    @Override
+    public InputStream readFile(String fileIdOrMd5) {
+        return openFile(getFile(fileIdOrMd5));
+    }
+
+    @Override
+    public InputStream readFile(FileInfoEntity fileInfo) {
+        return openFile(getFile(fileInfo));
+    }
+
+    private InputStream openFile(File file) {
         try {
             return new FileInputStream(file);
         } catch (FileNotFoundException ignore) {
@@ -125,100 +281,160 @@ public class LocalFileService implements FileService {
         }
     }
 
+    /**
+     * 保存文件,读取上传的数据时同时计算md5,只读取一次.
+     * 数据先写入临时文件,完成后以md5作为文件名原子地移动到存储目录,相同内容的文件只存储一份.
+     * 同时上传相同内容的文件时,只会保存一条文件信息.
+     */
     @Override
-    @SuppressWarnings("all")
     public FileInfoEntity saveFile(InputStream fileStream, String fileName, String type, String creatorId) throws IOException {
         //配置中的文件上传根路径
-        String fileBasePath = getFilePath();
-        //文件存储的相对路径，以日期分隔，每天创建一个新的目录
-        String filePath = DateFormatter.toString(new Date(), "yyyyMMdd");
-        //文件存储绝对路径
-        String absPath = fileBasePath.concat("/").concat(filePath);
-        File path = new File(absPath);
-        if (!path.exists()) {
-            path.mkdirs(); //创建目录
-        }
-        String newName = String.valueOf(System.nanoTime()); //临时文件名 ,纳秒的md5值
-        String fileAbsName = absPath.concat("/").concat(newName);
-        int fileSize;
-        MessageDigest digest = DigestUtils.getMd5Digest();
-        try (InputStream proxyStream = new InputStream() {
-            @Override
-            public int read(byte[] b, int off, int len) throws IOException {
-                int l = fileStream.read(b, off, len);
-                digest.update(b, off, len);
-                return l;
+        Path basePath = Paths.get(getFilePath());
+        Path tempPath = basePath.resolve(TEMP_DIR);
+        Files.createDirectories(tempPath);
+        Path tempFile = Files.createTempFile(tempPath, "upload", ".tmp");
+        try {
+            MessageDigest digest = DigestUtils.getMd5Digest();
+            long fileSize;
+            try (InputStream in = fileStream;
+                 OutputStream out = Files.newOutputStream(tempFile)) {
+                fileSize = copy(in, out, digest);
             }
+            String md5 = Hex.encodeHexString(digest.digest());
+            logger.debug("上传文件{}完成,大小:{} bytes,md5:{}", fileName, fileSize, md5);
+            return storeFile(tempFile, md5, fileSize, fileName, type, creatorId);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
 
-            @Override
-            public void close() throws IOException {
-                fileStream.close();
-                super.close();
+    /**
+     * 将已经写入完成的临时文件移动到存储目录并保存文件信息,如果已存在相同的文件,则返回已保存的文件,临时文件需要由调用者删除
+     */
+    FileInfoEntity storeFile(Path tempFile, String md5, long fileSize, String fileName, String type, String creatorId) throws IOException {
+        Path basePath = Paths.get(getFilePath());
+        Lock lock = locks[(md5.hashCode() & Integer.MAX_VALUE) % locks.length];
+        lock.lock();
+        try {
+            //判断文件是否已经存在
+            FileInfoEntity fileInfo = fileInfoService.selectByMd5(md5);
+            if (fileInfo != null) {
+                Path location = basePath.resolve(fileInfo.getLocation());
+                //文件丢失时,使用本次上传的文件恢复
+                if (!Files.exists(location)) {
+                    moveFile(tempFile, location);
+                }
+                return fileInfo;
             }
+            //按内容存储: md5前2位/md5
+            String location = md5.substring(0, 2).concat("/").concat(md5);
+            moveFile(tempFile, basePath.resolve(location));
 
-            @Override
-            public int available() throws IOException {
-                return fileStream.available();
-            }
+            FileInfoEntity infoEntity = fileInfoService.createEntity();
+            infoEntity.setCreateTimeNow();
+            infoEntity.setCreatorId(creatorId);
+            infoEntity.setLocation(location);
+            infoEntity.setName(fileName);
+            infoEntity.setType(type);
+            infoEntity.setSize(fileSize);
+            infoEntity.setMd5(md5);
+            infoEntity.setStatus(DataStatus.STATUS_ENABLED);
+            fileInfoService.insert(infoEntity);
+            return infoEntity;
+        } finally {
+            lock.unlock();
+        }
+    }
 
-            @Override
-            public int read() throws IOException {
-                return fileStream.read();
-            }
-        }; FileOutputStream os = new FileOutputStream(fileAbsName)) {
-            int remainBytes = fileSize = proxyStream.available();
-            byte[] buff = new byte[remainBytes > 1024 * 10 ? 1024 * 10 : remainBytes];
-            int bytes;
-            logger.info("开始写出文件:{}到:{}, size: {} bytes", fileName, fileAbsName, fileSize);
-            while (remainBytes > 0) {
-                bytes = proxyStream.read(buff, 0, remainBytes > buff.length ? buff.length : remainBytes);
-                os.write(buff, 0, bytes);
-                remainBytes -= bytes;
-                logger.info("写出文件:{}:{},剩余数据量: {} bytes", fileName, fileAbsName, remainBytes);
-            }
-            // StreamUtils.copy(in, os);
+    private long copy(InputStream in, OutputStream out, MessageDigest digest) throws IOException {
+        byte[] buffer = BUFFER.get();
+        long size = 0;
+        int len;
+        while ((len = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, len);
+            out.write(buffer, 0, len);
+            size += len;
         }
+        return size;
+    }
 
-        String md5 = Hex.encodeHexString(digest.digest());
-
-        File newFile = new File(fileAbsName);
-        //获取文件的md5值
-        //判断文件是否已经存在
-        FileInfoEntity fileInfo = fileInfoService.selectByMd5(md5);
-        if (fileInfo != null) {
-            logger.info("文件:{}已上传过", fileAbsName);
-            if (new File(getFilePath() + "/" + fileInfo.getLocation()).exists()) {
-                newFile.delete();//文件已存在则删除临时文件不做处理
-            } else {
-                newFile.renameTo(new File(absPath.concat("/").concat(md5)));
-            }
-            return fileInfo;
-        } else {
-            logger.info("上传文件{}完成:{}->{}", fileName, fileAbsName, absPath.concat("/").concat(md5));
-            newFile.renameTo(new File(absPath.concat("/").concat(md5)));
+    private void moveFile(Path source, Path target) throws IOException {
+        //相同路径的文件内容一定相同
+        if (Files.exists(target)) {
+            return;
+        }
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
         }
-        FileInfoEntity infoEntity = fileInfoService.createEntity();
-        infoEntity.setCreateTimeNow();
-        infoEntity.setCreatorId(creatorId);
-        infoEntity.setLocation(filePath.concat("/").concat(md5));
-        infoEntity.setName(fileName);
-        infoEntity.setType(type);
-        infoEntity.setSize((long) fileSize);
-        infoEntity.setMd5(md5);
-        infoEntity.setStatus(DataStatus.STATUS_ENABLED);
-        fileInfoService.insert(infoEntity);
-        return infoEntity;
     }
 
     @Override
     public void writeFile(String fileId, OutputStream out, long skip) throws IOException {
-        try (InputStream inputStream = readFile(fileId)) {
-            if (skip > 0) {
-                long len = inputStream.skip(skip);
-                logger.info("skip write stream {},{}", skip, len);
+        File file = getFile(fileId);
+        long position = Math.max(skip, 0);
+        writeFile(file, out, position, file.length() - position);
+    }
+
+    @Override
+    public void writeFile(String fileId, OutputStream out, long position, long length) throws IOException {
+        writeFile(getFile(fileId), out, position, length);
+    }
+
+    @Override
+    public void writeFile(FileInfoEntity fileInfo, OutputStream out, long position, long length) throws IOException {
+        writeFile(getFile(fileInfo), out, position, length);
+    }
+
+    /**
+     * 使用{@link FileChannel#transferTo(long, long, WritableByteChannel)}从指定位置直接写出,
+     * 不需要先读取跳过的数据.输出流为文件时由操作系统直接复制,否则使用通道内部的缓冲区复制,不会为每次下载分配缓冲区.
+     *
+     * @since 3.0.8
+     */
+    protected void writeFile(File file, OutputStream out, long position, long length) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long end = Math.min(position + length, channel.size());
+            WritableByteChannel target = out instanceof FileOutputStream
+                    ? ((FileOutputStream) out).getChannel()
+                    : Channels.newChannel(out);
+            while (position < end) {
+                long transferred = channel.transferTo(position, end - position, target);
+                if (transferred <= 0) {
+                    //文件在写出过程中被截断
+                    break;
+                }
+                position += transferred;
             }
-            StreamUtils.copy(inputStream, out);
         }
     }
 
+    @Override
+    public FileChunkUpload init(String fileName, String type, long size, int chunkSize, String creatorId) throws IOException {
+        return chunkStore.init(fileName, type, size, chunkSize, creatorId);
+    }
+
+    @Override
+    public void writeChunk(String uploadId, int index, InputStream data, String md5, String userId) throws IOException {
+        chunkStore.writeChunk(uploadId, index, data, md5, userId);
+    }
+
+    @Override
+    @SneakyThrows
+    public FileChunkUpload getUpload(String uploadId, String userId) {
+        return chunkStore.getUpload(uploadId, userId);
+    }
+
+    @Override
+    public FileInfoEntity complete(String uploadId, String md5, String userId) throws IOException {
+        return chunkStore.complete(uploadId, md5, userId);
+    }
+
+    @Override
+    public void cancel(String uploadId, String userId) throws IOException {
+        chunkStore.cancel(uploadId, userId);
+    }
+
 }
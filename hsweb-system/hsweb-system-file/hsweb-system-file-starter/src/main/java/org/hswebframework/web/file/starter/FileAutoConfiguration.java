@@ -2,12 +2,19 @@ package org.hswebframework.web.file.starter;
 
 import org.hswebframework.web.service.file.FileService;
 import org.hswebframework.web.service.file.simple.LocalFileService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * @author zhouhao
  * @since 3.0
@@ -23,4 +30,24 @@ public class FileAutoConfiguration {
     public LocalFileService localFileService() {
         return new LocalFileService();
     }
+
+    /**
+     * 构建zip文件时预读下一个文件的线程池.线程都在使用时由请求线程自己读取,不排队等待
+     *
+     * @param threads 最大线程数
+     * @return 线程池
+     * @since 3.0.8
+     */
+    @ConditionalOnMissingBean(name = "zipReadAheadExecutor")
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService zipReadAheadExecutor(@Value("${hsweb.web.download.zip-read-ahead-threads:8}") int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "hsweb-zip-read-ahead-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
 }
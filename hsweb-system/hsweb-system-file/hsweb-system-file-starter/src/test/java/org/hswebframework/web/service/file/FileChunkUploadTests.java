@@ -0,0 +1,268 @@
+package org.hswebframework.web.service.file;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.hswebframework.web.BusinessException;
+import org.hswebframework.web.NotFoundException;
+import org.hswebframework.web.entity.file.FileChunkUpload;
+import org.hswebframework.web.entity.file.FileInfoEntity;
+import org.hswebframework.web.service.file.simple.LocalFileService;
+import org.hswebframework.web.tests.SimpleWebApplicationTests;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分片上传测试
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+public class FileChunkUploadTests extends SimpleWebApplicationTests {
+
+    @Autowired
+    private FileChunkService fileChunkService;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private LocalFileService localFileService;
+
+    @Test
+    public void testConcurrentChunkUpload() throws Exception {
+        int chunkSize = 64 * 1024;
+        byte[] data = randomData(chunkSize * 20 + 123);
+        FileChunkUpload upload = fileChunkService.init("chunk.bin", "application/octet-stream", data.length, chunkSize, null);
+        Assert.assertEquals(21, upload.getChunks());
+        Assert.assertEquals(21, upload.getMissingChunks().size());
+
+        //乱序并发上传,跳过最后2个分片
+        List<Integer> indexes = new ArrayList<>(upload.getMissingChunks());
+        Collections.shuffle(indexes);
+        List<Integer> skipped = indexes.subList(0, 2);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Integer index : indexes.subList(2, indexes.size())) {
+                futures.add(executor.submit(() -> {
+                    writeChunk(upload, index, data);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        List<Integer> missing = fileChunkService.getUpload(upload.getId(), null).getMissingChunks();
+        Assert.assertEquals(new TreeSet<>(skipped), new TreeSet<>(missing));
+        try {
+            fileChunkService.complete(upload.getId(), null, null);
+            Assert.fail();
+        } catch (BusinessException e) {
+            Assert.assertEquals(400, e.getStatus());
+        }
+
+        //断点续传
+        for (Integer index : missing) {
+            writeChunk(upload, index, data);
+        }
+        FileInfoEntity fileInfo = fileChunkService.complete(upload.getId(), null, null);
+        Assert.assertEquals(DigestUtils.md5Hex(data), fileInfo.getMd5());
+        Assert.assertEquals(data.length, fileInfo.getSize().longValue());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream inputStream = fileService.readFile(fileInfo.getId())) {
+            StreamUtils.copy(inputStream, out);
+        }
+        Assert.assertArrayEquals(data, out.toByteArray());
+    }
+
+    @Test
+    public void testChunkChecksum() throws Exception {
+        byte[] data = randomData(1000);
+        FileChunkUpload upload = fileChunkService.init("checksum.bin", null, data.length, 600, null);
+        try {
+            fileChunkService.writeChunk(upload.getId(), 0, new ByteArrayInputStream(data, 0, 600), "error", null);
+            Assert.fail();
+        } catch (BusinessException e) {
+            Assert.assertEquals(400, e.getStatus());
+        }
+        //大小错误
+        try {
+            fileChunkService.writeChunk(upload.getId(), 1, new ByteArrayInputStream(data), null, null);
+            Assert.fail();
+        } catch (BusinessException e) {
+            Assert.assertEquals(400, e.getStatus());
+        }
+        Assert.assertEquals(Arrays.asList(0, 1), fileChunkService.getUpload(upload.getId(), null).getMissingChunks());
+        fileChunkService.cancel(upload.getId(), null);
+    }
+
+    @Test
+    public void testResendCompletedChunk() throws Exception {
+        byte[] data = randomData(1000);
+        FileChunkUpload upload = fileChunkService.init("resend.bin", null, data.length, 500, null);
+        writeChunk(upload, 0, data);
+        writeChunk(upload, 1, data);
+        Assert.assertTrue(fileChunkService.getUpload(upload.getId(), null).getMissingChunks().isEmpty());
+
+        //重新上传已完成的分片,校验失败
+        byte[] bad = randomData(500);
+        try {
+            fileChunkService.writeChunk(upload.getId(), 0, new ByteArrayInputStream(bad), DigestUtils.md5Hex(data), null);
+            Assert.fail();
+        } catch (BusinessException e) {
+            Assert.assertEquals(400, e.getStatus());
+        }
+        Assert.assertEquals(Collections.singletonList(0), fileChunkService.getUpload(upload.getId(), null).getMissingChunks());
+        try {
+            fileChunkService.complete(upload.getId(), null, null);
+            Assert.fail();
+        } catch (BusinessException e) {
+            Assert.assertEquals(400, e.getStatus());
+        }
+
+        writeChunk(upload, 0, data);
+        //整个文件的md5校验失败
+        try {
+            fileChunkService.complete(upload.getId(), DigestUtils.md5Hex(bad), null);
+            Assert.fail();
+        } catch (BusinessException e) {
+            Assert.assertEquals(400, e.getStatus());
+        }
+        FileInfoEntity fileInfo = fileChunkService.complete(upload.getId(), DigestUtils.md5Hex(data), null);
+        Assert.assertEquals(DigestUtils.md5Hex(data), fileInfo.getMd5());
+    }
+
+    @Test
+    public void testCreatorCheck() throws Exception {
+        byte[] data = randomData(100);
+        FileChunkUpload upload = fileChunkService.init("creator.bin", null, data.length, 100, "admin");
+        try {
+            fileChunkService.writeChunk(upload.getId(), 0, new ByteArrayInputStream(data), null, "other");
+            Assert.fail();
+        } catch (BusinessException e) {
+            Assert.assertEquals(403, e.getStatus());
+        }
+        try {
+            fileChunkService.getUpload(upload.getId(), null);
+            Assert.fail();
+        } catch (BusinessException e) {
+            Assert.assertEquals(403, e.getStatus());
+        }
+        try {
+            fileChunkService.cancel(upload.getId(), "other");
+            Assert.fail();
+        } catch (BusinessException e) {
+            Assert.assertEquals(403, e.getStatus());
+        }
+        fileChunkService.writeChunk(upload.getId(), 0, new ByteArrayInputStream(data), null, "admin");
+        try {
+            fileChunkService.complete(upload.getId(), null, "other");
+            Assert.fail();
+        } catch (BusinessException e) {
+            Assert.assertEquals(403, e.getStatus());
+        }
+        Assert.assertEquals(data.length, fileChunkService.complete(upload.getId(), null, "admin").getSize().longValue());
+    }
+
+    @Test
+    public void testMaxSize() throws Exception {
+        long maxSize = localFileService.getMaxChunkUploadSize();
+        localFileService.setMaxChunkUploadSize(1024);
+        try {
+            fileChunkService.init("large.bin", null, 1025, 100, null);
+            Assert.fail();
+        } catch (BusinessException e) {
+            Assert.assertEquals(400, e.getStatus());
+        } finally {
+            localFileService.setMaxChunkUploadSize(maxSize);
+        }
+    }
+
+    @Test
+    public void testCleanExpired() throws Exception {
+        FileChunkUpload upload = fileChunkService.init("expired.bin", null, 100, 100, null);
+        //未过期
+        localFileService.cleanExpiredChunkUploads();
+        Assert.assertNotNull(fileChunkService.getUpload(upload.getId(), null));
+
+        long expireTime = localFileService.getChunkUploadExpireTime();
+        localFileService.setChunkUploadExpireTime(-1000);
+        try {
+            Assert.assertTrue(localFileService.cleanExpiredChunkUploads() > 0);
+        } finally {
+            localFileService.setChunkUploadExpireTime(expireTime);
+        }
+        try {
+            fileChunkService.getUpload(upload.getId(), null);
+            Assert.fail();
+        } catch (NotFoundException e) {
+            //已清理
+        }
+    }
+
+    @Test
+    public void testChunkUploadApi() throws Exception {
+        byte[] data = randomData(1500);
+        String result = mvc.perform(MockMvcRequestBuilders.post("/file/chunk")
+                .param("name", "api.bin")
+                .param("size", String.valueOf(data.length))
+                .param("chunkSize", "1000"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        String uploadId = JSON.parseObject(result).getJSONObject("result").getString("id");
+
+        for (int i = 0; i < 2; i++) {
+            byte[] chunk = Arrays.copyOfRange(data, i * 1000, Math.min(data.length, (i + 1) * 1000));
+            mvc.perform(MockMvcRequestBuilders.put("/file/chunk/" + uploadId + "/" + i)
+                    .param("md5", DigestUtils.md5Hex(chunk))
+                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                    .content(chunk));
+        }
+        result = mvc.perform(MockMvcRequestBuilders.get("/file/chunk/" + uploadId))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        Assert.assertTrue(JSON.parseObject(result).getJSONObject("result").getJSONArray("missingChunks").isEmpty());
+
+        result = mvc.perform(MockMvcRequestBuilders.post("/file/chunk/" + uploadId + "/complete"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        JSONObject fileInfo = JSON.parseObject(result).getJSONObject("result");
+        Assert.assertEquals(DigestUtils.md5Hex(data), fileInfo.getString("md5"));
+        Assert.assertEquals("api.bin", fileInfo.getString("name"));
+    }
+
+    private void writeChunk(FileChunkUpload upload, int index, byte[] data) throws Exception {
+        int position = (int) upload.getChunkPosition(index);
+        int length = (int) upload.getChunkLength(index);
+        byte[] chunk = Arrays.copyOfRange(data, position, position + length);
+        fileChunkService.writeChunk(upload.getId(), index, new ByteArrayInputStream(chunk), DigestUtils.md5Hex(chunk), null);
+    }
+
+    private byte[] randomData(int size) {
+        byte[] data = new byte[size];
+        new Random().nextBytes(data);
+        return data;
+    }
+}
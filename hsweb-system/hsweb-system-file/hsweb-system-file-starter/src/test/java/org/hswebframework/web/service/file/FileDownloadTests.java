@@ -0,0 +1,138 @@
+package org.hswebframework.web.service.file;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+import org.hswebframework.web.tests.SimpleWebApplicationTests;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 分段下载和条件请求测试
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+public class FileDownloadTests extends SimpleWebApplicationTests {
+
+    private static final String CONTENT = "0123456789abcdefghij";
+
+    private String fileId;
+
+    private String md5;
+
+    @Before
+    public void upload() throws Exception {
+        String result = mvc.perform(MockMvcRequestBuilders
+                .fileUpload("/file/upload")
+                .file(new MockMultipartFile("file", "range.txt", MediaType.TEXT_PLAIN_VALUE, CONTENT.getBytes())))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        JSONObject fileInfo = JSON.parseObject(result).getJSONObject("result");
+        fileId = fileInfo.getString("id");
+        md5 = fileInfo.getString("md5");
+    }
+
+    @Test
+    public void testDownload() throws Exception {
+        MockHttpServletResponse response = download(null, null);
+        Assert.assertEquals(200, response.getStatus());
+        Assert.assertEquals(CONTENT, response.getContentAsString());
+        Assert.assertEquals("\"" + md5 + "\"", response.getHeader(HttpHeaders.ETAG));
+        Assert.assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+    }
+
+    @Test
+    public void testSingleRange() throws Exception {
+        MockHttpServletResponse response = download("bytes=2-5", null);
+        Assert.assertEquals(206, response.getStatus());
+        Assert.assertEquals("2345", response.getContentAsString());
+        Assert.assertEquals("bytes 2-5/20", response.getHeader(HttpHeaders.CONTENT_RANGE));
+
+        response = download("bytes=15-", null);
+        Assert.assertEquals("fghij", response.getContentAsString());
+        Assert.assertEquals("bytes 15-19/20", response.getHeader(HttpHeaders.CONTENT_RANGE));
+
+        response = download("bytes=-3", null);
+        Assert.assertEquals("hij", response.getContentAsString());
+
+        //结束位置超过文件大小
+        response = download("bytes=18-100", null);
+        Assert.assertEquals("ij", response.getContentAsString());
+    }
+
+    @Test
+    public void testMultiRange() throws Exception {
+        MockHttpServletResponse response = download("bytes=0-1,10-12", null);
+        Assert.assertEquals(206, response.getStatus());
+        Assert.assertTrue(response.getContentType().startsWith("multipart/byteranges; boundary="));
+        String boundary = response.getContentType().substring("multipart/byteranges; boundary=".length());
+        byte[] body = response.getContentAsByteArray();
+        Assert.assertEquals(body.length, response.getContentLength());
+
+        String content = new String(body, StandardCharsets.ISO_8859_1);
+        Assert.assertTrue(content.contains("Content-Range: bytes 0-1/20\r\n\r\n01\r\n--" + boundary));
+        Assert.assertTrue(content.contains("Content-Range: bytes 10-12/20\r\n\r\nabc\r\n--" + boundary + "--"));
+    }
+
+    @Test
+    public void testUnsatisfiableRange() throws Exception {
+        MockHttpServletResponse response = download("bytes=20-30", null);
+        Assert.assertEquals(416, response.getStatus());
+        Assert.assertEquals("bytes */20", response.getHeader(HttpHeaders.CONTENT_RANGE));
+
+        //格式错误的Range将被忽略
+        response = download("bytes=a-b", null);
+        Assert.assertEquals(200, response.getStatus());
+        Assert.assertEquals(CONTENT, response.getContentAsString());
+    }
+
+    @Test
+    public void testConditional() throws Exception {
+        MockHttpServletResponse response = download(null, "\"" + md5 + "\"");
+        Assert.assertEquals(304, response.getStatus());
+        Assert.assertEquals(0, response.getContentAsByteArray().length);
+
+        response = download(null, "\"other\"");
+        Assert.assertEquals(200, response.getStatus());
+
+        //If-Range不匹配时返回完整文件
+        response = mvc.perform(MockMvcRequestBuilders.get("/file/download/" + fileId)
+                .header(HttpHeaders.RANGE, "bytes=0-1")
+                .header(HttpHeaders.IF_RANGE, "\"other\""))
+                .andReturn()
+                .getResponse();
+        Assert.assertEquals(200, response.getStatus());
+        Assert.assertEquals(CONTENT, response.getContentAsString());
+
+        response = mvc.perform(MockMvcRequestBuilders.get("/file/download/" + fileId)
+                .header(HttpHeaders.RANGE, "bytes=0-1")
+                .header(HttpHeaders.IF_RANGE, "\"" + md5 + "\""))
+                .andReturn()
+                .getResponse();
+        Assert.assertEquals(206, response.getStatus());
+        Assert.assertEquals("01", response.getContentAsString());
+    }
+
+    private MockHttpServletResponse download(String range, String ifNoneMatch) throws Exception {
+        MockHttpServletRequestBuilder builder = MockMvcRequestBuilders.get("/file/download/" + fileId);
+        if (range != null) {
+            builder.header(HttpHeaders.RANGE, range);
+        }
+        if (ifNoneMatch != null) {
+            builder.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return mvc.perform(builder)
+                .andReturn()
+                .getResponse();
+    }
+}
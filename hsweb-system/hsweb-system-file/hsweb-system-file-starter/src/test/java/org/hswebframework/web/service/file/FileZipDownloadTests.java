@@ -0,0 +1,120 @@
+package org.hswebframework.web.service.file;
+
+import com.alibaba.fastjson.JSON;
+import org.apache.commons.codec.binary.Base64;
+import org.hswebframework.web.controller.file.ZipStreamWriter;
+import org.hswebframework.web.tests.SimpleWebApplicationTests;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * 流式构建zip文件测试
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+public class FileZipDownloadTests extends SimpleWebApplicationTests {
+
+    @Test
+    public void testDownloadZip() throws Exception {
+        byte[] image = new byte[100_000];
+        new Random().nextBytes(image);
+        String result = mvc.perform(MockMvcRequestBuilders
+                .fileUpload("/file/upload")
+                .file(new MockMultipartFile("file", "image.png", MediaType.IMAGE_PNG_VALUE, image)))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        String fileId = JSON.parseObject(result).getJSONObject("result").getString("id");
+
+        List<Map<String, String>> data = new ArrayList<>();
+        data.add(entry("text.txt", "text", "hello"));
+        data.add(entry("image.png", "file", fileId));
+        data.add(entry("base64.txt", "base64", Base64.encodeBase64String("base64".getBytes())));
+
+        MockHttpServletResponse response = mvc.perform(MockMvcRequestBuilders.post("/file/download-zip/test.zip")
+                .param("data", JSON.toJSONString(data)))
+                .andReturn()
+                .getResponse();
+        Assert.assertEquals(200, response.getStatus());
+
+        Map<String, byte[]> entries = unzip(response.getContentAsByteArray());
+        Assert.assertEquals(Arrays.asList("text.txt", "image.png", "base64.txt"), new ArrayList<>(entries.keySet()));
+        Assert.assertEquals("hello", new String(entries.get("text.txt"), StandardCharsets.UTF_8));
+        Assert.assertArrayEquals(image, entries.get("image.png"));
+        Assert.assertEquals("base64", new String(entries.get("base64.txt"), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testDownloadZipFileNotFound() throws Exception {
+        List<Map<String, String>> data = Collections.singletonList(entry("notfound.txt", "file", "notfound"));
+        MockHttpServletResponse response = mvc.perform(MockMvcRequestBuilders.post("/file/download-zip/test.zip")
+                .param("data", JSON.toJSONString(data)))
+                .andReturn()
+                .getResponse();
+        Assert.assertEquals(404, JSON.parseObject(response.getContentAsString()).getIntValue("status"));
+    }
+
+    @Autowired
+    @Qualifier("zipReadAheadExecutor")
+    private Executor zipReadAheadExecutor;
+
+    @Test
+    public void testReadAhead() throws Exception {
+        //预读缓冲区在文件之间复用
+        ZipStreamWriter writer = new ZipStreamWriter(zipReadAheadExecutor);
+        List<byte[]> files = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            //大于预读的数据量
+            byte[] file = new byte[300 * 1024 + i];
+            Arrays.fill(file, (byte) i);
+            files.add(file);
+            writer.addFile("file" + i + ".bin", () -> new ByteArrayInputStream(file));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(out);
+
+        Map<String, byte[]> entries = unzip(out.toByteArray());
+        Assert.assertEquals(files.size(), entries.size());
+        int index = 0;
+        for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+            Assert.assertEquals("file" + index + ".bin", entry.getKey());
+            Assert.assertArrayEquals(files.get(index), entry.getValue());
+            index++;
+        }
+    }
+
+    private Map<String, String> entry(String name, String type, String value) {
+        Map<String, String> entry = new HashMap<>();
+        entry.put("name", name);
+        entry.put(type, value);
+        return entry;
+    }
+
+    private Map<String, byte[]> unzip(byte[] zip) throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip), StandardCharsets.UTF_8)) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                entries.put(entry.getName(), StreamUtils.copyToByteArray(in));
+            }
+        }
+        return entries;
+    }
+}
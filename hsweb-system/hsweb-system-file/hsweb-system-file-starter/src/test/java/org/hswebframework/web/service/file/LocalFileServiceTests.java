@@ -0,0 +1,88 @@
+package org.hswebframework.web.service.file;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.hswebframework.web.commons.entity.param.QueryParamEntity;
+import org.hswebframework.web.entity.file.FileInfoEntity;
+import org.hswebframework.web.tests.SimpleWebApplicationTests;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * @author zhouhao
+ * @since 3.0.8
+ */
+public class LocalFileServiceTests extends SimpleWebApplicationTests {
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private FileInfoService fileInfoService;
+
+    @Test
+    public void testSaveUnbufferedStream() throws Exception {
+        byte[] data = randomData(1024 * 1024 + 17);
+        //模拟未缓冲的multipart流,available始终为0,每次最多读取少量数据
+        InputStream stream = new ByteArrayInputStream(data) {
+            @Override
+            public synchronized int available() {
+                return 0;
+            }
+
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1000));
+            }
+        };
+        FileInfoEntity fileInfo = fileService.saveFile(stream, "unbuffered.bin", "application/octet-stream", null);
+        Assert.assertEquals(data.length, fileInfo.getSize().longValue());
+        Assert.assertEquals(DigestUtils.md5Hex(data), fileInfo.getMd5());
+        Assert.assertEquals(fileInfo.getMd5().substring(0, 2) + "/" + fileInfo.getMd5(), fileInfo.getLocation());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream inputStream = fileService.readFile(fileInfo.getId())) {
+            StreamUtils.copy(inputStream, out);
+        }
+        Assert.assertArrayEquals(data, out.toByteArray());
+    }
+
+    @Test
+    public void testConcurrentSaveSameFile() throws Exception {
+        byte[] data = randomData(256 * 1024);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch latch = new CountDownLatch(1);
+            List<Future<FileInfoEntity>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    latch.await();
+                    return fileService.saveFile(new ByteArrayInputStream(data), "same.bin", null, null);
+                }));
+            }
+            latch.countDown();
+            Set<String> ids = new HashSet<>();
+            for (Future<FileInfoEntity> future : futures) {
+                ids.add(future.get(30, TimeUnit.SECONDS).getId());
+            }
+            Assert.assertEquals(1, ids.size());
+            Assert.assertEquals(1, fileInfoService.count(QueryParamEntity.single(FileInfoEntity.md5, DigestUtils.md5Hex(data))));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private byte[] randomData(int size) {
+        byte[] data = new byte[size];
+        new Random().nextBytes(data);
+        return data;
+    }
+}
@@ -4,8 +4,6 @@ import com.alibaba.fastjson.JSON;
 import io.swagger.annotations.*;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.fileupload.ParameterParser;
-import org.hswebframework.expands.compress.Compress;
-import org.hswebframework.expands.compress.zip.ZIPWriter;
 import org.hswebframework.utils.StringUtils;
 import org.hswebframework.web.BusinessException;
 import org.hswebframework.web.NotFoundException;
@@ -14,30 +12,39 @@ import org.hswebframework.web.authorization.Authentication;
 import org.hswebframework.web.authorization.annotation.Authorize;
 import org.hswebframework.web.commons.entity.DataStatus;
 import org.hswebframework.web.controller.message.ResponseMessage;
+import org.hswebframework.web.entity.file.FileChunkUpload;
 import org.hswebframework.web.entity.file.FileInfoEntity;
 import org.hswebframework.web.logging.AccessLogger;
+import org.hswebframework.web.service.file.FileChunkService;
 import org.hswebframework.web.service.file.FileInfoService;
 import org.hswebframework.web.service.file.FileService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.activation.MimetypesFileTypeMap;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executor;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -62,8 +69,16 @@ public class FileController {
 
     private FileInfoService fileInfoService;
 
+    private FileChunkService fileChunkService;
+
+    //构建zip文件时预读下一个文件的线程池
+    private Executor zipReadAheadExecutor;
+
     private Logger logger = LoggerFactory.getLogger(this.getClass());
 
+    //一次请求最多支持的分段数量,超过时返回完整文件
+    private static final int MAX_RANGES = 32;
+
     private static final Pattern fileNameKeyWordPattern = Pattern.compile("(\\\\)|(/)|(:)(|)|(\\?)|(>)|(<)|(\")");
 
     @Autowired
@@ -76,6 +91,17 @@ public class FileController {
         this.fileInfoService = fileInfoService;
     }
 
+    @Autowired(required = false)
+    public void setFileChunkService(FileChunkService fileChunkService) {
+        this.fileChunkService = fileChunkService;
+    }
+
+    @Autowired(required = false)
+    @Qualifier("zipReadAheadExecutor")
+    public void setZipReadAheadExecutor(Executor zipReadAheadExecutor) {
+        this.zipReadAheadExecutor = zipReadAheadExecutor;
+    }
+
     /**
      * 构建并下载zip文件.仅支持POST请求
      *
@@ -95,24 +121,29 @@ public class FileController {
                                     "{\"name\":\"base64File.text\",\"base64\":\"aGVsbG8=\"}" +
                                     "]") @RequestParam("data") String dataStr,
                             HttpServletResponse response) throws IOException {
-        response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
-
-        response.setHeader("Content-disposition", "attachment;filename=" + URLEncoder.encode(name, "utf-8"));
-        ZIPWriter writer = Compress.zip();
+        ZipStreamWriter writer = new ZipStreamWriter(zipReadAheadExecutor);
         List<Map<String, String>> data = (List) JSON.parseArray(dataStr, Map.class);
-        data.forEach(map -> {
+        for (Map<String, String> map : data) {
             String entryName = map.get("name");
             String text = map.get("text");
             String file = map.get("file");
             String fileBase64 = map.get("base64");
             if (text != null) {
-                writer.addTextFile(map.get("name"), text);
+                writer.addTextFile(entryName, text);
             } else if (file != null) {
-                writer.addFile(entryName, fileService.readFile(file));
+                //开始写出前在当前线程中查询文件信息,写出过程中出错时已经无法响应错误信息,
+                //预读线程中只根据文件信息打开文件,不再查询数据库
+                FileInfoEntity fileInfo = fileInfoService.selectByIdOrMd5(file);
+                if (fileInfo == null || !DataStatus.STATUS_ENABLED.equals(fileInfo.getStatus())) {
+                    throw new NotFoundException("文件不存在:" + file);
+                }
+                writer.addFile(entryName, () -> fileService.readFile(fileInfo));
             } else if (fileBase64 != null) {
-                writer.addFile(entryName, new ByteArrayInputStream(Base64.decodeBase64(fileBase64)));
+                writer.addFile(entryName, Base64.decodeBase64(fileBase64));
             }
-        });
+        }
+        response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setHeader("Content-disposition", "attachment;filename=" + URLEncoder.encode(name, "utf-8"));
         writer.write(response.getOutputStream());
     }
 
@@ -201,25 +232,114 @@ public class FileController {
         }
         //关键字剔除
         name = fileNameKeyWordPattern.matcher(name).replaceAll("");
-        int skip = 0;
         long fSize = fileInfo.getSize();
-        //尝试判断是否为断点下载
-        try {
-            //获取要继续下载的位置
-            String Range = request.getHeader("Range").replace("bytes=", "").replace("-", "");
-            skip = StringUtils.toInt(Range);
-        } catch (Exception ignore) {
+        //使用md5作为ETag,文件未修改时不读取文件
+        String eTag = fileInfo.getMd5() == null ? null : "\"" + fileInfo.getMd5() + "\"";
+        long lastModified = fileInfo.getCreateTime() == null ? -1 : fileInfo.getCreateTime();
+        if (new ServletWebRequest(request, response).checkNotModified(eTag, lastModified)) {
+            return;
         }
-        response.setContentLength((int) fSize);//文件大小
-        response.setContentType(contentType);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
         response.setHeader("Content-disposition", "attachment;filename=" + URLEncoder.encode(name, "utf-8"));
+
+        List<long[]> ranges = getRanges(request, eTag, lastModified, fSize);
+        if (ranges == null) {
+            response.setContentLengthLong(fSize);
+            response.setContentType(contentType);
+            fileService.writeFile(fileInfo, response.getOutputStream(), 0, fSize);
+            return;
+        }
+        if (ranges.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + fSize);
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
         //断点下载
-        if (skip > 0) {
-            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
-            String contentRange = "bytes " + skip + "-" + (fSize - 1) + "/" + fSize;
-            response.setHeader("Content-Range", contentRange);
+        if (ranges.size() == 1) {
+            long[] range = ranges.get(0);
+            response.setContentLengthLong(range[1] - range[0] + 1);
+            response.setContentType(contentType);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + range[0] + "-" + range[1] + "/" + fSize);
+            fileService.writeFile(fileInfo, response.getOutputStream(), range[0], range[1] - range[0] + 1);
+            return;
+        }
+        //多段下载,响应multipart/byteranges
+        String boundary = UUID.randomUUID().toString().replace("-", "");
+        List<byte[]> partHeaders = new ArrayList<>(ranges.size());
+        long contentLength = 0;
+        for (long[] range : ranges) {
+            byte[] partHeader = ("\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": bytes " + range[0] + "-" + range[1] + "/" + fSize + "\r\n\r\n")
+                    .getBytes(StandardCharsets.ISO_8859_1);
+            partHeaders.add(partHeader);
+            contentLength += partHeader.length + range[1] - range[0] + 1;
+        }
+        byte[] end = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.ISO_8859_1);
+        response.setContentLengthLong(contentLength + end.length);
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        OutputStream out = response.getOutputStream();
+        for (int i = 0; i < ranges.size(); i++) {
+            long[] range = ranges.get(i);
+            out.write(partHeaders.get(i));
+            fileService.writeFile(fileInfo, out, range[0], range[1] - range[0] + 1);
+        }
+        out.write(end);
+    }
+
+    /**
+     * 解析Range请求头(RFC 7233)
+     *
+     * @return 未请求分段或者需要返回完整文件时返回null, 所有分段都无法满足时返回空集合,否则返回[开始位置,结束位置]
+     */
+    private List<long[]> getRanges(HttpServletRequest request, String eTag, long lastModified, long fileSize) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (StringUtils.isNullOrEmpty(rangeHeader)) {
+            return null;
+        }
+        //If-Range与当前文件不匹配时返回完整文件
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (!StringUtils.isNullOrEmpty(ifRange)) {
+            if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+                if (!ifRange.equals(eTag)) {
+                    return null;
+                }
+            } else {
+                long ifRangeTime;
+                try {
+                    ifRangeTime = request.getDateHeader(HttpHeaders.IF_RANGE);
+                } catch (IllegalArgumentException e) {
+                    return null;
+                }
+                if (lastModified < 0 || lastModified / 1000 != ifRangeTime / 1000) {
+                    return null;
+                }
+            }
+        }
+        List<HttpRange> httpRanges;
+        try {
+            httpRanges = HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException e) {
+            //格式错误的Range请求头将被忽略
+            return null;
+        }
+        if (httpRanges.isEmpty() || httpRanges.size() > MAX_RANGES) {
+            return null;
+        }
+        List<long[]> ranges = new ArrayList<>(httpRanges.size());
+        for (HttpRange httpRange : httpRanges) {
+            if (fileSize <= 0) {
+                break;
+            }
+            long start = httpRange.getRangeStart(fileSize);
+            long end = httpRange.getRangeEnd(fileSize);
+            if (start >= fileSize || start > end) {
+                continue;
+            }
+            ranges.add(new long[]{start, end});
         }
-        fileService.writeFile(idOrMd5, response.getOutputStream(), skip);
+        return ranges;
     }
 
     /**
@@ -284,6 +404,90 @@ public class FileController {
                         FileInfoEntity.type);
     }
 
+    /**
+     * 初始化分片上传,之后通过{@link #uploadChunk(String, int, String, HttpServletRequest)}上传每个分片,
+     * 全部上传完成后调用{@link #completeChunkUpload(String, String)}合并文件
+     *
+     * @param name      文件名
+     * @param size      文件大小
+     * @param chunkSize 分片大小
+     * @param type      文件类型
+     * @return 分片上传信息
+     * @see FileChunkService
+     */
+    @PostMapping(value = "/chunk")
+    @ApiOperation("初始化分片上传")
+    @Authorize(action = "upload", description = "上传文件")
+    public ResponseMessage<FileChunkUpload> initChunkUpload(@ApiParam("文件名") @RequestParam("name") String name,
+                                                            @ApiParam("文件大小") @RequestParam("size") long size,
+                                                            @ApiParam("分片大小,默认5MB") @RequestParam(value = "chunkSize", defaultValue = "5242880") int chunkSize,
+                                                            @ApiParam("文件类型") @RequestParam(value = "type", required = false) String type) throws IOException {
+        return ResponseMessage.ok(getFileChunkService().init(name, type, size, chunkSize, getCurrentUserId()));
+    }
+
+    /**
+     * 上传分片,请求体为分片的原始数据,不使用multipart,避免分片先缓存到临时文件.
+     * 请求的Content-Type应该为application/octet-stream
+     *
+     * @param uploadId 上传ID
+     * @param index    分片序号,从0开始
+     * @param md5      分片的md5值,用于校验分片
+     * @param request  {@link HttpServletRequest}
+     * @return 上传结果
+     * @throws IOException 读写文件错误
+     */
+    @PutMapping(value = "/chunk/{uploadId}/{index}")
+    @ApiOperation(value = "上传分片", notes = "请求体为分片的原始数据,可以并发上传多个分片")
+    @Authorize(action = "upload", description = "上传文件")
+    public ResponseMessage<Void> uploadChunk(@ApiParam("上传ID") @PathVariable("uploadId") String uploadId,
+                                             @ApiParam("分片序号") @PathVariable("index") int index,
+                                             @ApiParam("分片的md5值") @RequestParam(value = "md5", required = false) String md5,
+                                             @ApiParam(hidden = true) HttpServletRequest request) throws IOException {
+        getFileChunkService().writeChunk(uploadId, index, request.getInputStream(), md5, getCurrentUserId());
+        return ResponseMessage.ok();
+    }
+
+    @GetMapping(value = "/chunk/{uploadId}")
+    @ApiOperation(value = "获取分片上传信息", notes = "响应结果中的missingChunks为还未上传的分片")
+    @Authorize(action = "upload", description = "上传文件")
+    public ResponseMessage<FileChunkUpload> getChunkUpload(@ApiParam("上传ID") @PathVariable("uploadId") String uploadId) {
+        return ResponseMessage.ok(getFileChunkService().getUpload(uploadId, getCurrentUserId()));
+    }
+
+    @PostMapping(value = "/chunk/{uploadId}/complete")
+    @ApiOperation("完成分片上传")
+    @Authorize(action = "upload", description = "上传文件")
+    public ResponseMessage<FileInfoEntity> completeChunkUpload(@ApiParam("上传ID") @PathVariable("uploadId") String uploadId,
+                                                               @ApiParam("整个文件的md5值,用于校验合并后的文件") @RequestParam(value = "md5", required = false) String md5) throws IOException {
+        return ResponseMessage.ok(getFileChunkService().complete(uploadId, md5, getCurrentUserId()))
+                .include(FileInfoEntity.class, FileInfoEntity.id,
+                        FileInfoEntity.name,
+                        FileInfoEntity.md5,
+                        FileInfoEntity.size,
+                        FileInfoEntity.type);
+    }
+
+    @DeleteMapping(value = "/chunk/{uploadId}")
+    @ApiOperation("取消分片上传")
+    @Authorize(action = "upload", description = "上传文件")
+    public ResponseMessage<Void> cancelChunkUpload(@ApiParam("上传ID") @PathVariable("uploadId") String uploadId) throws IOException {
+        getFileChunkService().cancel(uploadId, getCurrentUserId());
+        return ResponseMessage.ok();
+    }
+
+    private String getCurrentUserId() {
+        return Authentication.current()
+                .map(authentication -> authentication.getUser().getId())
+                .orElse(null);
+    }
+
+    private FileChunkService getFileChunkService() {
+        if (fileChunkService == null) {
+            throw new UnsupportedOperationException("不支持分片上传");
+        }
+        return fileChunkService;
+    }
+
     @PostMapping(value = "/upload-static")
     @ApiOperation(value = "上传静态文件", notes = "上传后响应结果的result字段为文件的访问地址")
     @Authorize(action = "static", description = "上传静态文件")
@@ -0,0 +1,205 @@
+package org.hswebframework.web.controller.file;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 流式构建zip文件,每个文件在写出时才读取,直接写出到输出流,不在内存中缓存整个zip文件.
+ * <p>
+ * 指定了{@link Executor}时,写出当前文件时在executor中提前打开下一个文件并读取开头的数据,
+ * 减少文件服务(如远程文件服务)打开文件的等待时间.同一时间只预读一个文件,
+ * 预读使用的2个缓冲区在当前文件和下一个文件之间交替复用,内存占用与文件大小和数量无关.
+ * <p>
+ * 打开文件在executor的线程中执行,{@link StreamOpener}中不应该依赖当前线程的上下文(如切换的数据源),
+ * 文件信息应该在添加文件前查询好.
+ * <p>
+ * 已经压缩过的文件类型(如图片,视频,压缩包)不再压缩,只存储.
+ *
+ * @author zhouhao
+ * @since 3.0.8
+ */
+public class ZipStreamWriter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    //预读下一个文件的数据量
+    private static final int READ_AHEAD_SIZE = 256 * 1024;
+
+    private static final Set<String> COMPRESSED_TYPES = new HashSet<>(Arrays.asList(
+            "zip", "gz", "tgz", "bz2", "xz", "7z", "rar", "jar", "war", "apk",
+            "jpg", "jpeg", "png", "gif", "webp",
+            "mp3", "aac", "ogg", "mp4", "avi", "mkv", "mov", "flv", "webm",
+            "docx", "xlsx", "pptx"));
+
+    /**
+     * 打开文件输入流
+     */
+    public interface StreamOpener {
+        InputStream open() throws IOException;
+    }
+
+    private final List<ZipItem> files = new ArrayList<>();
+
+    private final Executor executor;
+
+    //当前文件和下一个文件交替使用的预读缓冲区
+    private final byte[][] readAheadBuffers = new byte[2][];
+
+    /**
+     * 不预读,在写出文件时才打开文件
+     */
+    public ZipStreamWriter() {
+        this(null);
+    }
+
+    /**
+     * @param executor 预读下一个文件的executor,应该使用有界的线程池,为null时不预读
+     */
+    public ZipStreamWriter(Executor executor) {
+        this.executor = executor;
+    }
+
+    public ZipStreamWriter addTextFile(String name, String text) {
+        return addFile(name, text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public ZipStreamWriter addFile(String name, byte[] data) {
+        return addFile(name, () -> new ByteArrayInputStream(data), false);
+    }
+
+    /**
+     * 添加文件,文件在写出时才会打开
+     *
+     * @param name   文件名
+     * @param opener 打开文件输入流,写出完成后将关闭输入流
+     * @return this
+     */
+    public ZipStreamWriter addFile(String name, StreamOpener opener) {
+        return addFile(name, opener, true);
+    }
+
+    private ZipStreamWriter addFile(String name, StreamOpener opener, boolean readAhead) {
+        files.add(new ZipItem(name, opener, readAhead));
+        return this;
+    }
+
+    /**
+     * 写出zip文件,写出完成后不会关闭输出流
+     *
+     * @param outputStream 输出流
+     * @throws IOException 读写文件错误
+     */
+    public void write(OutputStream outputStream) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(outputStream, StandardCharsets.UTF_8);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        CompletableFuture<InputStream> next = files.isEmpty() ? null : open(files.get(0), 0);
+        try {
+            for (int i = 0; i < files.size(); i++) {
+                ZipItem file = files.get(i);
+                try (InputStream in = join(next)) {
+                    //上一个文件已经写出完成,可以复用它的预读缓冲区
+                    next = i + 1 < files.size() ? open(files.get(i + 1), i + 1) : null;
+                    zip.setLevel(isCompressed(file.name) ? Deflater.NO_COMPRESSION : Deflater.DEFAULT_COMPRESSION);
+                    zip.putNextEntry(new ZipEntry(file.name));
+                    int len;
+                    while ((len = in.read(buffer)) != -1) {
+                        zip.write(buffer, 0, len);
+                    }
+                    zip.closeEntry();
+                }
+            }
+            zip.finish();
+            zip.flush();
+        } finally {
+            //写出失败时关闭已经预读的文件
+            if (next != null) {
+                next.thenAccept(this::closeQuietly);
+            }
+        }
+    }
+
+    private CompletableFuture<InputStream> open(ZipItem file, int index) {
+        if (!file.readAhead || executor == null) {
+            return CompletableFuture.completedFuture(openStream(file));
+        }
+        byte[] head = getReadAheadBuffer(index);
+        return CompletableFuture.supplyAsync(() -> {
+            InputStream inputStream = openStream(file);
+            try {
+                int len = 0;
+                int read;
+                while (len < head.length && (read = inputStream.read(head, len, head.length - len)) != -1) {
+                    len += read;
+                }
+                return new SequenceInputStream(new ByteArrayInputStream(head, 0, len), inputStream);
+            } catch (IOException e) {
+                closeQuietly(inputStream);
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+    }
+
+    private byte[] getReadAheadBuffer(int index) {
+        int slot = index % readAheadBuffers.length;
+        if (readAheadBuffers[slot] == null) {
+            readAheadBuffers[slot] = new byte[READ_AHEAD_SIZE];
+        }
+        return readAheadBuffers[slot];
+    }
+
+    private InputStream openStream(ZipItem file) {
+        try {
+            return file.opener.open();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private InputStream join(CompletableFuture<InputStream> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+    }
+
+    private void closeQuietly(InputStream inputStream) {
+        try {
+            inputStream.close();
+        } catch (IOException ignore) {
+        }
+    }
+
+    static boolean isCompressed(String name) {
+        int index = name.lastIndexOf('.');
+        return index >= 0 && COMPRESSED_TYPES.contains(name.substring(index + 1).toLowerCase());
+    }
+
+    private static class ZipItem {
+        private final String name;
+
+        private final StreamOpener opener;
+
+        private final boolean readAhead;
+
+        ZipItem(String name, StreamOpener opener, boolean readAhead) {
+            this.name = name;
+            this.opener = opener;
+            this.readAhead = readAhead;
+        }
+    }
+}